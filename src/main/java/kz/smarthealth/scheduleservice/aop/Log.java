@@ -8,4 +8,9 @@ import java.lang.annotation.Target;
 @Target(ElementType.METHOD)
 @Retention(RetentionPolicy.RUNTIME)
 public @interface Log {
+
+    /**
+     * Share of successful calls that are logged, from 0.0 (none) to 1.0 (all). Failed calls are always logged.
+     */
+    double sampleRate() default 1.0;
 }
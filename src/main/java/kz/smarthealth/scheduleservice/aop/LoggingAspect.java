@@ -1,30 +1,62 @@
 package kz.smarthealth.scheduleservice.aop;
 
 import lombok.extern.slf4j.Slf4j;
-import org.aspectj.lang.JoinPoint;
-import org.aspectj.lang.annotation.AfterThrowing;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
-import org.aspectj.lang.annotation.Before;
-import org.aspectj.lang.annotation.Pointcut;
 import org.springframework.stereotype.Component;
 
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Logs calls of methods annotated with {@link Log} as one event with arguments and duration.
+ * Arguments are rendered only when the event is actually written, sampled out calls cost a random number.
+ */
 @Aspect
 @Component
 @Slf4j
 public class LoggingAspect {
 
-    @Pointcut("@annotation(Log)")
-    public void logPointcut() {
+    @Around("@annotation(logAnnotation)")
+    public Object aroundAdvice(ProceedingJoinPoint joinPoint, Log logAnnotation) throws Throwable {
+        long startTime = System.nanoTime();
+
+        try {
+            Object result = joinPoint.proceed();
+
+            if (log.isInfoEnabled() && isSampled(logAnnotation.sampleRate())) {
+                log.info("Request handled, method: {}, durationMs: {}, args: {}",
+                        joinPoint.getSignature().toShortString(), elapsedMillis(startTime),
+                        new LazyArgs(joinPoint.getArgs()));
+            }
+
+            return result;
+        } catch (Throwable exception) {
+            log.error("Exception thrown in {}, durationMs: {}, args: {}, exception message: {}",
+                    joinPoint.getSignature().toShortString(), elapsedMillis(startTime),
+                    new LazyArgs(joinPoint.getArgs()), exception.getMessage());
+            throw exception;
+        }
     }
 
-    @Before("logPointcut() && args(obj)")
-    public void beforeAdvice(JoinPoint joinPoint, Object obj) {
-        log.info("Incoming request from {}, args: {}", joinPoint.getSignature().toShortString(), obj);
+    private static boolean isSampled(double sampleRate) {
+        return sampleRate >= 1.0 || sampleRate > 0.0 && ThreadLocalRandom.current().nextDouble() < sampleRate;
     }
 
-    @AfterThrowing(value = "logPointcut()", throwing = "exception")
-    public void afterThrowingAdvice(JoinPoint joinPoint, Throwable exception) {
-        log.error("Exception thrown in {}, exception message: {}", joinPoint.getSignature().toShortString(),
-                exception.getMessage());
+    private static long elapsedMillis(long startTime) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
+    }
+
+    /**
+     * Defers {@code toString()} of method arguments until the logger formats the message
+     */
+    private record LazyArgs(Object[] args) {
+
+        @Override
+        public String toString() {
+            return args.length == 1 ? String.valueOf(args[0]) : Arrays.toString(args);
+        }
     }
 }
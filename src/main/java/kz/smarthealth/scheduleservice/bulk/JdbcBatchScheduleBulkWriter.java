@@ -0,0 +1,70 @@
+package kz.smarthealth.scheduleservice.bulk;
+
+import kz.smarthealth.scheduleservice.model.entity.ScheduleEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import static kz.smarthealth.scheduleservice.util.AppConstants.UTC_ZONE_ID;
+
+/**
+ * Writes schedules with batched JDBC inserts guarded by "not exists", used for databases other than PostgreSQL
+ */
+public class JdbcBatchScheduleBulkWriter implements ScheduleBulkWriter {
+
+    private static final String INSERT_SQL = "insert into schedules " +
+            "(id, user_id, start_date_time, end_date_time, is_reserved, created_at) " +
+            "select ?, ?, ?, ?, ?, ? from (values (1)) v where not exists (select 1 from schedules s " +
+            "where s.user_id = ? and (s.start_date_time = ? or s.end_date_time = ?))";
+    private static final String PLAIN_INSERT_SQL = "insert into schedules " +
+            "(id, user_id, start_date_time, end_date_time, is_reserved, created_at) values (?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int chunkSize;
+
+    public JdbcBatchScheduleBulkWriter(JdbcTemplate jdbcTemplate, int chunkSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.chunkSize = chunkSize;
+    }
+
+    @Override
+    public int insertSkippingConflicts(List<ScheduleImportRow> rows) {
+        LocalDateTime createdAt = LocalDateTime.now(UTC_ZONE_ID);
+        int[][] updateCounts = jdbcTemplate.batchUpdate(INSERT_SQL, rows, rows.size(), (preparedStatement, row) -> {
+            preparedStatement.setObject(1, UUID.randomUUID());
+            preparedStatement.setObject(2, row.userId());
+            preparedStatement.setObject(3, row.startDateTime());
+            preparedStatement.setObject(4, row.endDateTime());
+            preparedStatement.setBoolean(5, row.isReserved());
+            preparedStatement.setObject(6, createdAt);
+            preparedStatement.setObject(7, row.userId());
+            preparedStatement.setObject(8, row.startDateTime());
+            preparedStatement.setObject(9, row.endDateTime());
+        });
+
+        return Arrays.stream(updateCounts)
+                .flatMapToInt(Arrays::stream)
+                .map(updateCount -> Math.max(updateCount, 0))
+                .sum();
+    }
+
+    @Override
+    public void insert(List<ScheduleEntity> scheduleEntities) {
+        jdbcTemplate.batchUpdate(PLAIN_INSERT_SQL, scheduleEntities, chunkSize, (preparedStatement, schedule) -> {
+            preparedStatement.setObject(1, schedule.getId());
+            preparedStatement.setObject(2, schedule.getUserId());
+            preparedStatement.setObject(3, schedule.getStartDateTime());
+            preparedStatement.setObject(4, schedule.getEndDateTime());
+            preparedStatement.setBoolean(5, schedule.getIsReserved());
+            preparedStatement.setObject(6, schedule.getCreatedAt());
+        });
+    }
+
+    @Override
+    public int getChunkSize() {
+        return chunkSize;
+    }
+}
@@ -0,0 +1,131 @@
+package kz.smarthealth.scheduleservice.bulk;
+
+import kz.smarthealth.scheduleservice.model.entity.ScheduleEntity;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+
+import static kz.smarthealth.scheduleservice.util.AppConstants.UTC_ZONE_ID;
+
+/**
+ * Writes schedules through PostgreSQL COPY.
+ * - Rows that may conflict are copied into temporary table of the session and moved into schedules with one
+ * "insert ... on conflict do nothing".
+ * - Rows known not to conflict are copied straight into schedules with one COPY, CSV is built and sent chunk by
+ * chunk, so memory does not grow with the number of rows.
+ */
+public class PostgresCopyScheduleBulkWriter implements ScheduleBulkWriter {
+
+    private static final String CREATE_STAGING_TABLE_SQL = "create temp table if not exists schedules_import " +
+            "(like schedules) on commit delete rows";
+    private static final String COPY_SQL = "copy schedules_import " +
+            "(id, user_id, start_date_time, end_date_time, is_reserved, created_at) from stdin with (format csv)";
+    private static final String INSERT_SQL = "insert into schedules " +
+            "(id, user_id, start_date_time, end_date_time, is_reserved, created_at) " +
+            "select id, user_id, start_date_time, end_date_time, is_reserved, created_at from schedules_import " +
+            "order by user_id, start_date_time on conflict do nothing";
+    private static final String COPY_SCHEDULES_SQL = "copy schedules " +
+            "(id, user_id, start_date_time, end_date_time, is_reserved, created_at) from stdin with (format csv)";
+    private static final int CSV_ROW_CAPACITY = 128;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int chunkSize;
+
+    public PostgresCopyScheduleBulkWriter(JdbcTemplate jdbcTemplate, int chunkSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.chunkSize = chunkSize;
+    }
+
+    @Override
+    public int insertSkippingConflicts(List<ScheduleImportRow> rows) {
+        if (rows.isEmpty()) {
+            return 0;
+        }
+
+        String csv = toCsv(rows);
+
+        return Objects.requireNonNull(jdbcTemplate.execute((ConnectionCallback<Integer>) connection -> {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute(CREATE_STAGING_TABLE_SQL);
+                connection.unwrap(PGConnection.class).getCopyAPI().copyIn(COPY_SQL, new StringReader(csv));
+
+                return statement.executeUpdate(INSERT_SQL);
+            } catch (IOException e) {
+                throw new SQLException("COPY into schedules_import failed", e);
+            }
+        }));
+    }
+
+    @Override
+    public void insert(List<ScheduleEntity> scheduleEntities) {
+        if (scheduleEntities.isEmpty()) {
+            return;
+        }
+
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            CopyIn copyIn = connection.unwrap(PGConnection.class).getCopyAPI().copyIn(COPY_SCHEDULES_SQL);
+            StringBuilder csv = new StringBuilder(chunkSize * CSV_ROW_CAPACITY);
+
+            try {
+                for (int i = 0; i < scheduleEntities.size(); i += chunkSize) {
+                    csv.setLength(0);
+
+                    for (ScheduleEntity schedule : scheduleEntities.subList(i,
+                            Math.min(i + chunkSize, scheduleEntities.size()))) {
+                        appendCsvRow(csv, schedule.getId(), schedule.getUserId(), schedule.getStartDateTime(),
+                                schedule.getEndDateTime(), schedule.getIsReserved(), schedule.getCreatedAt());
+                    }
+
+                    byte[] bytes = csv.toString().getBytes(StandardCharsets.UTF_8);
+                    copyIn.writeToCopy(bytes, 0, bytes.length);
+                }
+
+                copyIn.endCopy();
+            } finally {
+                if (copyIn.isActive()) {
+                    copyIn.cancelCopy();
+                }
+            }
+
+            return null;
+        });
+    }
+
+    private static String toCsv(List<ScheduleImportRow> rows) {
+        LocalDateTime createdAt = LocalDateTime.now(UTC_ZONE_ID);
+        StringBuilder csv = new StringBuilder(rows.size() * CSV_ROW_CAPACITY);
+
+        for (ScheduleImportRow row : rows) {
+            appendCsvRow(csv, UUID.randomUUID(), row.userId(), row.startDateTime(), row.endDateTime(),
+                    row.isReserved(), createdAt);
+        }
+
+        return csv.toString();
+    }
+
+    private static void appendCsvRow(StringBuilder csv, UUID id, UUID userId, LocalDateTime startDateTime,
+                                     LocalDateTime endDateTime, boolean isReserved, LocalDateTime createdAt) {
+        csv.append(id).append(',')
+                .append(userId).append(',')
+                .append(startDateTime).append(',')
+                .append(endDateTime).append(',')
+                .append(isReserved).append(',')
+                .append(createdAt).append('\n');
+    }
+
+    @Override
+    public int getChunkSize() {
+        return chunkSize;
+    }
+}
@@ -0,0 +1,33 @@
+package kz.smarthealth.scheduleservice.bulk;
+
+import kz.smarthealth.scheduleservice.model.entity.ScheduleEntity;
+
+import java.util.List;
+
+/**
+ * Inserts many schedules at once without persistence context, must be called inside transaction
+ */
+public interface ScheduleBulkWriter {
+
+    /**
+     * Inserts schedules with generated ids, rows conflicting with existing schedules or with each other by
+     * (user_id, start_date_time) or (user_id, end_date_time) are skipped
+     *
+     * @param rows schedules to insert
+     * @return number of inserted schedules
+     */
+    int insertSkippingConflicts(List<ScheduleImportRow> rows);
+
+    /**
+     * Inserts schedules as they are in chunks of fixed size, ids and creation times must be set
+     *
+     * @param scheduleEntities schedules not conflicting with existing ones
+     */
+    void insert(List<ScheduleEntity> scheduleEntities);
+
+    /**
+     * @return number of schedules written in one statement or one COPY, callers passing schedules in parts should
+     * pass parts of this size
+     */
+    int getChunkSize();
+}
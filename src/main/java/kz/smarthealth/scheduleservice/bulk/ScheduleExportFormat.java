@@ -0,0 +1,28 @@
+package kz.smarthealth.scheduleservice.bulk;
+
+import org.springframework.http.MediaType;
+
+/**
+ * Supported formats of schedules export
+ */
+public enum ScheduleExportFormat {
+
+    /**
+     * Comma separated values with header line, one line per schedule
+     */
+    CSV(MediaType.valueOf("text/csv")),
+    /**
+     * iCalendar (RFC 5545), VEVENT per reserved schedule or VFREEBUSY per doctor
+     */
+    ICALENDAR(MediaType.valueOf("text/calendar"));
+
+    private final MediaType mediaType;
+
+    ScheduleExportFormat(MediaType mediaType) {
+        this.mediaType = mediaType;
+    }
+
+    public MediaType getMediaType() {
+        return mediaType;
+    }
+}
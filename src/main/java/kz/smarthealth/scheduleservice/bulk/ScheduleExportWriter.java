@@ -0,0 +1,99 @@
+package kz.smarthealth.scheduleservice.bulk;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.UUID;
+
+/**
+ * Writes schedules of export one by one as they are read from database.
+ * Schedules must come ordered by doctor and start. Not thread safe.
+ */
+public class ScheduleExportWriter {
+
+    private static final String CRLF = "\r\n";
+    private static final DateTimeFormatter CSV_DATE_TIME_FORMATTER =
+            DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final DateTimeFormatter ICALENDAR_DATE_TIME_FORMATTER =
+            DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'");
+
+    private final Writer writer;
+    private final ScheduleExportFormat format;
+    private final boolean freeBusy;
+    private final String dtStamp;
+    private UUID currentUserId;
+
+    /**
+     * @param writer   output
+     * @param format   output format
+     * @param freeBusy for iCalendar, whether to write VFREEBUSY per doctor with free and busy periods instead of
+     *                 VEVENT per reserved schedule
+     * @param now      UTC time of the export
+     */
+    public ScheduleExportWriter(Writer writer, ScheduleExportFormat format, boolean freeBusy, LocalDateTime now) {
+        this.writer = writer;
+        this.format = format;
+        this.freeBusy = freeBusy;
+        this.dtStamp = ICALENDAR_DATE_TIME_FORMATTER.format(now);
+    }
+
+    public void writeHeader() throws IOException {
+        if (format == ScheduleExportFormat.CSV) {
+            writer.write("id,user_id,start_date_time,end_date_time,is_reserved,created_at" + CRLF);
+        } else {
+            writer.write("BEGIN:VCALENDAR" + CRLF
+                    + "VERSION:2.0" + CRLF
+                    + "PRODID:-//SmartHealth//schedule-service//EN" + CRLF
+                    + "CALSCALE:GREGORIAN" + CRLF);
+        }
+    }
+
+    public void writeSchedule(UUID id, UUID userId, LocalDateTime startDateTime, LocalDateTime endDateTime,
+                              boolean isReserved, LocalDateTime createdAt) throws IOException {
+        if (format == ScheduleExportFormat.CSV) {
+            writer.write(id + "," + userId + "," + CSV_DATE_TIME_FORMATTER.format(startDateTime) + ","
+                    + CSV_DATE_TIME_FORMATTER.format(endDateTime) + "," + isReserved + ","
+                    + CSV_DATE_TIME_FORMATTER.format(createdAt) + CRLF);
+        } else if (freeBusy) {
+            if (!userId.equals(currentUserId)) {
+                closeFreeBusy();
+                currentUserId = userId;
+                writer.write("BEGIN:VFREEBUSY" + CRLF
+                        + "UID:" + userId + "-freebusy@schedule-service" + CRLF
+                        + "DTSTAMP:" + dtStamp + CRLF
+                        + "ORGANIZER:urn:uuid:" + userId + CRLF);
+            }
+
+            writer.write("FREEBUSY;FBTYPE=" + (isReserved ? "BUSY" : "FREE") + ":"
+                    + ICALENDAR_DATE_TIME_FORMATTER.format(startDateTime) + "/"
+                    + ICALENDAR_DATE_TIME_FORMATTER.format(endDateTime) + CRLF);
+        } else if (isReserved) {
+            writer.write("BEGIN:VEVENT" + CRLF
+                    + "UID:" + id + "@schedule-service" + CRLF
+                    + "DTSTAMP:" + ICALENDAR_DATE_TIME_FORMATTER.format(createdAt) + CRLF
+                    + "DTSTART:" + ICALENDAR_DATE_TIME_FORMATTER.format(startDateTime) + CRLF
+                    + "DTEND:" + ICALENDAR_DATE_TIME_FORMATTER.format(endDateTime) + CRLF
+                    + "SUMMARY:Reserved" + CRLF
+                    + "ORGANIZER:urn:uuid:" + userId + CRLF
+                    + "TRANSP:OPAQUE" + CRLF
+                    + "END:VEVENT" + CRLF);
+        }
+    }
+
+    public void writeFooter() throws IOException {
+        if (format == ScheduleExportFormat.ICALENDAR) {
+            closeFreeBusy();
+            writer.write("END:VCALENDAR" + CRLF);
+        }
+
+        writer.flush();
+    }
+
+    private void closeFreeBusy() throws IOException {
+        if (currentUserId != null) {
+            writer.write("END:VFREEBUSY" + CRLF);
+            currentUserId = null;
+        }
+    }
+}
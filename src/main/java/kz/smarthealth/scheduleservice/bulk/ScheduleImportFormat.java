@@ -0,0 +1,37 @@
+package kz.smarthealth.scheduleservice.bulk;
+
+import org.springframework.http.MediaType;
+
+import java.util.Arrays;
+import java.util.Optional;
+
+/**
+ * Supported formats of schedules import
+ */
+public enum ScheduleImportFormat {
+
+    /**
+     * Comma separated values with header line, columns: user_id, start_date_time, end_date_time, is_reserved
+     */
+    CSV(MediaType.valueOf("text/csv")),
+    /**
+     * One JSON object per line with fields userId, startDateTime, endDateTime, isReserved
+     */
+    NDJSON(MediaType.valueOf("application/x-ndjson"));
+
+    private final MediaType mediaType;
+
+    ScheduleImportFormat(MediaType mediaType) {
+        this.mediaType = mediaType;
+    }
+
+    public MediaType getMediaType() {
+        return mediaType;
+    }
+
+    public static Optional<ScheduleImportFormat> of(MediaType mediaType) {
+        return Arrays.stream(values())
+                .filter(format -> format.mediaType.isCompatibleWith(mediaType))
+                .findFirst();
+    }
+}
@@ -0,0 +1,146 @@
+package kz.smarthealth.scheduleservice.bulk;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import kz.smarthealth.scheduleservice.util.AppConstants;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeFormatterBuilder;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Parses and validates lines of schedules import one by one, so input of any size is read with constant memory.
+ * Rows are validated with the rules of schedules creation that apply to a single slot: end must be after start and
+ * duration must be one of {@link AppConstants#VALID_INTERVALS} minutes.
+ * Not thread safe, one parser reads one input.
+ */
+public class ScheduleImportParser {
+
+    static final List<String> CSV_COLUMNS = List.of("user_id", "start_date_time", "end_date_time", "is_reserved");
+
+    private static final DateTimeFormatter DATE_TIME_FORMATTER = new DateTimeFormatterBuilder()
+            .appendPattern("yyyy-MM-dd")
+            .optionalStart().appendLiteral('T').optionalEnd()
+            .optionalStart().appendLiteral(' ').optionalEnd()
+            .appendPattern("HH:mm[:ss]")
+            .toFormatter();
+
+    private final ScheduleImportFormat format;
+    private final ObjectMapper objectMapper;
+    private int[] csvColumnIndexes;
+
+    public ScheduleImportParser(ScheduleImportFormat format, ObjectMapper objectMapper) {
+        this.format = format;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Parses one line of input
+     *
+     * @param line line without line separator
+     * @return parsed row, null if the line is blank or header
+     * @throws IllegalArgumentException if the line is invalid, message describes the problem
+     */
+    public ScheduleImportRow parse(String line) {
+        if (line.isBlank()) {
+            return null;
+        }
+        if (format == ScheduleImportFormat.CSV && csvColumnIndexes == null) {
+            csvColumnIndexes = parseCsvHeader(line);
+
+            return null;
+        }
+
+        ScheduleImportRow row = format == ScheduleImportFormat.CSV ? parseCsv(line) : parseNdjson(line);
+        validate(row);
+
+        return row;
+    }
+
+    private static int[] parseCsvHeader(String line) {
+        String[] columns = line.split(",", -1);
+        int[] columnIndexes = new int[CSV_COLUMNS.size()];
+
+        for (int i = 0; i < CSV_COLUMNS.size(); i++) {
+            columnIndexes[i] = -1;
+
+            for (int j = 0; j < columns.length; j++) {
+                if (CSV_COLUMNS.get(i).equalsIgnoreCase(unquote(columns[j]))) {
+                    columnIndexes[i] = j;
+                }
+            }
+            if (columnIndexes[i] < 0) {
+                throw new IllegalArgumentException("Header must contain columns " + CSV_COLUMNS);
+            }
+        }
+
+        return columnIndexes;
+    }
+
+    private ScheduleImportRow parseCsv(String line) {
+        String[] values = line.split(",", -1);
+
+        for (int columnIndex : csvColumnIndexes) {
+            if (columnIndex >= values.length) {
+                throw new IllegalArgumentException("Invalid number of columns");
+            }
+        }
+
+        return toRow(unquote(values[csvColumnIndexes[0]]), unquote(values[csvColumnIndexes[1]]),
+                unquote(values[csvColumnIndexes[2]]), unquote(values[csvColumnIndexes[3]]));
+    }
+
+    private ScheduleImportRow parseNdjson(String line) {
+        JsonNode node;
+
+        try {
+            node = objectMapper.readTree(line);
+        } catch (Exception e) {
+            throw new IllegalArgumentException("Invalid JSON");
+        }
+
+        return toRow(node.path("userId").asText(null), node.path("startDateTime").asText(null),
+                node.path("endDateTime").asText(null), node.path("isReserved").asText("false"));
+    }
+
+    private static ScheduleImportRow toRow(String userId, String startDateTime, String endDateTime,
+                                           String isReserved) {
+        if (userId == null || startDateTime == null || endDateTime == null) {
+            throw new IllegalArgumentException("Missing user id, start date time or end date time");
+        }
+
+        try {
+            return new ScheduleImportRow(UUID.fromString(userId),
+                    LocalDateTime.parse(startDateTime, DATE_TIME_FORMATTER),
+                    LocalDateTime.parse(endDateTime, DATE_TIME_FORMATTER),
+                    Boolean.parseBoolean(isReserved));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid user id or date time format");
+        }
+    }
+
+    private static void validate(ScheduleImportRow row) {
+        if (!row.endDateTime().isAfter(row.startDateTime())) {
+            throw new IllegalArgumentException("Invalid end date time");
+        }
+
+        Duration duration = Duration.between(row.startDateTime(), row.endDateTime());
+
+        if (duration.toSecondsPart() != 0 || !AppConstants.VALID_INTERVALS.contains((int) duration.toMinutes())) {
+            throw new IllegalArgumentException("Invalid interval");
+        }
+    }
+
+    private static String unquote(String value) {
+        String trimmedValue = value.trim();
+
+        if (trimmedValue.length() >= 2 && trimmedValue.startsWith("\"") && trimmedValue.endsWith("\"")) {
+            return trimmedValue.substring(1, trimmedValue.length() - 1);
+        }
+
+        return trimmedValue;
+    }
+}
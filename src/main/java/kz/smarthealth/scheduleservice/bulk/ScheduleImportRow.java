@@ -0,0 +1,11 @@
+package kz.smarthealth.scheduleservice.bulk;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Parsed and validated row of schedules import, times are in UTC
+ */
+public record ScheduleImportRow(UUID userId, LocalDateTime startDateTime, LocalDateTime endDateTime,
+                                boolean isReserved) {
+}
@@ -0,0 +1,299 @@
+package kz.smarthealth.scheduleservice.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import kz.smarthealth.scheduleservice.notification.ScheduleChangeHub;
+import kz.smarthealth.scheduleservice.notification.ScheduleChangedEvent;
+import kz.smarthealth.scheduleservice.sharding.ShardDataSources;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps {@link CalendarStore} and {@link ReservedIntervalIndex} of all replicas fresh through PostgreSQL LISTEN/NOTIFY.
+ * - Doctors changed in a transaction, taken from {@link ScheduleChangedEvent}, are sent with NOTIFY right before
+ * commit, PostgreSQL delivers the notification only if the transaction commits.
+ * - Every replica listens on a dedicated connection per shard and evicts entries of notified doctors. Notifications
+ * arriving within the coalescing window are applied together, a doctor is evicted once per window.
+ * - Subscribers of notified doctors on this replica get {@link ScheduleChangeHub#resync(UUID)}, as the change itself
+ * is published only on the replica that made it.
+ * - Notifications of this replica are ignored, writers evict their own entries. After lost listening connection all
+ * entries are dropped, as notifications could be missed meanwhile.
+ * Disabled on databases other than PostgreSQL, where caches rely on time to live.
+ */
+@Slf4j
+@Component
+public class CacheInvalidationBus {
+
+    private static final String CHANNEL = "schedule_invalidation";
+    private static final String NOTIFY_SQL = "select pg_notify(?, ?)";
+    private static final String LISTEN_SQL = "LISTEN " + CHANNEL;
+    private static final String UNLISTEN_SQL = "UNLISTEN *";
+    private static final String POSTGRESQL = "PostgreSQL";
+    private static final int POLL_TIMEOUT_MILLIS = 1000;
+
+    private final DataSource dataSource;
+    private final ShardDataSources shardDataSources;
+    private final JdbcTemplate jdbcTemplate;
+    private final CalendarStore calendarStore;
+    private final ReservedIntervalIndex reservedIntervalIndex;
+    private final ScheduleChangeHub scheduleChangeHub;
+    private final boolean enabled;
+    private final Duration coalescingWindow;
+    private final Duration reconnectDelay;
+    private final String replicaId = UUID.randomUUID().toString().substring(0, 8);
+    private final Object transactionResourceKey = new Object();
+    private final List<Thread> listenerThreads = new ArrayList<>();
+    private final Timer lagTimer;
+    private final Counter receivedCounter;
+    private final Counter evictedCounter;
+    private volatile boolean active;
+
+    public CacheInvalidationBus(DataSource dataSource,
+                                ShardDataSources shardDataSources,
+                                JdbcTemplate jdbcTemplate,
+                                CalendarStore calendarStore,
+                                ReservedIntervalIndex reservedIntervalIndex,
+                                ScheduleChangeHub scheduleChangeHub,
+                                MeterRegistry meterRegistry,
+                                @Value("${app.invalidation.enabled:true}") boolean enabled,
+                                @Value("${app.invalidation.coalescing-window:PT0.1S}") Duration coalescingWindow,
+                                @Value("${app.invalidation.reconnect-delay:PT5S}") Duration reconnectDelay) {
+        this.dataSource = dataSource;
+        this.shardDataSources = shardDataSources;
+        this.jdbcTemplate = jdbcTemplate;
+        this.calendarStore = calendarStore;
+        this.reservedIntervalIndex = reservedIntervalIndex;
+        this.scheduleChangeHub = scheduleChangeHub;
+        this.enabled = enabled;
+        this.coalescingWindow = coalescingWindow;
+        this.reconnectDelay = reconnectDelay;
+        this.lagTimer = Timer.builder("schedule.invalidation.lag")
+                .description("Time from commit of a change on another replica to eviction on this one")
+                .register(meterRegistry);
+        this.receivedCounter = Counter.builder("schedule.invalidation.received")
+                .description("Invalidation notifications received from other replicas")
+                .register(meterRegistry);
+        this.evictedCounter = Counter.builder("schedule.invalidation.evicted")
+                .description("Doctors evicted after coalescing of invalidation notifications")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Starts listening on every shard if the database is PostgreSQL
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        if (!enabled || active) {
+            return;
+        }
+
+        try {
+            String databaseProductName = JdbcUtils.extractDatabaseMetaData(dataSource,
+                    DatabaseMetaData::getDatabaseProductName);
+
+            if (!POSTGRESQL.equals(databaseProductName)) {
+                log.info("Cache invalidation bus is disabled on {}", databaseProductName);
+                return;
+            }
+        } catch (MetaDataAccessException e) {
+            log.warn("Cache invalidation bus is disabled, database is not known", e);
+            return;
+        }
+
+        active = true;
+        Map<String, DataSource> listenDataSources = Map.copyOf(shardDataSources.dataSources());
+        listenDataSources.forEach((shard, shardDataSource) -> {
+            Thread thread = new Thread(() -> listen(shard, shardDataSource), "cache-invalidation-" + shard);
+            thread.setDaemon(true);
+            thread.start();
+            listenerThreads.add(thread);
+        });
+        log.info("Cache invalidation bus started, replica: {}, shards: {}", replicaId, listenDataSources.keySet());
+    }
+
+    @PreDestroy
+    public synchronized void stop() {
+        active = false;
+        listenerThreads.forEach(Thread::interrupt);
+        listenerThreads.clear();
+    }
+
+    /**
+     * Collects doctor changed in current transaction, doctors are notified once before commit.
+     * Outside of transaction doctor is notified immediately.
+     *
+     * @param event change
+     */
+    @EventListener
+    public void onScheduleChanged(ScheduleChangedEvent event) {
+        if (!active) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            sendNotifications(List.of(event.userId()));
+            return;
+        }
+
+        @SuppressWarnings("unchecked")
+        Set<UUID> userIds = (Set<UUID>) TransactionSynchronizationManager.getResource(transactionResourceKey);
+
+        if (userIds == null) {
+            Set<UUID> changedUserIds = new LinkedHashSet<>();
+            TransactionSynchronizationManager.bindResource(transactionResourceKey, changedUserIds);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    sendNotifications(changedUserIds);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(transactionResourceKey);
+                }
+            });
+            userIds = changedUserIds;
+        }
+
+        userIds.add(event.userId());
+    }
+
+    private void sendNotifications(Collection<UUID> userIds) {
+        for (InvalidationMessage message : InvalidationMessage.of(replicaId, System.currentTimeMillis(), userIds)) {
+            jdbcTemplate.queryForList(NOTIFY_SQL, CHANNEL, message.toPayload());
+        }
+    }
+
+    private void listen(String shard, DataSource shardDataSource) {
+        boolean reconnecting = false;
+
+        while (active) {
+            try (Connection connection = shardDataSource.getConnection()) {
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                execute(connection, LISTEN_SQL);
+
+                if (reconnecting) {
+                    calendarStore.invalidateAll();
+                    reservedIntervalIndex.invalidateAll();
+                    log.info("Cache invalidation listener reconnected, all entries dropped, shard: {}", shard);
+                }
+
+                try {
+                    receive(pgConnection);
+                } finally {
+                    execute(connection, UNLISTEN_SQL);
+                }
+            } catch (SQLException e) {
+                if (!active) {
+                    return;
+                }
+
+                log.warn("Cache invalidation listener lost connection, shard: {}", shard, e);
+                reconnecting = true;
+
+                try {
+                    Thread.sleep(reconnectDelay.toMillis());
+                } catch (InterruptedException interruptedException) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private void receive(PGConnection pgConnection) throws SQLException {
+        while (active) {
+            PGNotification[] notifications = pgConnection.getNotifications(POLL_TIMEOUT_MILLIS);
+
+            if (notifications == null || notifications.length == 0) {
+                continue;
+            }
+
+            Set<UUID> userIds = new HashSet<>();
+            collect(notifications, userIds);
+            long deadlineMillis = System.currentTimeMillis() + coalescingWindow.toMillis();
+
+            for (long remainingMillis = coalescingWindow.toMillis(); remainingMillis > 0;
+                 remainingMillis = deadlineMillis - System.currentTimeMillis()) {
+                collect(pgConnection.getNotifications((int) remainingMillis), userIds);
+            }
+
+            evict(userIds);
+        }
+    }
+
+    /**
+     * Evicts entries of doctors changed on other replicas and tells subscribers of this replica to fetch their
+     * schedules again
+     *
+     * @param userIds doctors notified within one coalescing window
+     */
+    void evict(Set<UUID> userIds) {
+        userIds.forEach(userId -> {
+            calendarStore.invalidate(userId);
+            reservedIntervalIndex.invalidate(userId);
+            scheduleChangeHub.resync(userId);
+        });
+        evictedCounter.increment(userIds.size());
+    }
+
+    private void collect(PGNotification[] notifications, Set<UUID> userIds) {
+        if (notifications == null) {
+            return;
+        }
+
+        long nowMillis = System.currentTimeMillis();
+
+        for (PGNotification notification : notifications) {
+            InvalidationMessage message;
+
+            try {
+                message = InvalidationMessage.fromPayload(notification.getParameter());
+            } catch (IllegalArgumentException e) {
+                log.warn("Invalid cache invalidation notification ignored: {}", notification.getParameter());
+                continue;
+            }
+
+            if (replicaId.equals(message.senderId())) {
+                continue;
+            }
+
+            receivedCounter.increment();
+            lagTimer.record(Math.max(0, nowMillis - message.version()), TimeUnit.MILLISECONDS);
+            userIds.addAll(message.userIds());
+        }
+    }
+
+    private static void execute(Connection connection, String sql) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+}
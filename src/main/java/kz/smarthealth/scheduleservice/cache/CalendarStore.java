@@ -0,0 +1,138 @@
+package kz.smarthealth.scheduleservice.cache;
+
+import kz.smarthealth.scheduleservice.model.dto.ScheduleDTO;
+import kz.smarthealth.scheduleservice.model.dto.ScheduleReadResultDTO;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static kz.smarthealth.scheduleservice.util.AppConstants.UTC_ZONE_ID;
+
+/**
+ * Compact in-memory store of schedules of recently requested doctors, see {@link DoctorCalendar}.
+ * - Calendar is served only if requested range lies inside loaded range and calendar is younger than time to live.
+ * - Writes of a doctor must call {@link #invalidate(UUID)}, inside transaction calendar is dropped again after
+ * commit, so calendar loaded by concurrent reader before commit is not kept.
+ * - Expired calendars stay until evicted, they are served as stale while database is not available.
+ */
+@Component
+public class CalendarStore {
+
+    private final Duration ttl;
+    private final int maxDoctors;
+    private final Map<UUID, DoctorCalendar> doctorCalendarMap = new ConcurrentHashMap<>();
+
+    public CalendarStore(@Value("${app.cache.calendar.ttl:PT5M}") Duration ttl,
+                         @Value("${app.cache.calendar.max-doctors:2000}") int maxDoctors) {
+        this.ttl = ttl;
+        this.maxDoctors = maxDoctors;
+    }
+
+    /**
+     * Finds stored schedules of a doctor, see {@link DoctorCalendar#findSchedules(LocalDateTime, LocalDateTime)}
+     *
+     * @param userId        doctor id
+     * @param startDateTime start of the range in UTC
+     * @param endDateTime   end of the range in UTC
+     * @return schedules ordered by start, empty if the range is not stored
+     */
+    public Optional<List<ScheduleDTO>> findSchedules(UUID userId, LocalDateTime startDateTime,
+                                                     LocalDateTime endDateTime) {
+        DoctorCalendar doctorCalendar = doctorCalendarMap.get(userId);
+
+        if (doctorCalendar == null || startDateTime.isBefore(doctorCalendar.getLoadedFrom())
+                || endDateTime.isAfter(doctorCalendar.getLoadedTo())
+                || doctorCalendar.getLoadedAt().plus(ttl).isBefore(LocalDateTime.now(UTC_ZONE_ID))) {
+            return Optional.empty();
+        }
+
+        return Optional.of(doctorCalendar.findSchedules(startDateTime, endDateTime));
+    }
+
+    /**
+     * Finds stored schedules of a doctor regardless of their age, only the stored part of the range is returned
+     *
+     * @param userId        doctor id
+     * @param startDateTime start of the range in UTC
+     * @param endDateTime   end of the range in UTC
+     * @return stale schedules ordered by start with their load time, empty if the doctor is not stored
+     */
+    public Optional<ScheduleReadResultDTO> findStaleSchedules(UUID userId, LocalDateTime startDateTime,
+                                                              LocalDateTime endDateTime) {
+        DoctorCalendar doctorCalendar = doctorCalendarMap.get(userId);
+
+        if (doctorCalendar == null) {
+            return Optional.empty();
+        }
+
+        return Optional.of(ScheduleReadResultDTO.builder()
+                .schedules(doctorCalendar.findSchedules(startDateTime, endDateTime))
+                .stale(true)
+                .loadedAt(doctorCalendar.getLoadedAt())
+                .build());
+    }
+
+    /**
+     * Stores schedules of a doctor loaded from database
+     *
+     * @param userId           doctor id
+     * @param schedules        all schedules of the doctor between loadedFrom and loadedTo
+     * @param loadedFrom       start of loaded range in UTC
+     * @param loadedTo         end of loaded range in UTC
+     */
+    public void put(UUID userId, List<ScheduleDTO> schedules, LocalDateTime loadedFrom,
+                    LocalDateTime loadedTo) {
+        DoctorCalendar doctorCalendar = DoctorCalendar.of(userId, schedules, loadedFrom, loadedTo,
+                LocalDateTime.now(UTC_ZONE_ID));
+
+        if (doctorCalendar == null) {
+            return;
+        }
+        if (doctorCalendarMap.size() >= maxDoctors) {
+            evictOldest();
+        }
+
+        doctorCalendarMap.put(userId, doctorCalendar);
+    }
+
+    /**
+     * Drops stored schedules of a doctor, and once more after commit of current transaction
+     *
+     * @param userId doctor id
+     */
+    public void invalidate(UUID userId) {
+        doctorCalendarMap.remove(userId);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    doctorCalendarMap.remove(userId);
+                }
+            });
+        }
+    }
+
+    /**
+     * Drops stored schedules of all doctors
+     */
+    public void invalidateAll() {
+        doctorCalendarMap.clear();
+    }
+
+    private void evictOldest() {
+        doctorCalendarMap.entrySet().stream()
+                .min(Comparator.comparing(entry -> entry.getValue().getLoadedAt()))
+                .ifPresent(entry -> doctorCalendarMap.remove(entry.getKey(), entry.getValue()));
+    }
+}
@@ -0,0 +1,178 @@
+package kz.smarthealth.scheduleservice.cache;
+
+import kz.smarthealth.scheduleservice.model.dto.ScheduleDTO;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Schedules of one doctor stored column by column in primitive arrays ordered by start.
+ * Slot takes about 30 bytes: id as two longs, start as epoch minute, duration in minutes, creation time in epoch
+ * microseconds and one bit of reserved flag.
+ */
+final class DoctorCalendar {
+
+    private static final int SECONDS_IN_MINUTE = 60;
+    private static final long MICROS_IN_SECOND = 1_000_000L;
+    private static final int NANOS_IN_MICRO = 1000;
+
+    private final UUID userId;
+    private final long[] idMostSigBits;
+    private final long[] idLeastSigBits;
+    private final int[] startEpochMinutes;
+    private final short[] durationMinutes;
+    private final long[] createdAtEpochMicros;
+    private final BitSet reserved;
+    private final int maxDurationMinutes;
+    private final LocalDateTime loadedFrom;
+    private final LocalDateTime loadedTo;
+    private final LocalDateTime loadedAt;
+
+    private DoctorCalendar(UUID userId, int size, LocalDateTime loadedFrom, LocalDateTime loadedTo,
+                           LocalDateTime loadedAt, List<ScheduleDTO> sortedSchedules) {
+        this.userId = userId;
+        this.idMostSigBits = new long[size];
+        this.idLeastSigBits = new long[size];
+        this.startEpochMinutes = new int[size];
+        this.durationMinutes = new short[size];
+        this.createdAtEpochMicros = new long[size];
+        this.reserved = new BitSet(size);
+        this.loadedFrom = loadedFrom;
+        this.loadedTo = loadedTo;
+        this.loadedAt = loadedAt;
+        int maxDuration = 0;
+
+        for (int i = 0; i < size; i++) {
+            ScheduleDTO schedule = sortedSchedules.get(i);
+            long startEpochSecond = schedule.getStartDateTime().toEpochSecond(ZoneOffset.UTC);
+            long endEpochSecond = schedule.getEndDateTime().toEpochSecond(ZoneOffset.UTC);
+            idMostSigBits[i] = schedule.getId().getMostSignificantBits();
+            idLeastSigBits[i] = schedule.getId().getLeastSignificantBits();
+            startEpochMinutes[i] = (int) (startEpochSecond / SECONDS_IN_MINUTE);
+            durationMinutes[i] = (short) ((endEpochSecond - startEpochSecond) / SECONDS_IN_MINUTE);
+            createdAtEpochMicros[i] = schedule.getCreatedAt().toEpochSecond(ZoneOffset.UTC) * MICROS_IN_SECOND
+                    + schedule.getCreatedAt().getNano() / NANOS_IN_MICRO;
+            reserved.set(i, Boolean.TRUE.equals(schedule.getIsReserved()));
+            maxDuration = Math.max(maxDuration, durationMinutes[i]);
+        }
+
+        this.maxDurationMinutes = maxDuration;
+    }
+
+    /**
+     * Builds calendar from loaded schedules
+     *
+     * @param userId           doctor id
+     * @param schedules        schedules of the doctor between loadedFrom and loadedTo
+     * @param loadedFrom       start of loaded range in UTC
+     * @param loadedTo         end of loaded range in UTC
+     * @param loadedAt         load time in UTC
+     * @return calendar, null if some schedule can not be stored compactly, e.g. it is not aligned to minutes
+     */
+    static DoctorCalendar of(UUID userId, List<ScheduleDTO> schedules, LocalDateTime loadedFrom,
+                             LocalDateTime loadedTo, LocalDateTime loadedAt) {
+        for (ScheduleDTO schedule : schedules) {
+            if (!isCompact(schedule)) {
+                return null;
+            }
+        }
+
+        List<ScheduleDTO> sortedSchedules = new ArrayList<>(schedules);
+        sortedSchedules.sort(Comparator.comparing(ScheduleDTO::getStartDateTime));
+
+        return new DoctorCalendar(userId, sortedSchedules.size(), loadedFrom, loadedTo, loadedAt, sortedSchedules);
+    }
+
+    /**
+     * Finds schedules starting in [startDateTime, endDateTime) or ending in (startDateTime, endDateTime]
+     *
+     * @param startDateTime start of the range in UTC
+     * @param endDateTime   end of the range in UTC
+     * @return schedules ordered by start
+     */
+    List<ScheduleDTO> findSchedules(LocalDateTime startDateTime, LocalDateTime endDateTime) {
+        long start = startDateTime.toEpochSecond(ZoneOffset.UTC);
+        long end = endDateTime.toEpochSecond(ZoneOffset.UTC);
+        List<ScheduleDTO> scheduleDTOList = new ArrayList<>();
+
+        for (int i = firstIndexStartingFrom(start - (long) maxDurationMinutes * SECONDS_IN_MINUTE);
+             i < startEpochMinutes.length && startEpochSecond(i) < end; i++) {
+            long slotStart = startEpochSecond(i);
+            long slotEnd = slotStart + (long) durationMinutes[i] * SECONDS_IN_MINUTE;
+
+            if (slotStart >= start || slotEnd > start && slotEnd <= end) {
+                scheduleDTOList.add(toScheduleDTO(i, slotStart, slotEnd));
+            }
+        }
+
+        return scheduleDTOList;
+    }
+
+    int size() {
+        return startEpochMinutes.length;
+    }
+
+    LocalDateTime getLoadedFrom() {
+        return loadedFrom;
+    }
+
+    LocalDateTime getLoadedTo() {
+        return loadedTo;
+    }
+
+    LocalDateTime getLoadedAt() {
+        return loadedAt;
+    }
+
+    private ScheduleDTO toScheduleDTO(int i, long slotStart, long slotEnd) {
+        return ScheduleDTO.builder()
+                .id(new UUID(idMostSigBits[i], idLeastSigBits[i]))
+                .userId(userId)
+                .startDateTime(LocalDateTime.ofEpochSecond(slotStart, 0, ZoneOffset.UTC))
+                .endDateTime(LocalDateTime.ofEpochSecond(slotEnd, 0, ZoneOffset.UTC))
+                .isReserved(reserved.get(i))
+                .createdAt(LocalDateTime.ofEpochSecond(Math.floorDiv(createdAtEpochMicros[i], MICROS_IN_SECOND),
+                        (int) Math.floorMod(createdAtEpochMicros[i], MICROS_IN_SECOND) * NANOS_IN_MICRO,
+                        ZoneOffset.UTC))
+                .build();
+    }
+
+    private long startEpochSecond(int i) {
+        return (long) startEpochMinutes[i] * SECONDS_IN_MINUTE;
+    }
+
+    private int firstIndexStartingFrom(long epochSecond) {
+        int low = 0;
+        int high = startEpochMinutes.length;
+
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+
+            if (startEpochSecond(middle) < epochSecond) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+
+        return low;
+    }
+
+    private static boolean isCompact(ScheduleDTO schedule) {
+        LocalDateTime startDateTime = schedule.getStartDateTime();
+        LocalDateTime endDateTime = schedule.getEndDateTime();
+        long durationMinutes = ChronoUnit.MINUTES.between(startDateTime, endDateTime);
+
+        return schedule.getId() != null && schedule.getCreatedAt() != null
+                && startDateTime.getSecond() == 0 && startDateTime.getNano() == 0
+                && endDateTime.getSecond() == 0 && endDateTime.getNano() == 0
+                && durationMinutes >= 0 && durationMinutes <= Short.MAX_VALUE
+                && schedule.getCreatedAt().getNano() % NANOS_IN_MICRO == 0;
+    }
+}
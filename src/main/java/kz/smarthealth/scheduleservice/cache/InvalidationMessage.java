@@ -0,0 +1,59 @@
+package kz.smarthealth.scheduleservice.cache;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Payload of cache invalidation notification: "senderId;version;userId,userId,...".
+ * Version is commit time of the change in epoch milliseconds, doctors of one transaction share a notification as long
+ * as it fits into NOTIFY payload limit of 8000 bytes.
+ */
+record InvalidationMessage(String senderId, long version, List<UUID> userIds) {
+
+    static final int MAX_USER_IDS = 200;
+
+    private static final String FIELD_SEPARATOR = ";";
+    private static final String USER_ID_SEPARATOR = ",";
+
+    /**
+     * @param senderId replica id
+     * @param version  commit time in epoch milliseconds
+     * @param userIds  changed doctors
+     * @return messages with at most {@link #MAX_USER_IDS} doctors each
+     */
+    static List<InvalidationMessage> of(String senderId, long version, Collection<UUID> userIds) {
+        List<UUID> userIdList = List.copyOf(userIds);
+        List<InvalidationMessage> messages = new ArrayList<>();
+
+        for (int i = 0; i < userIdList.size(); i += MAX_USER_IDS) {
+            messages.add(new InvalidationMessage(senderId, version,
+                    userIdList.subList(i, Math.min(i + MAX_USER_IDS, userIdList.size()))));
+        }
+
+        return messages;
+    }
+
+    /**
+     * @param payload notification payload
+     * @return message
+     * @throws IllegalArgumentException if payload is malformed
+     */
+    static InvalidationMessage fromPayload(String payload) {
+        String[] fields = payload.split(FIELD_SEPARATOR, -1);
+
+        if (fields.length != 3 || fields[2].isEmpty()) {
+            throw new IllegalArgumentException("Malformed invalidation payload: " + payload);
+        }
+
+        return new InvalidationMessage(fields[0], Long.parseLong(fields[1]),
+                Arrays.stream(fields[2].split(USER_ID_SEPARATOR)).map(UUID::fromString).toList());
+    }
+
+    String toPayload() {
+        return senderId + FIELD_SEPARATOR + version + FIELD_SEPARATOR
+                + String.join(USER_ID_SEPARATOR, userIds.stream().map(UUID::toString).toList());
+    }
+}
@@ -0,0 +1,191 @@
+package kz.smarthealth.scheduleservice.cache;
+
+import kz.smarthealth.scheduleservice.model.dto.ReservedIntervalDTO;
+import kz.smarthealth.scheduleservice.model.entity.ScheduleEntity;
+import kz.smarthealth.scheduleservice.repository.ScheduleRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static kz.smarthealth.scheduleservice.util.AppConstants.UTC_ZONE_ID;
+
+/**
+ * In-memory index of reserved intervals per doctor.
+ * - Intervals of a doctor are loaded lazily with one query, starting from a bit before now, and kept as sorted
+ * primitive arrays with running maximum of end times, so overlap query is two binary searches plus matches.
+ * - Index serves reads only, writes check overlaps in their transaction.
+ * - Writes changing reservations of a doctor must call {@link #invalidate(UUID)}, inside transaction intervals are
+ * dropped again after commit, so intervals loaded by concurrent reader before commit are not kept. Entries of other
+ * replicas are evicted by {@link CacheInvalidationBus}. Entries are also reloaded after time to live, which bounds
+ * staleness when the bus is not available.
+ * - Queries starting before loaded range go to database.
+ */
+@Component
+public class ReservedIntervalIndex {
+
+    private static final Duration LOADED_PAST = Duration.ofDays(2);
+
+    private final ScheduleRepository scheduleRepository;
+    private final Duration ttl;
+    private final int maxDoctors;
+    private final Map<UUID, DoctorIntervals> doctorIntervalsMap = new ConcurrentHashMap<>();
+
+    public ReservedIntervalIndex(ScheduleRepository scheduleRepository,
+                                 @Value("${app.cache.reserved-intervals.ttl:PT10M}") Duration ttl,
+                                 @Value("${app.cache.reserved-intervals.max-doctors:10000}") int maxDoctors) {
+        this.scheduleRepository = scheduleRepository;
+        this.ttl = ttl;
+        this.maxDoctors = maxDoctors;
+    }
+
+    /**
+     * Finds reserved intervals of a doctor overlapping [startDateTime, endDateTime)
+     *
+     * @param userId        doctor id
+     * @param startDateTime start of the range in UTC, inclusive
+     * @param endDateTime   end of the range in UTC, exclusive
+     * @return overlapping intervals ordered by start
+     */
+    public List<ReservedIntervalDTO> findOverlapping(UUID userId, LocalDateTime startDateTime,
+                                                     LocalDateTime endDateTime) {
+        LocalDateTime now = LocalDateTime.now(UTC_ZONE_ID);
+        DoctorIntervals doctorIntervals = doctorIntervalsMap.get(userId);
+
+        if (doctorIntervals == null || doctorIntervals.loadedAt().plus(ttl).isBefore(now)) {
+            doctorIntervals = load(userId, now);
+        }
+        if (startDateTime.isBefore(doctorIntervals.loadedFrom())) {
+            return scheduleRepository.findAllReservedSchedulesByUserIdBetweenDates(userId, startDateTime, endDateTime)
+                    .stream()
+                    .map(ReservedIntervalIndex::toReservedInterval)
+                    .toList();
+        }
+
+        return doctorIntervals.findOverlapping(toEpochSecond(startDateTime), toEpochSecond(endDateTime));
+    }
+
+    /**
+     * Drops intervals of a doctor, and once more after commit of current transaction. They are loaded again on next
+     * query.
+     *
+     * @param userId doctor id
+     */
+    public void invalidate(UUID userId) {
+        doctorIntervalsMap.remove(userId);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    doctorIntervalsMap.remove(userId);
+                }
+            });
+        }
+    }
+
+    /**
+     * Drops intervals of all doctors
+     */
+    public void invalidateAll() {
+        doctorIntervalsMap.clear();
+    }
+
+    private DoctorIntervals load(UUID userId, LocalDateTime now) {
+        LocalDateTime loadedFrom = now.minus(LOADED_PAST);
+        List<ScheduleEntity> reservedScheduleEntities = scheduleRepository
+                .findAllReservedSchedulesByUserIdEndingAfter(userId, loadedFrom);
+        DoctorIntervals doctorIntervals = DoctorIntervals.of(reservedScheduleEntities, loadedFrom, now);
+
+        if (doctorIntervalsMap.size() >= maxDoctors) {
+            evictOldest();
+        }
+
+        doctorIntervalsMap.put(userId, doctorIntervals);
+
+        return doctorIntervals;
+    }
+
+    private void evictOldest() {
+        doctorIntervalsMap.entrySet().stream()
+                .min(Comparator.comparing(entry -> entry.getValue().loadedAt()))
+                .ifPresent(entry -> doctorIntervalsMap.remove(entry.getKey(), entry.getValue()));
+    }
+
+    private static ReservedIntervalDTO toReservedInterval(ScheduleEntity scheduleEntity) {
+        return new ReservedIntervalDTO(scheduleEntity.getStartDateTime(), scheduleEntity.getEndDateTime());
+    }
+
+    private static long toEpochSecond(LocalDateTime dateTime) {
+        return dateTime.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    /**
+     * Reserved intervals of one doctor. Arrays are sorted by start, maxEnds[i] is the maximum end among 0..i,
+     * it is non-decreasing and allows to skip intervals ending before the range even if intervals overlap.
+     */
+    private record DoctorIntervals(long[] starts, long[] ends, long[] maxEnds, LocalDateTime loadedFrom,
+                                   LocalDateTime loadedAt) {
+
+        static DoctorIntervals of(List<ScheduleEntity> scheduleEntities, LocalDateTime loadedFrom,
+                                  LocalDateTime loadedAt) {
+            List<ScheduleEntity> sortedEntities = new ArrayList<>(scheduleEntities);
+            sortedEntities.sort(Comparator.comparing(ScheduleEntity::getStartDateTime));
+            int size = sortedEntities.size();
+            long[] starts = new long[size];
+            long[] ends = new long[size];
+            long[] maxEnds = new long[size];
+
+            for (int i = 0; i < size; i++) {
+                starts[i] = toEpochSecond(sortedEntities.get(i).getStartDateTime());
+                ends[i] = toEpochSecond(sortedEntities.get(i).getEndDateTime());
+                maxEnds[i] = i == 0 ? ends[i] : Math.max(maxEnds[i - 1], ends[i]);
+            }
+
+            return new DoctorIntervals(starts, ends, maxEnds, loadedFrom, loadedAt);
+        }
+
+        List<ReservedIntervalDTO> findOverlapping(long start, long end) {
+            int from = firstIndexGreaterThan(maxEnds, start);
+            int to = firstIndexGreaterThan(starts, end - 1);
+            List<ReservedIntervalDTO> overlapping = new ArrayList<>();
+
+            for (int i = from; i < to; i++) {
+                if (ends[i] > start) {
+                    overlapping.add(new ReservedIntervalDTO(
+                            LocalDateTime.ofEpochSecond(starts[i], 0, ZoneOffset.UTC),
+                            LocalDateTime.ofEpochSecond(ends[i], 0, ZoneOffset.UTC)));
+                }
+            }
+
+            return overlapping;
+        }
+
+        private static int firstIndexGreaterThan(long[] sortedValues, long value) {
+            int low = 0;
+            int high = sortedValues.length;
+
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+
+                if (sortedValues[middle] > value) {
+                    high = middle;
+                } else {
+                    low = middle + 1;
+                }
+            }
+
+            return low;
+        }
+    }
+}
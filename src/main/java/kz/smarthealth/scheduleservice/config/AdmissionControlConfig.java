@@ -0,0 +1,56 @@
+package kz.smarthealth.scheduleservice.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import kz.smarthealth.scheduleservice.limiter.AdaptiveConcurrencyLimiter;
+import kz.smarthealth.scheduleservice.limiter.AdmissionControlFilter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Admission control configurations, the filter is added to security filter chain in {@link AppConfig}
+ */
+@Configuration
+public class AdmissionControlConfig {
+
+    @Bean
+    public AdmissionControlFilter admissionControlFilter(
+            @Value("${app.admission.read.initial-limit}") int readInitialLimit,
+            @Value("${app.admission.read.min-limit}") int readMinLimit,
+            @Value("${app.admission.read.max-limit}") int readMaxLimit,
+            @Value("${app.admission.read.latency-threshold}") Duration readLatencyThreshold,
+            @Value("${app.admission.write.initial-limit}") int writeInitialLimit,
+            @Value("${app.admission.write.min-limit}") int writeMinLimit,
+            @Value("${app.admission.write.max-limit}") int writeMaxLimit,
+            @Value("${app.admission.write.latency-threshold}") Duration writeLatencyThreshold,
+            @Value("${app.admission.backoff-ratio}") double backoffRatio,
+            @Value("${app.admission.read-priority-ratio}") double readPriorityRatio,
+            @Value("${app.admission.retry-after}") Duration retryAfter,
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry) {
+        AdaptiveConcurrencyLimiter readLimiter = new AdaptiveConcurrencyLimiter(readInitialLimit, readMinLimit,
+                readMaxLimit, readLatencyThreshold.toNanos(), backoffRatio);
+        AdaptiveConcurrencyLimiter writeLimiter = new AdaptiveConcurrencyLimiter(writeInitialLimit, writeMinLimit,
+                writeMaxLimit, writeLatencyThreshold.toNanos(), backoffRatio);
+
+        return new AdmissionControlFilter(readLimiter, writeLimiter, readPriorityRatio, retryAfter.toSeconds(),
+                objectMapper, meterRegistry);
+    }
+
+    /**
+     * Prevents registration of the filter in servlet container, it runs only inside security filter chain
+     */
+    @Bean
+    public FilterRegistrationBean<AdmissionControlFilter> admissionControlFilterRegistration(
+            AdmissionControlFilter admissionControlFilter) {
+        FilterRegistrationBean<AdmissionControlFilter> registration =
+                new FilterRegistrationBean<>(admissionControlFilter);
+        registration.setEnabled(false);
+
+        return registration;
+    }
+}
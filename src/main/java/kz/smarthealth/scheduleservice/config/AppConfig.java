@@ -1,11 +1,25 @@
 package kz.smarthealth.scheduleservice.config;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.datatype.jdk8.Jdk8Module;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import com.fasterxml.jackson.module.paramnames.ParameterNamesModule;
+import kz.smarthealth.scheduleservice.limiter.AdmissionControlFilter;
+import kz.smarthealth.scheduleservice.model.dto.ScheduleDTO;
 import kz.smarthealth.scheduleservice.security.AuthEntryPointJwt;
 import kz.smarthealth.scheduleservice.security.AuthenticationFilter;
+import kz.smarthealth.scheduleservice.serializer.ScheduleBinaryMixIn;
+import kz.smarthealth.scheduleservice.serializer.ScheduleJsonSerializer;
+import kz.smarthealth.scheduleservice.sharding.RebalancingGuardFilter;
 import org.modelmapper.ModelMapper;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.ImportRuntimeHints;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
@@ -22,16 +36,39 @@ import org.springframework.web.client.RestTemplate;
 @Configuration
 @EnableWebSecurity
 @EnableMethodSecurity(securedEnabled = true)
+@ImportRuntimeHints(AppRuntimeHints.class)
+@EnableScheduling
 public class AppConfig {
 
+    /**
+     * JSON mapper, modules are registered explicitly instead of being discovered on the class path.
+     * Schedules, the largest responses, are written by {@link ScheduleJsonSerializer}, other beans are accessed by
+     * {@link BlackbirdModule} through generated lambdas instead of reflection.
+     */
     @Bean
     public ObjectMapper objectMapper() {
         ObjectMapper objectMapper = new ObjectMapper();
-        objectMapper.findAndRegisterModules();
+        objectMapper.registerModules(new JavaTimeModule(), new Jdk8Module(), new ParameterNamesModule(),
+                new BlackbirdModule(),
+                new SimpleModule("schedule-json").addSerializer(ScheduleDTO.class, new ScheduleJsonSerializer()));
 
         return objectMapper;
     }
 
+    /**
+     * CBOR converter, selected by content negotiation when client sends "Accept: application/cbor".
+     * Timestamps of schedules are written as epoch seconds instead of formatted strings.
+     */
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter() {
+        CBORMapper cborMapper = new CBORMapper();
+        cborMapper.registerModules(new JavaTimeModule(), new Jdk8Module(), new ParameterNamesModule(),
+                new BlackbirdModule());
+        cborMapper.addMixIn(ScheduleDTO.class, ScheduleBinaryMixIn.class);
+
+        return new MappingJackson2CborHttpMessageConverter(cborMapper);
+    }
+
     @Bean
     public RestTemplate restTemplate() {
         return new RestTemplate();
@@ -43,7 +80,10 @@ public class AppConfig {
     }
 
     @Bean
-    public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain filterChain(HttpSecurity http,
+                                           AdmissionControlFilter admissionControlFilter,
+                                           ShardingProperties shardingProperties,
+                                           ObjectMapper objectMapper) throws Exception {
         http
                 .cors().and().csrf().disable()
                 .exceptionHandling().authenticationEntryPoint(new AuthEntryPointJwt()).and()
@@ -51,6 +91,9 @@ public class AppConfig {
                 .authorizeHttpRequests()
                 .anyRequest().permitAll();
         http.addFilterBefore(new AuthenticationFilter(), UsernamePasswordAuthenticationFilter.class);
+        http.addFilterBefore(admissionControlFilter, AuthenticationFilter.class);
+        http.addFilterBefore(new RebalancingGuardFilter(shardingProperties, objectMapper),
+                AdmissionControlFilter.class);
 
         return http.build();
     }
@@ -0,0 +1,44 @@
+package kz.smarthealth.scheduleservice.config;
+
+import kz.smarthealth.scheduleservice.model.dto.DailyAvailabilityDTO;
+import kz.smarthealth.scheduleservice.model.dto.RecordingDumpDTO;
+import kz.smarthealth.scheduleservice.model.dto.ScheduleChangeDTO;
+import kz.smarthealth.scheduleservice.model.dto.ScheduleDTO;
+import kz.smarthealth.scheduleservice.model.dto.ScheduleHoldDTO;
+import kz.smarthealth.scheduleservice.model.entity.ScheduleEntity;
+import kz.smarthealth.scheduleservice.serializer.DefaultDateTimeSerializer;
+import kz.smarthealth.scheduleservice.serializer.EpochSecondLocalDateTimeSerializer;
+import kz.smarthealth.scheduleservice.serializer.ScheduleBinaryMixIn;
+import kz.smarthealth.scheduleservice.validator.ScheduleCreateValidator;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+
+/**
+ * Reflection hints for native image, covers classes that are accessed reflectively outside of Spring:
+ * ModelMapper mappings, Jackson mix-ins and Hibernate Validator constraint validators
+ */
+public class AppRuntimeHints implements RuntimeHintsRegistrar {
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        hints.reflection()
+                .registerType(ScheduleEntity.class, MemberCategory.INVOKE_DECLARED_CONSTRUCTORS,
+                        MemberCategory.INVOKE_PUBLIC_METHODS, MemberCategory.DECLARED_FIELDS)
+                .registerType(ScheduleDTO.class, MemberCategory.INVOKE_DECLARED_CONSTRUCTORS,
+                        MemberCategory.INVOKE_PUBLIC_METHODS, MemberCategory.DECLARED_FIELDS)
+                .registerType(DailyAvailabilityDTO.class, MemberCategory.INVOKE_DECLARED_CONSTRUCTORS,
+                        MemberCategory.INVOKE_PUBLIC_METHODS, MemberCategory.DECLARED_FIELDS)
+                .registerType(ScheduleHoldDTO.class, MemberCategory.INVOKE_DECLARED_CONSTRUCTORS,
+                        MemberCategory.INVOKE_PUBLIC_METHODS, MemberCategory.DECLARED_FIELDS)
+                .registerType(ScheduleChangeDTO.class, MemberCategory.INVOKE_DECLARED_CONSTRUCTORS,
+                        MemberCategory.INVOKE_PUBLIC_METHODS, MemberCategory.DECLARED_FIELDS)
+                .registerType(RecordingDumpDTO.class, MemberCategory.INVOKE_DECLARED_CONSTRUCTORS,
+                        MemberCategory.INVOKE_PUBLIC_METHODS, MemberCategory.DECLARED_FIELDS)
+                .registerType(ScheduleBinaryMixIn.class, MemberCategory.DECLARED_FIELDS)
+                .registerType(EpochSecondLocalDateTimeSerializer.class,
+                        MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS)
+                .registerType(DefaultDateTimeSerializer.class, MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS)
+                .registerType(ScheduleCreateValidator.class, MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS);
+    }
+}
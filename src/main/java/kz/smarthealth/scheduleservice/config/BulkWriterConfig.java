@@ -0,0 +1,36 @@
+package kz.smarthealth.scheduleservice.config;
+
+import kz.smarthealth.scheduleservice.bulk.JdbcBatchScheduleBulkWriter;
+import kz.smarthealth.scheduleservice.bulk.PostgresCopyScheduleBulkWriter;
+import kz.smarthealth.scheduleservice.bulk.ScheduleBulkWriter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+
+import javax.sql.DataSource;
+import java.sql.DatabaseMetaData;
+
+/**
+ * Chooses {@link ScheduleBulkWriter} by database: COPY on PostgreSQL, batched inserts otherwise
+ */
+@Configuration
+public class BulkWriterConfig {
+
+    private static final String POSTGRESQL = "PostgreSQL";
+
+    @Bean
+    public ScheduleBulkWriter scheduleBulkWriter(DataSource dataSource,
+                                                 JdbcTemplate jdbcTemplate,
+                                                 @Value("${app.bulk.chunk-size:1000}") int chunkSize)
+            throws MetaDataAccessException {
+        String databaseProductName = JdbcUtils.extractDatabaseMetaData(dataSource,
+                DatabaseMetaData::getDatabaseProductName);
+
+        return POSTGRESQL.equals(databaseProductName)
+                ? new PostgresCopyScheduleBulkWriter(jdbcTemplate, chunkSize)
+                : new JdbcBatchScheduleBulkWriter(jdbcTemplate, chunkSize);
+    }
+}
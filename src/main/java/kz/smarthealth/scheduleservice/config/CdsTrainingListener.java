@@ -0,0 +1,30 @@
+package kz.smarthealth.scheduleservice.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.stereotype.Component;
+
+/**
+ * Stops the application right after startup when "app.cds.training" is enabled.
+ * Used during image build to record class-data-sharing archive (-XX:ArchiveClassesAtExit).
+ * The property is checked at runtime, so the listener also works for AOT processed context.
+ */
+@Slf4j
+@Component
+public class CdsTrainingListener implements ApplicationListener<ApplicationReadyEvent> {
+
+    private static final String CDS_TRAINING_PROPERTY = "app.cds.training";
+
+    @Override
+    public void onApplicationEvent(ApplicationReadyEvent event) {
+        ConfigurableApplicationContext context = event.getApplicationContext();
+
+        if (Boolean.TRUE.equals(context.getEnvironment().getProperty(CDS_TRAINING_PROPERTY, Boolean.class))) {
+            log.info("CDS training run finished, shutting down");
+            System.exit(SpringApplication.exit(context));
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package kz.smarthealth.scheduleservice.config;
+
+import kz.smarthealth.scheduleservice.jdbc.StatementMetrics;
+import kz.smarthealth.scheduleservice.jdbc.StatementMetricsDataSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.function.SingletonSupplier;
+
+import javax.sql.DataSource;
+
+/**
+ * JDBC statement metrics configurations, the data source bean is wrapped with {@link StatementMetricsDataSource}.
+ * With sharding the routing data source is wrapped, connections of all shards are reported.
+ */
+@Configuration
+public class JdbcMetricsConfig {
+
+    @Bean
+    public static BeanPostProcessor statementMetricsDataSourcePostProcessor(
+            ObjectProvider<StatementMetrics> statementMetrics) {
+        SingletonSupplier<StatementMetrics> statementMetricsSupplier = SingletonSupplier.of(statementMetrics::getObject);
+
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof StatementMetricsDataSource)) {
+                    return new StatementMetricsDataSource(dataSource, statementMetricsSupplier);
+                }
+
+                return bean;
+            }
+        };
+    }
+}
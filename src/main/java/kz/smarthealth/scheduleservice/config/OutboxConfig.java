@@ -0,0 +1,33 @@
+package kz.smarthealth.scheduleservice.config;
+
+import kz.smarthealth.scheduleservice.outbox.LoggingScheduleEventSink;
+import kz.smarthealth.scheduleservice.outbox.ScheduleEventSink;
+import kz.smarthealth.scheduleservice.outbox.WebhookScheduleEventSink;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.net.URI;
+import java.time.Duration;
+
+/**
+ * Chooses {@link ScheduleEventSink} of the outbox relay: webhook if "app.outbox.webhook.url" is set, log otherwise
+ */
+@Configuration
+public class OutboxConfig {
+
+    @Bean
+    public ScheduleEventSink scheduleEventSink(RestTemplateBuilder restTemplateBuilder,
+                                               @Value("${app.outbox.webhook.url:}") String url,
+                                               @Value("${app.outbox.webhook.timeout:PT5S}") Duration timeout) {
+        if (url.isBlank()) {
+            return new LoggingScheduleEventSink();
+        }
+
+        return new WebhookScheduleEventSink(restTemplateBuilder
+                .setConnectTimeout(timeout)
+                .setReadTimeout(timeout)
+                .build(), URI.create(url));
+    }
+}
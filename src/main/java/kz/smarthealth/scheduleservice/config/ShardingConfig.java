@@ -0,0 +1,137 @@
+package kz.smarthealth.scheduleservice.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import kz.smarthealth.scheduleservice.sharding.ConsistentHashRing;
+import kz.smarthealth.scheduleservice.sharding.ShardDataSources;
+import kz.smarthealth.scheduleservice.sharding.ShardRouter;
+import kz.smarthealth.scheduleservice.sharding.ShardRoutingDataSource;
+import org.flywaydb.core.Flyway;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.boot.jdbc.DatabaseDriver;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.jdbc.datasource.init.DatabasePopulatorUtils;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Sharding configurations.
+ * With "app.sharding.enabled" primary data source routes connections to shard databases, every shard is migrated on
+ * startup. Without it there is single shard on "spring.datasource" pool, migrated by Spring Boot.
+ * Beans are not conditional on properties: AOT processing evaluates conditions at build time, so sharding is chosen
+ * inside the beans at runtime and the same image serves sharded and single database deployments.
+ */
+@Configuration
+@EnableConfigurationProperties(ShardingProperties.class)
+public class ShardingConfig {
+
+    private static final String SINGLE_SHARD = "default";
+    private static final String HIKARI_PROPERTIES = "spring.datasource.hikari";
+    private static final String FLYWAY_LOCATIONS = "spring.flyway.locations";
+    private static final String DEFAULT_FLYWAY_LOCATION = "classpath:db/migration";
+    private static final String VENDOR_PLACEHOLDER = "{vendor}";
+
+    @Bean
+    public ShardRouter shardRouter(ShardingProperties shardingProperties) {
+        List<String> shards = shardingProperties.enabled()
+                ? shardingProperties.shards().stream().map(ShardingProperties.Shard::name).toList()
+                : List.of(SINGLE_SHARD);
+        ExecutorService fanOutExecutor = Executors.newFixedThreadPool(Math.max(2, shards.size()), runnable -> {
+            Thread thread = new Thread(runnable, "shard-fan-out");
+            thread.setDaemon(true);
+
+            return thread;
+        });
+
+        return new ShardRouter(new ConsistentHashRing(shards, shardingProperties.virtualNodes()), fanOutExecutor);
+    }
+
+    @Bean
+    public ShardDataSources shardDataSources(ShardingProperties shardingProperties,
+                                             DataSourceProperties dataSourceProperties,
+                                             Environment environment) {
+        Map<String, HikariDataSource> shardDataSources = new LinkedHashMap<>();
+
+        if (!shardingProperties.enabled()) {
+            HikariDataSource dataSource = dataSourceProperties.initializeDataSourceBuilder()
+                    .type(HikariDataSource.class)
+                    .build();
+            Binder.get(environment).bind(HIKARI_PROPERTIES, Bindable.ofInstance(dataSource));
+            shardDataSources.put(SINGLE_SHARD, dataSource);
+
+            return new ShardDataSources(shardDataSources);
+        }
+
+        ResourceLoader resourceLoader = new DefaultResourceLoader();
+
+        for (ShardingProperties.Shard shard : shardingProperties.shards()) {
+            HikariDataSource dataSource = DataSourceBuilder.create()
+                    .type(HikariDataSource.class)
+                    .url(shard.url())
+                    .username(shard.username())
+                    .password(shard.password())
+                    .build();
+            dataSource.setPoolName("shard-" + shard.name());
+
+            if (shardingProperties.schemaLocations().isEmpty()) {
+                Flyway.configure()
+                        .dataSource(dataSource)
+                        .locations(flywayLocations(environment, shard.url()))
+                        .load()
+                        .migrate();
+            } else {
+                ResourceDatabasePopulator populator = new ResourceDatabasePopulator();
+                shardingProperties.schemaLocations()
+                        .forEach(location -> populator.addScript(resourceLoader.getResource(location)));
+                DatabasePopulatorUtils.execute(populator, dataSource);
+            }
+
+            shardDataSources.put(shard.name(), dataSource);
+        }
+
+        return new ShardDataSources(shardDataSources);
+    }
+
+    /**
+     * Resolves "spring.flyway.locations" for a shard, "{vendor}" is replaced like Spring Boot does for the single
+     * database
+     *
+     * @param environment environment
+     * @param url         JDBC URL of the shard
+     * @return migration locations
+     */
+    private static String[] flywayLocations(Environment environment, String url) {
+        String vendor = DatabaseDriver.fromJdbcUrl(url).getId();
+
+        return Binder.get(environment).bind(FLYWAY_LOCATIONS, Bindable.listOf(String.class))
+                .orElse(List.of(DEFAULT_FLYWAY_LOCATION))
+                .stream()
+                .map(location -> location.replace(VENDOR_PLACEHOLDER, vendor))
+                .toArray(String[]::new);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ShardDataSources shardDataSources) {
+        ShardRoutingDataSource dataSource = new ShardRoutingDataSource();
+        dataSource.setTargetDataSources(new LinkedHashMap<>(shardDataSources.dataSources()));
+        dataSource.setDefaultTargetDataSource(shardDataSources.dataSources().values().iterator().next());
+        dataSource.afterPropertiesSet();
+
+        return dataSource;
+    }
+}
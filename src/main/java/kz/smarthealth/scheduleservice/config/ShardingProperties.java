@@ -0,0 +1,32 @@
+package kz.smarthealth.scheduleservice.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.List;
+
+/**
+ * Sharding configurations, "app.sharding" properties
+ *
+ * @param enabled         whether schedules are spread over several databases
+ * @param virtualNodes    number of virtual nodes per shard in consistent hash ring
+ * @param shards          shard databases, the first one is default and holds data not scoped by doctor
+ * @param rebalance       whether to move doctors stored on another shard than the ring gives on startup, see
+ *                        {@link kz.smarthealth.scheduleservice.sharding.ShardRebalancer}
+ * @param schemaLocations SQL scripts initializing every shard instead of Flyway migrations, e.g. in tests
+ */
+@ConfigurationProperties("app.sharding")
+public record ShardingProperties(boolean enabled, Integer virtualNodes, List<Shard> shards,
+                                 boolean rebalance, List<String> schemaLocations) {
+
+    public ShardingProperties {
+        virtualNodes = virtualNodes == null ? 128 : virtualNodes;
+        shards = shards == null ? List.of() : shards;
+        schemaLocations = schemaLocations == null ? List.of() : schemaLocations;
+    }
+
+    /**
+     * Shard database
+     */
+    public record Shard(String name, String url, String username, String password) {
+    }
+}
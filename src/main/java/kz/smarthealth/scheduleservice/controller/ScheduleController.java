@@ -2,13 +2,46 @@ package kz.smarthealth.scheduleservice.controller;
 
 import jakarta.validation.Valid;
 import kz.smarthealth.scheduleservice.aop.Log;
+import kz.smarthealth.scheduleservice.bulk.ScheduleExportFormat;
+import kz.smarthealth.scheduleservice.bulk.ScheduleImportFormat;
+import kz.smarthealth.scheduleservice.exception.CustomException;
+import kz.smarthealth.scheduleservice.model.dto.DailyAvailabilityDTO;
+import kz.smarthealth.scheduleservice.model.dto.ReservedIntervalDTO;
+import kz.smarthealth.scheduleservice.model.dto.ScheduleBatchCreateDTO;
+import kz.smarthealth.scheduleservice.model.dto.ScheduleBatchResultDTO;
+import kz.smarthealth.scheduleservice.model.dto.ScheduleChangeDTO;
 import kz.smarthealth.scheduleservice.model.dto.ScheduleCreateDTO;
 import kz.smarthealth.scheduleservice.model.dto.ScheduleDTO;
+import kz.smarthealth.scheduleservice.model.dto.ScheduleHoldDTO;
+import kz.smarthealth.scheduleservice.model.dto.ScheduleImportResultDTO;
+import kz.smarthealth.scheduleservice.model.dto.ScheduleReadResultDTO;
+import kz.smarthealth.scheduleservice.notification.ScheduleChangeHub;
+import kz.smarthealth.scheduleservice.service.DailyAvailabilityService;
+import kz.smarthealth.scheduleservice.service.IdempotencyService;
+import kz.smarthealth.scheduleservice.service.ScheduleExportService;
+import kz.smarthealth.scheduleservice.service.ScheduleHoldService;
+import kz.smarthealth.scheduleservice.service.ScheduleImportService;
+import kz.smarthealth.scheduleservice.service.ScheduleSearchService;
 import kz.smarthealth.scheduleservice.service.ScheduleService;
+import kz.smarthealth.scheduleservice.sharding.ShardRouted;
+import kz.smarthealth.scheduleservice.util.AppConstants;
+import kz.smarthealth.scheduleservice.util.MessageSource;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.InputStream;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
 import java.util.List;
 import java.util.UUID;
 
@@ -22,24 +55,257 @@ import java.util.UUID;
 @RequiredArgsConstructor
 public class ScheduleController {
 
+    private static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    private static final String IDEMPOTENT_REPLAYED_HEADER = "Idempotent-Replayed";
+    private static final String STALE_WARNING = "110 - \"Response is Stale\"";
+
     private final ScheduleService scheduleService;
+    private final IdempotencyService idempotencyService;
+    private final DailyAvailabilityService dailyAvailabilityService;
+    private final ScheduleSearchService scheduleSearchService;
+    private final ScheduleImportService scheduleImportService;
+    private final ScheduleExportService scheduleExportService;
+    private final ScheduleHoldService scheduleHoldService;
+    private final ScheduleChangeHub scheduleChangeHub;
 
     /**
-     * Creates the list of schedules
+     * Creates the list of schedules.
+     * If idempotency key is given and request with the same key was already processed, nothing is done again and
+     * response contains "Idempotent-Replayed: true" header.
      *
+     * @param idempotencyKey    optional client generated key of the request
      * @param scheduleCreateDTO schedules parameters
      */
     @Log
     @PostMapping
+    @ShardRouted(userId = "#scheduleCreateDTO.userId")
+    public ResponseEntity<Void> createSchedules(
+            @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
+            @RequestBody @Valid ScheduleCreateDTO scheduleCreateDTO) {
+        if (idempotencyKey == null) {
+            scheduleService.createSchedules(scheduleCreateDTO);
+
+            return ResponseEntity.status(HttpStatus.CREATED).build();
+        }
+
+        boolean executed = idempotencyService.executeOnce(idempotencyKey, scheduleCreateDTO.getUserId(),
+                scheduleCreateDTO, () -> scheduleService.createSchedules(scheduleCreateDTO));
+
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .header(IDEMPOTENT_REPLAYED_HEADER, String.valueOf(!executed))
+                .build();
+    }
+
+    /**
+     * Creates the list of schedules for several doctors
+     *
+     * @param scheduleBatchCreateDTO schedules parameters per doctor
+     * @return number of created schedules per doctor
+     */
+    @Log
+    @PostMapping("/batch")
     @ResponseStatus(HttpStatus.CREATED)
-    public void createSchedules(@RequestBody @Valid ScheduleCreateDTO scheduleCreateDTO) {
-        scheduleService.createSchedules(scheduleCreateDTO);
+    public List<ScheduleBatchResultDTO> createSchedulesBatch(
+            @RequestBody @Valid ScheduleBatchCreateDTO scheduleBatchCreateDTO) {
+        return scheduleService.createSchedules(scheduleBatchCreateDTO.getSchedules());
     }
 
+    /**
+     * Imports schedules from CSV ("text/csv") or NDJSON ("application/x-ndjson") body.
+     * Body is read as a stream, rows conflicting with existing schedules are skipped.
+     *
+     * @param contentType format of the body
+     * @param inputStream body
+     * @return number of imported, conflicting and invalid rows
+     */
+    @Log
+    @PostMapping("/import")
+    public ScheduleImportResultDTO importSchedules(@RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+                                                   InputStream inputStream) {
+        ScheduleImportFormat format = ScheduleImportFormat.of(MediaType.parseMediaType(contentType))
+                .orElseThrow(() -> CustomException.builder()
+                        .httpStatus(HttpStatus.UNSUPPORTED_MEDIA_TYPE)
+                        .errorMessage(MessageSource.UNSUPPORTED_IMPORT_FORMAT.getText(contentType))
+                        .build());
+
+        return scheduleImportService.importSchedules(inputStream, format);
+    }
+
+    /**
+     * Exports schedules of doctors starting in given range as CSV or iCalendar, response is streamed
+     *
+     * @param userIds       doctor ids
+     * @param startDateTime UTC start of the range, inclusive
+     * @param endDateTime   UTC end of the range, exclusive
+     * @param format        output format
+     * @param freeBusy      for iCalendar, whether to export free and busy periods instead of reserved events
+     * @return streamed body
+     */
     @Log
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportSchedules(
+            @RequestParam List<UUID> userIds,
+            @RequestParam @DateTimeFormat(pattern = AppConstants.DEFAULT_DATE_TIME_FORMAT) LocalDateTime startDateTime,
+            @RequestParam @DateTimeFormat(pattern = AppConstants.DEFAULT_DATE_TIME_FORMAT) LocalDateTime endDateTime,
+            @RequestParam(defaultValue = "CSV") ScheduleExportFormat format,
+            @RequestParam(defaultValue = "false") boolean freeBusy) {
+        scheduleExportService.validate(userIds, startDateTime, endDateTime);
+
+        return ResponseEntity.ok()
+                .contentType(format.getMediaType())
+                .body(outputStream -> scheduleExportService.export(userIds, startDateTime, endDateTime, format,
+                        freeBusy, outputStream));
+    }
+
+    /**
+     * Gets schedules by user, stale schedules served while database is not available have "Warning" and "Age"
+     * headers
+     *
+     * @param userId doctor id
+     * @return list of schedules
+     */
+    @Log(sampleRate = 0.1)
     @GetMapping("/by-user-id/{userId}")
-    public List<ScheduleDTO> getSchedulesByUserId(@PathVariable UUID userId) {
-        return scheduleService.getSchedulesByUserId(userId);
+    public ResponseEntity<List<ScheduleDTO>> getSchedulesByUserId(@PathVariable UUID userId) {
+        ScheduleReadResultDTO scheduleReadResultDTO = scheduleService.getSchedulesByUserId(userId);
+
+        if (!scheduleReadResultDTO.isStale()) {
+            return ResponseEntity.ok(scheduleReadResultDTO.getSchedules());
+        }
+
+        long ageSeconds = Duration.between(scheduleReadResultDTO.getLoadedAt(),
+                LocalDateTime.now(AppConstants.UTC_ZONE_ID)).toSeconds();
+
+        return ResponseEntity.ok()
+                .header(HttpHeaders.WARNING, STALE_WARNING)
+                .header(HttpHeaders.AGE, String.valueOf(Math.max(0, ageSeconds)))
+                .body(scheduleReadResultDTO.getSchedules());
+    }
+
+    /**
+     * Gets reserved time periods of a doctor overlapping given range, for conflict checks of clients. Reservations
+     * confirmed on another replica may be missed for a moment.
+     *
+     * @param userId        doctor id
+     * @param startDateTime UTC start of the range, inclusive
+     * @param endDateTime   UTC end of the range, exclusive
+     * @return reserved time periods ordered by start
+     */
+    @Log(sampleRate = 0.1)
+    @GetMapping("/reserved/by-user-id/{userId}")
+    public List<ReservedIntervalDTO> findReservedIntervals(
+            @PathVariable UUID userId,
+            @RequestParam @DateTimeFormat(pattern = AppConstants.DEFAULT_DATE_TIME_FORMAT) LocalDateTime startDateTime,
+            @RequestParam @DateTimeFormat(pattern = AppConstants.DEFAULT_DATE_TIME_FORMAT) LocalDateTime endDateTime) {
+        return scheduleService.findReservedIntervals(userId, startDateTime, endDateTime);
+    }
+
+    /**
+     * Subscribes to changes of doctor's schedules as server-sent events, replaces polling of schedules by user.
+     * Reconnecting client gets missed changes by standard "Last-Event-ID" header.
+     *
+     * @param userId      doctor id
+     * @param lastEventId optional id of the last received change
+     * @return event stream of {@link ScheduleChangeDTO}
+     */
+    @Log(sampleRate = 0.1)
+    @GetMapping(value = "/changes/by-user-id/{userId}", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter subscribeToChanges(@PathVariable UUID userId,
+                                         @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+        return scheduleChangeHub.subscribe(userId, lastEventId);
+    }
+
+    /**
+     * Long-poll fallback of {@link #subscribeToChanges(UUID, Long)}, responds as soon as there are changes after given
+     * one, or with empty list on timeout
+     *
+     * @param userId      doctor id
+     * @param lastEventId optional id of the last received change, without it the next change is awaited
+     * @return changes ordered by id
+     */
+    @Log(sampleRate = 0.1)
+    @GetMapping("/changes/by-user-id/{userId}/poll")
+    public DeferredResult<List<ScheduleChangeDTO>> pollChanges(@PathVariable UUID userId,
+                                                               @RequestParam(required = false) Long lastEventId) {
+        return scheduleChangeHub.poll(userId, lastEventId);
+    }
+
+    /**
+     * Gets number of schedules and free schedules of a doctor per UTC day, days without schedules are absent.
+     * Reserved and held schedules are not free. Hold of a restarted replica is counted until the sweep clears it.
+     *
+     * @param userId    doctor id
+     * @param startDate first day
+     * @param endDate   last day
+     * @return summary ordered by day
+     */
+    @Log(sampleRate = 0.1)
+    @GetMapping("/availability/by-user-id/{userId}")
+    public List<DailyAvailabilityDTO> getDailyAvailability(
+            @PathVariable UUID userId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+        return dailyAvailabilityService.getDailyAvailability(userId, startDate, endDate);
+    }
+
+    /**
+     * Gets earliest free schedules of a doctor
+     *
+     * @param userId        doctor id
+     * @param startDateTime UTC date time schedules start not before, now by default
+     * @param limit         max number of schedules
+     * @return free schedules ordered by start
+     */
+    @Log(sampleRate = 0.1)
+    @GetMapping("/free/by-user-id/{userId}/earliest")
+    public List<ScheduleDTO> findEarliestFreeSchedules(
+            @PathVariable UUID userId,
+            @RequestParam(required = false)
+            @DateTimeFormat(pattern = AppConstants.DEFAULT_DATE_TIME_FORMAT) LocalDateTime startDateTime,
+            @RequestParam(defaultValue = "10") int limit) {
+        return scheduleSearchService.findEarliestFreeSchedules(userId,
+                startDateTime == null ? LocalDateTime.now(AppConstants.UTC_ZONE_ID) : startDateTime, limit);
+    }
+
+    /**
+     * Gets free schedule of a doctor starting closest to given time
+     *
+     * @param userId   doctor id
+     * @param dateTime UTC date time
+     * @return free schedule
+     */
+    @Log(sampleRate = 0.1)
+    @GetMapping("/free/by-user-id/{userId}/nearest")
+    public ScheduleDTO findNearestFreeSchedule(
+            @PathVariable UUID userId,
+            @RequestParam @DateTimeFormat(pattern = AppConstants.DEFAULT_DATE_TIME_FORMAT) LocalDateTime dateTime) {
+        return scheduleSearchService.findNearestFreeSchedule(userId, dateTime);
+    }
+
+    /**
+     * Gets earliest free schedules of a doctor lying within given time of day
+     *
+     * @param userId     doctor id
+     * @param startDate  first local day
+     * @param endDate    last local day
+     * @param fromTime   local time schedules start not before
+     * @param toTime     local time schedules end not after
+     * @param zoneOffset zone of dates and times, e.g. "+06:00" or "Asia/Almaty"
+     * @param limit      max number of schedules
+     * @return free schedules ordered by start
+     */
+    @Log(sampleRate = 0.1)
+    @GetMapping("/free/by-user-id/{userId}/within-time-of-day")
+    public List<ScheduleDTO> findFreeSchedulesWithinTimeOfDay(
+            @PathVariable UUID userId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam @DateTimeFormat(pattern = AppConstants.DEFAULT_TIME_FORMAT) LocalTime fromTime,
+            @RequestParam @DateTimeFormat(pattern = AppConstants.DEFAULT_TIME_FORMAT) LocalTime toTime,
+            @RequestParam(defaultValue = "Z") String zoneOffset,
+            @RequestParam(defaultValue = "10") int limit) {
+        return scheduleSearchService.findFreeSchedulesWithinTimeOfDay(userId, startDate, endDate, fromTime, toTime,
+                zoneOffset, limit);
     }
 
     @Log
@@ -48,4 +314,43 @@ public class ScheduleController {
     public void deleteScheduleById(@PathVariable UUID id) {
         scheduleService.deleteScheduleById(id);
     }
+
+    /**
+     * Holds free schedule for a patient until the hold is confirmed, released or expired
+     *
+     * @param id         schedule id
+     * @param ttlSeconds optional time to live of the hold in seconds
+     * @return hold to confirm or release
+     */
+    @Log
+    @PostMapping("/{id}/hold")
+    public ScheduleHoldDTO holdSchedule(@PathVariable UUID id, @RequestParam(required = false) Long ttlSeconds) {
+        return scheduleHoldService.holdSchedule(id, ttlSeconds == null ? null : Duration.ofSeconds(ttlSeconds));
+    }
+
+    /**
+     * Reserves held schedule
+     *
+     * @param id     schedule id
+     * @param holdId hold id
+     */
+    @Log
+    @PostMapping("/{id}/hold/{holdId}/confirm")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void confirmHold(@PathVariable UUID id, @PathVariable UUID holdId) {
+        scheduleHoldService.confirmHold(id, holdId);
+    }
+
+    /**
+     * Releases held schedule
+     *
+     * @param id     schedule id
+     * @param holdId hold id
+     */
+    @Log
+    @DeleteMapping("/{id}/hold/{holdId}")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void releaseHold(@PathVariable UUID id, @PathVariable UUID holdId) {
+        scheduleHoldService.releaseHold(id, holdId);
+    }
 }
@@ -0,0 +1,54 @@
+package kz.smarthealth.scheduleservice.jdbc;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times methods of {@link kz.smarthealth.scheduleservice.repository.ScheduleRepository} and attributes statements
+ * they execute to them in {@link StatementMetrics}
+ */
+@Aspect
+@Component
+public class RepositoryMetricsAspect {
+
+    private static final String OPERATION_PREFIX = "ScheduleRepository.";
+
+    private final StatementMetrics statementMetrics;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+
+    public RepositoryMetricsAspect(StatementMetrics statementMetrics, MeterRegistry meterRegistry) {
+        this.statementMetrics = statementMetrics;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Around("execution(* kz.smarthealth.scheduleservice.repository.ScheduleRepository+.*(..))")
+    public Object aroundRepositoryMethod(ProceedingJoinPoint joinPoint) throws Throwable {
+        String operation = OPERATION_PREFIX + joinPoint.getSignature().getName();
+        String previousOperation = statementMetrics.startOperation(operation);
+        long startNanos = System.nanoTime();
+
+        try {
+            return joinPoint.proceed();
+        } finally {
+            timers.computeIfAbsent(operation, this::createTimer).record(System.nanoTime() - startNanos,
+                    TimeUnit.NANOSECONDS);
+            statementMetrics.endOperation(previousOperation);
+        }
+    }
+
+    private Timer createTimer(String operation) {
+        return Timer.builder("schedule.repository.calls")
+                .description("Calls of repository methods including their statements")
+                .tag("operation", operation)
+                .register(meterRegistry);
+    }
+}
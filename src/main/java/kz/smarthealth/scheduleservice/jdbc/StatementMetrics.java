@@ -0,0 +1,165 @@
+package kz.smarthealth.scheduleservice.jdbc;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Records JDBC statements executed through {@link StatementMetricsDataSource}.
+ * - Every execution (a batch is one execution) is timed per operation, the repository method that runs it, see
+ * {@link RepositoryMetricsAspect}. Rows of batches are recorded as batch size.
+ * - Statements slower than the threshold are logged with bind parameters.
+ * - Statements of the current thread can be counted with {@link #startCount()}, e.g. to guard number of round trips
+ * of an operation in tests.
+ */
+@Slf4j
+@Component
+public class StatementMetrics {
+
+    private static final String NO_OPERATION = "none";
+
+    private final MeterRegistry meterRegistry;
+    private final long slowThresholdNanos;
+    private final ThreadLocal<String> currentOperation = new ThreadLocal<>();
+    private final ThreadLocal<StatementCount> currentCount = new ThreadLocal<>();
+    private final Map<String, OperationMeters> operationMeters = new ConcurrentHashMap<>();
+
+    public StatementMetrics(MeterRegistry meterRegistry,
+                            @Value("${app.jdbc.slow-statement-threshold:PT0.5S}") Duration slowThreshold) {
+        this.meterRegistry = meterRegistry;
+        this.slowThresholdNanos = slowThreshold.toNanos();
+    }
+
+    /**
+     * Attributes statements of current thread to the operation until {@link #endOperation(String)}, nested
+     * operations keep the outer one
+     *
+     * @param operation operation name
+     * @return previous operation to pass to {@link #endOperation(String)}
+     */
+    public String startOperation(String operation) {
+        String previousOperation = currentOperation.get();
+
+        if (previousOperation == null) {
+            currentOperation.set(operation);
+        }
+
+        return previousOperation;
+    }
+
+    /**
+     * @param previousOperation value returned by {@link #startOperation(String)}
+     */
+    public void endOperation(String previousOperation) {
+        if (previousOperation == null) {
+            currentOperation.remove();
+        }
+    }
+
+    /**
+     * Starts counting statements of current thread, counts may be nested
+     *
+     * @return count to close after the counted operation
+     */
+    public StatementCount startCount() {
+        StatementCount count = new StatementCount(currentCount.get());
+        currentCount.set(count);
+
+        return count;
+    }
+
+    void record(String sql, long elapsedNanos, int batchRows, Supplier<String> parameters) {
+        String operation = currentOperation.get() == null ? NO_OPERATION : currentOperation.get();
+        OperationMeters meters = operationMeters.computeIfAbsent(operation, this::createMeters);
+        meters.timer().record(elapsedNanos, TimeUnit.NANOSECONDS);
+
+        if (batchRows > 0) {
+            meters.batchRows().record(batchRows);
+        }
+
+        for (StatementCount count = currentCount.get(); count != null; count = count.parent) {
+            count.add(sql, batchRows);
+        }
+
+        if (elapsedNanos >= slowThresholdNanos) {
+            log.warn("Slow statement, operation: {}, durationMs: {}, batchRows: {}, sql: {}, parameters: {}",
+                    operation, TimeUnit.NANOSECONDS.toMillis(elapsedNanos), batchRows, sql, parameters.get());
+        }
+    }
+
+    private OperationMeters createMeters(String operation) {
+        return new OperationMeters(
+                Timer.builder("schedule.jdbc.statements")
+                        .description("JDBC statement executions, a batch is one execution")
+                        .tag("operation", operation)
+                        .register(meterRegistry),
+                DistributionSummary.builder("schedule.jdbc.batch.rows")
+                        .description("Rows of executed JDBC batches")
+                        .tag("operation", operation)
+                        .register(meterRegistry));
+    }
+
+    /**
+     * Statements executed by a thread since {@link #startCount()}
+     */
+    public class StatementCount implements AutoCloseable {
+
+        private final StatementCount parent;
+        private final List<String> sqls = new ArrayList<>();
+        private int batchRows;
+
+        private StatementCount(StatementCount parent) {
+            this.parent = parent;
+        }
+
+        private void add(String sql, int rows) {
+            sqls.add(sql);
+            batchRows += rows;
+        }
+
+        /**
+         * @return number of executions, a batch is one execution
+         */
+        public int getStatements() {
+            return sqls.size();
+        }
+
+        /**
+         * @return rows of executed batches
+         */
+        public int getBatchRows() {
+            return batchRows;
+        }
+
+        /**
+         * @return executed statements in order
+         */
+        public List<String> getSqls() {
+            return Collections.unmodifiableList(sqls);
+        }
+
+        @Override
+        public void close() {
+            if (parent == null) {
+                currentCount.remove();
+            } else {
+                currentCount.set(parent);
+            }
+        }
+    }
+
+    private record OperationMeters(Timer timer, DistributionSummary batchRows) {
+    }
+}
@@ -0,0 +1,169 @@
+package kz.smarthealth.scheduleservice.jdbc;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Supplier;
+
+/**
+ * Data source proxy that reports executions of statements of its connections to {@link StatementMetrics}.
+ * Connections and statements are wrapped with JDK proxies, unwrapping to vendor interfaces (e.g. PGConnection) is
+ * passed to the target.
+ */
+public class StatementMetricsDataSource extends DelegatingDataSource implements AutoCloseable {
+
+    private final Supplier<StatementMetrics> statementMetrics;
+
+    public StatementMetricsDataSource(DataSource targetDataSource, Supplier<StatementMetrics> statementMetrics) {
+        super(targetDataSource);
+        this.statementMetrics = statementMetrics;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return wrap(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return wrap(super.getConnection(username, password));
+    }
+
+    /**
+     * Closes the target data source, e.g. connection pool, on shutdown
+     */
+    @Override
+    public void close() throws Exception {
+        if (obtainTargetDataSource() instanceof AutoCloseable closeable) {
+            closeable.close();
+        }
+    }
+
+    private Connection wrap(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{Connection.class},
+                new ConnectionHandler(connection));
+    }
+
+    private static Object invokeTarget(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Handles methods of {@link Object} and {@link java.sql.Wrapper} for a proxy
+     *
+     * @return result, or null if the method is not one of them
+     */
+    private static Object invokeIdentityMethod(Object proxy, Object target, Method method, Object[] args)
+            throws Throwable {
+        return switch (method.getName()) {
+            case "equals" -> proxy == args[0];
+            case "hashCode" -> System.identityHashCode(proxy);
+            case "unwrap" -> ((Class<?>) args[0]).isInstance(proxy) ? proxy : invokeTarget(target, method, args);
+            case "isWrapperFor" -> ((Class<?>) args[0]).isInstance(proxy) || (Boolean) invokeTarget(target, method,
+                    args);
+            default -> null;
+        };
+    }
+
+    private class ConnectionHandler implements InvocationHandler {
+
+        private final Connection target;
+
+        private ConnectionHandler(Connection target) {
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object identityResult = invokeIdentityMethod(proxy, target, method, args);
+
+            if (identityResult != null) {
+                return identityResult;
+            }
+
+            Object result = invokeTarget(target, method, args);
+
+            if (result instanceof Statement statement) {
+                String sql = method.getName().startsWith("prepare") ? (String) args[0] : null;
+
+                return Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{method.getReturnType()},
+                        new StatementHandler(statement, sql));
+            }
+
+            return result;
+        }
+    }
+
+    private class StatementHandler implements InvocationHandler {
+
+        private final Statement target;
+        private final Map<Integer, Object> parameters = new TreeMap<>();
+        private String sql;
+        private int batchRows;
+
+        private StatementHandler(Statement target, String sql) {
+            this.target = target;
+            this.sql = sql;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object identityResult = invokeIdentityMethod(proxy, target, method, args);
+
+            if (identityResult != null) {
+                return identityResult;
+            }
+
+            String name = method.getName();
+
+            if (name.startsWith("execute")) {
+                return execute(method, args);
+            }
+            if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer index) {
+                parameters.put(index, args[1]);
+            } else if (name.equals("addBatch")) {
+                batchRows++;
+
+                if (args != null) {
+                    sql = (String) args[0];
+                }
+            } else if (name.equals("clearBatch")) {
+                batchRows = 0;
+            } else if (name.equals("clearParameters")) {
+                parameters.clear();
+            }
+
+            return invokeTarget(target, method, args);
+        }
+
+        private Object execute(Method method, Object[] args) throws Throwable {
+            String executedSql = args != null && args.length > 0 && args[0] instanceof String argSql ? argSql : sql;
+            int executedBatchRows = method.getName().endsWith("Batch") ? batchRows : 0;
+            long startNanos = System.nanoTime();
+
+            try {
+                return invokeTarget(target, method, args);
+            } finally {
+                statementMetrics.get().record(executedSql, System.nanoTime() - startNanos, executedBatchRows,
+                        parameters::toString);
+
+                if (executedBatchRows > 0) {
+                    batchRows = 0;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package kz.smarthealth.scheduleservice.limiter;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Concurrency limiter with AIMD (additive increase, multiplicative decrease) adjustment of the limit.
+ * - Request finished faster than latency threshold while limiter was at least half used increases limit by one.
+ * - Slower request decreases limit by backoff ratio, so the limit follows what downstream resources can handle.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final long latencyThresholdNanos;
+    private final double backoffRatio;
+    private final AtomicInteger limit;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, long latencyThresholdNanos,
+                                      double backoffRatio) {
+        if (minLimit < 1 || minLimit > initialLimit || initialLimit > maxLimit) {
+            throw new IllegalArgumentException("Limits must satisfy 1 <= min <= initial <= max");
+        }
+        if (backoffRatio <= 0 || backoffRatio >= 1) {
+            throw new IllegalArgumentException("Backoff ratio must be between 0 and 1");
+        }
+
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.latencyThresholdNanos = latencyThresholdNanos;
+        this.backoffRatio = backoffRatio;
+        this.limit = new AtomicInteger(initialLimit);
+    }
+
+    /**
+     * Takes a permit if current limit is not reached
+     *
+     * @return true if permit is taken, caller must call {@link #release(long)} afterwards
+     */
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+
+            if (current >= limit.get()) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Returns permit and adjusts the limit by observed latency
+     *
+     * @param latencyNanos duration of the request
+     */
+    public void release(long latencyNanos) {
+        int current = inFlight.getAndDecrement();
+
+        if (latencyNanos > latencyThresholdNanos) {
+            limit.updateAndGet(value -> Math.max(minLimit, (int) (value * backoffRatio)));
+        } else if (current * 2 >= limit.get()) {
+            limit.updateAndGet(value -> Math.min(maxLimit, value + 1));
+        }
+    }
+
+    /**
+     * @param ratio share of the limit, from 0.0 to 1.0
+     * @return true if number of requests in flight reached given share of the limit
+     */
+    public boolean isUsedAtLeast(double ratio) {
+        return inFlight.get() >= limit.get() * ratio;
+    }
+
+    public int getLimit() {
+        return limit.get();
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+}
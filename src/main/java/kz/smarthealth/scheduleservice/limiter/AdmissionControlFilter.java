@@ -0,0 +1,126 @@
+package kz.smarthealth.scheduleservice.limiter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import kz.smarthealth.scheduleservice.model.dto.ErrorResponseDTO;
+import kz.smarthealth.scheduleservice.util.MessageSource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Sheds API requests before they take Tomcat worker and database connection for a long time.
+ * - Reads (GET) are limited by their own adaptive limit and rejected with 503 when it is reached.
+ * - Writes are limited by separate adaptive limit and have lower priority: they are rejected with 429 also when reads
+ * use most of their limit.
+ * Rejected responses contain "Retry-After" header.
+ * Bulk import and export are not limited, they run for minutes by design and their latency would collapse the limits.
+ */
+public class AdmissionControlFilter extends OncePerRequestFilter {
+
+    private static final String API_PATH_PREFIX = "/api/";
+    private static final List<String> BULK_PATH_SUFFIXES = List.of("/import", "/export");
+    private static final String READ = "read";
+    private static final String WRITE = "write";
+
+    private final AdaptiveConcurrencyLimiter readLimiter;
+    private final AdaptiveConcurrencyLimiter writeLimiter;
+    private final double readPriorityRatio;
+    private final long retryAfterSeconds;
+    private final ObjectMapper objectMapper;
+    private final Counter rejectedReadsCounter;
+    private final Counter rejectedWritesCounter;
+
+    public AdmissionControlFilter(AdaptiveConcurrencyLimiter readLimiter,
+                                  AdaptiveConcurrencyLimiter writeLimiter,
+                                  double readPriorityRatio,
+                                  long retryAfterSeconds,
+                                  ObjectMapper objectMapper,
+                                  MeterRegistry meterRegistry) {
+        this.readLimiter = readLimiter;
+        this.writeLimiter = writeLimiter;
+        this.readPriorityRatio = readPriorityRatio;
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.objectMapper = objectMapper;
+        this.rejectedReadsCounter = rejectedCounter(meterRegistry, READ);
+        this.rejectedWritesCounter = rejectedCounter(meterRegistry, WRITE);
+        registerGauges(meterRegistry, READ, readLimiter);
+        registerGauges(meterRegistry, WRITE, writeLimiter);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith(request.getContextPath() + API_PATH_PREFIX)
+                || BULK_PATH_SUFFIXES.stream().anyMatch(request.getRequestURI()::endsWith);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        boolean isRead = HttpMethod.GET.matches(request.getMethod());
+        AdaptiveConcurrencyLimiter limiter = isRead ? readLimiter : writeLimiter;
+
+        if (isRead && !readLimiter.tryAcquire()) {
+            rejectedReadsCounter.increment();
+            reject(response, HttpStatus.SERVICE_UNAVAILABLE);
+            return;
+        }
+        if (!isRead && (readLimiter.isUsedAtLeast(readPriorityRatio) || !writeLimiter.tryAcquire())) {
+            rejectedWritesCounter.increment();
+            reject(response, HttpStatus.TOO_MANY_REQUESTS);
+            return;
+        }
+
+        long startTime = System.nanoTime();
+
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            limiter.release(System.nanoTime() - startTime);
+        }
+    }
+
+    private void reject(HttpServletResponse response, HttpStatus httpStatus) throws IOException {
+        ErrorResponseDTO errorResponseDTO = ErrorResponseDTO.builder()
+                .dateTime(LocalDateTime.now())
+                .code(httpStatus.value())
+                .message(MessageSource.REQUEST_SHED.getText())
+                .build();
+        response.setStatus(httpStatus.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), errorResponseDTO);
+    }
+
+    private static Counter rejectedCounter(MeterRegistry meterRegistry, String type) {
+        return Counter.builder("schedule.admission.rejected")
+                .description("Requests rejected by admission control")
+                .tag("type", type)
+                .register(meterRegistry);
+    }
+
+    private static void registerGauges(MeterRegistry meterRegistry, String type,
+                                       AdaptiveConcurrencyLimiter limiter) {
+        Gauge.builder("schedule.admission.limit", limiter, AdaptiveConcurrencyLimiter::getLimit)
+                .description("Current concurrency limit")
+                .tag("type", type)
+                .register(meterRegistry);
+        Gauge.builder("schedule.admission.in-flight", limiter, AdaptiveConcurrencyLimiter::getInFlight)
+                .description("Requests currently being processed")
+                .tag("type", type)
+                .register(meterRegistry);
+    }
+}
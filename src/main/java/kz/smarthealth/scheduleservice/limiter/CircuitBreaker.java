@@ -0,0 +1,83 @@
+package kz.smarthealth.scheduleservice.limiter;
+
+/**
+ * Circuit breaker counting consecutive failures of calls to a downstream resource.
+ * - Closed: calls are permitted, the given number of consecutive failures opens the circuit.
+ * - Open: calls are rejected until open duration passes, then one trial call is permitted (half-open).
+ * - Half-open: success of the trial closes the circuit, failure opens it again.
+ * Time is passed by caller, so the breaker does not depend on a clock.
+ */
+public class CircuitBreaker {
+
+    public enum State {
+        CLOSED, HALF_OPEN, OPEN
+    }
+
+    private final int failureThreshold;
+    private final long openDurationNanos;
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openUntilNanos;
+    private boolean trialInFlight;
+
+    public CircuitBreaker(int failureThreshold, long openDurationNanos) {
+        if (failureThreshold < 1) {
+            throw new IllegalArgumentException("Failure threshold must be positive");
+        }
+
+        this.failureThreshold = failureThreshold;
+        this.openDurationNanos = openDurationNanos;
+    }
+
+    /**
+     * Checks if a call is permitted
+     *
+     * @param nowNanos current time, e.g. {@link System#nanoTime()}
+     * @return true if the call is permitted, caller must report its outcome with {@link #onSuccess()},
+     * {@link #onFailure(long)} or {@link #onIgnored()}
+     */
+    public synchronized boolean tryAcquire(long nowNanos) {
+        if (state == State.OPEN && nowNanos - openUntilNanos >= 0) {
+            state = State.HALF_OPEN;
+        }
+        if (state == State.HALF_OPEN) {
+            if (trialInFlight) {
+                return false;
+            }
+
+            trialInFlight = true;
+        }
+
+        return state != State.OPEN;
+    }
+
+    public synchronized void onSuccess() {
+        state = State.CLOSED;
+        consecutiveFailures = 0;
+        trialInFlight = false;
+    }
+
+    /**
+     * @param nowNanos time of the failure
+     */
+    public synchronized void onFailure(long nowNanos) {
+        consecutiveFailures++;
+        trialInFlight = false;
+
+        if (state == State.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+            state = State.OPEN;
+            openUntilNanos = nowNanos + openDurationNanos;
+        }
+    }
+
+    /**
+     * Reports permitted call that was not made or whose outcome says nothing about the resource
+     */
+    public synchronized void onIgnored() {
+        trialInFlight = false;
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+}
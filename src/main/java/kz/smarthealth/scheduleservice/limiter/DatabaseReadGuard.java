@@ -0,0 +1,109 @@
+package kz.smarthealth.scheduleservice.limiter;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Guards database reads of the read path with {@link CircuitBreaker} and bulkhead.
+ * - Bulkhead limits concurrent reads below the size of the connection pool, so slow database does not take all
+ * connections and writes still get some. Read waits for a permit at most max wait.
+ * - Circuit opens after consecutive failures of data access, e.g. statement timeouts, then reads are rejected
+ * immediately until open duration passes.
+ * Rejected or failed read returns empty result, so caller can serve a fallback.
+ */
+@Slf4j
+@Component
+public class DatabaseReadGuard {
+
+    private final CircuitBreaker circuitBreaker;
+    private final Semaphore bulkhead;
+    private final long maxWaitNanos;
+    private final Counter circuitOpenCounter;
+    private final Counter bulkheadFullCounter;
+    private final Counter failedCounter;
+
+    public DatabaseReadGuard(MeterRegistry meterRegistry,
+                             @Value("${app.read.circuit-breaker.failure-threshold:5}") int failureThreshold,
+                             @Value("${app.read.circuit-breaker.open-duration:PT10S}") Duration openDuration,
+                             @Value("${app.read.bulkhead.max-concurrent:8}") int maxConcurrent,
+                             @Value("${app.read.bulkhead.max-wait:PT0.1S}") Duration maxWait) {
+        this.circuitBreaker = new CircuitBreaker(failureThreshold, openDuration.toNanos());
+        this.bulkhead = new Semaphore(maxConcurrent);
+        this.maxWaitNanos = maxWait.toNanos();
+        this.circuitOpenCounter = rejectedCounter(meterRegistry, "circuit-open");
+        this.bulkheadFullCounter = rejectedCounter(meterRegistry, "bulkhead-full");
+        this.failedCounter = Counter.builder("schedule.read.failed")
+                .description("Database reads failed with data access error")
+                .register(meterRegistry);
+        Gauge.builder("schedule.read.circuit.state", circuitBreaker, breaker -> breaker.getState().ordinal())
+                .description("State of the read circuit: 0 closed, 1 half-open, 2 open")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Runs the read if circuit and bulkhead permit it
+     *
+     * @param read database read
+     * @return result of the read, empty if the read is rejected or failed with data access error
+     */
+    public <T> Optional<T> tryRead(Supplier<T> read) {
+        if (!circuitBreaker.tryAcquire(System.nanoTime())) {
+            circuitOpenCounter.increment();
+            return Optional.empty();
+        }
+        if (!acquireBulkhead()) {
+            circuitBreaker.onIgnored();
+            bulkheadFullCounter.increment();
+            return Optional.empty();
+        }
+
+        try {
+            T result = read.get();
+            circuitBreaker.onSuccess();
+
+            return Optional.of(result);
+        } catch (DataAccessException e) {
+            circuitBreaker.onFailure(System.nanoTime());
+            failedCounter.increment();
+            log.warn("Database read failed, circuit: {}", circuitBreaker.getState(), e);
+
+            return Optional.empty();
+        } catch (RuntimeException e) {
+            circuitBreaker.onIgnored();
+            throw e;
+        } finally {
+            bulkhead.release();
+        }
+    }
+
+    public CircuitBreaker.State getCircuitState() {
+        return circuitBreaker.getState();
+    }
+
+    private boolean acquireBulkhead() {
+        try {
+            return bulkhead.tryAcquire(maxWaitNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static Counter rejectedCounter(MeterRegistry meterRegistry, String reason) {
+        return Counter.builder("schedule.read.rejected")
+                .description("Database reads rejected by the read guard")
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,30 @@
+package kz.smarthealth.scheduleservice.model.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import jakarta.validation.constraints.NotNull;
+import kz.smarthealth.scheduleservice.util.AppConstants;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalTime;
+
+import static com.fasterxml.jackson.annotation.JsonFormat.Shape.STRING;
+
+/**
+ * Break within a working day in local time of the doctor, no slots overlap it
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class BreakDTO {
+
+    @NotNull
+    @JsonFormat(shape = STRING, pattern = AppConstants.DEFAULT_TIME_FORMAT)
+    private LocalTime startTime;
+    @NotNull
+    @JsonFormat(shape = STRING, pattern = AppConstants.DEFAULT_TIME_FORMAT)
+    private LocalTime endTime;
+}
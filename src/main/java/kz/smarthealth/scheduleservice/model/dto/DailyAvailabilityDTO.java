@@ -0,0 +1,36 @@
+package kz.smarthealth.scheduleservice.model.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import kz.smarthealth.scheduleservice.util.AppConstants;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static com.fasterxml.jackson.annotation.JsonFormat.Shape.STRING;
+
+/**
+ * Number of schedules and free schedules of a doctor on one UTC day
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class DailyAvailabilityDTO {
+
+    private UUID userId;
+
+    @JsonFormat(shape = STRING, pattern = AppConstants.DEFAULT_DATE_FORMAT)
+    private LocalDate availableDate;
+
+    private Integer slotCount;
+
+    private Integer freeCount;
+
+    @JsonFormat(shape = STRING, pattern = AppConstants.DEFAULT_DATE_TIME_FORMAT)
+    private LocalDateTime firstFreeStartDateTime;
+}
@@ -1,6 +1,8 @@
 package kz.smarthealth.scheduleservice.model.dto;
 
 import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import kz.smarthealth.scheduleservice.serializer.DefaultDateTimeSerializer;
 import kz.smarthealth.scheduleservice.util.AppConstants;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -17,6 +19,7 @@ import java.util.Map;
 public class ErrorResponseDTO {
 
     @JsonFormat(pattern = AppConstants.DEFAULT_DATE_TIME_FORMAT)
+    @JsonSerialize(using = DefaultDateTimeSerializer.class)
     private LocalDateTime dateTime;
 
     private int code;
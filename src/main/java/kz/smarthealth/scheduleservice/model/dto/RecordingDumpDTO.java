@@ -0,0 +1,22 @@
+package kz.smarthealth.scheduleservice.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * File with a period of the continuous JFR recording
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class RecordingDumpDTO {
+
+    private String path;
+
+    private int minutes;
+
+    private long sizeBytes;
+}
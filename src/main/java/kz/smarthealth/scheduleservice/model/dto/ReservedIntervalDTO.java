@@ -0,0 +1,16 @@
+package kz.smarthealth.scheduleservice.model.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import kz.smarthealth.scheduleservice.util.AppConstants;
+
+import java.time.LocalDateTime;
+
+import static com.fasterxml.jackson.annotation.JsonFormat.Shape.STRING;
+
+/**
+ * Reserved time interval of a doctor in UTC, start inclusive and end exclusive
+ */
+public record ReservedIntervalDTO(
+        @JsonFormat(shape = STRING, pattern = AppConstants.DEFAULT_DATE_TIME_FORMAT) LocalDateTime startDateTime,
+        @JsonFormat(shape = STRING, pattern = AppConstants.DEFAULT_DATE_TIME_FORMAT) LocalDateTime endDateTime) {
+}
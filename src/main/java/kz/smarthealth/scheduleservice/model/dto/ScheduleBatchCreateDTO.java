@@ -0,0 +1,25 @@
+package kz.smarthealth.scheduleservice.model.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO class used to create time slots for several doctors in one request
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ScheduleBatchCreateDTO {
+
+    @NotEmpty
+    @Size(max = 500)
+    private List<@Valid ScheduleCreateDTO> schedules;
+}
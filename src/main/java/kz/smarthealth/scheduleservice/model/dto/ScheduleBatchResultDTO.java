@@ -0,0 +1,24 @@
+package kz.smarthealth.scheduleservice.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+/**
+ * Result of schedules creation for one doctor of batch request
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ScheduleBatchResultDTO {
+
+    private UUID userId;
+
+    private int createdCount;
+
+    private int skippedReservedCount;
+}
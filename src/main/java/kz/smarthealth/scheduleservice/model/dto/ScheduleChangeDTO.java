@@ -0,0 +1,43 @@
+package kz.smarthealth.scheduleservice.model.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import kz.smarthealth.scheduleservice.notification.ScheduleChangeType;
+import kz.smarthealth.scheduleservice.util.AppConstants;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static com.fasterxml.jackson.annotation.JsonFormat.Shape.STRING;
+
+/**
+ * Change of doctor's schedules pushed to subscribers, see {@link ScheduleChangeType} for meaning of fields
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class ScheduleChangeDTO {
+
+    private Long id;
+
+    private UUID userId;
+
+    private ScheduleChangeType type;
+
+    @JsonFormat(shape = STRING, pattern = AppConstants.DEFAULT_DATE_TIME_FORMAT)
+    private LocalDateTime startDateTime;
+
+    @JsonFormat(shape = STRING, pattern = AppConstants.DEFAULT_DATE_TIME_FORMAT)
+    private LocalDateTime endDateTime;
+
+    private List<UUID> scheduleIds;
+}
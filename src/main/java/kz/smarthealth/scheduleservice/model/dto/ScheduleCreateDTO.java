@@ -1,6 +1,7 @@
 package kz.smarthealth.scheduleservice.model.dto;
 
 import com.fasterxml.jackson.annotation.JsonFormat;
+import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotNull;
 import kz.smarthealth.scheduleservice.util.AppConstants;
 import kz.smarthealth.scheduleservice.validator.ScheduleCreate;
@@ -9,14 +10,19 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.RequiredArgsConstructor;
 
+import java.time.DayOfWeek;
 import java.time.LocalDate;
 import java.time.LocalTime;
+import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 
 import static com.fasterxml.jackson.annotation.JsonFormat.Shape.STRING;
 
 /**
- * DTO class used to create time slots
+ * DTO class used to create time slots.
+ * Working day times, breaks and interval apply to every day of the range, unless the day of week has own working
+ * hours or is a day off. Excluded dates, e.g. holidays, get no slots.
  *
  * Created by Samat Abibulla on 2023-07-30
  */
@@ -45,4 +51,9 @@ public class ScheduleCreateDTO {
     private String zoneOffset;
     @NotNull
     private Integer interval;
+    private List<@Valid BreakDTO> breaks;
+    private List<@Valid WorkingHoursDTO> workingHours;
+    private Set<DayOfWeek> daysOff;
+    @JsonFormat(shape = STRING, pattern = AppConstants.DEFAULT_DATE_FORMAT)
+    private Set<LocalDate> excludedDates;
 }
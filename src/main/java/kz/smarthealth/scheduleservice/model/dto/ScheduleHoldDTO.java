@@ -0,0 +1,30 @@
+package kz.smarthealth.scheduleservice.model.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import kz.smarthealth.scheduleservice.util.AppConstants;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static com.fasterxml.jackson.annotation.JsonFormat.Shape.STRING;
+
+/**
+ * Temporary hold of a free schedule, schedule is reserved when the hold is confirmed before heldUntil
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ScheduleHoldDTO {
+
+    private UUID scheduleId;
+
+    private UUID holdId;
+
+    @JsonFormat(shape = STRING, pattern = AppConstants.DEFAULT_DATE_TIME_FORMAT)
+    private LocalDateTime heldUntil;
+}
@@ -0,0 +1,31 @@
+package kz.smarthealth.scheduleservice.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Result of schedules import
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ScheduleImportResultDTO {
+
+    private long readCount;
+
+    private long importedCount;
+
+    private long conflictCount;
+
+    private long invalidCount;
+
+    /**
+     * First errors of invalid rows, e.g. "line 12: Invalid interval"
+     */
+    private List<String> errors;
+}
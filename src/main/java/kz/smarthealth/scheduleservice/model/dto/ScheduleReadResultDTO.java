@@ -0,0 +1,28 @@
+package kz.smarthealth.scheduleservice.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Schedules of a doctor, stale ones are served from memory while database is not available
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ScheduleReadResultDTO {
+
+    private List<ScheduleDTO> schedules;
+
+    private boolean stale;
+
+    /**
+     * Load time of stale schedules in UTC, null for fresh ones
+     */
+    private LocalDateTime loadedAt;
+}
@@ -0,0 +1,39 @@
+package kz.smarthealth.scheduleservice.model.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+import kz.smarthealth.scheduleservice.util.AppConstants;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+import java.util.List;
+
+import static com.fasterxml.jackson.annotation.JsonFormat.Shape.STRING;
+
+/**
+ * Working hours of a day of week, they replace default working day times of {@link ScheduleCreateDTO}
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class WorkingHoursDTO {
+
+    @NotNull
+    private DayOfWeek dayOfWeek;
+    @NotNull
+    @JsonFormat(shape = STRING, pattern = AppConstants.DEFAULT_TIME_FORMAT)
+    private LocalTime startTime;
+    @NotNull
+    @JsonFormat(shape = STRING, pattern = AppConstants.DEFAULT_TIME_FORMAT)
+    private LocalTime endTime;
+    /**
+     * Breaks of the day, default breaks of {@link ScheduleCreateDTO} if null
+     */
+    private List<@Valid BreakDTO> breaks;
+}
@@ -0,0 +1,45 @@
+package kz.smarthealth.scheduleservice.model.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Summary of schedules of a doctor per UTC day, recomputed for affected days on every change of schedules
+ */
+@Entity
+@Data
+@Table(name = "daily_availability")
+@IdClass(DailyAvailabilityId.class)
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DailyAvailabilityEntity {
+
+    @Id
+    @Column(name = "user_id", nullable = false)
+    private UUID userId;
+
+    @Id
+    @Column(name = "available_date", nullable = false)
+    private LocalDate availableDate;
+
+    @Column(name = "slot_count", nullable = false)
+    private Integer slotCount;
+
+    @Column(name = "free_count", nullable = false)
+    private Integer freeCount;
+
+    @Column(name = "first_free_start_date_time")
+    private LocalDateTime firstFreeStartDateTime;
+}
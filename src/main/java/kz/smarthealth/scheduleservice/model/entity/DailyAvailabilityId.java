@@ -0,0 +1,22 @@
+package kz.smarthealth.scheduleservice.model.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Primary key of {@link DailyAvailabilityEntity}
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DailyAvailabilityId implements Serializable {
+
+    private UUID userId;
+
+    private LocalDate availableDate;
+}
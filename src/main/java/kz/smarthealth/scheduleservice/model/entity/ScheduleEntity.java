@@ -39,6 +39,12 @@ public class ScheduleEntity {
     @Column(name = "created_at", nullable = false)
     protected LocalDateTime createdAt;
 
+    @Column(name = "held_until")
+    private LocalDateTime heldUntil;
+
+    @Column(name = "hold_id")
+    private UUID holdId;
+
     @PrePersist
     private void prePersist() {
         if (this.createdAt == null) {
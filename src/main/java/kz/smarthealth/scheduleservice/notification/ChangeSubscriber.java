@@ -0,0 +1,100 @@
+package kz.smarthealth.scheduleservice.notification;
+
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.Executor;
+
+/**
+ * Event stream subscriber with its own queue of events. Events are queued without blocking and written by one task
+ * of the send executor at a time, so slow subscriber delays only itself and gets its events in order.
+ * Subscriber that falls behind by more than max pending events is closed, it reconnects with the id of the last
+ * seen change and gets missed changes or resync.
+ */
+class ChangeSubscriber {
+
+    private final SseEmitter emitter;
+    private final int maxPendingEvents;
+    private final Executor sendExecutor;
+    private final Queue<SseEmitter.SseEventBuilder> pendingEvents = new ArrayDeque<>();
+    private boolean sending;
+    private boolean closed;
+
+    ChangeSubscriber(SseEmitter emitter, int maxPendingEvents, Executor sendExecutor) {
+        this.emitter = emitter;
+        this.maxPendingEvents = maxPendingEvents;
+        this.sendExecutor = sendExecutor;
+    }
+
+    /**
+     * Queues event, never blocks
+     *
+     * @param event event to send
+     * @return false if subscriber is closed, because it fell behind or its stream failed
+     */
+    synchronized boolean offer(SseEmitter.SseEventBuilder event) {
+        if (closed) {
+            return false;
+        }
+
+        if (pendingEvents.size() >= maxPendingEvents) {
+            closed = true;
+            pendingEvents.clear();
+            startSending();
+
+            return false;
+        }
+
+        pendingEvents.add(event);
+        startSending();
+
+        return true;
+    }
+
+    SseEmitter getEmitter() {
+        return emitter;
+    }
+
+    private void startSending() {
+        if (!sending) {
+            sending = true;
+            sendExecutor.execute(this::sendPendingEvents);
+        }
+    }
+
+    private void sendPendingEvents() {
+        while (true) {
+            SseEmitter.SseEventBuilder event;
+
+            synchronized (this) {
+                event = pendingEvents.poll();
+
+                if (event == null) {
+                    sending = false;
+
+                    if (closed) {
+                        break;
+                    }
+
+                    return;
+                }
+            }
+
+            try {
+                emitter.send(event);
+            } catch (IOException | IllegalStateException e) {
+                synchronized (this) {
+                    closed = true;
+                    pendingEvents.clear();
+                    sending = false;
+                }
+
+                return;
+            }
+        }
+
+        emitter.complete();
+    }
+}
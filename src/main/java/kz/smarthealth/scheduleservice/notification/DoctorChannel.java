@@ -0,0 +1,85 @@
+package kz.smarthealth.scheduleservice.notification;
+
+import kz.smarthealth.scheduleservice.model.dto.ScheduleChangeDTO;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArraySet;
+
+/**
+ * Subscribers of one doctor and the last changes of the doctor, so reconnecting subscriber gets what it missed.
+ * Guarded by the instance monitor.
+ */
+class DoctorChannel {
+
+    private final int bufferSize;
+    private final Deque<ScheduleChangeDTO> recentChanges = new ArrayDeque<>();
+    private final Set<ChangeSubscriber> subscribers = new CopyOnWriteArraySet<>();
+    private final List<DeferredResult<List<ScheduleChangeDTO>>> waiters = new ArrayList<>();
+    private long knownSinceId;
+    private long watchedAtMillis;
+    private boolean removed;
+
+    DoctorChannel(int bufferSize, long knownSinceId) {
+        this.bufferSize = bufferSize;
+        this.knownSinceId = knownSinceId;
+        this.watchedAtMillis = System.currentTimeMillis();
+    }
+
+    /**
+     * @param lastEventId id of the last change seen by subscriber
+     * @return changes after given one, null if some of them are not known
+     */
+    List<ScheduleChangeDTO> findChangesAfter(long lastEventId) {
+        if (lastEventId < knownSinceId) {
+            return null;
+        }
+
+        return recentChanges.stream()
+                .filter(change -> change.getId() > lastEventId)
+                .toList();
+    }
+
+    void addChange(ScheduleChangeDTO change) {
+        recentChanges.addLast(change);
+
+        if (recentChanges.size() > bufferSize) {
+            knownSinceId = recentChanges.removeFirst().getId();
+        }
+    }
+
+    Set<ChangeSubscriber> getSubscribers() {
+        return subscribers;
+    }
+
+    List<DeferredResult<List<ScheduleChangeDTO>>> getWaiters() {
+        return waiters;
+    }
+
+    int getSubscriberCount() {
+        return subscribers.size() + waiters.size();
+    }
+
+    void touch() {
+        watchedAtMillis = System.currentTimeMillis();
+    }
+
+    boolean isIdleSince(long timeMillis) {
+        return getSubscriberCount() == 0 && watchedAtMillis < timeMillis;
+    }
+
+    /**
+     * Marks channel removed from the hub, so the ones who got it before removal take a new one
+     */
+    void markRemoved() {
+        removed = true;
+    }
+
+    boolean isRemoved() {
+        return removed;
+    }
+}
@@ -0,0 +1,287 @@
+package kz.smarthealth.scheduleservice.notification;
+
+import jakarta.annotation.PreDestroy;
+import kz.smarthealth.scheduleservice.exception.CustomException;
+import kz.smarthealth.scheduleservice.model.dto.ScheduleChangeDTO;
+import kz.smarthealth.scheduleservice.util.MessageSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pushes changes of doctors' schedules to subscribed patient apps instead of polling of the whole schedule list.
+ * - Subscribers are server-sent event streams or long-poll requests. Both are async requests, idle subscriber holds
+ * a connection but no thread.
+ * - Changes are taken from {@link ScheduleChangedEvent} after commit and delivered by one dispatch thread, so writers
+ * do not wait for slow subscribers and every subscriber gets changes of a doctor in order. Changes made on other
+ * replicas arrive from {@link kz.smarthealth.scheduleservice.cache.CacheInvalidationBus} as
+ * {@link ScheduleChangeType#RESYNC}.
+ * - Dispatch and heartbeats only queue events of a stream, {@link ChangeSubscriber} writes them on a small send pool.
+ * Slow stream delays only itself, stream that falls behind is closed and resumes from its last event id.
+ * - Last changes of watched doctors are kept, subscriber reconnecting with the id of the last seen change gets
+ * missed changes, or {@link ScheduleChangeType#RESYNC} if they are not known.
+ * - Changes of doctors nobody watches are dropped.
+ */
+@Slf4j
+@Component
+public class ScheduleChangeHub {
+
+    private static final String HEARTBEAT_COMMENT = "heartbeat";
+
+    private final Duration sseTimeout;
+    private final Duration pollTimeout;
+    private final Duration retention;
+    private final int bufferSize;
+    private final int maxSubscribers;
+    private final int maxPendingEvents;
+    private final Map<UUID, DoctorChannel> channels = new ConcurrentHashMap<>();
+    private final AtomicLong sequence = new AtomicLong(System.currentTimeMillis() * 1000);
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    private final ExecutorService dispatchExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "schedule-change-dispatch");
+        thread.setDaemon(true);
+
+        return thread;
+    });
+    private final ExecutorService sendExecutor;
+
+    public ScheduleChangeHub(@Value("${app.changes.sse-timeout:PT30M}") Duration sseTimeout,
+                             @Value("${app.changes.poll-timeout:PT30S}") Duration pollTimeout,
+                             @Value("${app.changes.retention:PT2M}") Duration retention,
+                             @Value("${app.changes.buffer-size:32}") int bufferSize,
+                             @Value("${app.changes.max-subscribers:20000}") int maxSubscribers,
+                             @Value("${app.changes.max-pending-events:64}") int maxPendingEvents,
+                             @Value("${app.changes.send-threads:4}") int sendThreads) {
+        this.sseTimeout = sseTimeout;
+        this.pollTimeout = pollTimeout;
+        this.retention = retention;
+        this.bufferSize = bufferSize;
+        this.maxSubscribers = maxSubscribers;
+        this.maxPendingEvents = maxPendingEvents;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.sendExecutor = Executors.newFixedThreadPool(sendThreads, runnable -> {
+            Thread thread = new Thread(runnable, "schedule-change-send-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+
+            return thread;
+        });
+    }
+
+    /**
+     * Subscribes to changes of a doctor as server-sent events, event id is change id
+     *
+     * @param userId      doctor id
+     * @param lastEventId id of the last change seen by reconnecting subscriber, null for new subscriber
+     * @return event stream
+     * @throws CustomException if there are too many subscribers
+     */
+    public SseEmitter subscribe(UUID userId, Long lastEventId) {
+        reserveSubscriber();
+        SseEmitter emitter = new SseEmitter(sseTimeout.toMillis());
+        ChangeSubscriber subscriber = new ChangeSubscriber(emitter, maxPendingEvents, sendExecutor);
+        DoctorChannel channel = getChannel(userId);
+        emitter.onCompletion(() -> removeSubscriber(channel, subscriber));
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(e -> removeSubscriber(channel, subscriber));
+
+        synchronized (channel) {
+            channel.getSubscribers().add(subscriber);
+
+            if (lastEventId != null) {
+                List<ScheduleChangeDTO> missedChanges = channel.findChangesAfter(lastEventId);
+
+                for (ScheduleChangeDTO change : missedChanges == null ? List.of(resyncChange(userId)) : missedChanges) {
+                    send(channel, subscriber, change);
+                }
+            }
+        }
+
+        return emitter;
+    }
+
+    /**
+     * Waits for changes of a doctor
+     *
+     * @param userId      doctor id
+     * @param lastEventId id of the last change seen by subscriber, null to wait for the next change
+     * @return changes after given one as soon as there are some, empty list on timeout
+     * @throws CustomException if there are too many subscribers
+     */
+    public DeferredResult<List<ScheduleChangeDTO>> poll(UUID userId, Long lastEventId) {
+        DoctorChannel channel = getChannel(userId);
+        DeferredResult<List<ScheduleChangeDTO>> result = new DeferredResult<>(pollTimeout.toMillis(), List.of());
+
+        synchronized (channel) {
+            List<ScheduleChangeDTO> missedChanges = lastEventId == null ? List.of()
+                    : channel.findChangesAfter(lastEventId);
+
+            if (missedChanges == null) {
+                result.setResult(List.of(resyncChange(userId)));
+                return result;
+            }
+            if (!missedChanges.isEmpty()) {
+                result.setResult(missedChanges);
+                return result;
+            }
+
+            reserveSubscriber();
+            channel.getWaiters().add(result);
+        }
+
+        result.onCompletion(() -> {
+            synchronized (channel) {
+                if (channel.getWaiters().remove(result)) {
+                    subscriberCount.decrementAndGet();
+                }
+            }
+        });
+
+        return result;
+    }
+
+    /**
+     * Delivers change to subscribers of the doctor, after commit of the transaction if there is one
+     *
+     * @param event change
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onScheduleChanged(ScheduleChangedEvent event) {
+        DoctorChannel channel = channels.get(event.userId());
+
+        if (channel != null) {
+            dispatchExecutor.execute(() -> deliver(channel, event));
+        }
+    }
+
+    /**
+     * Tells subscribers of the doctor to fetch schedules again, for changes made on another replica
+     *
+     * @param userId doctor id
+     */
+    public void resync(UUID userId) {
+        onScheduleChanged(ScheduleChangedEvent.resync(userId));
+    }
+
+    /**
+     * Keeps idle event streams open through proxies and removes channels nobody watches any more.
+     * Heartbeats are only queued, so slow streams do not hold the scheduler thread.
+     */
+    @Scheduled(fixedDelayString = "${app.changes.heartbeat-interval:PT20S}")
+    public void sendHeartbeats() {
+        long idleSinceMillis = System.currentTimeMillis() - retention.toMillis();
+
+        channels.forEach((userId, channel) -> {
+            synchronized (channel) {
+                if (channel.isIdleSince(idleSinceMillis)) {
+                    channels.remove(userId, channel);
+                    channel.markRemoved();
+                    return;
+                }
+
+                channel.getSubscribers().forEach(subscriber -> {
+                    if (!subscriber.offer(SseEmitter.event().comment(HEARTBEAT_COMMENT))) {
+                        removeSubscriber(channel, subscriber);
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * @return number of open event streams and waiting long-poll requests
+     */
+    public int getSubscriberCount() {
+        return subscriberCount.get();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        dispatchExecutor.shutdownNow();
+        sendExecutor.shutdownNow();
+        channels.values().forEach(channel -> channel.getSubscribers()
+                .forEach(subscriber -> subscriber.getEmitter().complete()));
+    }
+
+    private void deliver(DoctorChannel channel, ScheduleChangedEvent event) {
+        ScheduleChangeDTO change = event.toScheduleChangeDTO(sequence.incrementAndGet());
+
+        synchronized (channel) {
+            channel.addChange(change);
+            channel.getSubscribers().forEach(subscriber -> send(channel, subscriber, change));
+            List<DeferredResult<List<ScheduleChangeDTO>>> waiters = List.copyOf(channel.getWaiters());
+            waiters.forEach(waiter -> waiter.setResult(List.of(change)));
+        }
+    }
+
+    private void send(DoctorChannel channel, ChangeSubscriber subscriber, ScheduleChangeDTO change) {
+        boolean queued = subscriber.offer(SseEmitter.event()
+                .id(String.valueOf(change.getId()))
+                .name(change.getType().name())
+                .data(change, MediaType.APPLICATION_JSON));
+
+        if (!queued) {
+            removeSubscriber(channel, subscriber);
+            log.debug("Slow change subscriber dropped, userId: {}", change.getUserId());
+        }
+    }
+
+    /**
+     * Gets channel of a doctor, touched so it is not removed as idle for retention time. Channel removed as idle
+     * between lookup and touch is not used, the lookup is repeated and creates a new one.
+     */
+    private DoctorChannel getChannel(UUID userId) {
+        while (true) {
+            DoctorChannel channel = channels.computeIfAbsent(userId,
+                    key -> new DoctorChannel(bufferSize, sequence.get()));
+
+            synchronized (channel) {
+                if (!channel.isRemoved()) {
+                    channel.touch();
+
+                    return channel;
+                }
+            }
+        }
+    }
+
+    private void reserveSubscriber() {
+        if (subscriberCount.incrementAndGet() > maxSubscribers) {
+            subscriberCount.decrementAndGet();
+
+            throw CustomException.builder()
+                    .httpStatus(HttpStatus.SERVICE_UNAVAILABLE)
+                    .errorMessage(MessageSource.REQUEST_SHED.getText())
+                    .build();
+        }
+    }
+
+    private void removeSubscriber(DoctorChannel channel, ChangeSubscriber subscriber) {
+        if (channel.getSubscribers().remove(subscriber)) {
+            subscriberCount.decrementAndGet();
+        }
+    }
+
+    private ScheduleChangeDTO resyncChange(UUID userId) {
+        return ScheduleChangeDTO.builder()
+                .id(sequence.get())
+                .userId(userId)
+                .type(ScheduleChangeType.RESYNC)
+                .build();
+    }
+}
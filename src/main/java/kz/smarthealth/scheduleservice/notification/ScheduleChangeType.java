@@ -0,0 +1,33 @@
+package kz.smarthealth.scheduleservice.notification;
+
+/**
+ * Kind of change of doctor's schedules pushed to subscribers
+ */
+public enum ScheduleChangeType {
+
+    /**
+     * Free schedules starting or ending within the range were replaced, schedules of the range have to be requested
+     * again. New schedules are not listed: a range may have thousands of them.
+     */
+    CREATED,
+    /**
+     * Schedules by given ids were deleted
+     */
+    DELETED,
+    /**
+     * Schedules by given ids were reserved
+     */
+    RESERVED,
+    /**
+     * Schedules by given ids were held by a patient
+     */
+    HELD,
+    /**
+     * Holds of schedules by given ids were released or expired
+     */
+    RELEASED,
+    /**
+     * Changes were missed or are too many to describe, schedules have to be requested again
+     */
+    RESYNC
+}
@@ -0,0 +1,47 @@
+package kz.smarthealth.scheduleservice.notification;
+
+import kz.smarthealth.scheduleservice.model.dto.ScheduleChangeDTO;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Application event published by writes of doctor's schedules, delivered to subscribers after commit
+ *
+ * @param userId        doctor id
+ * @param type          kind of change
+ * @param startDateTime for {@link ScheduleChangeType#CREATED}, UTC start of replaced range
+ * @param endDateTime   for {@link ScheduleChangeType#CREATED}, UTC end of replaced range
+ * @param scheduleIds   for other types except {@link ScheduleChangeType#RESYNC}, ids of changed schedules
+ */
+public record ScheduleChangedEvent(UUID userId, ScheduleChangeType type, LocalDateTime startDateTime,
+                                   LocalDateTime endDateTime, List<UUID> scheduleIds) {
+
+    public static ScheduleChangedEvent created(UUID userId, LocalDateTime startDateTime, LocalDateTime endDateTime) {
+        return new ScheduleChangedEvent(userId, ScheduleChangeType.CREATED, startDateTime, endDateTime, null);
+    }
+
+    public static ScheduleChangedEvent of(UUID userId, ScheduleChangeType type, List<UUID> scheduleIds) {
+        return new ScheduleChangedEvent(userId, type, null, null, scheduleIds);
+    }
+
+    public static ScheduleChangedEvent resync(UUID userId) {
+        return new ScheduleChangedEvent(userId, ScheduleChangeType.RESYNC, null, null, null);
+    }
+
+    /**
+     * @param id change id
+     * @return change as sent to subscribers
+     */
+    public ScheduleChangeDTO toScheduleChangeDTO(Long id) {
+        return ScheduleChangeDTO.builder()
+                .id(id)
+                .userId(userId)
+                .type(type)
+                .startDateTime(startDateTime)
+                .endDateTime(endDateTime)
+                .scheduleIds(scheduleIds)
+                .build();
+    }
+}
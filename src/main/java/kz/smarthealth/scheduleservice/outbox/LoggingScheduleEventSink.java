@@ -0,0 +1,19 @@
+package kz.smarthealth.scheduleservice.outbox;
+
+import kz.smarthealth.scheduleservice.model.dto.ScheduleChangeDTO;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.List;
+
+/**
+ * Sink that only logs changes, used when no webhook is configured, e.g. locally and in tests
+ */
+@Slf4j
+public class LoggingScheduleEventSink implements ScheduleEventSink {
+
+    @Override
+    public void publish(List<ScheduleChangeDTO> changes) {
+        log.debug("Schedule changes published, count: {}, last id: {}", changes.size(),
+                changes.get(changes.size() - 1).getId());
+    }
+}
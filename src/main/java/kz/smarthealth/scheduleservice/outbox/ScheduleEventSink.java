@@ -0,0 +1,20 @@
+package kz.smarthealth.scheduleservice.outbox;
+
+import kz.smarthealth.scheduleservice.model.dto.ScheduleChangeDTO;
+
+import java.util.List;
+
+/**
+ * Destination of schedule changes relayed from the outbox, e.g. webhook of downstream services
+ */
+public interface ScheduleEventSink {
+
+    /**
+     * Publishes changes. Changes of the same doctor are given in order and must be delivered in order.
+     * Changes may be given again after failure or restart, consumers deduplicate them by id.
+     *
+     * @param changes changes ordered by id
+     * @throws RuntimeException if changes are not accepted, they are published again later
+     */
+    void publish(List<ScheduleChangeDTO> changes);
+}
@@ -0,0 +1,100 @@
+package kz.smarthealth.scheduleservice.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import kz.smarthealth.scheduleservice.notification.ScheduleChangedEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static kz.smarthealth.scheduleservice.util.AppConstants.UTC_ZONE_ID;
+
+/**
+ * Transactional outbox of schedule changes for downstream services.
+ * Changes, taken from {@link ScheduleChangedEvent}, are inserted into schedule_outbox in the transaction of the write
+ * with one batch right before commit, so the outbox has a change if and only if it is committed. Rows are published
+ * and deleted by {@link ScheduleOutboxRelay}.
+ */
+@Component
+public class ScheduleOutbox {
+
+    private static final String INSERT_SQL = "insert into schedule_outbox (user_id, event_type, payload, created_at) " +
+            "values (?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+    private final Object transactionResourceKey = new Object();
+
+    public ScheduleOutbox(JdbcTemplate jdbcTemplate,
+                          ObjectMapper objectMapper,
+                          @Value("${app.outbox.enabled:true}") boolean enabled) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+    }
+
+    /**
+     * Collects change made in current transaction, changes are inserted before commit.
+     * Outside of transaction change is inserted immediately.
+     *
+     * @param event change
+     */
+    @EventListener
+    public void onScheduleChanged(ScheduleChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            insert(List.of(event));
+            return;
+        }
+
+        @SuppressWarnings("unchecked")
+        List<ScheduleChangedEvent> events = (List<ScheduleChangedEvent>) TransactionSynchronizationManager
+                .getResource(transactionResourceKey);
+
+        if (events == null) {
+            List<ScheduleChangedEvent> transactionEvents = new ArrayList<>();
+            TransactionSynchronizationManager.bindResource(transactionResourceKey, transactionEvents);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    insert(transactionEvents);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(transactionResourceKey);
+                }
+            });
+            events = transactionEvents;
+        }
+
+        events.add(event);
+    }
+
+    private void insert(List<ScheduleChangedEvent> events) {
+        Timestamp createdAt = Timestamp.valueOf(LocalDateTime.now(UTC_ZONE_ID));
+        List<Object[]> rows = events.stream()
+                .map(event -> new Object[]{event.userId(), event.type().name(), toJson(event), createdAt})
+                .toList();
+        jdbcTemplate.batchUpdate(INSERT_SQL, rows);
+    }
+
+    private String toJson(ScheduleChangedEvent event) {
+        try {
+            return objectMapper.writeValueAsString(event.toScheduleChangeDTO(null));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Schedule change is not serializable", e);
+        }
+    }
+}
@@ -0,0 +1,234 @@
+package kz.smarthealth.scheduleservice.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import kz.smarthealth.scheduleservice.model.dto.ScheduleChangeDTO;
+import kz.smarthealth.scheduleservice.sharding.ShardRouter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static kz.smarthealth.scheduleservice.util.AppConstants.UTC_ZONE_ID;
+
+/**
+ * Publishes changes from schedule_outbox of every shard to {@link ScheduleEventSink} in batches.
+ * - One replica relays a shard at a time, it holds a lease in outbox_relay_lease renewed before every batch. So
+ * changes of a doctor are published in order of outbox ids.
+ * - Rows are deleted after the sink accepted the batch, changes are published at least once.
+ * - Row that cannot be read is moved to schedule_outbox_dead_letter, so it does not block the rest of the shard.
+ * - One batch per shard is in flight. After failure of the sink the shard is retried with exponential backoff, so
+ * unavailable consumer is not flooded and changes wait in the outbox.
+ * - Relay runs on its own thread, not on the shared scheduler, so slow sink does not delay hold expiry or sweeps.
+ */
+@Slf4j
+@Component
+public class ScheduleOutboxRelay {
+
+    private static final String LEASE_NAME = "schedule_outbox";
+    private static final String ACQUIRE_LEASE_SQL = "update outbox_relay_lease set owner = ?, leased_until = ? " +
+            "where name = ? and (owner = ? or leased_until is null or leased_until < ?)";
+    private static final String SELECT_SQL = "select o.id, o.payload from schedule_outbox o order by o.id limit ?";
+    private static final String DELETE_SQL = "delete from schedule_outbox where id = ?";
+    private static final String DEAD_LETTER_SQL = "insert into schedule_outbox_dead_letter (id, user_id, " +
+            "event_type, payload, created_at, failed_at) select o.id, o.user_id, o.event_type, o.payload, " +
+            "o.created_at, ? from schedule_outbox o where o.id = ?";
+    private static final int MAX_BATCHES_PER_RUN = 10;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ShardRouter shardRouter;
+    private final ScheduleEventSink scheduleEventSink;
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+    private final int batchSize;
+    private final Duration leaseDuration;
+    private final Duration retryDelay;
+    private final Duration maxRetryDelay;
+    private final Duration relayInterval;
+    private final String relayId = UUID.randomUUID().toString();
+    private final Map<String, ShardBackoff> backoffs = new ConcurrentHashMap<>();
+    private final Counter publishedCounter;
+    private final Counter failedCounter;
+    private final Counter deadLetteredCounter;
+    private final ScheduledExecutorService relayExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "schedule-outbox-relay");
+        thread.setDaemon(true);
+
+        return thread;
+    });
+
+    public ScheduleOutboxRelay(JdbcTemplate jdbcTemplate,
+                               TransactionTemplate transactionTemplate,
+                               ShardRouter shardRouter,
+                               ScheduleEventSink scheduleEventSink,
+                               ObjectMapper objectMapper,
+                               MeterRegistry meterRegistry,
+                               @Value("${app.outbox.enabled:true}") boolean enabled,
+                               @Value("${app.outbox.batch-size:500}") int batchSize,
+                               @Value("${app.outbox.lease-duration:PT1M}") Duration leaseDuration,
+                               @Value("${app.outbox.retry-delay:PT1S}") Duration retryDelay,
+                               @Value("${app.outbox.max-retry-delay:PT5M}") Duration maxRetryDelay,
+                               @Value("${app.outbox.relay-interval:PT1S}") Duration relayInterval) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.shardRouter = shardRouter;
+        this.scheduleEventSink = scheduleEventSink;
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.leaseDuration = leaseDuration;
+        this.retryDelay = retryDelay;
+        this.maxRetryDelay = maxRetryDelay;
+        this.relayInterval = relayInterval;
+        this.publishedCounter = Counter.builder("schedule.outbox.published")
+                .description("Schedule changes accepted by the sink")
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder("schedule.outbox.failed")
+                .description("Batches of schedule changes rejected by the sink")
+                .register(meterRegistry);
+        this.deadLetteredCounter = Counter.builder("schedule.outbox.dead-lettered")
+                .description("Malformed schedule changes moved to dead letter table")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Starts relaying with fixed delay on the relay thread
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+
+        relayExecutor.scheduleWithFixedDelay(() -> {
+            try {
+                relay();
+            } catch (RuntimeException e) {
+                log.error("Schedule changes relay failed", e);
+            }
+        }, relayInterval.toMillis(), relayInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        relayExecutor.shutdownNow();
+    }
+
+    /**
+     * Publishes pending changes of all shards, at most a few batches per shard
+     */
+    public synchronized void relay() {
+        if (!enabled) {
+            return;
+        }
+
+        for (String shard : shardRouter.getShards()) {
+            ShardBackoff backoff = backoffs.get(shard);
+
+            if (backoff != null && backoff.retryAt().isAfter(LocalDateTime.now(UTC_ZONE_ID))) {
+                continue;
+            }
+
+            shardRouter.runOn(shard, () -> relayShard(shard));
+        }
+    }
+
+    private void relayShard(String shard) {
+        for (int i = 0; i < MAX_BATCHES_PER_RUN && acquireLease(); i++) {
+            List<OutboxRow> rows = jdbcTemplate.query(SELECT_SQL,
+                    (resultSet, rowNum) -> new OutboxRow(resultSet.getLong("id"), resultSet.getString("payload")),
+                    batchSize);
+
+            if (rows.isEmpty()) {
+                break;
+            }
+
+            List<ScheduleChangeDTO> changes = new ArrayList<>(rows.size());
+
+            for (OutboxRow row : rows) {
+                try {
+                    changes.add(toScheduleChangeDTO(row));
+                } catch (JsonProcessingException e) {
+                    deadLetter(shard, row, e);
+                }
+            }
+
+            try {
+                if (!changes.isEmpty()) {
+                    scheduleEventSink.publish(changes);
+                }
+            } catch (RuntimeException e) {
+                failedCounter.increment();
+                ShardBackoff backoff = backoffs.merge(shard, nextBackoff(null),
+                        (previous, ignored) -> nextBackoff(previous));
+                log.warn("Schedule changes are not published, shard: {}, retry at: {}", shard, backoff.retryAt(), e);
+                return;
+            }
+
+            jdbcTemplate.batchUpdate(DELETE_SQL, changes.stream()
+                    .map(change -> new Object[]{change.getId()})
+                    .toList());
+            publishedCounter.increment(changes.size());
+            backoffs.remove(shard);
+
+            if (rows.size() < batchSize) {
+                break;
+            }
+        }
+    }
+
+    private boolean acquireLease() {
+        LocalDateTime now = LocalDateTime.now(UTC_ZONE_ID);
+
+        return jdbcTemplate.update(ACQUIRE_LEASE_SQL, relayId, Timestamp.valueOf(now.plus(leaseDuration)),
+                LEASE_NAME, relayId, Timestamp.valueOf(now)) > 0;
+    }
+
+    private ShardBackoff nextBackoff(ShardBackoff previous) {
+        Duration delay = previous == null ? retryDelay : previous.delay().multipliedBy(2);
+        Duration cappedDelay = delay.compareTo(maxRetryDelay) > 0 ? maxRetryDelay : delay;
+
+        return new ShardBackoff(cappedDelay, LocalDateTime.now(UTC_ZONE_ID).plus(cappedDelay));
+    }
+
+    private ScheduleChangeDTO toScheduleChangeDTO(OutboxRow row) throws JsonProcessingException {
+        ScheduleChangeDTO change = objectMapper.readValue(row.payload(), ScheduleChangeDTO.class);
+        change.setId(row.id());
+
+        return change;
+    }
+
+    private void deadLetter(String shard, OutboxRow row, JsonProcessingException e) {
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.update(DEAD_LETTER_SQL, Timestamp.valueOf(LocalDateTime.now(UTC_ZONE_ID)), row.id());
+            jdbcTemplate.update(DELETE_SQL, row.id());
+        });
+        deadLetteredCounter.increment();
+        log.error("Malformed schedule change moved to dead letter table, shard: {}, id: {}", shard, row.id(), e);
+    }
+
+    private record OutboxRow(long id, String payload) {
+    }
+
+    private record ShardBackoff(Duration delay, LocalDateTime retryAt) {
+    }
+}
@@ -0,0 +1,26 @@
+package kz.smarthealth.scheduleservice.outbox;
+
+import kz.smarthealth.scheduleservice.model.dto.ScheduleChangeDTO;
+import org.springframework.web.client.RestTemplate;
+
+import java.net.URI;
+import java.util.List;
+
+/**
+ * Sink that posts every batch of changes as JSON array to a webhook, any response except 2xx is a failure
+ */
+public class WebhookScheduleEventSink implements ScheduleEventSink {
+
+    private final RestTemplate restTemplate;
+    private final URI uri;
+
+    public WebhookScheduleEventSink(RestTemplate restTemplate, URI uri) {
+        this.restTemplate = restTemplate;
+        this.uri = uri;
+    }
+
+    @Override
+    public void publish(List<ScheduleChangeDTO> changes) {
+        restTemplate.postForEntity(uri, changes, Void.class);
+    }
+}
@@ -0,0 +1,160 @@
+package kz.smarthealth.scheduleservice.profiling;
+
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.Configuration;
+import jdk.jfr.EventType;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Recording;
+import jdk.management.jfr.FlightRecorderMXBean;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static kz.smarthealth.scheduleservice.util.AppConstants.UTC_ZONE_ID;
+
+/**
+ * Always-on JFR recording of the service, kept on disk for the last app.profiling.max-age.
+ * - Settings are taken from a JDK configuration ("default" has about 1% overhead) with schedule creation events
+ * ({@link ScheduleWriteEvent}) enabled above a configured threshold.
+ * - Any period of the recording can be dumped into a file afterwards, see {@link RecordingEndpoint}.
+ */
+@Slf4j
+@Component
+public class ContinuousRecording {
+
+    private static final String RECORDING_NAME = "schedule-service";
+    private static final DateTimeFormatter DUMP_FILE_FORMATTER = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")
+            .withZone(UTC_ZONE_ID);
+    private static final List<Class<? extends ScheduleWriteEvent>> SCHEDULE_EVENTS = List.of(
+            SlotGenerationEvent.class, ScheduleMergeEvent.class, SchedulePersistEvent.class);
+
+    private final boolean enabled;
+    private final String configurationName;
+    private final Duration maxAge;
+    private final DataSize maxSize;
+    private final Duration eventThreshold;
+    private final Path dumpDirectory;
+    private Recording recording;
+
+    public ContinuousRecording(@Value("${app.profiling.enabled:true}") boolean enabled,
+                               @Value("${app.profiling.configuration:default}") String configurationName,
+                               @Value("${app.profiling.max-age:PT30M}") Duration maxAge,
+                               @Value("${app.profiling.max-size:200MB}") DataSize maxSize,
+                               @Value("${app.profiling.event-threshold:PT0.01S}") Duration eventThreshold,
+                               @Value("${app.profiling.dump-directory:${java.io.tmpdir}}") Path dumpDirectory) {
+        this.enabled = enabled;
+        this.configurationName = configurationName;
+        this.maxAge = maxAge;
+        this.maxSize = maxSize;
+        this.eventThreshold = eventThreshold;
+        this.dumpDirectory = dumpDirectory;
+    }
+
+    /**
+     * Starts the recording if JFR is available
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        if (!enabled || recording != null) {
+            return;
+        }
+        if (!FlightRecorder.isAvailable()) {
+            log.info("Continuous recording is disabled, JFR is not available");
+            return;
+        }
+
+        try {
+            Map<String, String> settings = new HashMap<>(Configuration.getConfiguration(configurationName)
+                    .getSettings());
+
+            for (Class<? extends ScheduleWriteEvent> eventClass : SCHEDULE_EVENTS) {
+                String eventName = EventType.getEventType(eventClass).getName();
+                settings.put(eventName + "#enabled", "true");
+                settings.put(eventName + "#threshold", eventThreshold.toMillis() + " ms");
+            }
+
+            Recording newRecording = new Recording(settings);
+            newRecording.setName(RECORDING_NAME);
+            newRecording.setToDisk(true);
+            newRecording.setMaxAge(maxAge);
+            newRecording.setMaxSize(maxSize.toBytes());
+            newRecording.start();
+            recording = newRecording;
+            log.info("Continuous recording started, configuration: {}, max age: {}, max size: {}",
+                    configurationName, maxAge, maxSize);
+        } catch (IOException | ParseException | RuntimeException e) {
+            log.warn("Continuous recording is not started, configuration: {}", configurationName, e);
+        }
+    }
+
+    @PreDestroy
+    public synchronized void stop() {
+        if (recording != null) {
+            recording.close();
+            recording = null;
+        }
+    }
+
+    /**
+     * @return true if the recording is running
+     */
+    public synchronized boolean isRunning() {
+        return recording != null;
+    }
+
+    /**
+     * Writes the last period of the recording into a new file of the dump directory.
+     * Running recording can not be read, so the period is read from its stopped clone.
+     *
+     * @param period period before now, at most max age of the recording is available
+     * @return written file, or null if the recording is not running
+     * @throws IOException if the file is not written
+     */
+    public synchronized Path dump(Duration period) throws IOException {
+        if (recording == null) {
+            return null;
+        }
+
+        Instant endTime = Instant.now();
+        Path file = dumpDirectory.resolve(RECORDING_NAME + "-" + DUMP_FILE_FORMATTER.format(endTime) + ".jfr");
+        FlightRecorderMXBean flightRecorder = ManagementFactory.getPlatformMXBean(FlightRecorderMXBean.class);
+        long cloneId = flightRecorder.cloneRecording(recording.getId(), true);
+
+        try {
+            long streamId = flightRecorder.openStream(cloneId, Map.of(
+                    "startTime", endTime.minus(period).toString(),
+                    "endTime", endTime.toString()));
+
+            try (OutputStream outputStream = Files.newOutputStream(file)) {
+                for (byte[] chunk = flightRecorder.readStream(streamId); chunk != null;
+                     chunk = flightRecorder.readStream(streamId)) {
+                    outputStream.write(chunk);
+                }
+            } finally {
+                flightRecorder.closeStream(streamId);
+            }
+        } finally {
+            flightRecorder.closeRecording(cloneId);
+        }
+
+        log.info("Continuous recording dumped, period: {}, file: {}", period, file);
+
+        return file;
+    }
+}
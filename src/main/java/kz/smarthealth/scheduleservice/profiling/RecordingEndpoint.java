@@ -0,0 +1,59 @@
+package kz.smarthealth.scheduleservice.profiling;
+
+import kz.smarthealth.scheduleservice.model.dto.RecordingDumpDTO;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Actuator endpoint "recording": POST dumps the last minutes of {@link ContinuousRecording} into a file on the
+ * instance, e.g. after a latency spike. Responds with 404 if the recording is not running.
+ */
+@Component
+@Endpoint(id = "recording")
+public class RecordingEndpoint {
+
+    private final ContinuousRecording continuousRecording;
+    private final int defaultMinutes;
+
+    public RecordingEndpoint(ContinuousRecording continuousRecording,
+                             @Value("${app.profiling.dump-minutes:5}") int defaultMinutes) {
+        this.continuousRecording = continuousRecording;
+        this.defaultMinutes = defaultMinutes;
+    }
+
+    /**
+     * @param minutes period before now, default one if null
+     * @return written file, or null if the recording is not running
+     * @throws IOException if the file is not written
+     */
+    @WriteOperation
+    public RecordingDumpDTO dump(@Nullable Integer minutes) throws IOException {
+        int dumpMinutes = minutes == null ? defaultMinutes : minutes;
+
+        if (dumpMinutes < 1) {
+            throw new InvalidEndpointRequestException("Minutes must be positive: " + dumpMinutes,
+                    "Invalid minutes");
+        }
+
+        Path file = continuousRecording.dump(Duration.ofMinutes(dumpMinutes));
+
+        if (file == null) {
+            return null;
+        }
+
+        return RecordingDumpDTO.builder()
+                .path(file.toAbsolutePath().toString())
+                .minutes(dumpMinutes)
+                .sizeBytes(Files.size(file))
+                .build();
+    }
+}
@@ -0,0 +1,16 @@
+package kz.smarthealth.scheduleservice.profiling;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JFR event of merge of generated slots with existing schedules: slots overlapping reserved schedules are removed and
+ * replaced schedules are deleted
+ */
+@Name("kz.smarthealth.schedule.ScheduleMerge")
+@Label("Schedule Merge")
+@Description("Removal of slots overlapping reserved schedules and deletion of replaced schedules, " +
+        "schedules are slots left")
+public class ScheduleMergeEvent extends ScheduleWriteEvent {
+}
@@ -0,0 +1,14 @@
+package kz.smarthealth.scheduleservice.profiling;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JFR event of bulk insert of new schedules
+ */
+@Name("kz.smarthealth.schedule.SchedulePersist")
+@Label("Schedule Persist")
+@Description("Bulk insert of new schedules, schedules are inserted rows")
+public class SchedulePersistEvent extends ScheduleWriteEvent {
+}
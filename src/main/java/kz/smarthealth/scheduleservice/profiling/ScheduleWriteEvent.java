@@ -0,0 +1,38 @@
+package kz.smarthealth.scheduleservice.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.StackTrace;
+
+/**
+ * Base of JFR events of schedule creation phases, see {@link ContinuousRecording}.
+ * Usage: {@code begin()} before the phase and {@link #complete(int, int)} after it, fields are set only if the event
+ * is recorded.
+ */
+@Category({"Schedule Service", "Schedule Creation"})
+@StackTrace(false)
+public abstract class ScheduleWriteEvent extends Event {
+
+    @Label("Doctors")
+    int doctorCount;
+
+    @Label("Schedules")
+    int scheduleCount;
+
+    /**
+     * Ends the phase and commits the event if it is enabled and longer than its threshold
+     *
+     * @param doctorCount   number of doctors in the phase
+     * @param scheduleCount number of schedules in the phase
+     */
+    public void complete(int doctorCount, int scheduleCount) {
+        end();
+
+        if (shouldCommit()) {
+            this.doctorCount = doctorCount;
+            this.scheduleCount = scheduleCount;
+            commit();
+        }
+    }
+}
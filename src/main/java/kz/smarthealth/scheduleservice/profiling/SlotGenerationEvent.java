@@ -0,0 +1,14 @@
+package kz.smarthealth.scheduleservice.profiling;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JFR event of generation of slots from working hours of doctors
+ */
+@Name("kz.smarthealth.schedule.SlotGeneration")
+@Label("Slot Generation")
+@Description("Generation of slots from working hours, schedules are generated slots")
+public class SlotGenerationEvent extends ScheduleWriteEvent {
+}
@@ -0,0 +1,75 @@
+package kz.smarthealth.scheduleservice.repository;
+
+import kz.smarthealth.scheduleservice.model.entity.DailyAvailabilityEntity;
+import kz.smarthealth.scheduleservice.model.entity.DailyAvailabilityId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * PostgreSQL repository for {@link DailyAvailabilityEntity}
+ */
+@Repository
+public interface DailyAvailabilityRepository extends JpaRepository<DailyAvailabilityEntity, DailyAvailabilityId> {
+
+    String SUMMARY_SQL = "select s.user_id, cast(s.start_date_time as date), count(*), " +
+            "sum(case when s.is_reserved or s.held_until > :now then 0 else 1 end), " +
+            "min(case when s.is_reserved or s.held_until > :now then null else s.start_date_time end) " +
+            "from schedules s where s.user_id in (:userIds) " +
+            "and s.start_date_time >= :startDateTime and s.start_date_time < :endDateTime " +
+            "group by s.user_id, cast(s.start_date_time as date) ";
+
+    /**
+     * Locks summary rows of given doctors and days, so concurrent refreshes of the same days run one after another
+     * and the later one computes the summary from committed changes of the earlier one
+     */
+    @Query(value = "select 1 from daily_availability d where d.user_id in (:userIds) " +
+            "and d.available_date >= :startDate and d.available_date <= :endDate " +
+            "order by d.user_id, d.available_date for update",
+            nativeQuery = true)
+    List<Integer> lockAllByUserIdsBetweenDates(Collection<UUID> userIds, LocalDate startDate, LocalDate endDate);
+
+    @Modifying(flushAutomatically = true)
+    @Query(value = "INSERT INTO daily_availability " +
+            "(user_id, available_date, slot_count, free_count, first_free_start_date_time) " +
+            SUMMARY_SQL +
+            "on conflict (user_id, available_date) do update set slot_count = excluded.slot_count, " +
+            "free_count = excluded.free_count, first_free_start_date_time = excluded.first_free_start_date_time",
+            nativeQuery = true)
+    void upsertAllByUserIdsBetweenDates(Collection<UUID> userIds, LocalDateTime startDateTime,
+                                        LocalDateTime endDateTime, LocalDateTime now);
+
+    /**
+     * Same as {@link #upsertAllByUserIdsBetweenDates} in "merge" syntax of H2, used by tests and CDS training run
+     */
+    @Modifying(flushAutomatically = true)
+    @Query(value = "MERGE INTO daily_availability " +
+            "(user_id, available_date, slot_count, free_count, first_free_start_date_time) " +
+            "key (user_id, available_date) " +
+            SUMMARY_SQL,
+            nativeQuery = true)
+    void mergeAllByUserIdsBetweenDates(Collection<UUID> userIds, LocalDateTime startDateTime,
+                                       LocalDateTime endDateTime, LocalDateTime now);
+
+    @Modifying(flushAutomatically = true)
+    @Query(value = "DELETE FROM daily_availability d WHERE d.user_id in (:userIds) " +
+            "and d.available_date >= :startDate and d.available_date <= :endDate " +
+            "and not exists (select 1 from schedules s where s.user_id = d.user_id " +
+            "and s.start_date_time >= :startDateTime and s.start_date_time < :endDateTime " +
+            "and cast(s.start_date_time as date) = d.available_date)",
+            nativeQuery = true)
+    void deleteAllWithoutSchedulesByUserIdsBetweenDates(Collection<UUID> userIds, LocalDate startDate,
+                                                        LocalDate endDate, LocalDateTime startDateTime,
+                                                        LocalDateTime endDateTime);
+
+    List<DailyAvailabilityEntity> findAllByUserIdAndAvailableDateBetweenOrderByAvailableDate(UUID userId,
+                                                                                         LocalDate startDate,
+                                                                                         LocalDate endDate);
+}
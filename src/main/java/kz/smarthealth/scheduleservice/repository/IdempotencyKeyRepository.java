@@ -0,0 +1,31 @@
+package kz.smarthealth.scheduleservice.repository;
+
+import kz.smarthealth.scheduleservice.model.entity.IdempotencyKeyEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * PostgreSQL repository for {@link IdempotencyKeyEntity}
+ */
+@Repository
+public interface IdempotencyKeyRepository extends JpaRepository<IdempotencyKeyEntity, String> {
+
+    /**
+     * Inserts key right away, so concurrent request with the same key waits for this transaction and then fails
+     * on primary key instead of repeating the work
+     */
+    @Modifying
+    @Query(value = "insert into idempotency_keys (idempotency_key, request_hash, created_at, user_id) " +
+            "values (:idempotencyKey, :requestHash, :createdAt, :userId)",
+            nativeQuery = true)
+    void insert(String idempotencyKey, String requestHash, LocalDateTime createdAt, UUID userId);
+
+    @Modifying
+    @Query(value = "delete from idempotency_keys where created_at < :createdAt", nativeQuery = true)
+    int deleteAllCreatedBefore(LocalDateTime createdAt);
+}
@@ -0,0 +1,25 @@
+package kz.smarthealth.scheduleservice.repository;
+
+import kz.smarthealth.scheduleservice.model.dto.ScheduleDTO;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Read-only queries of schedules mapped straight from result set to DTO, without entities in persistence context
+ */
+public interface ScheduleProjectionRepository {
+
+    /**
+     * Finds schedules of a doctor starting in [startDateTime, endDateTime) or ending in (startDateTime, endDateTime]
+     *
+     * @param userId        doctor id
+     * @param startDateTime start of the range in UTC
+     * @param endDateTime   end of the range in UTC
+     * @return schedules ordered by start
+     */
+    List<ScheduleDTO> findAllScheduleDTOsByUserIdBetweenDates(UUID userId,
+                                                              LocalDateTime startDateTime,
+                                                              LocalDateTime endDateTime);
+}
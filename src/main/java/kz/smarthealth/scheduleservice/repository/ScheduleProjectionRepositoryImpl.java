@@ -0,0 +1,50 @@
+package kz.smarthealth.scheduleservice.repository;
+
+import kz.smarthealth.scheduleservice.model.dto.ScheduleDTO;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * {@link ScheduleProjectionRepository} on JDBC: rows are mapped by {@link RowMapper}, so there are no managed
+ * entities and no snapshots for dirty checking. Rows are fetched in batches of the configured fetch size, statements
+ * are cancelled after the statement timeout, so slow database fails reads instead of holding connections.
+ */
+public class ScheduleProjectionRepositoryImpl implements ScheduleProjectionRepository {
+
+    private static final String SCHEDULES_BY_USER_ID_BETWEEN_DATES_SQL = "select s.id, s.user_id, " +
+            "s.start_date_time, s.end_date_time, s.is_reserved, s.created_at from schedules s where s.user_id = ? " +
+            "and (s.start_date_time >= ? and s.start_date_time < ? or s.end_date_time > ? and s.end_date_time <= ?) " +
+            "order by s.start_date_time";
+    private static final RowMapper<ScheduleDTO> SCHEDULE_DTO_ROW_MAPPER = (resultSet, rowNum) -> new ScheduleDTO(
+            resultSet.getObject(1, UUID.class),
+            resultSet.getObject(2, UUID.class),
+            resultSet.getObject(3, LocalDateTime.class),
+            resultSet.getObject(4, LocalDateTime.class),
+            resultSet.getBoolean(5),
+            resultSet.getObject(6, LocalDateTime.class));
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ScheduleProjectionRepositoryImpl(DataSource dataSource,
+                                            @Value("${app.read.fetch-size:500}") int fetchSize,
+                                            @Value("${app.read.statement-timeout:PT2S}") Duration statementTimeout) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(fetchSize);
+        this.jdbcTemplate.setQueryTimeout((int) Math.max(1, statementTimeout.toSeconds()));
+    }
+
+    @Override
+    public List<ScheduleDTO> findAllScheduleDTOsByUserIdBetweenDates(UUID userId,
+                                                                     LocalDateTime startDateTime,
+                                                                     LocalDateTime endDateTime) {
+        return jdbcTemplate.query(SCHEDULES_BY_USER_ID_BETWEEN_DATES_SQL, SCHEDULE_DTO_ROW_MAPPER, userId,
+                startDateTime, endDateTime, startDateTime, endDateTime);
+    }
+}
@@ -7,7 +7,9 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 /**
@@ -16,26 +18,118 @@ import java.util.UUID;
  * Created by Samat Abibulla on 2023-06-12
  */
 @Repository
-public interface ScheduleRepository extends JpaRepository<ScheduleEntity, UUID> {
+public interface ScheduleRepository extends JpaRepository<ScheduleEntity, UUID>, ScheduleProjectionRepository {
 
-    @Modifying
-    @Query(value = "select * from schedules s where  s.user_id = :userId and s.is_reserved " +
-            "and (s.start_date_time <= :startDateTime and s.end_date_time >= :endDateTime " +
-            "or s.end_date_time > :startDateTime and s.end_date_time <= :endDateTime) " +
-            "order by start_date_time",
+    @Query(value = "select * from schedules s where s.user_id = :userId and s.is_reserved " +
+            "and s.start_date_time < :endDateTime and s.end_date_time > :startDateTime " +
+            "order by s.start_date_time",
             nativeQuery = true)
     List<ScheduleEntity> findAllReservedSchedulesByUserIdBetweenDates(UUID userId,
                                                                       LocalDateTime startDateTime,
                                                                       LocalDateTime endDateTime);
 
+    @Query(value = "select * from schedules s where s.user_id = :userId and s.is_reserved " +
+            "and s.end_date_time > :endDateTime order by s.start_date_time",
+            nativeQuery = true)
+    List<ScheduleEntity> findAllReservedSchedulesByUserIdEndingAfter(UUID userId, LocalDateTime endDateTime);
+
+    @Query(value = "select * from schedules s where s.user_id = :userId " +
+            "and (s.is_reserved or s.held_until > :now) " +
+            "and s.start_date_time < :endDateTime and s.end_date_time > :startDateTime " +
+            "order by s.start_date_time",
+            nativeQuery = true)
+    List<ScheduleEntity> findAllReservedOrHeldSchedulesByUserIdBetweenDates(UUID userId,
+                                                                            LocalDateTime startDateTime,
+                                                                            LocalDateTime endDateTime,
+                                                                            LocalDateTime now);
+
     @Modifying
     @Query(value = "DELETE FROM schedules s WHERE s.user_id = :userId and s.is_reserved = false " +
+            "and (s.held_until is null or s.held_until <= :now) " +
             "and (s.start_date_time >= :startDateTime and s.start_date_time < :endDateTime or " +
             "s.end_date_time > :startDateTime and s.end_date_time <= :endDateTime)",
             nativeQuery = true)
     void deleteAllOverlappingSchedulesByUserUdBetweenDates(UUID userId,
                                                            LocalDateTime startDateTime,
-                                                           LocalDateTime endDateTime);
+                                                           LocalDateTime endDateTime,
+                                                           LocalDateTime now);
+
+    @Query(value = "select * from schedules s where s.user_id in (:userIds) " +
+            "and (s.is_reserved or s.held_until > :now) " +
+            "and s.start_date_time < :endDateTime and s.end_date_time > :startDateTime " +
+            "order by s.user_id, s.start_date_time",
+            nativeQuery = true)
+    List<ScheduleEntity> findAllReservedOrHeldSchedulesByUserIdsBetweenDates(Collection<UUID> userIds,
+                                                                             LocalDateTime startDateTime,
+                                                                             LocalDateTime endDateTime,
+                                                                             LocalDateTime now);
+
+    @Modifying
+    @Query(value = "DELETE FROM schedules s WHERE s.user_id in (:userIds) and s.is_reserved = false " +
+            "and (s.held_until is null or s.held_until <= :now) " +
+            "and (s.start_date_time >= :startDateTime and s.start_date_time < :endDateTime or " +
+            "s.end_date_time > :startDateTime and s.end_date_time <= :endDateTime)",
+            nativeQuery = true)
+    void deleteAllOverlappingSchedulesByUserIdsBetweenDates(Collection<UUID> userIds,
+                                                            LocalDateTime startDateTime,
+                                                            LocalDateTime endDateTime,
+                                                            LocalDateTime now);
+
+    @Modifying
+    @Query(value = "DELETE FROM schedules WHERE id = :id and is_reserved = false " +
+            "and (held_until is null or held_until <= :now)",
+            nativeQuery = true)
+    int deleteFreeScheduleById(UUID id, LocalDateTime now);
+
+    @Query(value = "select * from schedules s where s.user_id = :userId and s.is_reserved = false " +
+            "and (s.held_until is null or s.held_until <= :now) " +
+            "and s.start_date_time >= :startDateTime and s.end_date_time <= :endDateTime " +
+            "order by s.start_date_time limit :limit",
+            nativeQuery = true)
+    List<ScheduleEntity> findFreeSchedulesByUserIdBetweenDates(UUID userId,
+                                                               LocalDateTime startDateTime,
+                                                               LocalDateTime endDateTime,
+                                                               LocalDateTime now,
+                                                               int limit);
+
+    @Query(value = "select * from schedules s where s.user_id = :userId and s.is_reserved = false " +
+            "and (s.held_until is null or s.held_until <= :now) " +
+            "and s.start_date_time >= :startDateTime and s.start_date_time < :beforeDateTime " +
+            "order by s.start_date_time desc limit 1",
+            nativeQuery = true)
+    Optional<ScheduleEntity> findLastFreeScheduleByUserIdStartingBefore(UUID userId,
+                                                                        LocalDateTime startDateTime,
+                                                                        LocalDateTime beforeDateTime,
+                                                                        LocalDateTime now);
+
+    @Modifying
+    @Query(value = "update schedules set held_until = :heldUntil, hold_id = :holdId where id = :id " +
+            "and is_reserved = false and (held_until is null or held_until <= :now)",
+            nativeQuery = true)
+    int holdFreeSchedule(UUID id, UUID holdId, LocalDateTime heldUntil, LocalDateTime now);
+
+    @Modifying
+    @Query(value = "update schedules set is_reserved = true, held_until = null, hold_id = null where id = :id " +
+            "and hold_id = :holdId and held_until > :now",
+            nativeQuery = true)
+    int confirmHeldSchedule(UUID id, UUID holdId, LocalDateTime now);
+
+    @Modifying
+    @Query(value = "update schedules set held_until = null, hold_id = null where id = :id and hold_id = :holdId",
+            nativeQuery = true)
+    int releaseHeldSchedule(UUID id, UUID holdId);
+
+    @Query(value = "select * from schedules s where s.id in (:ids) and s.held_until <= :now", nativeQuery = true)
+    List<ScheduleEntity> findExpiredHeldSchedules(Collection<UUID> ids, LocalDateTime now);
+
+    @Modifying
+    @Query(value = "update schedules set held_until = null, hold_id = null where id in (:ids) " +
+            "and held_until <= :now",
+            nativeQuery = true)
+    int releaseExpiredHoldsByIds(Collection<UUID> ids, LocalDateTime now);
+
+    @Query(value = "select * from schedules s where s.held_until <= :now", nativeQuery = true)
+    List<ScheduleEntity> findAllExpiredHeldSchedules(LocalDateTime now);
 
     @Query(value = "SELECT * FROM schedules s WHERE s.user_id = :userId " +
             "and (s.start_date_time >= :startDateTime and " +
@@ -0,0 +1,72 @@
+package kz.smarthealth.scheduleservice.serializer;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import kz.smarthealth.scheduleservice.util.AppConstants;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Writes {@link LocalDateTime} values in {@link AppConstants#DEFAULT_DATE_TIME_FORMAT}.
+ * Digits are put straight into a char buffer of the thread instead of going through {@link DateTimeFormatter}, the
+ * generator copies the chars, so the buffer is reused for every value. Years out of 0-9999 fall back to the formatter.
+ */
+public class DefaultDateTimeSerializer extends StdSerializer<LocalDateTime> {
+
+    private static final DateTimeFormatter FORMATTER =
+            DateTimeFormatter.ofPattern(AppConstants.DEFAULT_DATE_TIME_FORMAT);
+    private static final int LENGTH = AppConstants.DEFAULT_DATE_TIME_FORMAT.length();
+    private static final int MAX_YEAR = 9999;
+    private static final ThreadLocal<char[]> BUFFER = ThreadLocal.withInitial(() -> new char[LENGTH]);
+
+    public DefaultDateTimeSerializer() {
+        super(LocalDateTime.class);
+    }
+
+    @Override
+    public void serialize(LocalDateTime value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        write(value, gen);
+    }
+
+    /**
+     * Writes date time as JSON string, or null
+     *
+     * @param value date time
+     * @param gen   generator
+     * @throws IOException if writing failed
+     */
+    public static void write(LocalDateTime value, JsonGenerator gen) throws IOException {
+        if (value == null) {
+            gen.writeNull();
+            return;
+        }
+        if (value.getYear() < 0 || value.getYear() > MAX_YEAR) {
+            gen.writeString(FORMATTER.format(value));
+            return;
+        }
+
+        char[] buffer = BUFFER.get();
+        writeDigits(buffer, 0, value.getYear(), 4);
+        buffer[4] = '-';
+        writeDigits(buffer, 5, value.getMonthValue(), 2);
+        buffer[7] = '-';
+        writeDigits(buffer, 8, value.getDayOfMonth(), 2);
+        buffer[10] = ' ';
+        writeDigits(buffer, 11, value.getHour(), 2);
+        buffer[13] = ':';
+        writeDigits(buffer, 14, value.getMinute(), 2);
+        buffer[16] = ':';
+        writeDigits(buffer, 17, value.getSecond(), 2);
+        gen.writeString(buffer, 0, LENGTH);
+    }
+
+    private static void writeDigits(char[] buffer, int offset, int value, int width) {
+        for (int i = offset + width - 1; i >= offset; i--) {
+            buffer[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package kz.smarthealth.scheduleservice.serializer;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Writes UTC {@link LocalDateTime} values as epoch seconds, used by compact binary representations
+ */
+public class EpochSecondLocalDateTimeSerializer extends StdSerializer<LocalDateTime> {
+
+    public EpochSecondLocalDateTimeSerializer() {
+        super(LocalDateTime.class);
+    }
+
+    @Override
+    public void serialize(LocalDateTime value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        gen.writeNumber(value.toEpochSecond(ZoneOffset.UTC));
+    }
+}
@@ -0,0 +1,21 @@
+package kz.smarthealth.scheduleservice.serializer;
+
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import kz.smarthealth.scheduleservice.model.dto.ScheduleDTO;
+
+import java.time.LocalDateTime;
+
+/**
+ * Jackson mix-in for {@link ScheduleDTO} used by binary formats, replaces formatted timestamps with epoch seconds
+ */
+public abstract class ScheduleBinaryMixIn {
+
+    @JsonSerialize(using = EpochSecondLocalDateTimeSerializer.class)
+    private LocalDateTime startDateTime;
+
+    @JsonSerialize(using = EpochSecondLocalDateTimeSerializer.class)
+    private LocalDateTime endDateTime;
+
+    @JsonSerialize(using = EpochSecondLocalDateTimeSerializer.class)
+    protected LocalDateTime createdAt;
+}
@@ -0,0 +1,61 @@
+package kz.smarthealth.scheduleservice.serializer;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import kz.smarthealth.scheduleservice.model.dto.ScheduleDTO;
+
+import java.io.IOException;
+import java.util.UUID;
+
+/**
+ * Writes {@link ScheduleDTO} as JSON without bean introspection: fields are written in declaration order with
+ * pre-encoded names and timestamps are written by {@link DefaultDateTimeSerializer}. Output is the same as of the
+ * annotated bean, nulls included.
+ */
+public class ScheduleJsonSerializer extends StdSerializer<ScheduleDTO> {
+
+    private static final SerializedString ID = new SerializedString("id");
+    private static final SerializedString USER_ID = new SerializedString("userId");
+    private static final SerializedString START_DATE_TIME = new SerializedString("startDateTime");
+    private static final SerializedString END_DATE_TIME = new SerializedString("endDateTime");
+    private static final SerializedString IS_RESERVED = new SerializedString("isReserved");
+    private static final SerializedString CREATED_AT = new SerializedString("createdAt");
+
+    public ScheduleJsonSerializer() {
+        super(ScheduleDTO.class);
+    }
+
+    @Override
+    public void serialize(ScheduleDTO value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        gen.writeStartObject(value);
+        gen.writeFieldName(ID);
+        writeUuid(value.getId(), gen);
+        gen.writeFieldName(USER_ID);
+        writeUuid(value.getUserId(), gen);
+        gen.writeFieldName(START_DATE_TIME);
+        DefaultDateTimeSerializer.write(value.getStartDateTime(), gen);
+        gen.writeFieldName(END_DATE_TIME);
+        DefaultDateTimeSerializer.write(value.getEndDateTime(), gen);
+        gen.writeFieldName(IS_RESERVED);
+
+        if (value.getIsReserved() == null) {
+            gen.writeNull();
+        } else {
+            gen.writeBoolean(value.getIsReserved());
+        }
+
+        gen.writeFieldName(CREATED_AT);
+        DefaultDateTimeSerializer.write(value.getCreatedAt(), gen);
+        gen.writeEndObject();
+    }
+
+    private static void writeUuid(UUID value, JsonGenerator gen) throws IOException {
+        if (value == null) {
+            gen.writeNull();
+        } else {
+            gen.writeString(value.toString());
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package kz.smarthealth.scheduleservice.service;
+
+import kz.smarthealth.scheduleservice.exception.CustomException;
+import kz.smarthealth.scheduleservice.model.dto.DailyAvailabilityDTO;
+import kz.smarthealth.scheduleservice.repository.DailyAvailabilityRepository;
+import kz.smarthealth.scheduleservice.sharding.ShardRouted;
+import kz.smarthealth.scheduleservice.util.MessageSource;
+import org.modelmapper.ModelMapper;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.sql.DatabaseMetaData;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+import static kz.smarthealth.scheduleservice.util.AppConstants.UTC_ZONE_ID;
+
+/**
+ * Service class that maintains and reads per-day availability summary of doctors
+ */
+@Service
+public class DailyAvailabilityService {
+
+    private static final long MAX_DAYS = 366;
+    private static final String POSTGRESQL = "PostgreSQL";
+
+    private final DailyAvailabilityRepository dailyAvailabilityRepository;
+    private final ModelMapper modelMapper;
+    private final boolean postgresql;
+
+    public DailyAvailabilityService(DailyAvailabilityRepository dailyAvailabilityRepository,
+                                    ModelMapper modelMapper,
+                                    DataSource dataSource) throws MetaDataAccessException {
+        this.dailyAvailabilityRepository = dailyAvailabilityRepository;
+        this.modelMapper = modelMapper;
+        this.postgresql = POSTGRESQL.equals(JdbcUtils.extractDatabaseMetaData(dataSource,
+                DatabaseMetaData::getDatabaseProductName));
+    }
+
+    /**
+     * Recomputes summary of given doctors for UTC days from startDate to endDate inclusive.
+     * Must be called in the transaction that changes schedules or holds, after the change. Schedules held at the
+     * time of the call are not free.
+     * Existing days are locked first and rewritten in place, new days are upserted: concurrent refreshes of the same
+     * doctor and day wait for each other instead of failing on the primary key.
+     *
+     * @param userIds   doctor ids
+     * @param startDate first affected UTC day
+     * @param endDate   last affected UTC day
+     */
+    @Transactional
+    public void refresh(Collection<UUID> userIds, LocalDate startDate, LocalDate endDate) {
+        if (userIds.isEmpty()) {
+            return;
+        }
+
+        LocalDateTime startDateTime = startDate.atStartOfDay();
+        LocalDateTime endDateTime = endDate.plusDays(1).atStartOfDay();
+        LocalDateTime now = LocalDateTime.now(UTC_ZONE_ID);
+        dailyAvailabilityRepository.lockAllByUserIdsBetweenDates(userIds, startDate, endDate);
+
+        if (postgresql) {
+            dailyAvailabilityRepository.upsertAllByUserIdsBetweenDates(userIds, startDateTime, endDateTime, now);
+        } else {
+            dailyAvailabilityRepository.mergeAllByUserIdsBetweenDates(userIds, startDateTime, endDateTime, now);
+        }
+
+        dailyAvailabilityRepository.deleteAllWithoutSchedulesByUserIdsBetweenDates(userIds, startDate, endDate,
+                startDateTime, endDateTime);
+    }
+
+    /**
+     * Gets summary of a doctor per UTC day, days without schedules are absent
+     *
+     * @param userId    doctor id
+     * @param startDate first day
+     * @param endDate   last day, at most a year after first day
+     * @return summary ordered by day
+     * @throws CustomException if date range is invalid
+     */
+    @Transactional(readOnly = true)
+    @ShardRouted(userId = "#userId")
+    public List<DailyAvailabilityDTO> getDailyAvailability(UUID userId, LocalDate startDate, LocalDate endDate) {
+        if (endDate.isBefore(startDate) || ChronoUnit.DAYS.between(startDate, endDate) >= MAX_DAYS) {
+            throw CustomException.builder()
+                    .httpStatus(HttpStatus.BAD_REQUEST)
+                    .errorMessage(MessageSource.INVALID_DATE_RANGE.getText(String.valueOf(MAX_DAYS)))
+                    .build();
+        }
+
+        return dailyAvailabilityRepository
+                .findAllByUserIdAndAvailableDateBetweenOrderByAvailableDate(userId, startDate, endDate)
+                .stream()
+                .map(dailyAvailabilityEntity -> modelMapper.map(dailyAvailabilityEntity, DailyAvailabilityDTO.class))
+                .toList();
+    }
+}
@@ -0,0 +1,185 @@
+package kz.smarthealth.scheduleservice.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.std.StdDelegatingSerializer;
+import com.fasterxml.jackson.databind.util.StdConverter;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import kz.smarthealth.scheduleservice.exception.CustomException;
+import kz.smarthealth.scheduleservice.model.entity.IdempotencyKeyEntity;
+import kz.smarthealth.scheduleservice.repository.IdempotencyKeyRepository;
+import kz.smarthealth.scheduleservice.sharding.ShardRouter;
+import kz.smarthealth.scheduleservice.util.MessageSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.DigestUtils;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static kz.smarthealth.scheduleservice.util.AppConstants.UTC_ZONE_ID;
+
+/**
+ * Service that executes requests at most once per idempotency key.
+ * Processed keys are kept in bounded in-memory cache of this replica and in database table shared by all replicas.
+ * With sharding the key is saved on the shard of the request, in the same transaction as the request, and keeps
+ * the doctor of the request, so rebalancing moves it together with schedules.
+ * Request is compared by hash of its canonical JSON: properties and map entries sorted by name, set elements sorted,
+ * so the same request gets the same hash on every replica regardless of hash set iteration order.
+ */
+@Slf4j
+@Service
+public class IdempotencyService {
+
+    private static final int MAX_IDEMPOTENCY_KEY_LENGTH = 255;
+
+    private final IdempotencyKeyRepository idempotencyKeyRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ShardRouter shardRouter;
+    private final ObjectMapper canonicalObjectMapper;
+    private final Duration ttl;
+    private final Map<String, String> requestHashes;
+
+    public IdempotencyService(IdempotencyKeyRepository idempotencyKeyRepository,
+                              TransactionTemplate transactionTemplate,
+                              ShardRouter shardRouter,
+                              @Value("${app.idempotency.ttl:PT24H}") Duration ttl,
+                              @Value("${app.idempotency.max-cached-keys:10000}") int maxCachedKeys) {
+        this.idempotencyKeyRepository = idempotencyKeyRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.shardRouter = shardRouter;
+        this.canonicalObjectMapper = JsonMapper.builder()
+                .addModule(new JavaTimeModule())
+                .enable(MapperFeature.SORT_PROPERTIES_ALPHABETICALLY)
+                .enable(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS)
+                .addModule(new SimpleModule("canonical-sets").addSerializer(Set.class,
+                        new StdDelegatingSerializer(new SortedSetConverter())))
+                .build();
+        this.ttl = ttl;
+        this.requestHashes = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+                return size() > maxCachedKeys;
+            }
+        });
+    }
+
+    /**
+     * Executes action in transaction together with saving of idempotency key, unless the key was already processed
+     *
+     * @param idempotencyKey client generated key of the request
+     * @param userId         doctor the request belongs to
+     * @param request        request body, used to check that the key is not reused for another request
+     * @param action         action to execute, joins the transaction
+     * @return true if action was executed, false if request with the same key was already processed
+     * @throws CustomException if key is invalid or was used for another request
+     */
+    public boolean executeOnce(String idempotencyKey, UUID userId, Object request, Runnable action) {
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_IDEMPOTENCY_KEY_LENGTH) {
+            throw CustomException.builder()
+                    .httpStatus(HttpStatus.BAD_REQUEST)
+                    .errorMessage(MessageSource.INVALID_IDEMPOTENCY_KEY.getText())
+                    .build();
+        }
+
+        String requestHash = hash(request);
+
+        if (isProcessed(idempotencyKey, requestHash)) {
+            return false;
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                idempotencyKeyRepository.insert(idempotencyKey, requestHash, LocalDateTime.now(UTC_ZONE_ID),
+                        userId);
+                action.run();
+            });
+        } catch (DataIntegrityViolationException e) {
+            if (isProcessed(idempotencyKey, requestHash)) {
+                return false;
+            }
+
+            throw e;
+        }
+
+        requestHashes.put(idempotencyKey, requestHash);
+
+        return true;
+    }
+
+    /**
+     * Removes expired keys from database, from every shard. Keys cached in memory may live longer, it only extends
+     * deduplication.
+     */
+    @Scheduled(fixedDelayString = "${app.idempotency.cleanup-interval:PT1H}")
+    public void deleteExpiredKeys() {
+        LocalDateTime expiredDateTime = LocalDateTime.now(UTC_ZONE_ID).minus(ttl);
+        shardRouter.runOnEachShard(() -> {
+            int deletedCount = transactionTemplate.execute(status -> idempotencyKeyRepository
+                    .deleteAllCreatedBefore(expiredDateTime));
+            log.info("Expired idempotency keys deleted, count: {}", deletedCount);
+        });
+    }
+
+    private String hash(Object request) {
+        try {
+            return DigestUtils.md5DigestAsHex(canonicalObjectMapper.writeValueAsBytes(request));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Request is not serializable", e);
+        }
+    }
+
+    private boolean isProcessed(String idempotencyKey, String requestHash) {
+        String processedRequestHash = requestHashes.get(idempotencyKey);
+
+        if (processedRequestHash == null) {
+            processedRequestHash = idempotencyKeyRepository.findById(idempotencyKey)
+                    .map(IdempotencyKeyEntity::getRequestHash)
+                    .orElse(null);
+
+            if (processedRequestHash == null) {
+                return false;
+            }
+
+            requestHashes.put(idempotencyKey, processedRequestHash);
+        }
+
+        if (!processedRequestHash.equals(requestHash)) {
+            throw CustomException.builder()
+                    .httpStatus(HttpStatus.UNPROCESSABLE_ENTITY)
+                    .errorMessage(MessageSource.IDEMPOTENCY_KEY_REUSED.getText())
+                    .build();
+        }
+
+        return true;
+    }
+
+    /**
+     * Writes set as list sorted by string form of elements, e.g. days of week or dates
+     */
+    private static class SortedSetConverter extends StdConverter<Set<?>, List<?>> {
+
+        @Override
+        public List<?> convert(Set<?> value) {
+            return value.stream()
+                    .sorted(Comparator.comparing(String::valueOf))
+                    .toList();
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package kz.smarthealth.scheduleservice.service;
+
+import kz.smarthealth.scheduleservice.bulk.ScheduleBulkWriter;
+import kz.smarthealth.scheduleservice.model.dto.ReservedIntervalDTO;
+import kz.smarthealth.scheduleservice.model.entity.ScheduleEntity;
+import kz.smarthealth.scheduleservice.profiling.SchedulePersistEvent;
+import kz.smarthealth.scheduleservice.util.RandomUuids;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+import static kz.smarthealth.scheduleservice.util.AppConstants.UTC_ZONE_ID;
+
+/**
+ * Takes slots from {@link ScheduleTemplate} as they are generated and writes them to {@link ScheduleBulkWriter} in
+ * chunks of its size, so slots of long ranges and large batches are never held in memory at once.
+ * Slots of a doctor must come ordered by start after {@link #startDoctor(List)}, slots overlapping reserved or held
+ * intervals of the doctor are skipped in one sweep.
+ * All schedules share one creation time truncated to precision of the database, ids are generated per chunk and
+ * persistence of each chunk is recorded as JFR event.
+ */
+final class ScheduleChunkWriter implements Consumer<ScheduleEntity> {
+
+    private final ScheduleBulkWriter scheduleBulkWriter;
+    private final int chunkSize;
+    private final int doctorCount;
+    private final LocalDateTime createdAt = LocalDateTime.now(UTC_ZONE_ID).truncatedTo(ChronoUnit.MICROS);
+    private List<ScheduleEntity> chunk;
+    private List<ReservedIntervalDTO> reservedIntervals = Collections.emptyList();
+    private int reservedIndex;
+    private LocalDateTime maxReservedEndDateTime = LocalDateTime.MIN;
+    private int generatedCount;
+    private int createdCount;
+
+    /**
+     * @param scheduleBulkWriter writer of chunks
+     * @param doctorCount        number of doctors of the request, recorded with persistence of chunks
+     */
+    ScheduleChunkWriter(ScheduleBulkWriter scheduleBulkWriter, int doctorCount) {
+        this.scheduleBulkWriter = scheduleBulkWriter;
+        this.chunkSize = Math.max(scheduleBulkWriter.getChunkSize(), 1);
+        this.doctorCount = doctorCount;
+        this.chunk = new ArrayList<>(chunkSize);
+    }
+
+    /**
+     * Starts slots of the next doctor, counts of generated and created slots are reset
+     *
+     * @param reservedIntervals reserved and held intervals of the doctor ordered by start
+     */
+    void startDoctor(List<ReservedIntervalDTO> reservedIntervals) {
+        this.reservedIntervals = reservedIntervals;
+        this.reservedIndex = 0;
+        this.maxReservedEndDateTime = LocalDateTime.MIN;
+        this.generatedCount = 0;
+        this.createdCount = 0;
+    }
+
+    @Override
+    public void accept(ScheduleEntity scheduleEntity) {
+        generatedCount++;
+
+        while (reservedIndex < reservedIntervals.size()
+                && reservedIntervals.get(reservedIndex).startDateTime().isBefore(scheduleEntity.getEndDateTime())) {
+            if (reservedIntervals.get(reservedIndex).endDateTime().isAfter(maxReservedEndDateTime)) {
+                maxReservedEndDateTime = reservedIntervals.get(reservedIndex).endDateTime();
+            }
+
+            reservedIndex++;
+        }
+        if (maxReservedEndDateTime.isAfter(scheduleEntity.getStartDateTime())) {
+            return;
+        }
+
+        scheduleEntity.setCreatedAt(createdAt);
+        chunk.add(scheduleEntity);
+        createdCount++;
+
+        if (chunk.size() == chunkSize) {
+            flush();
+        }
+    }
+
+    /**
+     * Writes the last incomplete chunk, must be called after all slots were accepted
+     */
+    void flush() {
+        if (chunk.isEmpty()) {
+            return;
+        }
+
+        SchedulePersistEvent schedulePersistEvent = new SchedulePersistEvent();
+        schedulePersistEvent.begin();
+        List<UUID> ids = RandomUuids.generate(chunk.size());
+
+        for (int i = 0; i < chunk.size(); i++) {
+            chunk.get(i).setId(ids.get(i));
+        }
+
+        scheduleBulkWriter.insert(chunk);
+        schedulePersistEvent.complete(doctorCount, chunk.size());
+        chunk = new ArrayList<>(chunkSize);
+    }
+
+    /**
+     * @return number of slots of the current doctor generated by the template
+     */
+    int getGeneratedCount() {
+        return generatedCount;
+    }
+
+    /**
+     * @return number of slots of the current doctor not overlapping reserved or held intervals
+     */
+    int getCreatedCount() {
+        return createdCount;
+    }
+}
@@ -0,0 +1,144 @@
+package kz.smarthealth.scheduleservice.service;
+
+import kz.smarthealth.scheduleservice.bulk.ScheduleExportFormat;
+import kz.smarthealth.scheduleservice.bulk.ScheduleExportWriter;
+import kz.smarthealth.scheduleservice.exception.CustomException;
+import kz.smarthealth.scheduleservice.sharding.ShardRouter;
+import kz.smarthealth.scheduleservice.util.MessageSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static kz.smarthealth.scheduleservice.util.AppConstants.UTC_ZONE_ID;
+
+/**
+ * Service class that exports schedules of doctors.
+ * Schedules are read through database cursor with fetch size in read-only transaction and written to output as they
+ * come, so memory does not depend on number of doctors and length of the range.
+ * With sharding doctors are split by shard and shards are read one after another.
+ */
+@Slf4j
+@Service
+public class ScheduleExportService {
+
+    private static final int MAX_USER_IDS = 500;
+    private static final String ALL_SCHEDULES_SQL = "select s.id, s.user_id, s.start_date_time, s.end_date_time, " +
+            "s.is_reserved, s.created_at from schedules s where s.user_id in (:userIds) " +
+            "and s.start_date_time >= :startDateTime and s.start_date_time < :endDateTime " +
+            "order by s.user_id, s.start_date_time";
+    private static final String RESERVED_SCHEDULES_SQL = "select s.id, s.user_id, s.start_date_time, " +
+            "s.end_date_time, s.is_reserved, s.created_at from schedules s where s.user_id in (:userIds) " +
+            "and s.is_reserved and s.start_date_time >= :startDateTime and s.start_date_time < :endDateTime " +
+            "order by s.user_id, s.start_date_time";
+
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ShardRouter shardRouter;
+
+    public ScheduleExportService(DataSource dataSource,
+                                 ShardRouter shardRouter,
+                                 PlatformTransactionManager transactionManager,
+                                 @Value("${app.export.fetch-size:1000}") int fetchSize) {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.setFetchSize(fetchSize);
+        this.namedParameterJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.shardRouter = shardRouter;
+    }
+
+    /**
+     * Validates export parameters before response is started
+     *
+     * @param userIds       doctor ids
+     * @param startDateTime UTC start of the range, inclusive
+     * @param endDateTime   UTC end of the range, exclusive
+     * @throws CustomException if parameters are invalid
+     */
+    public void validate(Collection<UUID> userIds, LocalDateTime startDateTime, LocalDateTime endDateTime) {
+        if (userIds.isEmpty() || userIds.size() > MAX_USER_IDS) {
+            throw CustomException.builder()
+                    .httpStatus(HttpStatus.BAD_REQUEST)
+                    .errorMessage(MessageSource.INVALID_USER_IDS.getText(String.valueOf(MAX_USER_IDS)))
+                    .build();
+        }
+        if (!endDateTime.isAfter(startDateTime)) {
+            throw CustomException.builder()
+                    .httpStatus(HttpStatus.BAD_REQUEST)
+                    .errorMessage(MessageSource.INVALID_DATE_TIME_RANGE.getText())
+                    .build();
+        }
+    }
+
+    /**
+     * Writes schedules starting in given range ordered by doctor and start, with sharding doctors are grouped by shard
+     *
+     * @param userIds       doctor ids
+     * @param startDateTime UTC start of the range, inclusive
+     * @param endDateTime   UTC end of the range, exclusive
+     * @param format        output format
+     * @param freeBusy      for iCalendar, whether to write free and busy periods instead of reserved events
+     * @param outputStream  output, UTF-8
+     */
+    public void export(Collection<UUID> userIds, LocalDateTime startDateTime, LocalDateTime endDateTime,
+                       ScheduleExportFormat format, boolean freeBusy, OutputStream outputStream) {
+        BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+        ScheduleExportWriter exportWriter = new ScheduleExportWriter(writer, format, freeBusy,
+                LocalDateTime.now(UTC_ZONE_ID));
+        boolean reservedOnly = format == ScheduleExportFormat.ICALENDAR && !freeBusy;
+        long[] count = new long[1];
+
+        try {
+            exportWriter.writeHeader();
+
+            for (Map.Entry<String, List<UUID>> partition : shardRouter.partition(userIds, userId -> userId)
+                    .entrySet()) {
+                MapSqlParameterSource parameters = new MapSqlParameterSource()
+                        .addValue("userIds", partition.getValue())
+                        .addValue("startDateTime", startDateTime)
+                        .addValue("endDateTime", endDateTime);
+                shardRouter.runOn(partition.getKey(), () -> transactionTemplate.executeWithoutResult(
+                        status -> namedParameterJdbcTemplate.query(
+                                reservedOnly ? RESERVED_SCHEDULES_SQL : ALL_SCHEDULES_SQL, parameters, resultSet -> {
+                                    try {
+                                        exportWriter.writeSchedule(resultSet.getObject(1, UUID.class),
+                                                resultSet.getObject(2, UUID.class),
+                                                resultSet.getObject(3, LocalDateTime.class),
+                                                resultSet.getObject(4, LocalDateTime.class),
+                                                resultSet.getBoolean(5),
+                                                resultSet.getObject(6, LocalDateTime.class));
+                                    } catch (IOException e) {
+                                        throw new UncheckedIOException(e);
+                                    }
+
+                                    count[0]++;
+                                })));
+            }
+
+            exportWriter.writeFooter();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        log.info("Export finished, userIds: {}, schedules: {}", userIds.size(), count[0]);
+    }
+}
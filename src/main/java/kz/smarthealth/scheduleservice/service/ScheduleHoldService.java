@@ -0,0 +1,276 @@
+package kz.smarthealth.scheduleservice.service;
+
+import kz.smarthealth.scheduleservice.cache.CalendarStore;
+import kz.smarthealth.scheduleservice.cache.ReservedIntervalIndex;
+import kz.smarthealth.scheduleservice.exception.CustomException;
+import kz.smarthealth.scheduleservice.model.dto.ScheduleHoldDTO;
+import kz.smarthealth.scheduleservice.model.entity.ScheduleEntity;
+import kz.smarthealth.scheduleservice.notification.ScheduleChangeType;
+import kz.smarthealth.scheduleservice.notification.ScheduleChangedEvent;
+import kz.smarthealth.scheduleservice.repository.ScheduleRepository;
+import kz.smarthealth.scheduleservice.sharding.ShardRouted;
+import kz.smarthealth.scheduleservice.sharding.ShardRouter;
+import kz.smarthealth.scheduleservice.util.HierarchicalTimingWheel;
+import kz.smarthealth.scheduleservice.util.MessageSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static kz.smarthealth.scheduleservice.util.AppConstants.UTC_ZONE_ID;
+
+/**
+ * Service class that holds free schedules for a patient for a few minutes, e.g. during payment.
+ * - Hold is a conditional update of held_until and hold_id of a free schedule, schedule held until a time in the
+ * future is not free for others. Confirmation reserves the schedule if the hold is still alive.
+ * - Holds of this replica are put into {@link HierarchicalTimingWheel}, every tick expired holds are cleared with a
+ * few batched updates instead of a query per hold.
+ * - Holds of restarted replicas are cleared by periodic sweep. Search and new holds treat expired holds as free even
+ * before they are cleared.
+ * - Daily availability of the day is refreshed when a hold is taken, confirmed, released or cleared, so held
+ * schedules are not counted as free there either.
+ */
+@Slf4j
+@Service
+public class ScheduleHoldService {
+
+    private static final long TICK_MILLIS = 1000;
+    private static final int WHEEL_SIZE = 64;
+    private static final int WHEEL_LEVELS = 4;
+
+    private final ScheduleRepository scheduleRepository;
+    private final ShardRouter shardRouter;
+    private final CalendarStore calendarStore;
+    private final ReservedIntervalIndex reservedIntervalIndex;
+    private final DailyAvailabilityService dailyAvailabilityService;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher applicationEventPublisher;
+    private final Duration defaultTtl;
+    private final Duration maxTtl;
+    private final int batchSize;
+    private final HierarchicalTimingWheel<HeldSchedule> timingWheel;
+
+    public ScheduleHoldService(ScheduleRepository scheduleRepository,
+                               ShardRouter shardRouter,
+                               CalendarStore calendarStore,
+                               ReservedIntervalIndex reservedIntervalIndex,
+                               DailyAvailabilityService dailyAvailabilityService,
+                               TransactionTemplate transactionTemplate,
+                               ApplicationEventPublisher applicationEventPublisher,
+                               @Value("${app.hold.ttl:PT5M}") Duration defaultTtl,
+                               @Value("${app.hold.max-ttl:PT15M}") Duration maxTtl,
+                               @Value("${app.hold.batch-size:1000}") int batchSize) {
+        this.scheduleRepository = scheduleRepository;
+        this.shardRouter = shardRouter;
+        this.calendarStore = calendarStore;
+        this.reservedIntervalIndex = reservedIntervalIndex;
+        this.dailyAvailabilityService = dailyAvailabilityService;
+        this.transactionTemplate = transactionTemplate;
+        this.applicationEventPublisher = applicationEventPublisher;
+        this.defaultTtl = defaultTtl;
+        this.maxTtl = maxTtl;
+        this.batchSize = batchSize;
+        this.timingWheel = new HierarchicalTimingWheel<>(TICK_MILLIS, WHEEL_SIZE, WHEEL_LEVELS,
+                System.currentTimeMillis());
+    }
+
+    /**
+     * Holds free schedule
+     *
+     * @param scheduleId schedule id
+     * @param ttl        time to live of the hold, default one if null
+     * @return hold to confirm or release
+     * @throws CustomException if ttl is invalid, if schedule by id not found, or if schedule is reserved or held
+     */
+    @Transactional
+    @ShardRouted(scheduleId = "#scheduleId")
+    public ScheduleHoldDTO holdSchedule(UUID scheduleId, Duration ttl) {
+        Duration holdTtl = ttl == null ? defaultTtl : ttl;
+
+        if (holdTtl.getSeconds() < 1 || holdTtl.compareTo(maxTtl) > 0) {
+            throw CustomException.builder()
+                    .httpStatus(HttpStatus.BAD_REQUEST)
+                    .errorMessage(MessageSource.INVALID_HOLD_TTL.getText(String.valueOf(maxTtl.getSeconds())))
+                    .build();
+        }
+
+        ScheduleEntity scheduleEntity = getScheduleEntity(scheduleId);
+        LocalDateTime now = LocalDateTime.now(UTC_ZONE_ID);
+        LocalDateTime heldUntil = now.plus(holdTtl).truncatedTo(ChronoUnit.SECONDS);
+        UUID holdId = UUID.randomUUID();
+
+        if (scheduleRepository.holdFreeSchedule(scheduleId, holdId, heldUntil, now) == 0) {
+            throw CustomException.builder()
+                    .httpStatus(HttpStatus.CONFLICT)
+                    .errorMessage(MessageSource.SCHEDULE_NOT_AVAILABLE.getText())
+                    .build();
+        }
+
+        LocalDate date = scheduleEntity.getStartDateTime().toLocalDate();
+        dailyAvailabilityService.refresh(List.of(scheduleEntity.getUserId()), date, date);
+        timingWheel.add(new HeldSchedule(scheduleId, scheduleEntity.getUserId()),
+                heldUntil.atZone(UTC_ZONE_ID).toInstant().toEpochMilli());
+        applicationEventPublisher.publishEvent(ScheduleChangedEvent.of(scheduleEntity.getUserId(),
+                ScheduleChangeType.HELD, List.of(scheduleId)));
+
+        return ScheduleHoldDTO.builder()
+                .scheduleId(scheduleId)
+                .holdId(holdId)
+                .heldUntil(heldUntil)
+                .build();
+    }
+
+    /**
+     * Reserves held schedule
+     *
+     * @param scheduleId schedule id
+     * @param holdId     hold id
+     * @throws CustomException if schedule by id not found, or if the hold is expired or released
+     */
+    @Transactional
+    @ShardRouted(scheduleId = "#scheduleId")
+    public void confirmHold(UUID scheduleId, UUID holdId) {
+        ScheduleEntity scheduleEntity = getScheduleEntity(scheduleId);
+
+        if (scheduleRepository.confirmHeldSchedule(scheduleId, holdId, LocalDateTime.now(UTC_ZONE_ID)) == 0) {
+            throw CustomException.builder()
+                    .httpStatus(HttpStatus.CONFLICT)
+                    .errorMessage(MessageSource.HOLD_NOT_FOUND.getText(holdId.toString()))
+                    .build();
+        }
+
+        UUID userId = scheduleEntity.getUserId();
+        LocalDate date = scheduleEntity.getStartDateTime().toLocalDate();
+        calendarStore.invalidate(userId);
+        reservedIntervalIndex.invalidate(userId);
+        dailyAvailabilityService.refresh(List.of(userId), date, date);
+        applicationEventPublisher.publishEvent(ScheduleChangedEvent.of(userId, ScheduleChangeType.RESERVED,
+                List.of(scheduleId)));
+    }
+
+    /**
+     * Releases held schedule, nothing is done if the hold is already expired or released
+     *
+     * @param scheduleId schedule id
+     * @param holdId     hold id
+     */
+    @Transactional
+    @ShardRouted(scheduleId = "#scheduleId")
+    public void releaseHold(UUID scheduleId, UUID holdId) {
+        ScheduleEntity scheduleEntity = scheduleRepository.findById(scheduleId).orElse(null);
+
+        if (scheduleEntity != null && scheduleRepository.releaseHeldSchedule(scheduleId, holdId) > 0) {
+            LocalDate date = scheduleEntity.getStartDateTime().toLocalDate();
+            dailyAvailabilityService.refresh(List.of(scheduleEntity.getUserId()), date, date);
+            applicationEventPublisher.publishEvent(ScheduleChangedEvent.of(scheduleEntity.getUserId(),
+                    ScheduleChangeType.RELEASED, List.of(scheduleId)));
+        }
+    }
+
+    /**
+     * Clears holds of this replica expired since the previous tick
+     */
+    @Scheduled(fixedRate = TICK_MILLIS)
+    public void releaseExpiredHolds() {
+        releaseExpiredHolds(Instant.now());
+    }
+
+    /**
+     * Clears holds of this replica expired before given time
+     *
+     * @param now current time
+     * @return number of cleared holds
+     */
+    public int releaseExpiredHolds(Instant now) {
+        List<HeldSchedule> expiredHolds = timingWheel.advance(now.toEpochMilli());
+
+        if (expiredHolds.isEmpty()) {
+            return 0;
+        }
+
+        LocalDateTime nowDateTime = LocalDateTime.ofInstant(now, UTC_ZONE_ID);
+        int releasedCount = 0;
+
+        for (Map.Entry<String, List<HeldSchedule>> partition :
+                shardRouter.partition(expiredHolds, HeldSchedule::userId).entrySet()) {
+            List<HeldSchedule> shardHolds = partition.getValue();
+
+            for (int i = 0; i < shardHolds.size(); i += batchSize) {
+                List<HeldSchedule> batch = shardHolds.subList(i, Math.min(i + batchSize, shardHolds.size()));
+                releasedCount += shardRouter.callOn(partition.getKey(), () -> transactionTemplate.execute(
+                        status -> releaseExpiredHolds(batch, nowDateTime)));
+            }
+        }
+
+        log.debug("Expired holds released, expired: {}, released: {}, pending: {}", expiredHolds.size(),
+                releasedCount, timingWheel.size());
+
+        return releasedCount;
+    }
+
+    /**
+     * Clears all expired holds of all replicas, including holds lost by restarted ones
+     */
+    @Scheduled(fixedDelayString = "${app.hold.sweep-interval:PT10M}")
+    public void releaseAllExpiredHolds() {
+        LocalDateTime now = LocalDateTime.now(UTC_ZONE_ID);
+        shardRouter.runOnEachShard(() -> {
+            int releasedCount = transactionTemplate.execute(status -> releaseHolds(
+                    scheduleRepository.findAllExpiredHeldSchedules(now), now));
+            log.info("Expired holds swept, count: {}", releasedCount);
+        });
+    }
+
+    private int releaseExpiredHolds(List<HeldSchedule> heldSchedules, LocalDateTime now) {
+        return releaseHolds(scheduleRepository.findExpiredHeldSchedules(
+                heldSchedules.stream().map(HeldSchedule::scheduleId).collect(Collectors.toSet()), now), now);
+    }
+
+    private int releaseHolds(List<ScheduleEntity> expiredSchedules, LocalDateTime now) {
+        if (expiredSchedules.isEmpty()) {
+            return 0;
+        }
+
+        int releasedCount = scheduleRepository.releaseExpiredHoldsByIds(expiredSchedules.stream()
+                .map(ScheduleEntity::getId)
+                .toList(), now);
+        expiredSchedules.stream()
+                .collect(Collectors.groupingBy(ScheduleEntity::getUserId))
+                .forEach((userId, schedules) -> {
+                    List<LocalDate> dates = schedules.stream()
+                            .map(scheduleEntity -> scheduleEntity.getStartDateTime().toLocalDate())
+                            .sorted()
+                            .toList();
+                    dailyAvailabilityService.refresh(List.of(userId), dates.get(0), dates.get(dates.size() - 1));
+                    applicationEventPublisher.publishEvent(ScheduleChangedEvent.of(userId,
+                            ScheduleChangeType.RELEASED, schedules.stream().map(ScheduleEntity::getId).toList()));
+                });
+
+        return releasedCount;
+    }
+
+    private ScheduleEntity getScheduleEntity(UUID scheduleId) {
+        return scheduleRepository.findById(scheduleId)
+                .orElseThrow(() -> CustomException.builder()
+                        .httpStatus(HttpStatus.BAD_REQUEST)
+                        .errorMessage(MessageSource.SCHEDULE_NOT_FOUND.getText(scheduleId.toString()))
+                        .build());
+    }
+
+    private record HeldSchedule(UUID scheduleId, UUID userId) {
+    }
+}
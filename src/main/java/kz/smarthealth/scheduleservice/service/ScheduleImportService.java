@@ -0,0 +1,197 @@
+package kz.smarthealth.scheduleservice.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import kz.smarthealth.scheduleservice.bulk.ScheduleBulkWriter;
+import kz.smarthealth.scheduleservice.bulk.ScheduleImportFormat;
+import kz.smarthealth.scheduleservice.bulk.ScheduleImportParser;
+import kz.smarthealth.scheduleservice.bulk.ScheduleImportRow;
+import kz.smarthealth.scheduleservice.cache.CalendarStore;
+import kz.smarthealth.scheduleservice.cache.ReservedIntervalIndex;
+import kz.smarthealth.scheduleservice.exception.CustomException;
+import kz.smarthealth.scheduleservice.model.dto.ScheduleImportResultDTO;
+import kz.smarthealth.scheduleservice.notification.ScheduleChangedEvent;
+import kz.smarthealth.scheduleservice.sharding.ShardRouter;
+import kz.smarthealth.scheduleservice.util.MessageSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Service class that imports schedules, e.g. from legacy systems.
+ * - Input is read line by line and written in chunks, each chunk in its own transaction, so memory does not depend on
+ * input size and already imported chunks stay imported if import fails.
+ * - Rows conflicting with existing schedules are skipped and counted.
+ * - Daily availability and caches of doctors of a chunk are refreshed with the chunk, subscribers of the doctors are
+ * told to request schedules again.
+ * - With sharding a chunk is split by shard of doctors, every part is written in transaction of its shard.
+ */
+@Slf4j
+@Service
+public class ScheduleImportService {
+
+    private static final int MAX_ERRORS = 100;
+
+    private final ScheduleBulkWriter scheduleBulkWriter;
+    private final DailyAvailabilityService dailyAvailabilityService;
+    private final CalendarStore calendarStore;
+    private final ReservedIntervalIndex reservedIntervalIndex;
+    private final ShardRouter shardRouter;
+    private final ApplicationEventPublisher applicationEventPublisher;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+
+    public ScheduleImportService(ScheduleBulkWriter scheduleBulkWriter,
+                                 DailyAvailabilityService dailyAvailabilityService,
+                                 CalendarStore calendarStore,
+                                 ReservedIntervalIndex reservedIntervalIndex,
+                                 ShardRouter shardRouter,
+                                 ApplicationEventPublisher applicationEventPublisher,
+                                 ObjectMapper objectMapper,
+                                 PlatformTransactionManager transactionManager,
+                                 @Value("${app.import.chunk-size:5000}") int chunkSize) {
+        this.scheduleBulkWriter = scheduleBulkWriter;
+        this.dailyAvailabilityService = dailyAvailabilityService;
+        this.calendarStore = calendarStore;
+        this.reservedIntervalIndex = reservedIntervalIndex;
+        this.shardRouter = shardRouter;
+        this.applicationEventPublisher = applicationEventPublisher;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Imports schedules
+     *
+     * @param inputStream input in given format, UTF-8
+     * @param format      input format
+     * @return number of imported, conflicting and invalid rows
+     * @throws CustomException if CSV header is invalid
+     */
+    public ScheduleImportResultDTO importSchedules(InputStream inputStream, ScheduleImportFormat format) {
+        ScheduleImportParser parser = new ScheduleImportParser(format, objectMapper);
+        ScheduleImportResultDTO result = ScheduleImportResultDTO.builder()
+                .errors(new ArrayList<>())
+                .build();
+        List<ScheduleImportRow> chunk = new ArrayList<>(chunkSize);
+        BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
+        long lineNumber = 0;
+        boolean headerRead = format != ScheduleImportFormat.CSV;
+        String line;
+
+        try {
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                ScheduleImportRow row;
+
+                try {
+                    row = parser.parse(line);
+                } catch (IllegalArgumentException e) {
+                    if (!headerRead) {
+                        throw CustomException.builder()
+                                .httpStatus(HttpStatus.BAD_REQUEST)
+                                .errorMessage(MessageSource.INVALID_IMPORT_HEADER.getText(e.getMessage()))
+                                .build();
+                    }
+
+                    addError(result, lineNumber, e.getMessage());
+                    continue;
+                }
+                if (row == null) {
+                    headerRead = headerRead || !line.isBlank();
+                    continue;
+                }
+
+                result.setReadCount(result.getReadCount() + 1);
+                chunk.add(row);
+
+                if (chunk.size() == chunkSize) {
+                    writeChunk(chunk, result);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        writeChunk(chunk, result);
+        log.info("Import finished, read: {}, imported: {}, conflicts: {}, invalid: {}", result.getReadCount(),
+                result.getImportedCount(), result.getConflictCount(), result.getInvalidCount());
+
+        return result;
+    }
+
+    private void writeChunk(List<ScheduleImportRow> chunk, ScheduleImportResultDTO result) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+
+        int importedCount = 0;
+
+        for (Map.Entry<String, List<ScheduleImportRow>> partition :
+                shardRouter.partition(chunk, ScheduleImportRow::userId).entrySet()) {
+            importedCount += shardRouter.callOn(partition.getKey(), () -> writeShardChunk(partition.getValue()));
+        }
+
+        result.setImportedCount(result.getImportedCount() + importedCount);
+        result.setConflictCount(result.getConflictCount() + chunk.size() - importedCount);
+        chunk.clear();
+        log.info("Import progress, read: {}, imported: {}, conflicts: {}, invalid: {}", result.getReadCount(),
+                result.getImportedCount(), result.getConflictCount(), result.getInvalidCount());
+    }
+
+    private int writeShardChunk(List<ScheduleImportRow> chunk) {
+        Set<UUID> userIds = new HashSet<>();
+        LocalDate startDate = LocalDate.MAX;
+        LocalDate endDate = LocalDate.MIN;
+
+        for (ScheduleImportRow row : chunk) {
+            userIds.add(row.userId());
+            LocalDate date = row.startDateTime().toLocalDate();
+            startDate = date.isBefore(startDate) ? date : startDate;
+            endDate = date.isAfter(endDate) ? date : endDate;
+        }
+
+        LocalDate chunkStartDate = startDate;
+        LocalDate chunkEndDate = endDate;
+        int importedCount = transactionTemplate.execute(status -> {
+            int insertedCount = scheduleBulkWriter.insertSkippingConflicts(chunk);
+            dailyAvailabilityService.refresh(userIds, chunkStartDate, chunkEndDate);
+
+            return insertedCount;
+        });
+        userIds.forEach(userId -> {
+            calendarStore.invalidate(userId);
+            reservedIntervalIndex.invalidate(userId);
+            applicationEventPublisher.publishEvent(ScheduleChangedEvent.resync(userId));
+        });
+
+        return importedCount;
+    }
+
+    private static void addError(ScheduleImportResultDTO result, long lineNumber, String message) {
+        result.setInvalidCount(result.getInvalidCount() + 1);
+
+        if (result.getErrors().size() < MAX_ERRORS) {
+            result.getErrors().add("line " + lineNumber + ": " + message);
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package kz.smarthealth.scheduleservice.service;
+
+import kz.smarthealth.scheduleservice.exception.CustomException;
+import kz.smarthealth.scheduleservice.model.dto.ScheduleDTO;
+import kz.smarthealth.scheduleservice.model.entity.ScheduleEntity;
+import kz.smarthealth.scheduleservice.repository.ScheduleRepository;
+import kz.smarthealth.scheduleservice.sharding.ShardRouted;
+import kz.smarthealth.scheduleservice.util.MessageSource;
+import kz.smarthealth.scheduleservice.util.ZoneRulesCache;
+import lombok.RequiredArgsConstructor;
+import org.modelmapper.ModelMapper;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static kz.smarthealth.scheduleservice.util.AppConstants.UTC_ZONE_ID;
+
+/**
+ * Service class that searches free schedules of a doctor.
+ * Every search is a few index lookups on (user_id, start_date_time) of free schedules with limit, so only returned
+ * schedules are read from database. Schedules held by patients until a time in the future are not free.
+ */
+@Service
+@RequiredArgsConstructor
+public class ScheduleSearchService {
+
+    private static final int MAX_LIMIT = 100;
+    private static final long MAX_DAYS = 92;
+
+    private static final Duration SEARCH_HORIZON = Duration.ofDays(MAX_DAYS);
+
+    private final ScheduleRepository scheduleRepository;
+    private final ModelMapper modelMapper;
+
+    /**
+     * Finds earliest free schedules starting not before given time and not before now
+     *
+     * @param userId        doctor id
+     * @param startDateTime UTC date time
+     * @param limit         max number of schedules
+     * @return free schedules ordered by start
+     * @throws CustomException if limit is invalid
+     */
+    @Transactional(readOnly = true)
+    @ShardRouted(userId = "#userId")
+    public List<ScheduleDTO> findEarliestFreeSchedules(UUID userId, LocalDateTime startDateTime, int limit) {
+        validateLimit(limit);
+        LocalDateTime now = LocalDateTime.now(UTC_ZONE_ID);
+        LocalDateTime fromDateTime = max(startDateTime, now);
+
+        return scheduleRepository.findFreeSchedulesByUserIdBetweenDates(userId, fromDateTime,
+                        fromDateTime.plus(SEARCH_HORIZON), now, limit).stream()
+                .map(this::toScheduleDTO)
+                .toList();
+    }
+
+    /**
+     * Finds free schedule starting closest to given time, schedules in the past are not considered.
+     * If two schedules are equally close, the earlier one is returned.
+     *
+     * @param userId   doctor id
+     * @param dateTime UTC date time
+     * @return free schedule
+     * @throws CustomException if there are no free schedules around given time
+     */
+    @Transactional(readOnly = true)
+    @ShardRouted(userId = "#userId")
+    public ScheduleDTO findNearestFreeSchedule(UUID userId, LocalDateTime dateTime) {
+        LocalDateTime now = LocalDateTime.now(UTC_ZONE_ID);
+        LocalDateTime fromDateTime = max(dateTime, now);
+        Optional<ScheduleEntity> before = dateTime.isAfter(now)
+                ? scheduleRepository.findLastFreeScheduleByUserIdStartingBefore(userId,
+                max(dateTime.minus(SEARCH_HORIZON), now), dateTime, now)
+                : Optional.empty();
+        Optional<ScheduleEntity> after = scheduleRepository.findFreeSchedulesByUserIdBetweenDates(userId,
+                fromDateTime, fromDateTime.plus(SEARCH_HORIZON), now, 1).stream().findFirst();
+
+        if (before.isPresent() && (after.isEmpty() || distance(before.get(), dateTime)
+                <= distance(after.get(), dateTime))) {
+            return toScheduleDTO(before.get());
+        }
+
+        return after.map(this::toScheduleDTO)
+                .orElseThrow(() -> CustomException.builder()
+                        .httpStatus(HttpStatus.NOT_FOUND)
+                        .errorMessage(MessageSource.FREE_SCHEDULE_NOT_FOUND.getText())
+                        .build());
+    }
+
+    /**
+     * Finds earliest free schedules lying within given time of day of doctor's zone on days from startDate to
+     * endDate. Days are looked up one by one, search stops as soon as limit is reached.
+     *
+     * @param userId     doctor id
+     * @param startDate  first local day
+     * @param endDate    last local day
+     * @param fromTime   local time schedules start not before
+     * @param toTime     local time schedules end not after
+     * @param zoneOffset zone of dates and times
+     * @param limit      max number of schedules
+     * @return free schedules ordered by start
+     * @throws CustomException if parameters are invalid
+     */
+    @Transactional(readOnly = true)
+    @ShardRouted(userId = "#userId")
+    public List<ScheduleDTO> findFreeSchedulesWithinTimeOfDay(UUID userId, LocalDate startDate, LocalDate endDate,
+                                                              LocalTime fromTime, LocalTime toTime,
+                                                              String zoneOffset, int limit) {
+        validateLimit(limit);
+
+        if (endDate.isBefore(startDate) || ChronoUnit.DAYS.between(startDate, endDate) >= MAX_DAYS) {
+            throw CustomException.builder()
+                    .httpStatus(HttpStatus.BAD_REQUEST)
+                    .errorMessage(MessageSource.INVALID_DATE_RANGE.getText(String.valueOf(MAX_DAYS)))
+                    .build();
+        }
+        if (!fromTime.isBefore(toTime)) {
+            throw CustomException.builder()
+                    .httpStatus(HttpStatus.BAD_REQUEST)
+                    .errorMessage(MessageSource.INVALID_TIME_RANGE.getText())
+                    .build();
+        }
+
+        ZoneId zoneId = ZoneRulesCache.findZoneId(zoneOffset)
+                .orElseThrow(() -> CustomException.builder()
+                        .httpStatus(HttpStatus.BAD_REQUEST)
+                        .errorMessage(MessageSource.INVALID_ZONE_OFFSET.getText(zoneOffset))
+                        .build());
+        LocalDateTime now = LocalDateTime.now(UTC_ZONE_ID);
+        List<ScheduleDTO> scheduleDTOList = new ArrayList<>();
+
+        for (LocalDate date = startDate; !date.isAfter(endDate) && scheduleDTOList.size() < limit;
+             date = date.plusDays(1)) {
+            LocalDateTime fromDateTime = ZoneRulesCache.toUtc(LocalDateTime.of(date, fromTime), zoneId);
+            LocalDateTime toDateTime = ZoneRulesCache.toUtc(LocalDateTime.of(date, toTime), zoneId);
+
+            if (toDateTime.isAfter(now)) {
+                scheduleRepository.findFreeSchedulesByUserIdBetweenDates(userId, max(fromDateTime, now), toDateTime,
+                                now, limit - scheduleDTOList.size())
+                        .forEach(scheduleEntity -> scheduleDTOList.add(toScheduleDTO(scheduleEntity)));
+            }
+        }
+
+        return scheduleDTOList;
+    }
+
+    private ScheduleDTO toScheduleDTO(ScheduleEntity scheduleEntity) {
+        return modelMapper.map(scheduleEntity, ScheduleDTO.class);
+    }
+
+    private static void validateLimit(int limit) {
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw CustomException.builder()
+                    .httpStatus(HttpStatus.BAD_REQUEST)
+                    .errorMessage(MessageSource.INVALID_LIMIT.getText(String.valueOf(MAX_LIMIT)))
+                    .build();
+        }
+    }
+
+    private static long distance(ScheduleEntity scheduleEntity, LocalDateTime dateTime) {
+        return Math.abs(Duration.between(scheduleEntity.getStartDateTime(), dateTime).getSeconds());
+    }
+
+    private static LocalDateTime max(LocalDateTime first, LocalDateTime second) {
+        return first.isAfter(second) ? first : second;
+    }
+}
@@ -1,24 +1,43 @@
 package kz.smarthealth.scheduleservice.service;
 
+import kz.smarthealth.scheduleservice.bulk.ScheduleBulkWriter;
+import kz.smarthealth.scheduleservice.cache.CalendarStore;
+import kz.smarthealth.scheduleservice.cache.ReservedIntervalIndex;
 import kz.smarthealth.scheduleservice.exception.CustomException;
+import kz.smarthealth.scheduleservice.limiter.DatabaseReadGuard;
+import kz.smarthealth.scheduleservice.model.dto.ScheduleBatchResultDTO;
 import kz.smarthealth.scheduleservice.model.dto.ScheduleCreateDTO;
+import kz.smarthealth.scheduleservice.model.dto.ReservedIntervalDTO;
 import kz.smarthealth.scheduleservice.model.dto.ScheduleDTO;
+import kz.smarthealth.scheduleservice.model.dto.ScheduleReadResultDTO;
 import kz.smarthealth.scheduleservice.model.entity.ScheduleEntity;
+import kz.smarthealth.scheduleservice.notification.ScheduleChangeType;
+import kz.smarthealth.scheduleservice.notification.ScheduleChangedEvent;
+import kz.smarthealth.scheduleservice.profiling.ScheduleMergeEvent;
+import kz.smarthealth.scheduleservice.profiling.SlotGenerationEvent;
 import kz.smarthealth.scheduleservice.repository.ScheduleRepository;
+import kz.smarthealth.scheduleservice.sharding.ShardRouted;
 import kz.smarthealth.scheduleservice.util.MessageSource;
+import kz.smarthealth.scheduleservice.util.ZoneRulesCache;
 import lombok.RequiredArgsConstructor;
-import org.modelmapper.ModelMapper;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.time.LocalDate;
+import java.time.Duration;
 import java.time.LocalDateTime;
-import java.time.LocalTime;
 import java.time.ZoneId;
-import java.util.LinkedList;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
 import static kz.smarthealth.scheduleservice.util.AppConstants.UTC_ZONE_ID;
 
@@ -31,135 +50,268 @@ import static kz.smarthealth.scheduleservice.util.AppConstants.UTC_ZONE_ID;
 @RequiredArgsConstructor
 public class ScheduleService {
 
+    private static final Duration CALENDAR_LOAD_AHEAD = Duration.ofHours(1);
+
     private final ScheduleRepository scheduleRepository;
-    private final ModelMapper modelMapper;
+    private final ScheduleBulkWriter scheduleBulkWriter;
+    private final ReservedIntervalIndex reservedIntervalIndex;
+    private final CalendarStore calendarStore;
+    private final DatabaseReadGuard databaseReadGuard;
+    private final DailyAvailabilityService dailyAvailabilityService;
+    private final ApplicationEventPublisher applicationEventPublisher;
 
     /**
      * Creates schedule entities.
-     * - If there are some schedules with overlapping dates, they will be replaced with new schedules.
-     * - If there are reserved schedules, method throws exception.
+     * - Slots are generated in one pass by {@link ScheduleTemplate}: working hours per day of week, breaks, days off
+     * and excluded dates.
+     * - If there are some schedules with overlapping dates, they will be replaced with new schedules. Replaced range
+     * spans from the earliest start to the latest end of working hours of the template.
+     * - New schedules overlapping reserved schedules or live holds are skipped, held schedules are kept, so holds
+     * may still be confirmed. Reserved schedules are queried in the transaction, not taken from
+     * {@link ReservedIntervalIndex}, which may hold reservations of another transaction.
+     * - Daily availability summary is recomputed for affected days, including the day before the range, where
+     * replaced schedules crossing midnight may start.
+     * - Reserved schedules are looked up and replaced schedules are deleted before generation, then slots are
+     * streamed by {@link ScheduleChunkWriter} to {@link ScheduleBulkWriter} in chunks, bypassing persistence context.
+     * - Subscribers of the doctor get the replaced range after commit, see {@link ScheduleChangedEvent}.
+     * - Merge, generation and persistence of each chunk are recorded as JFR events, generation includes persistence.
      *
      * @param scheduleCreateDTO schedule entities parameters
      */
     @Transactional
+    @ShardRouted(userId = "#scheduleCreateDTO.userId")
     public void createSchedules(ScheduleCreateDTO scheduleCreateDTO) {
         UUID userId = scheduleCreateDTO.getUserId();
-        LocalDate startDate = scheduleCreateDTO.getStartDate();
-        LocalDate endDate = scheduleCreateDTO.getEndDate();
-        ZoneId zoneId = ZoneId.of(scheduleCreateDTO.getZoneOffset());
-        LocalDateTime startDateTime = LocalDateTime.of(startDate, scheduleCreateDTO.getWorkingDayStartTime())
-                .atZone(zoneId).withZoneSameInstant(UTC_ZONE_ID).toLocalDateTime();
-        LocalDateTime endDateTime = LocalDateTime.of(endDate, scheduleCreateDTO.getWorkingDayEndTime())
-                .atZone(zoneId).withZoneSameInstant(UTC_ZONE_ID).toLocalDateTime();
-        List<ScheduleEntity> reservedScheduleEntities = scheduleRepository
-                .findAllReservedSchedulesByUserIdBetweenDates(userId, startDateTime, endDateTime);
-        List<ScheduleEntity> scheduleEntities = getScheduleEntities(scheduleCreateDTO);
-        removeReservedSchedules(scheduleEntities, reservedScheduleEntities);
-        scheduleRepository.deleteAllOverlappingSchedulesByUserUdBetweenDates(userId, startDateTime, endDateTime);
-        scheduleRepository.saveAll(scheduleEntities);
+        ZoneId zoneId = ZoneRulesCache.getZoneId(scheduleCreateDTO.getZoneOffset());
+        ScheduleTemplate scheduleTemplate = ScheduleTemplate.of(scheduleCreateDTO);
+        DateRange dateRange = getDateRange(scheduleCreateDTO, scheduleTemplate, zoneId);
+        LocalDateTime startDateTime = dateRange.startDateTime();
+        LocalDateTime endDateTime = dateRange.endDateTime();
+        ScheduleMergeEvent scheduleMergeEvent = new ScheduleMergeEvent();
+        scheduleMergeEvent.begin();
+        LocalDateTime now = LocalDateTime.now(UTC_ZONE_ID);
+        List<ReservedIntervalDTO> reservedIntervals = scheduleRepository
+                .findAllReservedOrHeldSchedulesByUserIdBetweenDates(userId, startDateTime, endDateTime, now)
+                .stream()
+                .map(scheduleEntity -> new ReservedIntervalDTO(scheduleEntity.getStartDateTime(),
+                        scheduleEntity.getEndDateTime()))
+                .toList();
+        scheduleRepository.deleteAllOverlappingSchedulesByUserUdBetweenDates(userId, startDateTime, endDateTime,
+                now);
+        scheduleMergeEvent.complete(1, reservedIntervals.size());
+        SlotGenerationEvent slotGenerationEvent = new SlotGenerationEvent();
+        slotGenerationEvent.begin();
+        ScheduleChunkWriter scheduleChunkWriter = new ScheduleChunkWriter(scheduleBulkWriter, 1);
+        scheduleChunkWriter.startDoctor(reservedIntervals);
+        scheduleTemplate.generate(scheduleCreateDTO.getStartDate(), scheduleCreateDTO.getEndDate(), zoneId,
+                scheduleChunkWriter);
+        scheduleChunkWriter.flush();
+        slotGenerationEvent.complete(1, scheduleChunkWriter.getGeneratedCount());
+        dailyAvailabilityService.refresh(List.of(userId), startDateTime.toLocalDate().minusDays(1),
+                endDateTime.toLocalDate());
+        calendarStore.invalidate(userId);
+        applicationEventPublisher.publishEvent(ScheduleChangedEvent.created(userId, startDateTime, endDateTime));
     }
 
     /**
-     * Creates list of {@link ScheduleEntity}
+     * Creates schedule entities for several doctors in one transaction.
+     * Reserved and held schedules of all doctors are loaded with one query, overlapping schedules are deleted with one query
+     * per distinct date range and slots of all doctors are streamed by one {@link ScheduleChunkWriter}.
+     * Merge and generation of the whole batch and persistence of each chunk are recorded as JFR events.
      *
-     * @param scheduleCreateDTO request paramteres
-     * @return list of schedule entities
+     * @param scheduleCreateDTOList schedule entities parameters, at most one per doctor
+     * @return number of created and skipped schedules per doctor
+     * @throws CustomException if there are several parameters for the same doctor
      */
-    private List<ScheduleEntity> getScheduleEntities(ScheduleCreateDTO scheduleCreateDTO) {
-        ZoneId zoneId = ZoneId.of(scheduleCreateDTO.getZoneOffset());
-        int interval = scheduleCreateDTO.getInterval();
-        LocalDateTime startDateTime = LocalDateTime.of(scheduleCreateDTO.getStartDate(),
-                scheduleCreateDTO.getWorkingDayStartTime());
-        LocalDateTime endDateTime = startDateTime.plusMinutes(interval);
-        LocalTime workingDayStartTime = scheduleCreateDTO.getWorkingDayStartTime();
-        LocalTime workingDayEndTime = scheduleCreateDTO.getWorkingDayEndTime();
-        List<ScheduleEntity> scheduleEntityList = new LinkedList<>();
-        LocalDateTime terminalDateTime = LocalDateTime.of(scheduleCreateDTO.getEndDate().plusDays(1),
-                LocalTime.of(0, 1));
-
-        while (endDateTime.isBefore(terminalDateTime)) {
-            if (startDateTime.toLocalTime().isBefore(workingDayStartTime)
-                    || startDateTime.toLocalTime().isAfter(workingDayEndTime)
-                    || endDateTime.toLocalTime().isAfter(workingDayEndTime)
-                    || endDateTime.toLocalTime().isBefore(workingDayStartTime)) {
-                startDateTime = endDateTime;
-                endDateTime = startDateTime.plusMinutes(interval);
-                continue;
+    @Transactional
+    @ShardRouted(partitionBy = "userId")
+    public List<ScheduleBatchResultDTO> createSchedules(List<ScheduleCreateDTO> scheduleCreateDTOList) {
+        Map<UUID, ScheduleCreateDTO> scheduleCreateDTOMap = new LinkedHashMap<>();
+
+        for (ScheduleCreateDTO scheduleCreateDTO : scheduleCreateDTOList) {
+            if (scheduleCreateDTOMap.putIfAbsent(scheduleCreateDTO.getUserId(), scheduleCreateDTO) != null) {
+                throw CustomException.builder()
+                        .httpStatus(HttpStatus.BAD_REQUEST)
+                        .errorMessage(MessageSource.DUPLICATE_USER_ID.getText(
+                                scheduleCreateDTO.getUserId().toString()))
+                        .build();
             }
+        }
+
+        Map<DateRange, List<UUID>> userIdsByDateRange = new LinkedHashMap<>();
+        Map<UUID, DateRange> dateRanges = new HashMap<>();
+        Map<UUID, ZoneId> zoneIds = new HashMap<>();
+        Map<UUID, ScheduleTemplate> scheduleTemplates = new HashMap<>();
+
+        for (ScheduleCreateDTO scheduleCreateDTO : scheduleCreateDTOList) {
+            ZoneId zoneId = ZoneRulesCache.getZoneId(scheduleCreateDTO.getZoneOffset());
+            ScheduleTemplate scheduleTemplate = ScheduleTemplate.of(scheduleCreateDTO);
+            DateRange dateRange = getDateRange(scheduleCreateDTO, scheduleTemplate, zoneId);
+            zoneIds.put(scheduleCreateDTO.getUserId(), zoneId);
+            scheduleTemplates.put(scheduleCreateDTO.getUserId(), scheduleTemplate);
+            dateRanges.put(scheduleCreateDTO.getUserId(), dateRange);
+            userIdsByDateRange.computeIfAbsent(dateRange, key -> new ArrayList<>()).add(scheduleCreateDTO.getUserId());
+        }
 
-            scheduleEntityList.add(ScheduleEntity.builder()
-                    .userId(scheduleCreateDTO.getUserId())
-                    .startDateTime(startDateTime)
-                    .endDateTime(endDateTime)
-                    .isReserved(false)
+        ScheduleMergeEvent scheduleMergeEvent = new ScheduleMergeEvent();
+        scheduleMergeEvent.begin();
+        LocalDateTime minStartDateTime = userIdsByDateRange.keySet().stream()
+                .map(DateRange::startDateTime)
+                .min(Comparator.naturalOrder())
+                .orElseThrow();
+        LocalDateTime maxEndDateTime = userIdsByDateRange.keySet().stream()
+                .map(DateRange::endDateTime)
+                .max(Comparator.naturalOrder())
+                .orElseThrow();
+        LocalDateTime now = LocalDateTime.now(UTC_ZONE_ID);
+        List<ScheduleEntity> reservedScheduleEntities = scheduleRepository
+                .findAllReservedOrHeldSchedulesByUserIdsBetweenDates(scheduleCreateDTOMap.keySet(),
+                        minStartDateTime, maxEndDateTime, now);
+        Map<UUID, List<ReservedIntervalDTO>> reservedIntervalMap = reservedScheduleEntities.stream()
+                .collect(Collectors.groupingBy(ScheduleEntity::getUserId, Collectors.mapping(
+                        scheduleEntity -> new ReservedIntervalDTO(scheduleEntity.getStartDateTime(),
+                                scheduleEntity.getEndDateTime()), Collectors.toList())));
+        userIdsByDateRange.forEach((dateRange, userIds) -> scheduleRepository
+                .deleteAllOverlappingSchedulesByUserIdsBetweenDates(userIds, dateRange.startDateTime(),
+                        dateRange.endDateTime(), now));
+        scheduleMergeEvent.complete(scheduleCreateDTOMap.size(), reservedScheduleEntities.size());
+        SlotGenerationEvent slotGenerationEvent = new SlotGenerationEvent();
+        slotGenerationEvent.begin();
+        ScheduleChunkWriter scheduleChunkWriter = new ScheduleChunkWriter(scheduleBulkWriter,
+                scheduleCreateDTOMap.size());
+        List<ScheduleBatchResultDTO> results = new ArrayList<>();
+        int generatedTotalCount = 0;
+
+        for (ScheduleCreateDTO scheduleCreateDTO : scheduleCreateDTOMap.values()) {
+            UUID userId = scheduleCreateDTO.getUserId();
+            scheduleChunkWriter.startDoctor(reservedIntervalMap.getOrDefault(userId, Collections.emptyList()));
+            scheduleTemplates.get(userId).generate(scheduleCreateDTO.getStartDate(), scheduleCreateDTO.getEndDate(),
+                    zoneIds.get(userId), scheduleChunkWriter);
+            generatedTotalCount += scheduleChunkWriter.getGeneratedCount();
+            results.add(ScheduleBatchResultDTO.builder()
+                    .userId(userId)
+                    .createdCount(scheduleChunkWriter.getCreatedCount())
+                    .skippedReservedCount(scheduleChunkWriter.getGeneratedCount()
+                            - scheduleChunkWriter.getCreatedCount())
                     .build());
-            startDateTime = endDateTime;
-            endDateTime = startDateTime.plusMinutes(interval);
         }
 
-        scheduleEntityList.forEach(entity -> {
-            entity.setStartDateTime(entity.getStartDateTime().atZone(zoneId).withZoneSameInstant(UTC_ZONE_ID)
-                    .toLocalDateTime());
-            entity.setEndDateTime(entity.getEndDateTime().atZone(zoneId).withZoneSameInstant(UTC_ZONE_ID)
-                    .toLocalDateTime());
-        });
+        scheduleChunkWriter.flush();
+        slotGenerationEvent.complete(scheduleCreateDTOMap.size(), generatedTotalCount);
+        userIdsByDateRange.forEach((dateRange, userIds) -> dailyAvailabilityService.refresh(userIds,
+                dateRange.startDateTime().toLocalDate().minusDays(1), dateRange.endDateTime().toLocalDate()));
+        scheduleCreateDTOMap.keySet().forEach(calendarStore::invalidate);
+        scheduleCreateDTOMap.keySet().forEach(userId -> applicationEventPublisher.publishEvent(
+                ScheduleChangedEvent.created(userId, dateRanges.get(userId).startDateTime(),
+                        dateRanges.get(userId).endDateTime())));
 
-        return scheduleEntityList;
+        return results;
     }
 
     /**
-     * Removes overlapping schedules from new schedules list
+     * Gets replaced range of the request in UTC, from the earliest start of working hours on the first day to the
+     * latest end on the last day
      *
-     * @param scheduleEntities         new schedules list
-     * @param reservedScheduleEntities already existing reserved schedules list
-     * @return schedules list
+     * @param scheduleCreateDTO request parameters
+     * @param scheduleTemplate  template of the request
+     * @param zoneId            zone of working hours
+     * @return range in UTC
      */
-    private List<ScheduleEntity> removeReservedSchedules(List<ScheduleEntity> scheduleEntities,
-                                                         List<ScheduleEntity> reservedScheduleEntities) {
-        if (scheduleEntities.isEmpty() || reservedScheduleEntities.isEmpty()) {
-            return scheduleEntities;
-        }
+    private static DateRange getDateRange(ScheduleCreateDTO scheduleCreateDTO, ScheduleTemplate scheduleTemplate,
+                                          ZoneId zoneId) {
+        return new DateRange(
+                ZoneRulesCache.toUtc(LocalDateTime.of(scheduleCreateDTO.getStartDate(),
+                        scheduleTemplate.getEarliestStartTime()), zoneId),
+                ZoneRulesCache.toUtc(LocalDateTime.of(scheduleCreateDTO.getEndDate(),
+                        scheduleTemplate.getLatestEndTime()), zoneId));
+    }
 
-        int i = 0;
-        int j = 0;
+    /**
+     * Gets all schedules by user for the next 3 months from now.
+     * Schedules are served from {@link CalendarStore}, on miss they are loaded a bit further than requested, so
+     * following requests within the next hour fit into stored range. Loaded rows are mapped straight to DTOs, see
+     * {@link kz.smarthealth.scheduleservice.repository.ScheduleProjectionRepository}.
+     * Load goes through {@link DatabaseReadGuard}, if it is rejected or fails, the last stored schedules are served
+     * as stale.
+     *
+     * @param userId user id
+     * @return list of schedules, marked as stale if database is not available
+     * @throws CustomException if database is not available and there are no stored schedules of the user
+     */
+    @ShardRouted(userId = "#userId")
+    public ScheduleReadResultDTO getSchedulesByUserId(UUID userId) {
+        LocalDateTime startDateTime = LocalDateTime.now().minusDays(2);
+        LocalDateTime endDateTime = LocalDateTime.now().plusMonths(3);
+        Optional<List<ScheduleDTO>> storedScheduleDTOList = calendarStore.findSchedules(userId, startDateTime,
+                endDateTime);
 
-        while (i < scheduleEntities.size() && j < reservedScheduleEntities.size()) {
-            ScheduleEntity scheduleEntity = scheduleEntities.get(i);
+        if (storedScheduleDTOList.isPresent()) {
+            return ScheduleReadResultDTO.builder()
+                    .schedules(storedScheduleDTOList.get())
+                    .build();
+        }
 
-            if (!scheduleEntity.getEndDateTime().isAfter(reservedScheduleEntities.get(j).getStartDateTime())) {
-                i++;
-            } else if (!scheduleEntity.getStartDateTime().isBefore(reservedScheduleEntities.get(j).getEndDateTime())) {
-                j++;
-            } else {
-                scheduleEntities.remove(scheduleEntity);
-            }
+        LocalDateTime loadedEndDateTime = endDateTime.plus(CALENDAR_LOAD_AHEAD);
+        Optional<List<ScheduleDTO>> loadedScheduleDTOList = databaseReadGuard.tryRead(() -> scheduleRepository
+                .findAllScheduleDTOsByUserIdBetweenDates(userId, startDateTime, loadedEndDateTime));
+
+        if (loadedScheduleDTOList.isEmpty()) {
+            return calendarStore.findStaleSchedules(userId, startDateTime, endDateTime)
+                    .orElseThrow(() -> CustomException.builder()
+                            .httpStatus(HttpStatus.SERVICE_UNAVAILABLE)
+                            .errorMessage(MessageSource.SCHEDULES_UNAVAILABLE.getText())
+                            .build());
         }
 
-        return scheduleEntities;
+        calendarStore.put(userId, loadedScheduleDTOList.get(), startDateTime, loadedEndDateTime);
+
+        return ScheduleReadResultDTO.builder()
+                .schedules(loadedScheduleDTOList.get().stream()
+                        .filter(scheduleDTO -> isBetween(scheduleDTO, startDateTime, endDateTime))
+                        .toList())
+                .build();
     }
 
     /**
-     * Gets all schedules by user for the next 3 months from now
+     * Finds reserved intervals of a doctor overlapping given range, served from {@link ReservedIntervalIndex}.
+     * Reservations confirmed on another replica are seen after the index entry is evicted, writes check overlaps
+     * in database.
      *
-     * @param userId user id
-     * @return list of schedules
+     * @param userId        doctor id
+     * @param startDateTime start of the range in UTC, inclusive
+     * @param endDateTime   end of the range in UTC, exclusive
+     * @return reserved intervals ordered by start
+     * @throws CustomException if end is not after start
      */
-    public List<ScheduleDTO> getSchedulesByUserId(UUID userId) {
-        List<ScheduleEntity> scheduleEntityList = scheduleRepository.findAllByUserIdBetweenDates(userId,
-                LocalDateTime.now().minusDays(2), LocalDateTime.now().plusMonths(3));
+    @ShardRouted(userId = "#userId")
+    public List<ReservedIntervalDTO> findReservedIntervals(UUID userId, LocalDateTime startDateTime,
+                                                           LocalDateTime endDateTime) {
+        if (!endDateTime.isAfter(startDateTime)) {
+            throw CustomException.builder()
+                    .httpStatus(HttpStatus.BAD_REQUEST)
+                    .errorMessage(MessageSource.INVALID_DATE_TIME_RANGE.getText())
+                    .build();
+        }
 
-        return scheduleEntityList.stream()
-                .map(scheduleEntity -> modelMapper.map(scheduleEntity, ScheduleDTO.class))
-                .toList();
+        return reservedIntervalIndex.findOverlapping(userId, startDateTime, endDateTime);
+    }
+
+    private static boolean isBetween(ScheduleDTO scheduleDTO, LocalDateTime startDateTime,
+                                     LocalDateTime endDateTime) {
+        return !scheduleDTO.getStartDateTime().isBefore(startDateTime)
+                && scheduleDTO.getStartDateTime().isBefore(endDateTime)
+                || scheduleDTO.getEndDateTime().isAfter(startDateTime)
+                && !scheduleDTO.getEndDateTime().isAfter(endDateTime);
     }
 
     /**
-     * Deletes schedule by id
+     * Deletes schedule by id, schedule held by a patient is not deleted until the hold expires
      *
      * @param id schedule id
-     * @throws CustomException if schedule by id not found, or if schedule is already reserved
+     * @throws CustomException if schedule by id not found, or if schedule is already reserved or held
      */
     @Transactional
+    @ShardRouted(scheduleId = "#id")
     public void deleteScheduleById(UUID id) {
         ScheduleEntity scheduleEntity = scheduleRepository.findById(id)
                 .orElseThrow(() -> CustomException.builder()
@@ -174,6 +326,20 @@ public class ScheduleService {
                     .build();
         }
 
-        scheduleRepository.deleteById(id);
+        if (scheduleRepository.deleteFreeScheduleById(id, LocalDateTime.now(UTC_ZONE_ID)) == 0) {
+            throw CustomException.builder()
+                    .httpStatus(HttpStatus.CONFLICT)
+                    .errorMessage(MessageSource.SCHEDULE_NOT_AVAILABLE.getText())
+                    .build();
+        }
+
+        dailyAvailabilityService.refresh(List.of(scheduleEntity.getUserId()),
+                scheduleEntity.getStartDateTime().toLocalDate(), scheduleEntity.getStartDateTime().toLocalDate());
+        calendarStore.invalidate(scheduleEntity.getUserId());
+        applicationEventPublisher.publishEvent(ScheduleChangedEvent.of(scheduleEntity.getUserId(),
+                ScheduleChangeType.DELETED, List.of(id)));
+    }
+
+    private record DateRange(LocalDateTime startDateTime, LocalDateTime endDateTime) {
     }
 }
@@ -0,0 +1,173 @@
+package kz.smarthealth.scheduleservice.service;
+
+import kz.smarthealth.scheduleservice.model.dto.BreakDTO;
+import kz.smarthealth.scheduleservice.model.dto.ScheduleCreateDTO;
+import kz.smarthealth.scheduleservice.model.dto.WorkingHoursDTO;
+import kz.smarthealth.scheduleservice.model.entity.ScheduleEntity;
+import kz.smarthealth.scheduleservice.util.ZoneRulesCache;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Weekly template of a doctor compiled from {@link ScheduleCreateDTO}: working hours and sorted breaks are resolved
+ * per day of week once, so slots of the whole range are generated in one pass without lookups per day.
+ */
+final class ScheduleTemplate {
+
+    private final UUID userId;
+    private final int interval;
+    private final DayTemplate defaultDayTemplate;
+    private final DayTemplate[] dayTemplates;
+    private final Set<LocalDate> excludedDates;
+
+    private ScheduleTemplate(UUID userId, int interval, DayTemplate defaultDayTemplate, DayTemplate[] dayTemplates,
+                             Set<LocalDate> excludedDates) {
+        this.userId = userId;
+        this.interval = interval;
+        this.defaultDayTemplate = defaultDayTemplate;
+        this.dayTemplates = dayTemplates;
+        this.excludedDates = excludedDates;
+    }
+
+    /**
+     * Compiles template, days of week without own working hours take default working day times and breaks
+     *
+     * @param scheduleCreateDTO request parameters
+     * @return template
+     */
+    static ScheduleTemplate of(ScheduleCreateDTO scheduleCreateDTO) {
+        List<BreakDTO> defaultBreaks = sortBreaks(scheduleCreateDTO.getBreaks());
+        DayTemplate defaultDayTemplate = new DayTemplate(scheduleCreateDTO.getWorkingDayStartTime(),
+                scheduleCreateDTO.getWorkingDayEndTime(), defaultBreaks);
+        DayTemplate[] dayTemplates = new DayTemplate[DayOfWeek.values().length];
+
+        for (DayOfWeek dayOfWeek : DayOfWeek.values()) {
+            dayTemplates[dayOfWeek.ordinal()] = defaultDayTemplate;
+        }
+        if (scheduleCreateDTO.getWorkingHours() != null) {
+            for (WorkingHoursDTO workingHoursDTO : scheduleCreateDTO.getWorkingHours()) {
+                dayTemplates[workingHoursDTO.getDayOfWeek().ordinal()] = new DayTemplate(
+                        workingHoursDTO.getStartTime(), workingHoursDTO.getEndTime(),
+                        workingHoursDTO.getBreaks() == null ? defaultBreaks : sortBreaks(workingHoursDTO.getBreaks()));
+            }
+        }
+        if (scheduleCreateDTO.getDaysOff() != null) {
+            for (DayOfWeek dayOfWeek : scheduleCreateDTO.getDaysOff()) {
+                dayTemplates[dayOfWeek.ordinal()] = null;
+            }
+        }
+
+        Set<LocalDate> excludedDates = scheduleCreateDTO.getExcludedDates() == null
+                ? Set.of()
+                : Set.copyOf(scheduleCreateDTO.getExcludedDates());
+
+        return new ScheduleTemplate(scheduleCreateDTO.getUserId(), scheduleCreateDTO.getInterval(),
+                defaultDayTemplate, dayTemplates, excludedDates);
+    }
+
+    /**
+     * Generates slots day by day in local time of the doctor, UTC offset is resolved once per day.
+     * Slot overlapping a break is not created, next slot starts at the end of the break.
+     * On days with DST transition slots falling into the same UTC time are skipped.
+     *
+     * @param startDate first day, inclusive
+     * @param endDate   last day, inclusive
+     * @param zoneId    zone of working hours
+     * @param consumer  consumer of schedule entities, they are given ordered by start in UTC
+     */
+    void generate(LocalDate startDate, LocalDate endDate, ZoneId zoneId, Consumer<ScheduleEntity> consumer) {
+        LocalDateTime lastEndDateTime = LocalDateTime.MIN;
+
+        for (LocalDate date = startDate; !date.isAfter(endDate); date = date.plusDays(1)) {
+            DayTemplate dayTemplate = dayTemplates[date.getDayOfWeek().ordinal()];
+
+            if (dayTemplate == null || excludedDates.contains(date)) {
+                continue;
+            }
+
+            ZoneOffset dayOffset = ZoneRulesCache.findDayOffset(zoneId, date).orElse(null);
+            List<BreakDTO> breaks = dayTemplate.breaks();
+            LocalDateTime workingDayEndDateTime = LocalDateTime.of(date, dayTemplate.endTime());
+            LocalDateTime startDateTime = LocalDateTime.of(date, dayTemplate.startTime());
+            LocalDateTime endDateTime = startDateTime.plusMinutes(interval);
+            int breakIndex = 0;
+
+            while (!endDateTime.isAfter(workingDayEndDateTime)) {
+                while (breakIndex < breaks.size()
+                        && !LocalDateTime.of(date, breaks.get(breakIndex).getEndTime()).isAfter(startDateTime)) {
+                    breakIndex++;
+                }
+                if (breakIndex < breaks.size()
+                        && LocalDateTime.of(date, breaks.get(breakIndex).getStartTime()).isBefore(endDateTime)) {
+                    startDateTime = LocalDateTime.of(date, breaks.get(breakIndex).getEndTime());
+                    endDateTime = startDateTime.plusMinutes(interval);
+                    continue;
+                }
+
+                LocalDateTime utcStartDateTime = ZoneRulesCache.toUtc(startDateTime, zoneId, dayOffset);
+
+                if (!utcStartDateTime.isBefore(lastEndDateTime)) {
+                    lastEndDateTime = utcStartDateTime.plusMinutes(interval);
+                    consumer.accept(ScheduleEntity.builder()
+                            .userId(userId)
+                            .startDateTime(utcStartDateTime)
+                            .endDateTime(lastEndDateTime)
+                            .isReserved(false)
+                            .build());
+                }
+
+                startDateTime = endDateTime;
+                endDateTime = startDateTime.plusMinutes(interval);
+            }
+        }
+    }
+
+    /**
+     * @return earliest start of working hours over all days of week, default one included
+     */
+    LocalTime getEarliestStartTime() {
+        LocalTime earliestStartTime = defaultDayTemplate.startTime();
+
+        for (DayTemplate dayTemplate : dayTemplates) {
+            if (dayTemplate != null && dayTemplate.startTime().isBefore(earliestStartTime)) {
+                earliestStartTime = dayTemplate.startTime();
+            }
+        }
+
+        return earliestStartTime;
+    }
+
+    /**
+     * @return latest end of working hours over all days of week, default one included
+     */
+    LocalTime getLatestEndTime() {
+        LocalTime latestEndTime = defaultDayTemplate.endTime();
+
+        for (DayTemplate dayTemplate : dayTemplates) {
+            if (dayTemplate != null && dayTemplate.endTime().isAfter(latestEndTime)) {
+                latestEndTime = dayTemplate.endTime();
+            }
+        }
+
+        return latestEndTime;
+    }
+
+    private static List<BreakDTO> sortBreaks(List<BreakDTO> breaks) {
+        return breaks == null ? List.of() : breaks.stream()
+                .sorted(Comparator.comparing(BreakDTO::getStartTime))
+                .toList();
+    }
+
+    private record DayTemplate(LocalTime startTime, LocalTime endTime, List<BreakDTO> breaks) {
+    }
+}
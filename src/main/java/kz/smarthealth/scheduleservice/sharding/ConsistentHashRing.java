@@ -0,0 +1,92 @@
+package kz.smarthealth.scheduleservice.sharding;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Consistent hash ring of shards with virtual nodes, kept as sorted primitive array of node hashes.
+ * Adding a shard to N shards moves about 1/(N+1) of doctors, other doctors keep their shard.
+ */
+public class ConsistentHashRing {
+
+    private final List<String> shards;
+    private final long[] nodeHashes;
+    private final String[] nodeShards;
+
+    public ConsistentHashRing(List<String> shards, int virtualNodes) {
+        if (shards.isEmpty() || virtualNodes < 1) {
+            throw new IllegalArgumentException("At least one shard and one virtual node are required");
+        }
+
+        this.shards = List.copyOf(shards);
+        int size = shards.size() * virtualNodes;
+        long[][] nodes = new long[size][2];
+
+        for (int i = 0; i < shards.size(); i++) {
+            for (int j = 0; j < virtualNodes; j++) {
+                nodes[i * virtualNodes + j][0] = hash(shards.get(i) + "#" + j);
+                nodes[i * virtualNodes + j][1] = i;
+            }
+        }
+
+        Arrays.sort(nodes, (first, second) -> Long.compare(first[0], second[0]));
+        this.nodeHashes = new long[size];
+        this.nodeShards = new String[size];
+
+        for (int i = 0; i < size; i++) {
+            nodeHashes[i] = nodes[i][0];
+            nodeShards[i] = shards.get((int) nodes[i][1]);
+        }
+    }
+
+    /**
+     * @param userId doctor id
+     * @return shard of the doctor
+     */
+    public String getShard(UUID userId) {
+        int index = Arrays.binarySearch(nodeHashes, mix(userId.getMostSignificantBits()
+                ^ Long.rotateLeft(userId.getLeastSignificantBits(), 32)));
+
+        if (index < 0) {
+            index = -index - 1;
+        }
+
+        return nodeShards[index == nodeHashes.length ? 0 : index];
+    }
+
+    public List<String> getShards() {
+        return shards;
+    }
+
+    private static long hash(String value) {
+        try {
+            byte[] digest = MessageDigest.getInstance("MD5").digest(value.getBytes(StandardCharsets.UTF_8));
+            long hash = 0;
+
+            for (int i = 0; i < Long.BYTES; i++) {
+                hash = hash << 8 | (digest[i] & 0xFF);
+            }
+
+            return hash;
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Finalizer of MurmurHash3, spreads bits of doctor id, ids generated not randomly are distributed evenly too
+     */
+    private static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        value *= 0xc4ceb9fe1a85ec53L;
+        value ^= value >>> 33;
+
+        return value;
+    }
+}
@@ -0,0 +1,53 @@
+package kz.smarthealth.scheduleservice.sharding;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import kz.smarthealth.scheduleservice.config.ShardingProperties;
+import kz.smarthealth.scheduleservice.model.dto.ErrorResponseDTO;
+import kz.smarthealth.scheduleservice.util.MessageSource;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+
+/**
+ * Rejects API requests with 503 while the replica is started with "app.sharding.rebalance".
+ * {@link ShardRebalancer} moves doctors without fencing their writes, so the replica running it must not serve
+ * traffic, and other replicas must be stopped for the time of rebalancing.
+ */
+public class RebalancingGuardFilter extends OncePerRequestFilter {
+
+    private static final String API_PATH_PREFIX = "/api/";
+
+    private final ShardingProperties shardingProperties;
+    private final ObjectMapper objectMapper;
+
+    public RebalancingGuardFilter(ShardingProperties shardingProperties, ObjectMapper objectMapper) {
+        this.shardingProperties = shardingProperties;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith(request.getContextPath() + API_PATH_PREFIX)
+                || !shardingProperties.enabled() || !shardingProperties.rebalance();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        ErrorResponseDTO errorResponseDTO = ErrorResponseDTO.builder()
+                .dateTime(LocalDateTime.now())
+                .code(HttpStatus.SERVICE_UNAVAILABLE.value())
+                .message(MessageSource.SHARDS_REBALANCING.getText())
+                .build();
+        response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), errorResponseDTO);
+    }
+}
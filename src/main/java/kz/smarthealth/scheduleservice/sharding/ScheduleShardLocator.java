@@ -0,0 +1,27 @@
+package kz.smarthealth.scheduleservice.sharding;
+
+import kz.smarthealth.scheduleservice.repository.ScheduleRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Finds shard of a schedule by its id, for the rare operations that are not scoped by doctor
+ */
+@Component
+@RequiredArgsConstructor
+public class ScheduleShardLocator {
+
+    private final ShardRouter shardRouter;
+    private final ScheduleRepository scheduleRepository;
+
+    /**
+     * @param scheduleId schedule id
+     * @return shard holding the schedule, empty if there is no such schedule
+     */
+    public Optional<String> findShard(UUID scheduleId) {
+        return shardRouter.findShard(shard -> scheduleRepository.existsById(scheduleId));
+    }
+}
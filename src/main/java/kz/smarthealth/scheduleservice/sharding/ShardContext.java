@@ -0,0 +1,37 @@
+package kz.smarthealth.scheduleservice.sharding;
+
+/**
+ * Shard of the current thread, read by {@link ShardRoutingDataSource} when connection is taken
+ */
+public class ShardContext {
+
+    private static final ThreadLocal<String> CURRENT_SHARD = new ThreadLocal<>();
+
+    private ShardContext() {
+    }
+
+    /**
+     * @return shard name, null if not set
+     */
+    public static String getCurrentShard() {
+        return CURRENT_SHARD.get();
+    }
+
+    /**
+     * Sets shard of the current thread
+     *
+     * @param shard shard name, null to clear
+     * @return previous shard name, to be restored after the call
+     */
+    public static String setCurrentShard(String shard) {
+        String previousShard = CURRENT_SHARD.get();
+
+        if (shard == null) {
+            CURRENT_SHARD.remove();
+        } else {
+            CURRENT_SHARD.set(shard);
+        }
+
+        return previousShard;
+    }
+}
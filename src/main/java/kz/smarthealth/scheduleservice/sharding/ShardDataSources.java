@@ -0,0 +1,21 @@
+package kz.smarthealth.scheduleservice.sharding;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * Data sources of shards by shard name, in order of configured shards
+ */
+public record ShardDataSources(Map<String, HikariDataSource> dataSources) implements AutoCloseable {
+
+    public DataSource get(String shard) {
+        return dataSources.get(shard);
+    }
+
+    @Override
+    public void close() {
+        dataSources.values().forEach(HikariDataSource::close);
+    }
+}
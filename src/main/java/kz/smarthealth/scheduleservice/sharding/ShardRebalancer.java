@@ -0,0 +1,130 @@
+package kz.smarthealth.scheduleservice.sharding;
+
+import kz.smarthealth.scheduleservice.config.ShardingProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Moves doctors to the shard given by consistent hash ring after shards were added.
+ * Runs on startup with "app.sharding.enabled" and "app.sharding.rebalance", intended to be started as one-off job
+ * while writes are stopped: this is an offline job, doctors are not fenced while they are moved, so writes of other
+ * replicas during rebalancing may be lost. The replica running it rejects API requests, see
+ * {@link RebalancingGuardFilter}, and should be stopped after rebalancing is logged as done.
+ * Properties are checked at runtime, so the job works in AOT processed image.
+ * Doctors are moved one by one: schedules with their holds, idempotency keys and daily availability are copied to
+ * target shard in its transaction, then deleted from source shard in another one. Idempotency keys saved before they
+ * had the doctor stay on source shard until they expire. Copy skips already copied rows, so interrupted rebalancing is
+ * completed by running it again.
+ */
+@Slf4j
+@Component
+public class ShardRebalancer implements ApplicationRunner {
+
+    private static final String USER_IDS_SQL = "select distinct s.user_id from schedules s";
+    private static final String COPY_SCHEDULES_SQL = "insert into schedules (id, user_id, start_date_time, " +
+            "end_date_time, is_reserved, created_at, held_until, hold_id) select ?, ?, ?, ?, ?, ?, ?, ? " +
+            "from (values (1)) v where not exists (select 1 from schedules s where s.id = ?)";
+    private static final String SCHEDULES_SQL = "select s.id, s.user_id, s.start_date_time, s.end_date_time, " +
+            "s.is_reserved, s.created_at, s.held_until, s.hold_id from schedules s where s.user_id = ?";
+    private static final String COPY_IDEMPOTENCY_KEYS_SQL = "insert into idempotency_keys (idempotency_key, " +
+            "request_hash, created_at, user_id) select ?, ?, ?, ? from (values (1)) v " +
+            "where not exists (select 1 from idempotency_keys k where k.idempotency_key = ?)";
+    private static final String IDEMPOTENCY_KEYS_SQL = "select k.idempotency_key, k.request_hash, k.created_at, " +
+            "k.user_id from idempotency_keys k where k.user_id = ?";
+    private static final String COPY_DAILY_AVAILABILITY_SQL = "insert into daily_availability (user_id, " +
+            "available_date, slot_count, free_count, first_free_start_date_time) values (?, ?, ?, ?, ?)";
+    private static final String DAILY_AVAILABILITY_SQL = "select d.user_id, d.available_date, d.slot_count, " +
+            "d.free_count, d.first_free_start_date_time from daily_availability d where d.user_id = ?";
+    private static final String DELETE_DAILY_AVAILABILITY_SQL = "delete from daily_availability where user_id = ?";
+    private static final String DELETE_IDEMPOTENCY_KEYS_SQL = "delete from idempotency_keys where user_id = ?";
+    private static final String DELETE_SCHEDULES_SQL = "delete from schedules where user_id = ?";
+
+    private final ShardRouter shardRouter;
+    private final ShardDataSources shardDataSources;
+    private final ShardingProperties shardingProperties;
+
+    public ShardRebalancer(ShardRouter shardRouter, ShardDataSources shardDataSources,
+                           ShardingProperties shardingProperties) {
+        this.shardRouter = shardRouter;
+        this.shardDataSources = shardDataSources;
+        this.shardingProperties = shardingProperties;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!shardingProperties.enabled() || !shardingProperties.rebalance()) {
+            return;
+        }
+
+        rebalance();
+    }
+
+    /**
+     * Moves every doctor that is stored not on the shard it is routed to
+     */
+    public void rebalance() {
+        int movedCount = 0;
+
+        for (String sourceShard : shardDataSources.dataSources().keySet()) {
+            JdbcTemplate sourceJdbcTemplate = new JdbcTemplate(shardDataSources.get(sourceShard));
+            List<UUID> userIds = sourceJdbcTemplate.queryForList(USER_IDS_SQL, UUID.class);
+
+            for (UUID userId : userIds) {
+                String targetShard = shardRouter.getShard(userId);
+
+                if (!targetShard.equals(sourceShard)) {
+                    move(userId, sourceShard, targetShard);
+                    movedCount++;
+                }
+            }
+        }
+
+        log.info("Shards rebalanced, moved doctors: {}", movedCount);
+    }
+
+    /**
+     * Moves schedules, idempotency keys and daily availability of a doctor
+     *
+     * @param userId      doctor id
+     * @param sourceShard shard the doctor is stored on
+     * @param targetShard shard the doctor is routed to
+     */
+    public void move(UUID userId, String sourceShard, String targetShard) {
+        DataSource sourceDataSource = shardDataSources.get(sourceShard);
+        DataSource targetDataSource = shardDataSources.get(targetShard);
+        JdbcTemplate sourceJdbcTemplate = new JdbcTemplate(sourceDataSource);
+        JdbcTemplate targetJdbcTemplate = new JdbcTemplate(targetDataSource);
+
+        new TransactionTemplate(new DataSourceTransactionManager(targetDataSource)).executeWithoutResult(status -> {
+            List<Object[]> schedules = sourceJdbcTemplate.query(SCHEDULES_SQL, (resultSet, rowNum) -> new Object[]{
+                    resultSet.getObject(1), resultSet.getObject(2), resultSet.getObject(3), resultSet.getObject(4),
+                    resultSet.getObject(5), resultSet.getObject(6), resultSet.getObject(7), resultSet.getObject(8),
+                    resultSet.getObject(1)}, userId);
+            List<Object[]> idempotencyKeys = sourceJdbcTemplate.query(IDEMPOTENCY_KEYS_SQL,
+                    (resultSet, rowNum) -> new Object[]{resultSet.getObject(1), resultSet.getObject(2),
+                            resultSet.getObject(3), resultSet.getObject(4), resultSet.getObject(1)}, userId);
+            List<Object[]> dailyAvailability = sourceJdbcTemplate.query(DAILY_AVAILABILITY_SQL,
+                    (resultSet, rowNum) -> new Object[]{resultSet.getObject(1), resultSet.getObject(2),
+                            resultSet.getObject(3), resultSet.getObject(4), resultSet.getObject(5)}, userId);
+            targetJdbcTemplate.batchUpdate(COPY_SCHEDULES_SQL, schedules);
+            targetJdbcTemplate.batchUpdate(COPY_IDEMPOTENCY_KEYS_SQL, idempotencyKeys);
+            targetJdbcTemplate.update(DELETE_DAILY_AVAILABILITY_SQL, userId);
+            targetJdbcTemplate.batchUpdate(COPY_DAILY_AVAILABILITY_SQL, dailyAvailability);
+        });
+        new TransactionTemplate(new DataSourceTransactionManager(sourceDataSource)).executeWithoutResult(status -> {
+            sourceJdbcTemplate.update(DELETE_DAILY_AVAILABILITY_SQL, userId);
+            sourceJdbcTemplate.update(DELETE_IDEMPOTENCY_KEYS_SQL, userId);
+            sourceJdbcTemplate.update(DELETE_SCHEDULES_SQL, userId);
+        });
+        log.info("Doctor moved, userId: {}, from: {}, to: {}", userId, sourceShard, targetShard);
+    }
+}
@@ -0,0 +1,31 @@
+package kz.smarthealth.scheduleservice.sharding;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Runs annotated method on the shard of a doctor, see {@link ShardRoutingAspect}.
+ * Exactly one of the attributes must be set. Expressions are SpEL over method parameters, e.g. "#userId".
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ShardRouted {
+
+    /**
+     * Expression resolving to doctor id
+     */
+    String userId() default "";
+
+    /**
+     * Expression resolving to schedule id, the shard holding the schedule is looked up on all shards in parallel
+     */
+    String scheduleId() default "";
+
+    /**
+     * Expression resolving to doctor id of an element of the first parameter, which must be a list. The list is split
+     * by shard, the method is called once per shard and returned lists are concatenated in shard order.
+     */
+    String partitionBy() default "";
+}
@@ -0,0 +1,141 @@
+package kz.smarthealth.scheduleservice.sharding;
+
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Routes operations of doctors to shards by {@link ConsistentHashRing}.
+ * Without sharding there is one shard and routing does nothing.
+ */
+public class ShardRouter {
+
+    private final ConsistentHashRing ring;
+    private final ExecutorService fanOutExecutor;
+
+    public ShardRouter(ConsistentHashRing ring, ExecutorService fanOutExecutor) {
+        this.ring = ring;
+        this.fanOutExecutor = fanOutExecutor;
+    }
+
+    public boolean isSingleShard() {
+        return ring.getShards().size() == 1;
+    }
+
+    public List<String> getShards() {
+        return ring.getShards();
+    }
+
+    public String getShard(UUID userId) {
+        return ring.getShard(userId);
+    }
+
+    /**
+     * Splits items by shard
+     *
+     * @param items          items
+     * @param userIdFunction doctor id of an item
+     * @return items per shard, in order of shards
+     */
+    public <T> Map<String, List<T>> partition(Iterable<T> items, Function<T, UUID> userIdFunction) {
+        Map<String, List<T>> partitions = new LinkedHashMap<>();
+        ring.getShards().forEach(shard -> partitions.put(shard, new ArrayList<>()));
+        items.forEach(item -> partitions.get(getShard(userIdFunction.apply(item))).add(item));
+        partitions.values().removeIf(List::isEmpty);
+
+        return partitions;
+    }
+
+    /**
+     * Calls supplier on given shard
+     *
+     * @param shard    shard name
+     * @param supplier call
+     * @return result of the call
+     * @throws IllegalStateException if current thread is in transaction of another shard
+     */
+    public <T> T callOn(String shard, Supplier<T> supplier) {
+        String previousShard = enter(shard);
+
+        try {
+            return supplier.get();
+        } finally {
+            ShardContext.setCurrentShard(previousShard);
+        }
+    }
+
+    /**
+     * Runs action on given shard
+     *
+     * @param shard  shard name
+     * @param action action
+     * @throws IllegalStateException if current thread is in transaction of another shard
+     */
+    public void runOn(String shard, Runnable action) {
+        callOn(shard, () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    /**
+     * Runs action on every shard one by one
+     *
+     * @param action action
+     */
+    public void runOnEachShard(Runnable action) {
+        ring.getShards().forEach(shard -> runOn(shard, action));
+    }
+
+    /**
+     * Finds the shard where predicate holds, predicate is checked on all shards in parallel
+     *
+     * @param predicate check executed on a shard, e.g. existence of a schedule
+     * @return first shard in order of shards where predicate holds
+     */
+    public Optional<String> findShard(Predicate<String> predicate) {
+        if (isSingleShard()) {
+            return Optional.of(ring.getShards().get(0));
+        }
+
+        List<CompletableFuture<String>> futures = ring.getShards().stream()
+                .map(shard -> CompletableFuture.supplyAsync(
+                        () -> callOn(shard, () -> predicate.test(shard) ? shard : null), fanOutExecutor))
+                .toList();
+
+        return futures.stream()
+                .map(CompletableFuture::join)
+                .filter(Objects::nonNull)
+                .findFirst();
+    }
+
+    /**
+     * Sets shard of current thread
+     *
+     * @param shard shard name
+     * @return previous shard name
+     * @throws IllegalStateException if current thread is in transaction of another shard
+     */
+    String enter(String shard) {
+        String currentShard = ShardContext.getCurrentShard();
+
+        if (!isSingleShard() && TransactionSynchronizationManager.isActualTransactionActive()
+                && !shard.equals(currentShard)) {
+            throw new IllegalStateException("Transaction of shard " + currentShard + " is active, shard "
+                    + shard + " can not be entered");
+        }
+
+        return ShardContext.setCurrentShard(shard);
+    }
+}
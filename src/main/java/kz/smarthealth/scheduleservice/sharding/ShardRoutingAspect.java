@@ -0,0 +1,105 @@
+package kz.smarthealth.scheduleservice.sharding;
+
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.context.expression.MethodBasedEvaluationContext;
+import org.springframework.core.DefaultParameterNameDiscoverer;
+import org.springframework.core.Ordered;
+import org.springframework.core.ParameterNameDiscoverer;
+import org.springframework.core.annotation.Order;
+import org.springframework.expression.Expression;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Sets shard for methods annotated with {@link ShardRouted}.
+ * Ordered right before transaction advice, which has the lowest precedence, so transaction takes connection of the
+ * right shard.
+ */
+@Aspect
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE - 1)
+@RequiredArgsConstructor
+public class ShardRoutingAspect {
+
+    private static final SpelExpressionParser PARSER = new SpelExpressionParser();
+    private static final ParameterNameDiscoverer PARAMETER_NAME_DISCOVERER = new DefaultParameterNameDiscoverer();
+
+    private final ShardRouter shardRouter;
+    private final ScheduleShardLocator scheduleShardLocator;
+    private final Map<String, Expression> expressions = new ConcurrentHashMap<>();
+
+    @Around("@annotation(shardRouted)")
+    public Object aroundAdvice(ProceedingJoinPoint joinPoint, ShardRouted shardRouted) throws Throwable {
+        if (shardRouter.isSingleShard()) {
+            return joinPoint.proceed();
+        }
+        if (!shardRouted.partitionBy().isEmpty()) {
+            return proceedPartitioned(joinPoint, shardRouted.partitionBy());
+        }
+
+        String shard;
+
+        if (!shardRouted.userId().isEmpty()) {
+            shard = shardRouter.getShard((UUID) evaluate(joinPoint, shardRouted.userId()));
+        } else {
+            UUID scheduleId = (UUID) evaluate(joinPoint, shardRouted.scheduleId());
+            shard = scheduleShardLocator.findShard(scheduleId).orElse(shardRouter.getShards().get(0));
+        }
+
+        return proceedOn(shard, joinPoint, joinPoint.getArgs());
+    }
+
+    @SuppressWarnings("unchecked")
+    private Object proceedPartitioned(ProceedingJoinPoint joinPoint, String partitionBy) throws Throwable {
+        Object[] args = joinPoint.getArgs();
+        Expression expression = expressions.computeIfAbsent(partitionBy, PARSER::parseExpression);
+        Map<String, List<Object>> partitions = shardRouter.partition((List<Object>) args[0],
+                item -> (UUID) expression.getValue(item));
+
+        if (partitions.size() == 1) {
+            return proceedOn(partitions.keySet().iterator().next(), joinPoint, args);
+        }
+
+        List<Object> results = new ArrayList<>();
+
+        for (Map.Entry<String, List<Object>> partition : partitions.entrySet()) {
+            Object[] partitionArgs = args.clone();
+            partitionArgs[0] = partition.getValue();
+            Object result = proceedOn(partition.getKey(), joinPoint, partitionArgs);
+
+            if (result instanceof List<?> resultList) {
+                results.addAll(resultList);
+            }
+        }
+
+        return results;
+    }
+
+    private Object proceedOn(String shard, ProceedingJoinPoint joinPoint, Object[] args) throws Throwable {
+        String previousShard = shardRouter.enter(shard);
+
+        try {
+            return joinPoint.proceed(args);
+        } finally {
+            ShardContext.setCurrentShard(previousShard);
+        }
+    }
+
+    private Object evaluate(ProceedingJoinPoint joinPoint, String expressionString) {
+        MethodSignature signature = (MethodSignature) joinPoint.getSignature();
+        MethodBasedEvaluationContext context = new MethodBasedEvaluationContext(joinPoint.getTarget(),
+                signature.getMethod(), joinPoint.getArgs(), PARAMETER_NAME_DISCOVERER);
+
+        return expressions.computeIfAbsent(expressionString, PARSER::parseExpression).getValue(context);
+    }
+}
@@ -0,0 +1,14 @@
+package kz.smarthealth.scheduleservice.sharding;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+/**
+ * Data source that gives connection of the shard set in {@link ShardContext}, or of the default shard if none is set
+ */
+public class ShardRoutingDataSource extends AbstractRoutingDataSource {
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return ShardContext.getCurrentShard();
+    }
+}
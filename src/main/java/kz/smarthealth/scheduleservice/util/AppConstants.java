@@ -2,6 +2,7 @@ package kz.smarthealth.scheduleservice.util;
 
 import java.time.ZoneId;
 import java.time.ZoneOffset;
+import java.util.Set;
 
 public class AppConstants {
 
@@ -12,4 +13,5 @@ public class AppConstants {
     public static final String DEFAULT_DATE_FORMAT = "yyyy-MM-dd";
     public static final String DEFAULT_DATE_TIME_FORMAT = "yyyy-MM-dd HH:mm:ss";
     public static final ZoneId UTC_ZONE_ID = ZoneId.of(ZoneOffset.UTC.toString());
+    public static final Set<Integer> VALID_INTERVALS = Set.of(15, 30, 45, 60, 90, 120);
 }
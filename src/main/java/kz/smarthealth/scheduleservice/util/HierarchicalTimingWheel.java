@@ -0,0 +1,127 @@
+package kz.smarthealth.scheduleservice.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Hierarchical timing wheel of items expiring at given time.
+ * - Level 0 has buckets of one tick, every next level has buckets as long as the whole previous level, so adding an
+ * item and advancing by one tick are O(1) whatever the number of items and however far their expiration is.
+ * - When time passes the start of a bucket of upper level, its items are moved down to the lower levels.
+ * - Items are never removed before expiration, owner ignores expired items that are no longer relevant.
+ * Not thread safe by itself, methods are synchronized.
+ */
+public class HierarchicalTimingWheel<T> {
+
+    private final long tickMillis;
+    private final int wheelSize;
+    private final long[] levelTickMillis;
+    private final List<List<Entry<T>>[]> levels = new ArrayList<>();
+    private final List<T> expired = new ArrayList<>();
+    private long currentTimeMillis;
+    private int size;
+
+    /**
+     * @param tickMillis       length of one tick, expiration precision
+     * @param wheelSize        number of buckets on every level
+     * @param levelCount       number of levels, the wheel spans tickMillis * wheelSize ^ levelCount
+     * @param startTimeMillis  current time
+     */
+    @SuppressWarnings("unchecked")
+    public HierarchicalTimingWheel(long tickMillis, int wheelSize, int levelCount, long startTimeMillis) {
+        if (tickMillis < 1 || wheelSize < 2 || levelCount < 1) {
+            throw new IllegalArgumentException("Invalid timing wheel parameters");
+        }
+
+        this.tickMillis = tickMillis;
+        this.wheelSize = wheelSize;
+        this.levelTickMillis = new long[levelCount];
+        this.currentTimeMillis = startTimeMillis - Math.floorMod(startTimeMillis, tickMillis);
+
+        for (int level = 0; level < levelCount; level++) {
+            levelTickMillis[level] = level == 0 ? tickMillis : Math.multiplyExact(levelTickMillis[level - 1], wheelSize);
+            List<Entry<T>>[] buckets = new List[wheelSize];
+
+            for (int i = 0; i < wheelSize; i++) {
+                buckets[i] = new ArrayList<>();
+            }
+
+            levels.add(buckets);
+        }
+    }
+
+    /**
+     * Adds item, item expiring before the current tick is returned by the next {@link #advance(long)}
+     *
+     * @param item             item
+     * @param expirationMillis expiration time
+     * @throws IllegalArgumentException if expiration is beyond the span of the wheel
+     */
+    public synchronized void add(T item, long expirationMillis) {
+        add(new Entry<>(item, expirationMillis));
+        size++;
+    }
+
+    /**
+     * Advances the wheel to given time
+     *
+     * @param nowMillis current time
+     * @return items expired since the previous call, in order of ticks
+     */
+    public synchronized List<T> advance(long nowMillis) {
+        while (currentTimeMillis + tickMillis <= nowMillis) {
+            List<Entry<T>> bucket = levels.get(0)[bucketIndex(0, currentTimeMillis)];
+            bucket.forEach(entry -> expired.add(entry.item()));
+            bucket.clear();
+            currentTimeMillis += tickMillis;
+
+            for (int level = levels.size() - 1; level > 0; level--) {
+                if (currentTimeMillis % levelTickMillis[level] == 0) {
+                    List<Entry<T>> upperBucket = levels.get(level)[bucketIndex(level, currentTimeMillis)];
+                    List<Entry<T>> entries = new ArrayList<>(upperBucket);
+                    upperBucket.clear();
+                    entries.forEach(this::add);
+                }
+            }
+        }
+
+        List<T> result = new ArrayList<>(expired);
+        size -= result.size();
+        expired.clear();
+
+        return result;
+    }
+
+    /**
+     * @return number of items not returned by {@link #advance(long)} yet
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    private void add(Entry<T> entry) {
+        if (entry.expirationMillis() < currentTimeMillis) {
+            expired.add(entry.item());
+            return;
+        }
+
+        for (int level = 0; level < levels.size(); level++) {
+            long levelStartMillis = currentTimeMillis - Math.floorMod(currentTimeMillis, levelTickMillis[level]);
+
+            if (entry.expirationMillis() < levelStartMillis + levelTickMillis[level] * wheelSize) {
+                levels.get(level)[bucketIndex(level, entry.expirationMillis())].add(entry);
+                return;
+            }
+        }
+
+        throw new IllegalArgumentException("Expiration is beyond the span of timing wheel: "
+                + entry.expirationMillis());
+    }
+
+    private int bucketIndex(int level, long timeMillis) {
+        return (int) Math.floorMod(Math.floorDiv(timeMillis, levelTickMillis[level]), (long) wheelSize);
+    }
+
+    private record Entry<T>(T item, long expirationMillis) {
+    }
+}
@@ -4,7 +4,25 @@ public enum MessageSource {
 
     SCHEDULE_NOT_FOUND("Schedule by given id not found, id=%s."),
     SCHEDULE_RESERVED("Schedule is already reserved."),
-    RESERVED_SCHEDULES_EXIST("There are already reserved time periods.");
+    RESERVED_SCHEDULES_EXIST("There are already reserved time periods."),
+    DUPLICATE_USER_ID("Several schedules are given for the same user, userId=%s."),
+    INVALID_IDEMPOTENCY_KEY("Idempotency key must be non-blank and at most 255 characters long."),
+    IDEMPOTENCY_KEY_REUSED("Idempotency key was already used for another request."),
+    REQUEST_SHED("Service is overloaded, please retry later."),
+    INVALID_DATE_RANGE("End date must not be before start date, range must be at most %s days long."),
+    INVALID_LIMIT("Limit must be between 1 and %s."),
+    INVALID_TIME_RANGE("Start time must be before end time."),
+    INVALID_ZONE_OFFSET("Invalid zone offset, zoneOffset=%s."),
+    FREE_SCHEDULE_NOT_FOUND("There are no free schedules."),
+    INVALID_IMPORT_HEADER("Invalid import header: %s."),
+    UNSUPPORTED_IMPORT_FORMAT("Unsupported import content type, contentType=%s."),
+    INVALID_USER_IDS("From 1 to %s user ids must be given."),
+    INVALID_DATE_TIME_RANGE("End date time must be after start date time."),
+    INVALID_HOLD_TTL("Hold time to live must be from 1 to %s seconds."),
+    SCHEDULE_NOT_AVAILABLE("Schedule is reserved or held by another patient."),
+    HOLD_NOT_FOUND("Hold is expired or released, holdId=%s."),
+    SCHEDULES_UNAVAILABLE("Schedules are temporarily unavailable, please retry later."),
+    SHARDS_REBALANCING("Shards are being rebalanced, the instance does not serve requests.");
 
     private String text;
 
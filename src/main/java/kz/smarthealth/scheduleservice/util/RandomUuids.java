@@ -0,0 +1,43 @@
+package kz.smarthealth.scheduleservice.util;
+
+import java.nio.ByteBuffer;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Generates random (version 4) UUIDs in bulk: random bytes of all ids are taken from {@link SecureRandom} with one
+ * call instead of one call per id as in {@link UUID#randomUUID()}
+ */
+public class RandomUuids {
+
+    private static final int UUID_BYTES = 16;
+    private static final long VERSION_MASK = 0xF000L;
+    private static final long VERSION_4 = 0x4000L;
+    private static final long VARIANT_MASK = 0xC000000000000000L;
+    private static final long VARIANT_IETF = 0x8000000000000000L;
+    private static final SecureRandom SECURE_RANDOM = new SecureRandom();
+
+    private RandomUuids() {
+    }
+
+    /**
+     * @param count number of ids
+     * @return random ids
+     */
+    public static List<UUID> generate(int count) {
+        byte[] randomBytes = new byte[count * UUID_BYTES];
+        SECURE_RANDOM.nextBytes(randomBytes);
+        ByteBuffer buffer = ByteBuffer.wrap(randomBytes);
+        List<UUID> uuids = new ArrayList<>(count);
+
+        for (int i = 0; i < count; i++) {
+            long mostSigBits = buffer.getLong() & ~VERSION_MASK | VERSION_4;
+            long leastSigBits = buffer.getLong() & ~VARIANT_MASK | VARIANT_IETF;
+            uuids.add(new UUID(mostSigBits, leastSigBits));
+        }
+
+        return uuids;
+    }
+}
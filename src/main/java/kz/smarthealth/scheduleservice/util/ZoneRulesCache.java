@@ -0,0 +1,152 @@
+package kz.smarthealth.scheduleservice.util;
+
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.Year;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.zone.ZoneRules;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static kz.smarthealth.scheduleservice.util.AppConstants.UTC_ZONE_ID;
+
+/**
+ * Cache of resolved zone ids and their per-day UTC offsets.
+ * - Zone id strings are resolved once, invalid ones are remembered too, so repeated validation does not throw.
+ * - For every zone and year a table of offsets per day is built once. Day containing DST transition has no single
+ * offset, such days are converted through {@link ZoneRules}.
+ */
+public class ZoneRulesCache {
+
+    private static final int MAX_ZONE_IDS = 1024;
+    private static final int CACHED_YEARS_BEFORE = 1;
+    private static final int CACHED_YEARS_AFTER = 5;
+    private static final Map<String, Optional<ZoneId>> ZONE_IDS = new ConcurrentHashMap<>();
+    private static final Map<ZoneYear, ZoneOffset[]> DAY_OFFSETS = new ConcurrentHashMap<>();
+
+    private ZoneRulesCache() {
+    }
+
+    /**
+     * Resolves zone id
+     *
+     * @param zoneId zone id or offset, e.g. "Asia/Almaty" or "+06:00"
+     * @return zone id, empty if given value is not valid zone id
+     */
+    public static Optional<ZoneId> findZoneId(String zoneId) {
+        if (zoneId == null) {
+            return Optional.empty();
+        }
+
+        Optional<ZoneId> cachedZoneId = ZONE_IDS.get(zoneId);
+
+        if (cachedZoneId != null) {
+            return cachedZoneId;
+        }
+
+        Optional<ZoneId> resolvedZoneId;
+
+        try {
+            resolvedZoneId = Optional.of(ZoneId.of(zoneId));
+        } catch (DateTimeException e) {
+            resolvedZoneId = Optional.empty();
+        }
+
+        if (ZONE_IDS.size() < MAX_ZONE_IDS) {
+            ZONE_IDS.putIfAbsent(zoneId, resolvedZoneId);
+        }
+
+        return resolvedZoneId;
+    }
+
+    /**
+     * Resolves zone id
+     *
+     * @param zoneId zone id or offset
+     * @return zone id
+     * @throws DateTimeException if given value is not valid zone id
+     */
+    public static ZoneId getZoneId(String zoneId) {
+        return findZoneId(zoneId).orElseThrow(() -> new DateTimeException("Invalid zone id: " + zoneId));
+    }
+
+    /**
+     * Gets UTC offset that is valid during the whole day
+     *
+     * @param zoneId zone id
+     * @param date   local date
+     * @return offset, empty if there is DST transition on given date
+     */
+    public static Optional<ZoneOffset> findDayOffset(ZoneId zoneId, LocalDate date) {
+        ZoneRules rules = zoneId.getRules();
+
+        if (rules.isFixedOffset()) {
+            return Optional.of(rules.getOffset(Instant.EPOCH));
+        }
+
+        int year = date.getYear();
+        int currentYear = Year.now(UTC_ZONE_ID).getValue();
+
+        if (year < currentYear - CACHED_YEARS_BEFORE || year > currentYear + CACHED_YEARS_AFTER) {
+            return Optional.ofNullable(computeDayOffset(zoneId, date));
+        }
+
+        ZoneOffset[] dayOffsets = DAY_OFFSETS.computeIfAbsent(new ZoneYear(zoneId, year),
+                ZoneRulesCache::computeDayOffsets);
+
+        return Optional.ofNullable(dayOffsets[date.getDayOfYear() - 1]);
+    }
+
+    /**
+     * Converts local date time of given zone to UTC
+     *
+     * @param localDateTime local date time
+     * @param zoneId        zone id
+     * @return UTC date time
+     */
+    public static LocalDateTime toUtc(LocalDateTime localDateTime, ZoneId zoneId) {
+        return toUtc(localDateTime, zoneId, findDayOffset(zoneId, localDateTime.toLocalDate()).orElse(null));
+    }
+
+    /**
+     * Converts local date time of given zone to UTC using already resolved offset of the day
+     *
+     * @param localDateTime local date time
+     * @param zoneId        zone id
+     * @param dayOffset     offset of the day, null if there is DST transition on that day
+     * @return UTC date time
+     */
+    public static LocalDateTime toUtc(LocalDateTime localDateTime, ZoneId zoneId, ZoneOffset dayOffset) {
+        if (dayOffset != null) {
+            return localDateTime.minusSeconds(dayOffset.getTotalSeconds());
+        }
+
+        return localDateTime.atZone(zoneId).withZoneSameInstant(UTC_ZONE_ID).toLocalDateTime();
+    }
+
+    private static ZoneOffset[] computeDayOffsets(ZoneYear zoneYear) {
+        Year year = Year.of(zoneYear.year());
+        ZoneOffset[] dayOffsets = new ZoneOffset[year.length()];
+
+        for (int i = 0; i < dayOffsets.length; i++) {
+            dayOffsets[i] = computeDayOffset(zoneYear.zoneId(), year.atDay(i + 1));
+        }
+
+        return dayOffsets;
+    }
+
+    private static ZoneOffset computeDayOffset(ZoneId zoneId, LocalDate date) {
+        ZoneRules rules = zoneId.getRules();
+        ZoneOffset startOffset = rules.getOffset(date.atStartOfDay(zoneId).toInstant());
+        ZoneOffset endOffset = rules.getOffset(date.plusDays(1).atStartOfDay(zoneId).toInstant());
+
+        return startOffset.equals(endOffset) ? startOffset : null;
+    }
+
+    private record ZoneYear(ZoneId zoneId, int year) {
+    }
+}
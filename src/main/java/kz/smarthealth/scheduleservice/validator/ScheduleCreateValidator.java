@@ -2,11 +2,17 @@ package kz.smarthealth.scheduleservice.validator;
 
 import jakarta.validation.ConstraintValidator;
 import jakarta.validation.ConstraintValidatorContext;
+import kz.smarthealth.scheduleservice.model.dto.BreakDTO;
 import kz.smarthealth.scheduleservice.model.dto.ScheduleCreateDTO;
+import kz.smarthealth.scheduleservice.model.dto.WorkingHoursDTO;
+import kz.smarthealth.scheduleservice.util.AppConstants;
+import kz.smarthealth.scheduleservice.util.ZoneRulesCache;
 
+import java.time.DayOfWeek;
 import java.time.LocalDate;
 import java.time.LocalTime;
-import java.time.ZoneId;
+import java.util.EnumSet;
+import java.util.List;
 import java.util.Set;
 
 /**
@@ -16,8 +22,6 @@ import java.util.Set;
  */
 public class ScheduleCreateValidator implements ConstraintValidator<ScheduleCreate, ScheduleCreateDTO> {
 
-    private static final Set<Integer> VALID_INTERVALS = Set.of(15, 30, 45, 60, 90, 120);
-
     @Override
     public boolean isValid(ScheduleCreateDTO scheduleCreateDTO,
                            ConstraintValidatorContext constraintValidatorContext) {
@@ -42,8 +46,15 @@ public class ScheduleCreateValidator implements ConstraintValidator<ScheduleCrea
             return false;
         }
 
-        return isValidWorkingDayTimes(scheduleCreateDTO.getWorkingDayStartTime(),
-                scheduleCreateDTO.getWorkingDayEndTime(), constraintValidatorContext);
+        if (!isValidWorkingDayTimes(scheduleCreateDTO.getWorkingDayStartTime(),
+                scheduleCreateDTO.getWorkingDayEndTime(), constraintValidatorContext)) {
+            return false;
+        }
+        if (!isValidBreaks(scheduleCreateDTO.getBreaks(), "breaks", constraintValidatorContext)) {
+            return false;
+        }
+
+        return isValidWorkingHours(scheduleCreateDTO.getWorkingHours(), constraintValidatorContext);
     }
 
     private static boolean isStartDateBeforeCurrentDate(LocalDate startDate,
@@ -77,9 +88,7 @@ public class ScheduleCreateValidator implements ConstraintValidator<ScheduleCrea
     }
 
     private boolean isValidZoneOffset(String zoneOffset, ConstraintValidatorContext constraintValidatorContext) {
-        try {
-            ZoneId.of(zoneOffset);
-        } catch (Exception e) {
+        if (ZoneRulesCache.findZoneId(zoneOffset).isEmpty()) {
             constraintValidatorContext.buildConstraintViolationWithTemplate("Invalid zone offset")
                     .addPropertyNode("zoneOffset")
                     .addConstraintViolation();
@@ -90,7 +99,7 @@ public class ScheduleCreateValidator implements ConstraintValidator<ScheduleCrea
     }
 
     private static boolean isValidInterval(int interval, ConstraintValidatorContext constraintValidatorContext) {
-        if (!VALID_INTERVALS.contains(interval)) {
+        if (!AppConstants.VALID_INTERVALS.contains(interval)) {
             constraintValidatorContext.buildConstraintViolationWithTemplate("Invalid interval")
                     .addPropertyNode("interval")
                     .addConstraintViolation();
@@ -113,4 +122,51 @@ public class ScheduleCreateValidator implements ConstraintValidator<ScheduleCrea
 
         return true;
     }
+
+    private static boolean isValidBreaks(List<BreakDTO> breaks, String propertyName,
+                                         ConstraintValidatorContext constraintValidatorContext) {
+        if (breaks == null) {
+            return true;
+        }
+
+        for (BreakDTO breakDTO : breaks) {
+            if (breakDTO == null || breakDTO.getStartTime() == null || breakDTO.getEndTime() == null
+                    || !breakDTO.getStartTime().isBefore(breakDTO.getEndTime())) {
+                constraintValidatorContext.buildConstraintViolationWithTemplate("Invalid break")
+                        .addPropertyNode(propertyName)
+                        .addConstraintViolation();
+
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private static boolean isValidWorkingHours(List<WorkingHoursDTO> workingHours,
+                                               ConstraintValidatorContext constraintValidatorContext) {
+        if (workingHours == null) {
+            return true;
+        }
+
+        Set<DayOfWeek> daysOfWeek = EnumSet.noneOf(DayOfWeek.class);
+
+        for (WorkingHoursDTO workingHoursDTO : workingHours) {
+            if (workingHoursDTO == null || workingHoursDTO.getDayOfWeek() == null
+                    || workingHoursDTO.getStartTime() == null || workingHoursDTO.getEndTime() == null
+                    || workingHoursDTO.getEndTime().isBefore(workingHoursDTO.getStartTime())
+                    || !daysOfWeek.add(workingHoursDTO.getDayOfWeek())) {
+                constraintValidatorContext.buildConstraintViolationWithTemplate("Invalid working hours")
+                        .addPropertyNode("workingHours")
+                        .addConstraintViolation();
+
+                return false;
+            }
+            if (!isValidBreaks(workingHoursDTO.getBreaks(), "workingHours", constraintValidatorContext)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
 }
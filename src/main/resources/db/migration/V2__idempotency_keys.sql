@@ -0,0 +1,8 @@
+create table if not exists idempotency_keys
+(
+    idempotency_key varchar(255) primary key,
+    request_hash    varchar(64) not null,
+    created_at      timestamp   not null
+);
+
+create index if not exists idempotency_keys_created_at_idx on idempotency_keys (created_at);
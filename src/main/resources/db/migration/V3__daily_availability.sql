@@ -0,0 +1,18 @@
+create table if not exists daily_availability
+(
+    user_id                    uuid      not null,
+    available_date             date      not null,
+    slot_count                 integer   not null,
+    free_count                 integer   not null,
+    first_free_start_date_time timestamp,
+    primary key (user_id, available_date)
+);
+
+insert into daily_availability (user_id, available_date, slot_count, free_count, first_free_start_date_time)
+select s.user_id,
+       cast(s.start_date_time as date),
+       count(*),
+       sum(case when s.is_reserved then 0 else 1 end),
+       min(case when s.is_reserved then null else s.start_date_time end)
+from schedules s
+group by s.user_id, cast(s.start_date_time as date);
@@ -0,0 +1,4 @@
+alter table schedules
+    add column if not exists held_until timestamp;
+alter table schedules
+    add column if not exists hold_id uuid;
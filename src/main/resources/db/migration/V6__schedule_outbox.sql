@@ -0,0 +1,19 @@
+create table if not exists schedule_outbox
+(
+    id         bigint generated by default as identity primary key,
+    user_id    uuid        not null,
+    event_type varchar(16) not null,
+    payload    text        not null,
+    created_at timestamp   not null
+);
+
+create table if not exists outbox_relay_lease
+(
+    name         varchar(64) primary key,
+    owner        varchar(64),
+    leased_until timestamp
+);
+
+insert into outbox_relay_lease (name)
+select 'schedule_outbox'
+where not exists (select 1 from outbox_relay_lease l where l.name = 'schedule_outbox');
@@ -0,0 +1,4 @@
+alter table idempotency_keys
+    add column if not exists user_id uuid;
+
+create index if not exists idempotency_keys_user_id_idx on idempotency_keys (user_id);
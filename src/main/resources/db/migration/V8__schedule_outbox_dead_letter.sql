@@ -0,0 +1,9 @@
+create table if not exists schedule_outbox_dead_letter
+(
+    id         bigint primary key,
+    user_id    uuid        not null,
+    event_type varchar(16) not null,
+    payload    text        not null,
+    created_at timestamp   not null,
+    failed_at  timestamp   not null
+);
@@ -0,0 +1,67 @@
+package kz.smarthealth.scheduleservice.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import kz.smarthealth.scheduleservice.model.dto.ScheduleChangeDTO;
+import kz.smarthealth.scheduleservice.notification.ScheduleChangeHub;
+import kz.smarthealth.scheduleservice.notification.ScheduleChangeType;
+import kz.smarthealth.scheduleservice.repository.ScheduleRepository;
+import kz.smarthealth.scheduleservice.sharding.ShardDataSources;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Unit tests for {@link CacheInvalidationBus}
+ */
+class CacheInvalidationBusTest {
+
+    private ScheduleChangeHub scheduleChangeHub;
+    private CacheInvalidationBus underTest;
+
+    @BeforeEach
+    void setUp() {
+        scheduleChangeHub = new ScheduleChangeHub(Duration.ofMinutes(1), Duration.ofSeconds(30),
+                Duration.ofMinutes(2), 32, 100, 64, 1);
+        underTest = new CacheInvalidationBus(mock(DataSource.class), mock(ShardDataSources.class),
+                mock(JdbcTemplate.class), new CalendarStore(Duration.ofMinutes(5), 100),
+                new ReservedIntervalIndex(mock(ScheduleRepository.class), Duration.ofMinutes(10), 100),
+                scheduleChangeHub, new SimpleMeterRegistry(), true, Duration.ofMillis(100), Duration.ofSeconds(5));
+    }
+
+    @AfterEach
+    void afterEach() {
+        scheduleChangeHub.shutdown();
+    }
+
+    @Test
+    void evict_sendsResyncToSubscribersOfThisReplica_whenDoctorChangedOnAnotherReplica() throws Exception {
+        // given
+        UUID userId = UUID.randomUUID();
+        DeferredResult<List<ScheduleChangeDTO>> waiter = scheduleChangeHub.poll(userId, null);
+        CountDownLatch delivered = new CountDownLatch(1);
+        waiter.setResultHandler(result -> delivered.countDown());
+        // when
+        underTest.evict(Set.of(userId));
+        // then
+        assertTrue(delivered.await(5, TimeUnit.SECONDS));
+        @SuppressWarnings("unchecked")
+        List<ScheduleChangeDTO> changes = (List<ScheduleChangeDTO>) waiter.getResult();
+
+        assertEquals(1, changes.size());
+        assertEquals(userId, changes.get(0).getUserId());
+        assertEquals(ScheduleChangeType.RESYNC, changes.get(0).getType());
+    }
+}
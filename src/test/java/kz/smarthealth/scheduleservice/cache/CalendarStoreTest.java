@@ -0,0 +1,123 @@
+package kz.smarthealth.scheduleservice.cache;
+
+import kz.smarthealth.scheduleservice.model.dto.ScheduleDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jol.info.GraphLayout;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static kz.smarthealth.scheduleservice.util.AppConstants.UTC_ZONE_ID;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link CalendarStore} and {@link DoctorCalendar}
+ */
+class CalendarStoreTest {
+
+    private CalendarStore underTest;
+    private LocalDateTime today;
+
+    @BeforeEach
+    void setUp() {
+        underTest = new CalendarStore(Duration.ofMinutes(5), 100);
+        today = LocalDateTime.now(UTC_ZONE_ID).truncatedTo(ChronoUnit.DAYS);
+    }
+
+    @Test
+    void findSchedules_returnsStoredSchedulesInRange() {
+        // given
+        UUID userId = UUID.randomUUID();
+        List<ScheduleDTO> schedules = List.of(
+                schedule(userId, today.plusHours(10), 30, true),
+                schedule(userId, today.plusHours(9), 60, false),
+                schedule(userId, today.plusHours(12), 30, false));
+        underTest.put(userId, schedules, today, today.plusDays(1));
+        // when
+        Optional<List<ScheduleDTO>> actual = underTest.findSchedules(userId, today.plusHours(9).plusMinutes(30),
+                today.plusHours(11));
+        // then
+        assertTrue(actual.isPresent());
+        assertEquals(2, actual.get().size());
+        ScheduleDTO first = actual.get().get(0);
+        ScheduleDTO expected = schedules.get(1);
+        assertEquals(expected.getId(), first.getId());
+        assertEquals(userId, first.getUserId());
+        assertEquals(expected.getStartDateTime(), first.getStartDateTime());
+        assertEquals(expected.getEndDateTime(), first.getEndDateTime());
+        assertEquals(expected.getCreatedAt(), first.getCreatedAt());
+        assertFalse(first.getIsReserved());
+        assertTrue(actual.get().get(1).getIsReserved());
+    }
+
+    @Test
+    void findSchedules_returnsEmpty_whenRangeIsNotStoredOrInvalidated() {
+        // given
+        UUID userId = UUID.randomUUID();
+        underTest.put(userId, List.of(schedule(userId, today.plusHours(9), 60, false)), today, today.plusDays(1));
+        // when
+        Optional<List<ScheduleDTO>> actualOutside = underTest.findSchedules(userId, today, today.plusDays(2));
+        underTest.invalidate(userId);
+        Optional<List<ScheduleDTO>> actualInvalidated = underTest.findSchedules(userId, today, today.plusDays(1));
+        // then
+        assertTrue(actualOutside.isEmpty());
+        assertTrue(actualInvalidated.isEmpty());
+    }
+
+    @Test
+    void put_doesNotStore_whenScheduleIsNotAlignedToMinutes() {
+        // given
+        UUID userId = UUID.randomUUID();
+        underTest.put(userId, List.of(schedule(userId, today.plusHours(9).plusSeconds(30), 60, false)), today,
+                today.plusDays(1));
+        // when
+        Optional<List<ScheduleDTO>> actual = underTest.findSchedules(userId, today, today.plusDays(1));
+        // then
+        assertTrue(actual.isEmpty());
+    }
+
+    @Test
+    void doctorCalendar_takesAtLeastFiveTimesLessMemoryThanScheduleDTOList() {
+        // given
+        UUID userId = UUID.randomUUID();
+        List<ScheduleDTO> schedules = new ArrayList<>();
+        List<ScheduleDTO> scheduleDTOList = new ArrayList<>();
+
+        for (int i = 0; i < 2_000; i++) {
+            ScheduleDTO schedule = schedule(userId, today.plusMinutes(30L * i), 30, i % 3 == 0);
+            schedules.add(schedule);
+            scheduleDTOList.add(new ScheduleDTO(schedule.getId(), new UUID(userId.getMostSignificantBits(),
+                    userId.getLeastSignificantBits()), schedule.getStartDateTime(),
+                    schedule.getEndDateTime(), schedule.getIsReserved(), schedule.getCreatedAt()));
+        }
+
+        // when
+        DoctorCalendar doctorCalendar = DoctorCalendar.of(userId, schedules, today, today.plusYears(1),
+                today);
+        long calendarBytes = GraphLayout.parseInstance(doctorCalendar).totalSize();
+        long scheduleDTOListBytes = GraphLayout.parseInstance(scheduleDTOList).totalSize();
+        // then
+        assertNotNull(doctorCalendar);
+        assertEquals(schedules.size(), doctorCalendar.size());
+        assertTrue(scheduleDTOListBytes > 5 * calendarBytes,
+                "calendar: " + calendarBytes + " bytes, DTO list: " + scheduleDTOListBytes + " bytes");
+    }
+
+    private static ScheduleDTO schedule(UUID userId, LocalDateTime startDateTime, int durationMinutes,
+                                           boolean isReserved) {
+        return ScheduleDTO.builder()
+                .id(UUID.randomUUID())
+                .userId(userId)
+                .startDateTime(startDateTime)
+                .endDateTime(startDateTime.plusMinutes(durationMinutes))
+                .isReserved(isReserved)
+                .createdAt(LocalDateTime.now(UTC_ZONE_ID).truncatedTo(ChronoUnit.MICROS).minusMinutes(durationMinutes))
+                .build();
+    }
+}
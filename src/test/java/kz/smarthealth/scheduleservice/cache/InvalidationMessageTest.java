@@ -0,0 +1,48 @@
+package kz.smarthealth.scheduleservice.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link InvalidationMessage}
+ */
+class InvalidationMessageTest {
+
+    @Test
+    void fromPayload_returnsMessage_whenPayloadIsCreatedByToPayload() {
+        // given
+        InvalidationMessage message = new InvalidationMessage("a1b2c3d4", 1694044800000L,
+                List.of(UUID.randomUUID(), UUID.randomUUID()));
+        // when
+        InvalidationMessage actual = InvalidationMessage.fromPayload(message.toPayload());
+        // then
+        assertEquals(message, actual);
+    }
+
+    @Test
+    void of_splitsDoctorsIntoMessagesFittingNotifyPayloadLimit() {
+        // given
+        List<UUID> userIds = IntStream.range(0, InvalidationMessage.MAX_USER_IDS * 2 + 1)
+                .mapToObj(i -> UUID.randomUUID())
+                .toList();
+        // when
+        List<InvalidationMessage> actual = InvalidationMessage.of("a1b2c3d4", 1694044800000L, userIds);
+        // then
+        assertEquals(3, actual.size());
+        assertEquals(userIds, actual.stream().flatMap(message -> message.userIds().stream()).toList());
+        assertTrue(actual.stream().allMatch(message ->
+                message.toPayload().getBytes(StandardCharsets.UTF_8).length < 8000));
+    }
+
+    @Test
+    void fromPayload_throwsException_whenPayloadIsMalformed() {
+        assertThrows(IllegalArgumentException.class, () -> InvalidationMessage.fromPayload("a1b2c3d4;1"));
+        assertThrows(IllegalArgumentException.class, () -> InvalidationMessage.fromPayload("a1b2c3d4;1;"));
+    }
+}
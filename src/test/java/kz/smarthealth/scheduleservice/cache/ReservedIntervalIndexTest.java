@@ -0,0 +1,139 @@
+package kz.smarthealth.scheduleservice.cache;
+
+import kz.smarthealth.scheduleservice.model.dto.ReservedIntervalDTO;
+import kz.smarthealth.scheduleservice.model.entity.ScheduleEntity;
+import kz.smarthealth.scheduleservice.repository.ScheduleRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.UUID;
+
+import static kz.smarthealth.scheduleservice.util.AppConstants.UTC_ZONE_ID;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for {@link ReservedIntervalIndex}
+ */
+@ExtendWith(MockitoExtension.class)
+class ReservedIntervalIndexTest {
+
+    @Mock
+    private ScheduleRepository scheduleRepository;
+
+    private ReservedIntervalIndex underTest;
+    private LocalDateTime today;
+
+    @BeforeEach
+    void setUp() {
+        underTest = new ReservedIntervalIndex(scheduleRepository, Duration.ofMinutes(10), 100);
+        today = LocalDateTime.now(UTC_ZONE_ID).truncatedTo(ChronoUnit.DAYS);
+    }
+
+    @Test
+    void findOverlapping_returnsIntervalsOverlappingRange() {
+        // given
+        UUID userId = UUID.randomUUID();
+        when(scheduleRepository.findAllReservedSchedulesByUserIdEndingAfter(eq(userId), any()))
+                .thenReturn(List.of(
+                        reserved(userId, today.plusHours(12), today.plusHours(13)),
+                        reserved(userId, today.plusHours(9), today.plusHours(10)),
+                        reserved(userId, today.plusHours(9).plusMinutes(30), today.plusHours(11))));
+        // when
+        List<ReservedIntervalDTO> actualBeforeFirst = underTest.findOverlapping(userId, today.plusHours(8),
+                today.plusHours(9));
+        List<ReservedIntervalDTO> actualCrossingEnd = underTest.findOverlapping(userId, today.plusHours(8),
+                today.plusHours(9).plusMinutes(15));
+        List<ReservedIntervalDTO> actualInsideLongest = underTest.findOverlapping(userId,
+                today.plusHours(10).plusMinutes(15), today.plusHours(10).plusMinutes(45));
+        List<ReservedIntervalDTO> actualAll = underTest.findOverlapping(userId, today, today.plusDays(1));
+        // then
+        assertTrue(actualBeforeFirst.isEmpty());
+        assertEquals(List.of(new ReservedIntervalDTO(today.plusHours(9), today.plusHours(10))), actualCrossingEnd);
+        assertEquals(List.of(new ReservedIntervalDTO(today.plusHours(9).plusMinutes(30), today.plusHours(11))),
+                actualInsideLongest);
+        assertEquals(3, actualAll.size());
+        assertEquals(today.plusHours(12), actualAll.get(2).startDateTime());
+        verify(scheduleRepository, times(1)).findAllReservedSchedulesByUserIdEndingAfter(any(), any());
+    }
+
+    @Test
+    void findOverlapping_loadsAgain_afterInvalidate() {
+        // given
+        UUID userId = UUID.randomUUID();
+        when(scheduleRepository.findAllReservedSchedulesByUserIdEndingAfter(eq(userId), any()))
+                .thenReturn(List.of())
+                .thenReturn(List.of(reserved(userId, today.plusHours(9), today.plusHours(10))));
+        // when
+        List<ReservedIntervalDTO> actualBefore = underTest.findOverlapping(userId, today.plusHours(9),
+                today.plusHours(10));
+        underTest.invalidate(userId);
+        List<ReservedIntervalDTO> actualAfter = underTest.findOverlapping(userId, today.plusHours(9),
+                today.plusHours(10));
+        // then
+        assertTrue(actualBefore.isEmpty());
+        assertEquals(1, actualAfter.size());
+    }
+
+    @Test
+    void findOverlapping_loadsAgain_whenLoadedBeforeCommitOfInvalidatingTransaction() {
+        // given
+        UUID userId = UUID.randomUUID();
+        when(scheduleRepository.findAllReservedSchedulesByUserIdEndingAfter(eq(userId), any()))
+                .thenReturn(List.of())
+                .thenReturn(List.of(reserved(userId, today.plusHours(9), today.plusHours(10))));
+        TransactionSynchronizationManager.initSynchronization();
+
+        try {
+            underTest.invalidate(userId);
+            underTest.findOverlapping(userId, today.plusHours(9), today.plusHours(10));
+            // when
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(synchronization -> synchronization.afterCompletion(
+                            TransactionSynchronization.STATUS_COMMITTED));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        List<ReservedIntervalDTO> actual = underTest.findOverlapping(userId, today.plusHours(9),
+                today.plusHours(10));
+        // then
+        assertEquals(1, actual.size());
+        verify(scheduleRepository, times(2)).findAllReservedSchedulesByUserIdEndingAfter(any(), any());
+    }
+
+    @Test
+    void findOverlapping_queriesDatabase_whenRangeStartsBeforeLoadedIntervals() {
+        // given
+        UUID userId = UUID.randomUUID();
+        LocalDateTime startDateTime = today.minusDays(10);
+        when(scheduleRepository.findAllReservedSchedulesByUserIdEndingAfter(eq(userId), any()))
+                .thenReturn(List.of());
+        when(scheduleRepository.findAllReservedSchedulesByUserIdBetweenDates(userId, startDateTime, today))
+                .thenReturn(List.of(reserved(userId, startDateTime, startDateTime.plusHours(1))));
+        // when
+        List<ReservedIntervalDTO> actual = underTest.findOverlapping(userId, startDateTime, today);
+        // then
+        assertEquals(List.of(new ReservedIntervalDTO(startDateTime, startDateTime.plusHours(1))), actual);
+    }
+
+    private static ScheduleEntity reserved(UUID userId, LocalDateTime startDateTime, LocalDateTime endDateTime) {
+        return ScheduleEntity.builder()
+                .userId(userId)
+                .startDateTime(startDateTime)
+                .endDateTime(endDateTime)
+                .isReserved(true)
+                .build();
+    }
+}
@@ -2,37 +2,79 @@ package kz.smarthealth.scheduleservice.controller;
 
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.MeterRegistry;
+import kz.smarthealth.scheduleservice.jdbc.StatementMetrics;
+import kz.smarthealth.scheduleservice.model.dto.BreakDTO;
+import kz.smarthealth.scheduleservice.model.dto.DailyAvailabilityDTO;
 import kz.smarthealth.scheduleservice.model.dto.ErrorResponseDTO;
+import kz.smarthealth.scheduleservice.model.dto.ScheduleBatchCreateDTO;
+import kz.smarthealth.scheduleservice.model.dto.ScheduleBatchResultDTO;
+import kz.smarthealth.scheduleservice.model.dto.ScheduleChangeDTO;
 import kz.smarthealth.scheduleservice.model.dto.ScheduleCreateDTO;
+import kz.smarthealth.scheduleservice.model.dto.ScheduleHoldDTO;
+import kz.smarthealth.scheduleservice.model.dto.ScheduleImportResultDTO;
+import kz.smarthealth.scheduleservice.model.dto.WorkingHoursDTO;
 import kz.smarthealth.scheduleservice.model.entity.ScheduleEntity;
+import kz.smarthealth.scheduleservice.notification.ScheduleChangeType;
+import kz.smarthealth.scheduleservice.outbox.ScheduleEventSink;
+import kz.smarthealth.scheduleservice.outbox.ScheduleOutboxRelay;
+import kz.smarthealth.scheduleservice.repository.DailyAvailabilityRepository;
 import kz.smarthealth.scheduleservice.repository.ScheduleRepository;
+import kz.smarthealth.scheduleservice.service.DailyAvailabilityService;
+import kz.smarthealth.scheduleservice.service.IdempotencyService;
+import kz.smarthealth.scheduleservice.service.ScheduleHoldService;
 import kz.smarthealth.scheduleservice.util.AppConstants;
 import kz.smarthealth.scheduleservice.util.MessageSource;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 
+import java.nio.ByteBuffer;
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.time.ZoneId;
+import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
+import static kz.smarthealth.scheduleservice.jdbc.StatementCountAssertions.assertMaxStatements;
 import static kz.smarthealth.scheduleservice.util.AppConstants.UTC_ZONE_ID;
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 /**
@@ -43,7 +85,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 @SpringBootTest
 @AutoConfigureMockMvc
 @ActiveProfiles("test")
-@TestPropertySource(locations = "classpath:application-test.yml")
+@TestPropertySource(locations = "classpath:application-test.yml", properties = "app.outbox.enabled=true")
 class ScheduleControllerTest {
 
     private static final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
@@ -54,9 +96,37 @@ class ScheduleControllerTest {
     @Autowired
     private ScheduleRepository scheduleRepository;
 
+    @Autowired
+    private DailyAvailabilityRepository dailyAvailabilityRepository;
+
+    @Autowired
+    private ScheduleHoldService scheduleHoldService;
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Autowired
+    private DailyAvailabilityService dailyAvailabilityService;
+
+    @Autowired
+    private ScheduleOutboxRelay scheduleOutboxRelay;
+
+    @Autowired
+    private StatementMetrics statementMetrics;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @SpyBean
+    private ScheduleEventSink scheduleEventSink;
+
     @AfterEach
     void afterEach() {
         scheduleRepository.deleteAll();
+        dailyAvailabilityRepository.deleteAll();
     }
 
     @Test
@@ -233,11 +303,12 @@ class ScheduleControllerTest {
                 .build();
         String requestBody = objectMapper.writeValueAsString(scheduleCreateDTO);
         // when
-        this.mockMvc.perform(MockMvcRequestBuilders.post("/api/v1/schedules")
-                        .contentType(MediaType.APPLICATION_JSON)
-                        .content(requestBody)
-                        .characterEncoding("utf-8"))
-                .andExpect(status().isCreated()).andReturn();
+        assertMaxStatements(statementMetrics, 7, () -> this.mockMvc.perform(
+                        MockMvcRequestBuilders.post("/api/v1/schedules")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(requestBody)
+                                .characterEncoding("utf-8"))
+                .andExpect(status().isCreated()).andReturn());
         // then
         List<ScheduleEntity> scheduleEntityList = scheduleRepository.findAllByUserIdBetweenDates(userId,
                 LocalDateTime.now(), LocalDateTime.now().plusDays(90));
@@ -268,6 +339,505 @@ class ScheduleControllerTest {
         }
     }
 
+    @Test
+    void createSchedules_createsSchedulesOfWeeklyTemplate() throws Exception {
+        // given
+        UUID userId = UUID.randomUUID();
+        LocalDate monday = LocalDate.now().plusDays(2).with(TemporalAdjusters.next(DayOfWeek.MONDAY));
+        ScheduleCreateDTO scheduleCreateDTO = ScheduleCreateDTO.builder()
+                .userId(userId)
+                .startDate(monday)
+                .endDate(monday.plusDays(6))
+                .workingDayStartTime(LocalTime.of(9, 0))
+                .workingDayEndTime(LocalTime.of(18, 0))
+                .zoneOffset("+06:00")
+                .interval(60)
+                .breaks(List.of(new BreakDTO(LocalTime.of(13, 0), LocalTime.of(14, 0))))
+                .workingHours(List.of(new WorkingHoursDTO(DayOfWeek.SATURDAY, LocalTime.of(10, 0),
+                        LocalTime.of(14, 0), List.of())))
+                .daysOff(Set.of(DayOfWeek.SUNDAY))
+                .excludedDates(Set.of(monday.plusDays(2)))
+                .build();
+        String requestBody = objectMapper.writeValueAsString(scheduleCreateDTO);
+        // when
+        assertMaxStatements(statementMetrics, 7, () -> this.mockMvc.perform(
+                        MockMvcRequestBuilders.post("/api/v1/schedules")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(requestBody)
+                                .characterEncoding("utf-8"))
+                .andExpect(status().isCreated()).andReturn());
+        // then
+        List<ScheduleEntity> scheduleEntityList = scheduleRepository.findAllByUserIdBetweenDates(userId,
+                LocalDateTime.now(), LocalDateTime.now().plusDays(90));
+        Map<LocalDate, Long> countsByDate = scheduleEntityList.stream()
+                .collect(Collectors.groupingBy(scheduleEntity -> scheduleEntity.getStartDateTime().toLocalDate(),
+                        Collectors.counting()));
+
+        assertEquals(36, scheduleEntityList.size());
+        assertEquals(Map.of(monday, 8L, monday.plusDays(1), 8L, monday.plusDays(3), 8L, monday.plusDays(4), 8L,
+                monday.plusDays(5), 4L), countsByDate);
+        assertTrue(scheduleEntityList.stream().noneMatch(scheduleEntity ->
+                scheduleEntity.getStartDateTime().equals(LocalDateTime.of(monday, LocalTime.of(7, 0)))));
+    }
+
+    @Test
+    void createSchedules_doesNotRepeatRequest_whenSameIdempotencyKey() throws Exception {
+        // given
+        UUID userId = UUID.randomUUID();
+        String idempotencyKey = UUID.randomUUID().toString();
+        ScheduleCreateDTO scheduleCreateDTO = ScheduleCreateDTO.builder()
+                .userId(userId)
+                .startDate(LocalDate.now().plusDays(2))
+                .endDate(LocalDate.now().plusDays(3))
+                .workingDayStartTime(LocalTime.of(9, 0))
+                .workingDayEndTime(LocalTime.of(18, 0))
+                .zoneOffset("+06:00")
+                .interval(60)
+                .build();
+        String requestBody = objectMapper.writeValueAsString(scheduleCreateDTO);
+        this.mockMvc.perform(MockMvcRequestBuilders.post("/api/v1/schedules")
+                        .header("Idempotency-Key", idempotencyKey)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(requestBody)
+                        .characterEncoding("utf-8"))
+                .andExpect(status().isCreated())
+                .andExpect(header().string("Idempotent-Replayed", "false"));
+        scheduleRepository.deleteAll();
+        // when
+        this.mockMvc.perform(MockMvcRequestBuilders.post("/api/v1/schedules")
+                        .header("Idempotency-Key", idempotencyKey)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(requestBody)
+                        .characterEncoding("utf-8"))
+                .andExpect(status().isCreated())
+                .andExpect(header().string("Idempotent-Replayed", "true"));
+        // then
+        assertTrue(scheduleRepository.findAllByUserIdBetweenDates(userId, LocalDateTime.now(),
+                LocalDateTime.now().plusDays(90)).isEmpty());
+    }
+
+    @Test
+    void createSchedules_doesNotRepeatRequest_whenSetsOfRetryIterateInAnotherOrder() {
+        // given
+        UUID userId = UUID.randomUUID();
+        String idempotencyKey = UUID.randomUUID().toString();
+        LocalDate startDate = LocalDate.now().plusDays(2);
+        ScheduleCreateDTO scheduleCreateDTO = ScheduleCreateDTO.builder()
+                .userId(userId)
+                .startDate(startDate)
+                .endDate(startDate.plusDays(7))
+                .workingDayStartTime(LocalTime.of(9, 0))
+                .workingDayEndTime(LocalTime.of(18, 0))
+                .zoneOffset("+06:00")
+                .interval(60)
+                .daysOff(new LinkedHashSet<>(List.of(DayOfWeek.SATURDAY, DayOfWeek.SUNDAY)))
+                .excludedDates(new LinkedHashSet<>(List.of(startDate, startDate.plusDays(1))))
+                .build();
+        idempotencyService.executeOnce(idempotencyKey, userId, scheduleCreateDTO, () -> {
+        });
+        scheduleCreateDTO.setDaysOff(new LinkedHashSet<>(List.of(DayOfWeek.SUNDAY, DayOfWeek.SATURDAY)));
+        scheduleCreateDTO.setExcludedDates(new LinkedHashSet<>(List.of(startDate.plusDays(1), startDate)));
+        // when
+        boolean actualExecuted = idempotencyService.executeOnce(idempotencyKey, userId, scheduleCreateDTO, () -> {
+        });
+        // then
+        assertFalse(actualExecuted);
+    }
+
+    @Test
+    void createSchedules_returnsUnprocessableEntity_whenIdempotencyKeyReused() throws Exception {
+        // given
+        String idempotencyKey = UUID.randomUUID().toString();
+        ScheduleCreateDTO scheduleCreateDTO = ScheduleCreateDTO.builder()
+                .userId(UUID.randomUUID())
+                .startDate(LocalDate.now().plusDays(2))
+                .endDate(LocalDate.now().plusDays(3))
+                .workingDayStartTime(LocalTime.of(9, 0))
+                .workingDayEndTime(LocalTime.of(18, 0))
+                .zoneOffset("+06:00")
+                .interval(60)
+                .build();
+        this.mockMvc.perform(MockMvcRequestBuilders.post("/api/v1/schedules")
+                        .header("Idempotency-Key", idempotencyKey)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(scheduleCreateDTO))
+                        .characterEncoding("utf-8"))
+                .andExpect(status().isCreated());
+        scheduleCreateDTO.setInterval(30);
+        // when
+        MvcResult mvcResult = this.mockMvc.perform(MockMvcRequestBuilders.post("/api/v1/schedules")
+                        .header("Idempotency-Key", idempotencyKey)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(scheduleCreateDTO))
+                        .characterEncoding("utf-8"))
+                .andExpect(status().isUnprocessableEntity()).andReturn();
+        // then
+        ErrorResponseDTO errorResponseDTO = objectMapper.readValue(mvcResult.getResponse().getContentAsString(),
+                ErrorResponseDTO.class);
+
+        assertEquals(MessageSource.IDEMPOTENCY_KEY_REUSED.getText(), errorResponseDTO.getMessage());
+    }
+
+    @Test
+    void createSchedulesBatch_returnsBadRequest_whenSameUserGivenTwice() throws Exception {
+        // given
+        ScheduleCreateDTO scheduleCreateDTO = ScheduleCreateDTO.builder()
+                .userId(UUID.randomUUID())
+                .startDate(LocalDate.now().plusDays(2))
+                .endDate(LocalDate.now().plusDays(3))
+                .workingDayStartTime(LocalTime.of(9, 0))
+                .workingDayEndTime(LocalTime.of(18, 0))
+                .zoneOffset("+06:00")
+                .interval(60)
+                .build();
+        String requestBody = objectMapper.writeValueAsString(ScheduleBatchCreateDTO.builder()
+                .schedules(List.of(scheduleCreateDTO, scheduleCreateDTO))
+                .build());
+        // when
+        MvcResult mvcResult = this.mockMvc.perform(MockMvcRequestBuilders.post("/api/v1/schedules/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(requestBody)
+                        .characterEncoding("utf-8"))
+                .andExpect(status().isBadRequest()).andReturn();
+        // then
+        ErrorResponseDTO errorResponseDTO = objectMapper.readValue(mvcResult.getResponse().getContentAsString(),
+                ErrorResponseDTO.class);
+
+        assertEquals(MessageSource.DUPLICATE_USER_ID.getText(scheduleCreateDTO.getUserId().toString()),
+                errorResponseDTO.getMessage());
+    }
+
+    @Test
+    void createSchedulesBatch_createsSchedules() throws Exception {
+        // given
+        UUID firstUserId = UUID.randomUUID();
+        UUID secondUserId = UUID.randomUUID();
+        LocalDate startDate = LocalDate.now().plusDays(2);
+        ScheduleCreateDTO firstScheduleCreateDTO = ScheduleCreateDTO.builder()
+                .userId(firstUserId)
+                .startDate(startDate)
+                .endDate(startDate.plusDays(1))
+                .workingDayStartTime(LocalTime.of(9, 0))
+                .workingDayEndTime(LocalTime.of(18, 0))
+                .zoneOffset("+06:00")
+                .interval(60)
+                .build();
+        ScheduleCreateDTO secondScheduleCreateDTO = ScheduleCreateDTO.builder()
+                .userId(secondUserId)
+                .startDate(startDate)
+                .endDate(startDate)
+                .workingDayStartTime(LocalTime.of(9, 0))
+                .workingDayEndTime(LocalTime.of(12, 0))
+                .zoneOffset("+06:00")
+                .interval(30)
+                .build();
+        LocalDateTime reservedStartDateTime = LocalDateTime.of(startDate, LocalTime.of(4, 0));
+        scheduleRepository.save(ScheduleEntity.builder()
+                .userId(secondUserId)
+                .startDateTime(reservedStartDateTime)
+                .endDateTime(reservedStartDateTime.plusMinutes(30))
+                .isReserved(true)
+                .createdAt(LocalDateTime.now())
+                .build());
+        String requestBody = objectMapper.writeValueAsString(ScheduleBatchCreateDTO.builder()
+                .schedules(List.of(firstScheduleCreateDTO, secondScheduleCreateDTO))
+                .build());
+        // when
+        MvcResult mvcResult = assertMaxStatements(statementMetrics, 11, () -> this.mockMvc.perform(
+                        MockMvcRequestBuilders.post("/api/v1/schedules/batch")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(requestBody)
+                                .characterEncoding("utf-8"))
+                .andExpect(status().isCreated()).andReturn());
+        // then
+        List<ScheduleBatchResultDTO> results = objectMapper.readValue(mvcResult.getResponse().getContentAsString(),
+                new TypeReference<>() {
+                });
+
+        assertEquals(List.of(new ScheduleBatchResultDTO(firstUserId, 18, 0),
+                new ScheduleBatchResultDTO(secondUserId, 5, 1)), results);
+        assertEquals(18, scheduleRepository.findAllByUserIdBetweenDates(firstUserId, LocalDateTime.now(),
+                LocalDateTime.now().plusDays(90)).size());
+        assertEquals(6, scheduleRepository.findAllByUserIdBetweenDates(secondUserId, LocalDateTime.now(),
+                LocalDateTime.now().plusDays(90)).size());
+    }
+
+    @Test
+    void getDailyAvailability_returnsSummary_afterSchedulesCreatedAndDeleted() throws Exception {
+        // given
+        UUID userId = UUID.randomUUID();
+        LocalDate startDate = LocalDate.now().plusDays(2);
+        ScheduleCreateDTO scheduleCreateDTO = ScheduleCreateDTO.builder()
+                .userId(userId)
+                .startDate(startDate)
+                .endDate(startDate.plusDays(1))
+                .workingDayStartTime(LocalTime.of(9, 0))
+                .workingDayEndTime(LocalTime.of(18, 0))
+                .zoneOffset("+06:00")
+                .interval(60)
+                .build();
+        this.mockMvc.perform(MockMvcRequestBuilders.post("/api/v1/schedules")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(scheduleCreateDTO))
+                        .characterEncoding("utf-8"))
+                .andExpect(status().isCreated());
+        ScheduleEntity firstScheduleEntity = scheduleRepository.findAllByUserIdBetweenDates(userId,
+                LocalDateTime.now(), LocalDateTime.now().plusDays(90)).get(0);
+        this.mockMvc.perform(MockMvcRequestBuilders.delete("/api/v1/schedules/" + firstScheduleEntity.getId()))
+                .andExpect(status().isNoContent());
+        // when
+        MvcResult mvcResult = this.mockMvc.perform(MockMvcRequestBuilders.get(
+                                "/api/v1/schedules/availability/by-user-id/" + userId)
+                        .param("startDate", startDate.toString())
+                        .param("endDate", startDate.plusDays(6).toString()))
+                .andExpect(status().isOk()).andReturn();
+        // then
+        List<DailyAvailabilityDTO> dailyAvailabilityDTOList = objectMapper.readValue(
+                mvcResult.getResponse().getContentAsString(), new TypeReference<>() {
+                });
+
+        assertEquals(2, dailyAvailabilityDTOList.size());
+        assertEquals(startDate, dailyAvailabilityDTOList.get(0).getAvailableDate());
+        assertEquals(8, dailyAvailabilityDTOList.get(0).getSlotCount());
+        assertEquals(8, dailyAvailabilityDTOList.get(0).getFreeCount());
+        assertEquals(LocalDateTime.of(startDate, LocalTime.of(4, 0)),
+                dailyAvailabilityDTOList.get(0).getFirstFreeStartDateTime());
+        assertEquals(startDate.plusDays(1), dailyAvailabilityDTOList.get(1).getAvailableDate());
+        assertEquals(9, dailyAvailabilityDTOList.get(1).getFreeCount());
+    }
+
+    @Test
+    void getDailyAvailability_returnsBadRequest_whenEndDateBeforeStartDate() throws Exception {
+        // given
+        LocalDate startDate = LocalDate.now();
+        // when
+        MvcResult mvcResult = this.mockMvc.perform(MockMvcRequestBuilders.get(
+                                "/api/v1/schedules/availability/by-user-id/" + UUID.randomUUID())
+                        .param("startDate", startDate.toString())
+                        .param("endDate", startDate.minusDays(1).toString()))
+                .andExpect(status().isBadRequest()).andReturn();
+        // then
+        ErrorResponseDTO errorResponseDTO = objectMapper.readValue(mvcResult.getResponse().getContentAsString(),
+                ErrorResponseDTO.class);
+
+        assertEquals(MessageSource.INVALID_DATE_RANGE.getText("366"), errorResponseDTO.getMessage());
+    }
+
+    @Test
+    void findEarliestFreeSchedules_returnsFreeSchedulesOrderedByStart() throws Exception {
+        // given
+        UUID userId = UUID.randomUUID();
+        LocalDateTime tomorrow = LocalDate.now(UTC_ZONE_ID).plusDays(1).atStartOfDay();
+        createHourlySchedules(userId, tomorrow.plusHours(9), 4, 1);
+        // when
+        MvcResult mvcResult = this.mockMvc.perform(MockMvcRequestBuilders.get(
+                                "/api/v1/schedules/free/by-user-id/" + userId + "/earliest")
+                        .param("startDateTime", format(tomorrow))
+                        .param("limit", "2"))
+                .andExpect(status().isOk()).andReturn();
+        // then
+        List<Map<String, Object>> schedules = objectMapper.readValue(mvcResult.getResponse().getContentAsString(),
+                new TypeReference<>() {
+                });
+
+        assertEquals(2, schedules.size());
+        assertEquals(format(tomorrow.plusHours(9)), schedules.get(0).get("startDateTime"));
+        assertEquals(format(tomorrow.plusHours(11)), schedules.get(1).get("startDateTime"));
+    }
+
+    @Test
+    void findNearestFreeSchedule_returnsClosestFreeSchedule() throws Exception {
+        // given
+        UUID userId = UUID.randomUUID();
+        LocalDateTime tomorrow = LocalDate.now(UTC_ZONE_ID).plusDays(1).atStartOfDay();
+        createHourlySchedules(userId, tomorrow.plusHours(9), 4, 1);
+        // when
+        MvcResult mvcResult = this.mockMvc.perform(MockMvcRequestBuilders.get(
+                                "/api/v1/schedules/free/by-user-id/" + userId + "/nearest")
+                        .param("dateTime", format(tomorrow.plusHours(10).plusMinutes(20))))
+                .andExpect(status().isOk()).andReturn();
+        // then
+        Map<String, Object> schedule = objectMapper.readValue(mvcResult.getResponse().getContentAsString(),
+                new TypeReference<>() {
+                });
+
+        assertEquals(format(tomorrow.plusHours(11)), schedule.get("startDateTime"));
+    }
+
+    @Test
+    void findNearestFreeSchedule_returnsNotFound_whenNoFreeSchedules() throws Exception {
+        // given
+        LocalDateTime tomorrow = LocalDate.now(UTC_ZONE_ID).plusDays(1).atStartOfDay();
+        // when
+        MvcResult mvcResult = this.mockMvc.perform(MockMvcRequestBuilders.get(
+                                "/api/v1/schedules/free/by-user-id/" + UUID.randomUUID() + "/nearest")
+                        .param("dateTime", format(tomorrow)))
+                .andExpect(status().isNotFound()).andReturn();
+        // then
+        ErrorResponseDTO errorResponseDTO = objectMapper.readValue(mvcResult.getResponse().getContentAsString(),
+                ErrorResponseDTO.class);
+
+        assertEquals(MessageSource.FREE_SCHEDULE_NOT_FOUND.getText(), errorResponseDTO.getMessage());
+    }
+
+    @Test
+    void findFreeSchedulesWithinTimeOfDay_returnsFreeSchedulesInsideLocalTimes() throws Exception {
+        // given
+        UUID userId = UUID.randomUUID();
+        LocalDate tomorrow = LocalDate.now(UTC_ZONE_ID).plusDays(1);
+        createHourlySchedules(userId, tomorrow.atTime(3, 0), 4, 1);
+        createHourlySchedules(userId, tomorrow.plusDays(1).atTime(3, 0), 4, -1);
+        // when
+        MvcResult mvcResult = this.mockMvc.perform(MockMvcRequestBuilders.get(
+                                "/api/v1/schedules/free/by-user-id/" + userId + "/within-time-of-day")
+                        .param("startDate", tomorrow.toString())
+                        .param("endDate", tomorrow.plusDays(1).toString())
+                        .param("fromTime", "10:00:00")
+                        .param("toTime", "12:00:00")
+                        .param("zoneOffset", "+06:00"))
+                .andExpect(status().isOk()).andReturn();
+        // then
+        List<Map<String, Object>> schedules = objectMapper.readValue(mvcResult.getResponse().getContentAsString(),
+                new TypeReference<>() {
+                });
+
+        assertEquals(List.of(format(tomorrow.atTime(5, 0)), format(tomorrow.plusDays(1).atTime(4, 0)),
+                        format(tomorrow.plusDays(1).atTime(5, 0))),
+                schedules.stream().map(schedule -> schedule.get("startDateTime")).toList());
+    }
+
+    @Test
+    void importSchedules_importsCsv_skippingConflictingAndInvalidRows() throws Exception {
+        // given
+        UUID userId = UUID.randomUUID();
+        LocalDateTime tomorrow = LocalDate.now(UTC_ZONE_ID).plusDays(1).atStartOfDay();
+        createHourlySchedules(userId, tomorrow.plusHours(9), 1, -1);
+        String body = String.join("\n",
+                "user_id,start_date_time,end_date_time,is_reserved",
+                userId + "," + format(tomorrow.plusHours(9)) + "," + format(tomorrow.plusHours(10)) + ",false",
+                userId + "," + format(tomorrow.plusHours(10)) + "," + format(tomorrow.plusHours(11)) + ",true",
+                userId + "," + format(tomorrow.plusHours(11)) + "," + format(tomorrow.plusHours(11)
+                        .plusMinutes(20)) + ",false",
+                userId + "," + format(tomorrow.plusHours(11)) + "," + format(tomorrow.plusHours(12)) + ",false",
+                userId + "," + format(tomorrow.plusHours(11)) + "," + format(tomorrow.plusHours(11)
+                        .plusMinutes(30)) + ",false",
+                "");
+        // when
+        MvcResult mvcResult = this.mockMvc.perform(MockMvcRequestBuilders.post("/api/v1/schedules/import")
+                        .contentType("text/csv")
+                        .content(body))
+                .andExpect(status().isOk()).andReturn();
+        // then
+        ScheduleImportResultDTO result = objectMapper.readValue(mvcResult.getResponse().getContentAsString(),
+                ScheduleImportResultDTO.class);
+        List<ScheduleEntity> scheduleEntityList = scheduleRepository.findAllByUserIdBetweenDates(userId, tomorrow,
+                tomorrow.plusDays(1));
+
+        assertEquals(4, result.getReadCount());
+        assertEquals(2, result.getImportedCount());
+        assertEquals(2, result.getConflictCount());
+        assertEquals(1, result.getInvalidCount());
+        assertEquals(List.of("line 4: Invalid interval"), result.getErrors());
+        assertEquals(3, scheduleEntityList.size());
+        assertTrue(scheduleEntityList.get(1).getIsReserved());
+    }
+
+    @Test
+    void importSchedules_importsNdjson() throws Exception {
+        // given
+        UUID userId = UUID.randomUUID();
+        LocalDateTime tomorrow = LocalDate.now(UTC_ZONE_ID).plusDays(1).atStartOfDay();
+        String body = "{\"userId\":\"" + userId + "\",\"startDateTime\":\"" + tomorrow.plusHours(9)
+                + "\",\"endDateTime\":\"" + tomorrow.plusHours(10) + "\",\"isReserved\":false}\n"
+                + "{\"userId\":\"" + userId + "\"}\n";
+        // when
+        MvcResult mvcResult = this.mockMvc.perform(MockMvcRequestBuilders.post("/api/v1/schedules/import")
+                        .contentType("application/x-ndjson")
+                        .content(body))
+                .andExpect(status().isOk()).andReturn();
+        // then
+        ScheduleImportResultDTO result = objectMapper.readValue(mvcResult.getResponse().getContentAsString(),
+                ScheduleImportResultDTO.class);
+
+        assertEquals(1, result.getImportedCount());
+        assertEquals(1, result.getInvalidCount());
+        assertEquals(1, scheduleRepository.findAllByUserIdBetweenDates(userId, tomorrow, tomorrow.plusDays(1))
+                .size());
+    }
+
+    @Test
+    void importSchedules_returnsUnsupportedMediaType_whenUnknownFormat() throws Exception {
+        // when
+        this.mockMvc.perform(MockMvcRequestBuilders.post("/api/v1/schedules/import")
+                        .contentType(MediaType.APPLICATION_XML)
+                        .content("<schedules/>"))
+                .andExpect(status().isUnsupportedMediaType());
+    }
+
+    @Test
+    void exportSchedules_streamsCsv() throws Exception {
+        // given
+        UUID userId = UUID.randomUUID();
+        UUID otherUserId = UUID.randomUUID();
+        LocalDateTime tomorrow = LocalDate.now(UTC_ZONE_ID).plusDays(1).atStartOfDay();
+        createHourlySchedules(userId, tomorrow.plusHours(9), 3, 1);
+        createHourlySchedules(otherUserId, tomorrow.plusHours(9), 2, -1);
+        // when
+        MvcResult mvcResult = this.mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/schedules/export")
+                        .param("userIds", userId + "," + otherUserId)
+                        .param("startDateTime", format(tomorrow))
+                        .param("endDateTime", format(tomorrow.plusDays(1))))
+                .andExpect(request().asyncStarted()).andReturn();
+        String body = this.mockMvc.perform(asyncDispatch(mvcResult))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        // then
+        List<String> lines = body.lines().toList();
+
+        assertEquals(6, lines.size());
+        assertEquals("id,user_id,start_date_time,end_date_time,is_reserved,created_at", lines.get(0));
+        assertTrue(lines.subList(1, 6).stream().allMatch(line -> line.contains(userId.toString())
+                || line.contains(otherUserId.toString())));
+        assertEquals(1, lines.stream().filter(line -> line.contains(",true,")).count());
+    }
+
+    @Test
+    void exportSchedules_streamsICalendarEventsOfReservedSchedules() throws Exception {
+        // given
+        UUID userId = UUID.randomUUID();
+        LocalDateTime tomorrow = LocalDate.now(UTC_ZONE_ID).plusDays(1).atStartOfDay();
+        createHourlySchedules(userId, tomorrow.plusHours(9), 3, 1);
+        // when
+        MvcResult mvcResult = this.mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/schedules/export")
+                        .param("userIds", userId.toString())
+                        .param("startDateTime", format(tomorrow))
+                        .param("endDateTime", format(tomorrow.plusDays(1)))
+                        .param("format", "ICALENDAR"))
+                .andExpect(request().asyncStarted()).andReturn();
+        String body = this.mockMvc.perform(asyncDispatch(mvcResult))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        // then
+        DateTimeFormatter iCalendarFormatter = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'");
+
+        assertTrue(body.startsWith("BEGIN:VCALENDAR\r\n"));
+        assertTrue(body.endsWith("END:VCALENDAR\r\n"));
+        assertEquals(1, body.split("BEGIN:VEVENT", -1).length - 1);
+        assertTrue(body.contains("DTSTART:" + iCalendarFormatter.format(tomorrow.plusHours(10)) + "\r\n"));
+    }
+
+    @Test
+    void exportSchedules_returnsBadRequest_whenEndDateTimeNotAfterStartDateTime() throws Exception {
+        // given
+        LocalDateTime tomorrow = LocalDate.now(UTC_ZONE_ID).plusDays(1).atStartOfDay();
+        // when
+        this.mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/schedules/export")
+                        .param("userIds", UUID.randomUUID().toString())
+                        .param("startDateTime", format(tomorrow))
+                        .param("endDateTime", format(tomorrow)))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     void getSchedulesByUserId_returnsEmptyList_whenInvalidUserId() throws Exception {
         // given
@@ -291,17 +861,20 @@ class ScheduleControllerTest {
         UUID userId = UUID.randomUUID();
         List<ScheduleEntity> scheduleEntityList = createSchedules(userId);
         // when
-        MvcResult mvcResult = this.mockMvc.perform(MockMvcRequestBuilders.get(
-                                "/api/v1/schedules/by-user-id/" + userId)
-                        .contentType(MediaType.APPLICATION_JSON)
-                        .characterEncoding("utf-8"))
-                .andExpect(status().isOk()).andReturn();
+        MvcResult mvcResult = assertMaxStatements(statementMetrics, 1, () -> this.mockMvc.perform(
+                        MockMvcRequestBuilders.get("/api/v1/schedules/by-user-id/" + userId)
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .characterEncoding("utf-8"))
+                .andExpect(status().isOk()).andReturn());
         List<Map<String, Object>> schedules = objectMapper.readValue(mvcResult.getResponse().getContentAsString(),
                 new TypeReference<>() {
                 });
         // then
         assertFalse(schedules.isEmpty());
         assertEquals(scheduleEntityList.size(), schedules.size());
+        assertNotNull(meterRegistry.find("schedule.jdbc.statements")
+                .tag("operation", "ScheduleRepository.findAllScheduleDTOsByUserIdBetweenDates")
+                .timer());
         DateTimeFormatter dateTimeFormatter = DateTimeFormatter.ofPattern(AppConstants.DEFAULT_DATE_TIME_FORMAT);
 
         for (int i = 0; i < scheduleEntityList.size(); i++) {
@@ -317,6 +890,36 @@ class ScheduleControllerTest {
         }
     }
 
+    @Test
+    void getSchedulesByUserId_returnsCbor_whenCborAccepted() throws Exception {
+        // given
+        UUID userId = UUID.randomUUID();
+        List<ScheduleEntity> scheduleEntityList = createSchedules(userId);
+        // when
+        MvcResult mvcResult = this.mockMvc.perform(MockMvcRequestBuilders.get(
+                                "/api/v1/schedules/by-user-id/" + userId)
+                        .accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk()).andReturn();
+        List<Map<String, Object>> schedules = new CBORMapper().readValue(
+                mvcResult.getResponse().getContentAsByteArray(), new TypeReference<>() {
+                });
+        // then
+        assertEquals(MediaType.APPLICATION_CBOR_VALUE, mvcResult.getResponse().getContentType());
+        assertEquals(scheduleEntityList.size(), schedules.size());
+
+        for (int i = 0; i < scheduleEntityList.size(); i++) {
+            ScheduleEntity entity = scheduleEntityList.get(i);
+            Map<String, Object> dto = schedules.get(i);
+
+            ByteBuffer id = ByteBuffer.wrap((byte[]) dto.get("id"));
+            assertEquals(entity.getId(), new UUID(id.getLong(), id.getLong()));
+            assertEquals(entity.getStartDateTime().toEpochSecond(ZoneOffset.UTC),
+                    ((Number) dto.get("startDateTime")).longValue());
+            assertEquals(entity.getEndDateTime().toEpochSecond(ZoneOffset.UTC),
+                    ((Number) dto.get("endDateTime")).longValue());
+        }
+    }
+
     @Test
     void deleteScheduleById_returnsBadRequest_whenScheduleNotFound() throws Exception {
         // given
@@ -363,6 +966,26 @@ class ScheduleControllerTest {
         assertEquals(MessageSource.SCHEDULE_RESERVED.getText(), errorResponseDTO.getMessage());
     }
 
+    @Test
+    void deleteScheduleById_returnsConflict_whenScheduleHeld() throws Exception {
+        // given
+        UUID userId = UUID.randomUUID();
+        LocalDateTime tomorrow = LocalDate.now(UTC_ZONE_ID).plusDays(1).atStartOfDay();
+        createHourlySchedules(userId, tomorrow.plusHours(9), 1, -1);
+        UUID scheduleId = scheduleRepository.findAllByUserIdBetweenDates(userId, tomorrow, tomorrow.plusDays(1))
+                .get(0).getId();
+        scheduleHoldService.holdSchedule(scheduleId, null);
+        // when
+        MvcResult mvcResult = this.mockMvc.perform(MockMvcRequestBuilders.delete("/api/v1/schedules/" + scheduleId))
+                .andExpect(status().isConflict()).andReturn();
+        // then
+        ErrorResponseDTO errorResponseDTO = objectMapper.readValue(mvcResult.getResponse().getContentAsString(),
+                ErrorResponseDTO.class);
+
+        assertEquals(MessageSource.SCHEDULE_NOT_AVAILABLE.getText(), errorResponseDTO.getMessage());
+        assertTrue(scheduleRepository.findById(scheduleId).isPresent());
+    }
+
     @Test
     void deleteScheduleById_deletesSchedule() throws Exception {
         // given
@@ -383,6 +1006,397 @@ class ScheduleControllerTest {
                 .andExpect(status().isNoContent()).andReturn();
     }
 
+    @Test
+    void holdSchedule_refreshesDailyAvailability_whenSlotsOfTheSameDayAreHeldConcurrently() throws Exception {
+        // given
+        UUID userId = UUID.randomUUID();
+        LocalDateTime tomorrow = LocalDate.now(UTC_ZONE_ID).plusDays(1).atStartOfDay();
+        int slotCount = 8;
+        createHourlySchedules(userId, tomorrow.plusHours(9), slotCount, -1);
+        dailyAvailabilityService.refresh(List.of(userId), tomorrow.toLocalDate(), tomorrow.toLocalDate());
+        List<UUID> scheduleIds = scheduleRepository.findAllByUserIdBetweenDates(userId, tomorrow,
+                tomorrow.plusDays(1)).stream().map(ScheduleEntity::getId).toList();
+        ExecutorService executorService = Executors.newFixedThreadPool(slotCount);
+        CyclicBarrier barrier = new CyclicBarrier(slotCount);
+        // when
+        try {
+            List<Future<ScheduleHoldDTO>> holds = new ArrayList<>();
+
+            for (UUID scheduleId : scheduleIds) {
+                holds.add(executorService.submit(() -> {
+                    barrier.await();
+
+                    return scheduleHoldService.holdSchedule(scheduleId, null);
+                }));
+            }
+            for (Future<ScheduleHoldDTO> hold : holds) {
+                hold.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executorService.shutdownNow();
+        }
+        // then
+        DailyAvailabilityDTO dailyAvailabilityDTO = getDailyAvailability(userId, tomorrow.toLocalDate());
+
+        assertEquals(slotCount, dailyAvailabilityDTO.getSlotCount());
+        assertEquals(0, dailyAvailabilityDTO.getFreeCount());
+    }
+
+    @Test
+    void holdSchedule_hidesScheduleFromOthers_untilReleased() throws Exception {
+        // given
+        UUID userId = UUID.randomUUID();
+        LocalDateTime tomorrow = LocalDate.now(UTC_ZONE_ID).plusDays(1).atStartOfDay();
+        createHourlySchedules(userId, tomorrow.plusHours(9), 3, -1);
+        UUID scheduleId = scheduleRepository.findAllByUserIdBetweenDates(userId, tomorrow, tomorrow.plusDays(1))
+                .get(0).getId();
+        // when
+        MvcResult mvcResult = this.mockMvc.perform(MockMvcRequestBuilders.post(
+                        "/api/v1/schedules/" + scheduleId + "/hold"))
+                .andExpect(status().isOk()).andReturn();
+        this.mockMvc.perform(MockMvcRequestBuilders.post("/api/v1/schedules/" + scheduleId + "/hold"))
+                .andExpect(status().isConflict());
+        // then
+        ScheduleHoldDTO scheduleHoldDTO = objectMapper.readValue(mvcResult.getResponse().getContentAsString(),
+                ScheduleHoldDTO.class);
+
+        assertEquals(scheduleId, scheduleHoldDTO.getScheduleId());
+        assertEquals(2, findEarliestFreeSchedules(userId, tomorrow).size());
+        assertEquals(2, getDailyAvailability(userId, tomorrow.toLocalDate()).getFreeCount());
+
+        this.mockMvc.perform(MockMvcRequestBuilders.delete("/api/v1/schedules/" + scheduleId + "/hold/"
+                        + scheduleHoldDTO.getHoldId()))
+                .andExpect(status().isNoContent());
+
+        assertEquals(3, findEarliestFreeSchedules(userId, tomorrow).size());
+        assertEquals(3, getDailyAvailability(userId, tomorrow.toLocalDate()).getFreeCount());
+    }
+
+    @Test
+    void confirmHold_reservesHeldSchedule() throws Exception {
+        // given
+        UUID userId = UUID.randomUUID();
+        LocalDateTime tomorrow = LocalDate.now(UTC_ZONE_ID).plusDays(1).atStartOfDay();
+        createHourlySchedules(userId, tomorrow.plusHours(9), 1, -1);
+        UUID scheduleId = scheduleRepository.findAllByUserIdBetweenDates(userId, tomorrow, tomorrow.plusDays(1))
+                .get(0).getId();
+        ScheduleHoldDTO scheduleHoldDTO = scheduleHoldService.holdSchedule(scheduleId, null);
+        // when
+        this.mockMvc.perform(MockMvcRequestBuilders.post("/api/v1/schedules/" + scheduleId + "/hold/"
+                        + scheduleHoldDTO.getHoldId() + "/confirm"))
+                .andExpect(status().isNoContent());
+        // then
+        ScheduleEntity scheduleEntity = scheduleRepository.findById(scheduleId).orElseThrow();
+
+        assertTrue(scheduleEntity.getIsReserved());
+        assertNull(scheduleEntity.getHeldUntil());
+        this.mockMvc.perform(MockMvcRequestBuilders.post("/api/v1/schedules/" + scheduleId + "/hold/"
+                        + scheduleHoldDTO.getHoldId() + "/confirm"))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    void findReservedIntervals_returnsScheduleReservedAfterIntervalsWereLoaded() throws Exception {
+        // given
+        UUID userId = UUID.randomUUID();
+        LocalDateTime tomorrow = LocalDate.now(UTC_ZONE_ID).plusDays(1).atStartOfDay();
+        createHourlySchedules(userId, tomorrow.plusHours(9), 3, -1);
+        UUID scheduleId = scheduleRepository.findAllByUserIdBetweenDates(userId, tomorrow, tomorrow.plusDays(1))
+                .get(1).getId();
+        assertTrue(findReservedIntervals(userId, tomorrow, tomorrow.plusDays(1)).isEmpty());
+        ScheduleHoldDTO scheduleHoldDTO = scheduleHoldService.holdSchedule(scheduleId, null);
+        // when
+        scheduleHoldService.confirmHold(scheduleId, scheduleHoldDTO.getHoldId());
+        // then
+        List<Map<String, Object>> reservedIntervals = findReservedIntervals(userId, tomorrow, tomorrow.plusDays(1));
+
+        assertEquals(1, reservedIntervals.size());
+        assertEquals(format(tomorrow.plusHours(10)), reservedIntervals.get(0).get("startDateTime"));
+        assertEquals(format(tomorrow.plusHours(11)), reservedIntervals.get(0).get("endDateTime"));
+        this.mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/schedules/reserved/by-user-id/" + userId)
+                        .param("startDateTime", format(tomorrow))
+                        .param("endDateTime", format(tomorrow)))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void confirmHold_reservesHeldSchedule_whenScheduleIsRegeneratedWhileHeld() throws Exception {
+        // given
+        UUID userId = UUID.randomUUID();
+        LocalDate startDate = LocalDate.now(UTC_ZONE_ID).plusDays(2);
+        String requestBody = objectMapper.writeValueAsString(ScheduleCreateDTO.builder()
+                .userId(userId)
+                .startDate(startDate)
+                .endDate(startDate)
+                .workingDayStartTime(LocalTime.of(9, 0))
+                .workingDayEndTime(LocalTime.of(12, 0))
+                .zoneOffset("Z")
+                .interval(60)
+                .build());
+        this.mockMvc.perform(MockMvcRequestBuilders.post("/api/v1/schedules")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(requestBody))
+                .andExpect(status().isCreated());
+        LocalDateTime startOfDay = startDate.atStartOfDay();
+        UUID scheduleId = scheduleRepository.findAllByUserIdBetweenDates(userId, startOfDay,
+                startOfDay.plusDays(1)).get(1).getId();
+        ScheduleHoldDTO scheduleHoldDTO = scheduleHoldService.holdSchedule(scheduleId, null);
+        this.mockMvc.perform(MockMvcRequestBuilders.post("/api/v1/schedules")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(requestBody))
+                .andExpect(status().isCreated());
+        // when
+        this.mockMvc.perform(MockMvcRequestBuilders.post("/api/v1/schedules/" + scheduleId + "/hold/"
+                        + scheduleHoldDTO.getHoldId() + "/confirm"))
+                .andExpect(status().isNoContent());
+        // then
+        List<ScheduleEntity> scheduleEntities = scheduleRepository.findAllByUserIdBetweenDates(userId, startOfDay,
+                startOfDay.plusDays(1));
+
+        assertEquals(3, scheduleEntities.size());
+        assertEquals(scheduleId, scheduleEntities.get(1).getId());
+        assertTrue(scheduleEntities.get(1).getIsReserved());
+        assertEquals(2, getDailyAvailability(userId, startDate).getFreeCount());
+    }
+
+    @Test
+    void releaseExpiredHolds_clearsExpiredHolds() throws Exception {
+        // given
+        UUID userId = UUID.randomUUID();
+        LocalDateTime tomorrow = LocalDate.now(UTC_ZONE_ID).plusDays(1).atStartOfDay();
+        createHourlySchedules(userId, tomorrow.plusHours(9), 1, -1);
+        UUID scheduleId = scheduleRepository.findAllByUserIdBetweenDates(userId, tomorrow, tomorrow.plusDays(1))
+                .get(0).getId();
+        ScheduleHoldDTO scheduleHoldDTO = scheduleHoldService.holdSchedule(scheduleId, Duration.ofSeconds(1));
+        assertEquals(0, getDailyAvailability(userId, tomorrow.toLocalDate()).getFreeCount());
+        // when
+        scheduleHoldService.releaseExpiredHolds(Instant.now().plusSeconds(5));
+        // then
+        ScheduleEntity scheduleEntity = scheduleRepository.findById(scheduleId).orElseThrow();
+
+        assertNull(scheduleEntity.getHeldUntil());
+        assertNull(scheduleEntity.getHoldId());
+        assertEquals(1, getDailyAvailability(userId, tomorrow.toLocalDate()).getFreeCount());
+        this.mockMvc.perform(MockMvcRequestBuilders.post("/api/v1/schedules/" + scheduleId + "/hold/"
+                        + scheduleHoldDTO.getHoldId() + "/confirm"))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    void pollChanges_returnsDeletion_whenScheduleDeleted() throws Exception {
+        // given
+        UUID userId = UUID.randomUUID();
+        LocalDateTime tomorrow = LocalDate.now(UTC_ZONE_ID).plusDays(1).atStartOfDay();
+        createHourlySchedules(userId, tomorrow.plusHours(9), 2, -1);
+        UUID scheduleId = scheduleRepository.findAllByUserIdBetweenDates(userId, tomorrow, tomorrow.plusDays(1))
+                .get(0).getId();
+        MvcResult mvcResult = this.mockMvc.perform(MockMvcRequestBuilders.get(
+                        "/api/v1/schedules/changes/by-user-id/" + userId + "/poll"))
+                .andExpect(request().asyncStarted()).andReturn();
+        // when
+        this.mockMvc.perform(MockMvcRequestBuilders.delete("/api/v1/schedules/" + scheduleId))
+                .andExpect(status().isNoContent());
+        // then
+        String body = this.mockMvc.perform(asyncDispatch(mvcResult))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        List<ScheduleChangeDTO> changes = objectMapper.readValue(body, new TypeReference<>() {
+        });
+
+        assertEquals(1, changes.size());
+        assertEquals(ScheduleChangeType.DELETED, changes.get(0).getType());
+        assertEquals(List.of(scheduleId), changes.get(0).getScheduleIds());
+    }
+
+    @Test
+    void pollChanges_returnsResync_whenLastEventIdNotKnown() throws Exception {
+        // given
+        UUID userId = UUID.randomUUID();
+        // when
+        MvcResult mvcResult = this.mockMvc.perform(MockMvcRequestBuilders.get(
+                                "/api/v1/schedules/changes/by-user-id/" + userId + "/poll")
+                        .param("lastEventId", "1"))
+                .andExpect(request().asyncStarted()).andReturn();
+        // then
+        String body = this.mockMvc.perform(asyncDispatch(mvcResult))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        List<ScheduleChangeDTO> changes = objectMapper.readValue(body, new TypeReference<>() {
+        });
+
+        assertEquals(1, changes.size());
+        assertEquals(ScheduleChangeType.RESYNC, changes.get(0).getType());
+    }
+
+    @Test
+    void subscribeToChanges_streamsCreatedRangeWithoutSchedules() throws Exception {
+        // given
+        UUID userId = UUID.randomUUID();
+        MvcResult mvcResult = this.mockMvc.perform(MockMvcRequestBuilders.get(
+                        "/api/v1/schedules/changes/by-user-id/" + userId))
+                .andExpect(request().asyncStarted()).andReturn();
+        ScheduleCreateDTO scheduleCreateDTO = ScheduleCreateDTO.builder()
+                .userId(userId)
+                .startDate(LocalDate.now().plusDays(2))
+                .endDate(LocalDate.now().plusDays(2))
+                .workingDayStartTime(LocalTime.of(9, 0))
+                .workingDayEndTime(LocalTime.of(10, 0))
+                .zoneOffset("+00:00")
+                .interval(30)
+                .build();
+        // when
+        this.mockMvc.perform(MockMvcRequestBuilders.post("/api/v1/schedules")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(scheduleCreateDTO))
+                        .characterEncoding("utf-8"))
+                .andExpect(status().isCreated());
+        // then
+        String body = "";
+
+        for (int i = 0; i < 50 && !body.contains("event:CREATED"); i++) {
+            Thread.sleep(100);
+            body = mvcResult.getResponse().getContentAsString();
+        }
+
+        assertTrue(body.contains("event:CREATED"), body);
+        assertEquals(1, body.split("\"startDateTime\"", -1).length - 1);
+        assertFalse(body.contains("\"schedules\""), body);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void relay_publishesChangesThroughOutboxInOrder() throws Exception {
+        // given
+        UUID userId = UUID.randomUUID();
+        ScheduleCreateDTO scheduleCreateDTO = ScheduleCreateDTO.builder()
+                .userId(userId)
+                .startDate(LocalDate.now().plusDays(2))
+                .endDate(LocalDate.now().plusDays(2))
+                .workingDayStartTime(LocalTime.of(9, 0))
+                .workingDayEndTime(LocalTime.of(10, 0))
+                .zoneOffset("+00:00")
+                .interval(30)
+                .build();
+        this.mockMvc.perform(MockMvcRequestBuilders.post("/api/v1/schedules")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(scheduleCreateDTO))
+                        .characterEncoding("utf-8"))
+                .andExpect(status().isCreated());
+        UUID scheduleId = scheduleRepository.findAll().stream()
+                .filter(scheduleEntity -> scheduleEntity.getUserId().equals(userId))
+                .findFirst().orElseThrow().getId();
+        this.mockMvc.perform(MockMvcRequestBuilders.delete("/api/v1/schedules/" + scheduleId))
+                .andExpect(status().isNoContent());
+        // when
+        scheduleOutboxRelay.relay();
+        // then
+        ArgumentCaptor<List<ScheduleChangeDTO>> captor = ArgumentCaptor.forClass(List.class);
+        verify(scheduleEventSink, atLeastOnce()).publish(captor.capture());
+        List<ScheduleChangeDTO> changes = captor.getAllValues().stream()
+                .flatMap(List::stream)
+                .filter(change -> change.getUserId().equals(userId))
+                .toList();
+
+        assertEquals(2, changes.size());
+        assertEquals(ScheduleChangeType.CREATED, changes.get(0).getType());
+        assertNotNull(changes.get(0).getStartDateTime());
+        assertNotNull(changes.get(0).getEndDateTime());
+        assertEquals(ScheduleChangeType.DELETED, changes.get(1).getType());
+        assertEquals(List.of(scheduleId), changes.get(1).getScheduleIds());
+        assertTrue(changes.get(0).getId() < changes.get(1).getId());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void relay_movesMalformedChangeToDeadLetter_andPublishesTheRest() throws Exception {
+        // given
+        UUID userId = UUID.randomUUID();
+        jdbcTemplate.update("insert into schedule_outbox (user_id, event_type, payload, created_at) " +
+                "values (?, 'CREATED', '{malformed', ?)", userId, LocalDateTime.now());
+        long malformedId = jdbcTemplate.queryForObject("select max(id) from schedule_outbox", Long.class);
+        this.mockMvc.perform(MockMvcRequestBuilders.post("/api/v1/schedules")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(ScheduleCreateDTO.builder()
+                                .userId(userId)
+                                .startDate(LocalDate.now().plusDays(2))
+                                .endDate(LocalDate.now().plusDays(2))
+                                .workingDayStartTime(LocalTime.of(9, 0))
+                                .workingDayEndTime(LocalTime.of(10, 0))
+                                .zoneOffset("+00:00")
+                                .interval(30)
+                                .build()))
+                        .characterEncoding("utf-8"))
+                .andExpect(status().isCreated());
+        // when
+        scheduleOutboxRelay.relay();
+        // then
+        ArgumentCaptor<List<ScheduleChangeDTO>> captor = ArgumentCaptor.forClass(List.class);
+        verify(scheduleEventSink, atLeastOnce()).publish(captor.capture());
+
+        assertEquals(1, captor.getAllValues().stream()
+                .flatMap(List::stream)
+                .filter(change -> change.getUserId().equals(userId))
+                .count());
+        assertEquals(1, jdbcTemplate.queryForObject(
+                "select count(*) from schedule_outbox_dead_letter where id = ?", Integer.class, malformedId));
+        assertEquals(0, jdbcTemplate.queryForObject(
+                "select count(*) from schedule_outbox where id = ?", Integer.class, malformedId));
+        assertTrue(meterRegistry.counter("schedule.outbox.dead-lettered").count() >= 1);
+    }
+
+    private List<Map<String, Object>> findEarliestFreeSchedules(UUID userId, LocalDateTime startDateTime)
+            throws Exception {
+        MvcResult mvcResult = this.mockMvc.perform(MockMvcRequestBuilders.get(
+                                "/api/v1/schedules/free/by-user-id/" + userId + "/earliest")
+                        .param("startDateTime", format(startDateTime))
+                        .param("limit", "10"))
+                .andExpect(status().isOk()).andReturn();
+
+        return objectMapper.readValue(mvcResult.getResponse().getContentAsString(), new TypeReference<>() {
+        });
+    }
+
+    private List<Map<String, Object>> findReservedIntervals(UUID userId, LocalDateTime startDateTime,
+                                                            LocalDateTime endDateTime) throws Exception {
+        MvcResult mvcResult = this.mockMvc.perform(MockMvcRequestBuilders.get(
+                                "/api/v1/schedules/reserved/by-user-id/" + userId)
+                        .param("startDateTime", format(startDateTime))
+                        .param("endDateTime", format(endDateTime)))
+                .andExpect(status().isOk()).andReturn();
+
+        return objectMapper.readValue(mvcResult.getResponse().getContentAsString(), new TypeReference<>() {
+        });
+    }
+
+    private DailyAvailabilityDTO getDailyAvailability(UUID userId, LocalDate date) throws Exception {
+        MvcResult mvcResult = this.mockMvc.perform(MockMvcRequestBuilders.get(
+                                "/api/v1/schedules/availability/by-user-id/" + userId)
+                        .param("startDate", date.toString())
+                        .param("endDate", date.toString()))
+                .andExpect(status().isOk()).andReturn();
+        List<DailyAvailabilityDTO> dailyAvailabilityDTOList = objectMapper.readValue(
+                mvcResult.getResponse().getContentAsString(), new TypeReference<>() {
+                });
+
+        return dailyAvailabilityDTOList.get(0);
+    }
+
+    private void createHourlySchedules(UUID userId, LocalDateTime startDateTime, int count, int reservedIndex) {
+        for (int i = 0; i < count; i++) {
+            scheduleRepository.save(ScheduleEntity.builder()
+                    .userId(userId)
+                    .startDateTime(startDateTime.plusHours(i))
+                    .endDateTime(startDateTime.plusHours(i + 1L))
+                    .isReserved(i == reservedIndex)
+                    .createdAt(LocalDateTime.now())
+                    .build());
+        }
+    }
+
+    private static String format(LocalDateTime dateTime) {
+        return DateTimeFormatter.ofPattern(AppConstants.DEFAULT_DATE_TIME_FORMAT).format(dateTime);
+    }
+
     private List<ScheduleEntity> createSchedules(UUID userId) {
         ScheduleEntity schedule1 = scheduleRepository.save(ScheduleEntity.builder()
                 .userId(userId)
@@ -0,0 +1,42 @@
+package kz.smarthealth.scheduleservice.jdbc;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Guards number of JDBC round trips of an operation, fails when a change adds statements, e.g. N+1 selects or
+ * inserts without batching
+ */
+public final class StatementCountAssertions {
+
+    private StatementCountAssertions() {
+    }
+
+    /**
+     * Runs the operation on current thread and asserts number of statements it executed
+     *
+     * @param statementMetrics statement metrics of the context
+     * @param maxStatements    maximum number of executions, a batch is one execution
+     * @param operation        operation
+     * @return result of the operation
+     */
+    public static <T> T assertMaxStatements(StatementMetrics statementMetrics, int maxStatements,
+                                            Operation<T> operation) throws Exception {
+        T result;
+        StatementMetrics.StatementCount count = statementMetrics.startCount();
+
+        try (count) {
+            result = operation.run();
+        }
+
+        assertTrue(count.getStatements() <= maxStatements, () -> "Expected at most " + maxStatements +
+                " statements, but executed " + count.getStatements() + ":\n" + String.join("\n", count.getSqls()));
+
+        return result;
+    }
+
+    @FunctionalInterface
+    public interface Operation<T> {
+
+        T run() throws Exception;
+    }
+}
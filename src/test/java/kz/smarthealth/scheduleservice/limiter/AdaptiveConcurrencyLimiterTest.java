@@ -0,0 +1,71 @@
+package kz.smarthealth.scheduleservice.limiter;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link AdaptiveConcurrencyLimiter}
+ */
+class AdaptiveConcurrencyLimiterTest {
+
+    private static final long LATENCY_THRESHOLD = TimeUnit.MILLISECONDS.toNanos(100);
+
+    @Test
+    void tryAcquire_returnsFalse_whenLimitReached() {
+        // given
+        AdaptiveConcurrencyLimiter underTest = new AdaptiveConcurrencyLimiter(2, 1, 10, LATENCY_THRESHOLD, 0.5);
+        // when
+        boolean first = underTest.tryAcquire();
+        boolean second = underTest.tryAcquire();
+        boolean third = underTest.tryAcquire();
+        // then
+        assertTrue(first);
+        assertTrue(second);
+        assertFalse(third);
+        assertEquals(2, underTest.getInFlight());
+    }
+
+    @Test
+    void release_increasesLimit_whenFastAndLoaded() {
+        // given
+        AdaptiveConcurrencyLimiter underTest = new AdaptiveConcurrencyLimiter(2, 1, 3, LATENCY_THRESHOLD, 0.5);
+        underTest.tryAcquire();
+        underTest.tryAcquire();
+        // when
+        underTest.release(TimeUnit.MILLISECONDS.toNanos(10));
+        underTest.release(TimeUnit.MILLISECONDS.toNanos(10));
+        // then
+        assertEquals(3, underTest.getLimit());
+        assertEquals(0, underTest.getInFlight());
+    }
+
+    @Test
+    void release_decreasesLimit_whenSlow() {
+        // given
+        AdaptiveConcurrencyLimiter underTest = new AdaptiveConcurrencyLimiter(8, 3, 10, LATENCY_THRESHOLD, 0.5);
+        underTest.tryAcquire();
+        underTest.tryAcquire();
+        // when
+        underTest.release(TimeUnit.SECONDS.toNanos(1));
+        underTest.release(TimeUnit.SECONDS.toNanos(1));
+        // then
+        assertEquals(3, underTest.getLimit());
+        assertTrue(underTest.tryAcquire());
+    }
+
+    @Test
+    void isUsedAtLeast_returnsTrue_whenShareOfLimitInFlight() {
+        // given
+        AdaptiveConcurrencyLimiter underTest = new AdaptiveConcurrencyLimiter(4, 1, 10, LATENCY_THRESHOLD, 0.5);
+        // when
+        underTest.tryAcquire();
+        underTest.tryAcquire();
+        underTest.tryAcquire();
+        // then
+        assertTrue(underTest.isUsedAtLeast(0.75));
+        assertFalse(underTest.isUsedAtLeast(1.0));
+    }
+}
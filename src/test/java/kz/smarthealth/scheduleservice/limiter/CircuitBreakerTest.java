@@ -0,0 +1,95 @@
+package kz.smarthealth.scheduleservice.limiter;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link CircuitBreaker}
+ */
+class CircuitBreakerTest {
+
+    private static final long OPEN_DURATION = TimeUnit.SECONDS.toNanos(10);
+
+    @Test
+    void onFailure_opensCircuit_whenConsecutiveFailuresReachThreshold() {
+        // given
+        CircuitBreaker underTest = new CircuitBreaker(2, OPEN_DURATION);
+        underTest.tryAcquire(0);
+        underTest.onFailure(0);
+        underTest.tryAcquire(0);
+        underTest.onSuccess();
+        underTest.tryAcquire(0);
+        underTest.onFailure(0);
+        // when
+        underTest.tryAcquire(0);
+        underTest.onFailure(0);
+        // then
+        assertEquals(CircuitBreaker.State.OPEN, underTest.getState());
+        assertFalse(underTest.tryAcquire(OPEN_DURATION - 1));
+    }
+
+    @Test
+    void tryAcquire_permitsOneTrial_whenOpenDurationPassed() {
+        // given
+        CircuitBreaker underTest = new CircuitBreaker(1, OPEN_DURATION);
+        underTest.tryAcquire(0);
+        underTest.onFailure(0);
+        // when
+        boolean trial = underTest.tryAcquire(OPEN_DURATION);
+        boolean concurrent = underTest.tryAcquire(OPEN_DURATION);
+        // then
+        assertTrue(trial);
+        assertFalse(concurrent);
+        assertEquals(CircuitBreaker.State.HALF_OPEN, underTest.getState());
+    }
+
+    @Test
+    void onSuccess_closesCircuit_whenTrialSucceeded() {
+        // given
+        CircuitBreaker underTest = new CircuitBreaker(1, OPEN_DURATION);
+        underTest.tryAcquire(0);
+        underTest.onFailure(0);
+        underTest.tryAcquire(OPEN_DURATION);
+        // when
+        underTest.onSuccess();
+        // then
+        assertEquals(CircuitBreaker.State.CLOSED, underTest.getState());
+        assertTrue(underTest.tryAcquire(OPEN_DURATION));
+        assertTrue(underTest.tryAcquire(OPEN_DURATION));
+    }
+
+    @Test
+    void onFailure_reopensCircuit_whenTrialFailed() {
+        // given
+        CircuitBreaker underTest = new CircuitBreaker(3, OPEN_DURATION);
+        underTest.tryAcquire(0);
+        underTest.onFailure(0);
+        underTest.tryAcquire(0);
+        underTest.onFailure(0);
+        underTest.tryAcquire(0);
+        underTest.onFailure(0);
+        underTest.tryAcquire(OPEN_DURATION);
+        // when
+        underTest.onFailure(OPEN_DURATION);
+        // then
+        assertEquals(CircuitBreaker.State.OPEN, underTest.getState());
+        assertFalse(underTest.tryAcquire(2 * OPEN_DURATION - 1));
+        assertTrue(underTest.tryAcquire(2 * OPEN_DURATION));
+    }
+
+    @Test
+    void onIgnored_releasesTrial() {
+        // given
+        CircuitBreaker underTest = new CircuitBreaker(1, OPEN_DURATION);
+        underTest.tryAcquire(0);
+        underTest.onFailure(0);
+        underTest.tryAcquire(OPEN_DURATION);
+        // when
+        underTest.onIgnored();
+        // then
+        assertTrue(underTest.tryAcquire(OPEN_DURATION));
+    }
+}
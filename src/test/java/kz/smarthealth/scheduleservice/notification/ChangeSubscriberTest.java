@@ -0,0 +1,102 @@
+package kz.smarthealth.scheduleservice.notification;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link ChangeSubscriber}
+ */
+class ChangeSubscriberTest {
+
+    private final ExecutorService sendExecutor = Executors.newSingleThreadExecutor();
+
+    @AfterEach
+    void afterEach() {
+        sendExecutor.shutdownNow();
+    }
+
+    @Test
+    void offer_sendsEventsInOrder() throws Exception {
+        // given
+        RecordingEmitter emitter = new RecordingEmitter(new CountDownLatch(0));
+        ChangeSubscriber underTest = new ChangeSubscriber(emitter, 8, sendExecutor);
+        List<SseEmitter.SseEventBuilder> events = new ArrayList<>();
+        // when
+        for (int i = 0; i < 5; i++) {
+            SseEmitter.SseEventBuilder event = SseEmitter.event().id(String.valueOf(i));
+            events.add(event);
+            assertTrue(underTest.offer(event));
+        }
+        sendExecutor.submit(() -> {
+        }).get(5, TimeUnit.SECONDS);
+        // then
+        assertEquals(events, emitter.sentEvents);
+        assertEquals(1, emitter.completed.getCount());
+    }
+
+    @Test
+    void offer_closesSubscriber_whenItFallsBehind() throws Exception {
+        // given
+        CountDownLatch sendAllowed = new CountDownLatch(1);
+        RecordingEmitter emitter = new RecordingEmitter(sendAllowed);
+        ChangeSubscriber underTest = new ChangeSubscriber(emitter, 2, sendExecutor);
+        underTest.offer(SseEmitter.event().id("1"));
+        assertTrue(emitter.sendStarted.await(5, TimeUnit.SECONDS));
+        // when
+        boolean secondQueued = underTest.offer(SseEmitter.event().id("2"));
+        boolean thirdQueued = underTest.offer(SseEmitter.event().id("3"));
+        boolean fourthQueued = underTest.offer(SseEmitter.event().id("4"));
+        sendAllowed.countDown();
+        // then
+        assertTrue(secondQueued);
+        assertTrue(thirdQueued);
+        assertFalse(fourthQueued);
+        assertFalse(underTest.offer(SseEmitter.event().id("5")));
+        assertTrue(emitter.completed.await(5, TimeUnit.SECONDS));
+        assertEquals(1, emitter.sentEvents.size());
+    }
+
+    /**
+     * Emitter that records sent events and blocks the first send until it is allowed, like a stalled client
+     */
+    private static class RecordingEmitter extends SseEmitter {
+
+        private final CountDownLatch sendAllowed;
+        private final CountDownLatch sendStarted = new CountDownLatch(1);
+        private final CountDownLatch completed = new CountDownLatch(1);
+        private final List<SseEventBuilder> sentEvents = new CopyOnWriteArrayList<>();
+
+        private RecordingEmitter(CountDownLatch sendAllowed) {
+            this.sendAllowed = sendAllowed;
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) {
+            sendStarted.countDown();
+
+            try {
+                sendAllowed.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+
+            sentEvents.add(builder);
+        }
+
+        @Override
+        public synchronized void complete() {
+            completed.countDown();
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package kz.smarthealth.scheduleservice.profiling;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link ContinuousRecording}
+ */
+class ContinuousRecordingTest {
+
+    @TempDir
+    private Path dumpDirectory;
+
+    private ContinuousRecording underTest;
+
+    @AfterEach
+    void afterEach() {
+        if (underTest != null) {
+            underTest.stop();
+        }
+    }
+
+    @Test
+    void dump_writesScheduleCreationEvents() throws IOException {
+        // given
+        underTest = createContinuousRecording(true);
+        underTest.start();
+        SlotGenerationEvent slotGenerationEvent = new SlotGenerationEvent();
+        slotGenerationEvent.begin();
+        slotGenerationEvent.complete(2, 48);
+        SchedulePersistEvent schedulePersistEvent = new SchedulePersistEvent();
+        schedulePersistEvent.begin();
+        schedulePersistEvent.complete(2, 40);
+        // when
+        Path actual = underTest.dump(Duration.ofMinutes(1));
+        // then
+        List<RecordedEvent> events = RecordingFile.readAllEvents(actual).stream()
+                .filter(event -> event.getEventType().getName().startsWith("kz.smarthealth.schedule."))
+                .toList();
+
+        assertEquals(dumpDirectory, actual.getParent());
+        assertEquals(2, events.size());
+        assertEquals("kz.smarthealth.schedule.SlotGeneration", events.get(0).getEventType().getName());
+        assertEquals(48, events.get(0).getInt("scheduleCount"));
+        assertEquals("kz.smarthealth.schedule.SchedulePersist", events.get(1).getEventType().getName());
+        assertEquals(2, events.get(1).getInt("doctorCount"));
+    }
+
+    @Test
+    void dump_returnsNull_whenDisabled() throws IOException {
+        // given
+        underTest = createContinuousRecording(false);
+        underTest.start();
+        // when
+        Path actual = underTest.dump(Duration.ofMinutes(1));
+        // then
+        assertNull(actual);
+        assertFalse(underTest.isRunning());
+    }
+
+    private ContinuousRecording createContinuousRecording(boolean enabled) {
+        return new ContinuousRecording(enabled, "default", Duration.ofMinutes(5), DataSize.ofMegabytes(20),
+                Duration.ZERO, dumpDirectory);
+    }
+}
@@ -0,0 +1,127 @@
+package kz.smarthealth.scheduleservice.repository;
+
+import com.sun.management.ThreadMXBean;
+import kz.smarthealth.scheduleservice.model.dto.ScheduleDTO;
+import kz.smarthealth.scheduleservice.model.entity.ScheduleEntity;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.modelmapper.ModelMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import java.lang.management.ManagementFactory;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import static kz.smarthealth.scheduleservice.util.AppConstants.UTC_ZONE_ID;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration tests for {@link ScheduleProjectionRepository}, compares it with entity query mapped by ModelMapper
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@TestPropertySource(locations = "classpath:application-test.yml")
+class ScheduleProjectionRepositoryTest {
+
+    private static final int SCHEDULE_COUNT = 2_000;
+    private static final int ITERATIONS = 20;
+
+    @Autowired
+    private ScheduleRepository scheduleRepository;
+
+    @Autowired
+    private ModelMapper modelMapper;
+
+    @AfterEach
+    void afterEach() {
+        scheduleRepository.deleteAll();
+    }
+
+    @Test
+    void findAllScheduleDTOsByUserIdBetweenDates_returnsSameSchedulesAsEntityQuery() {
+        // given
+        UUID userId = UUID.randomUUID();
+        LocalDateTime startDateTime = createSchedules(userId);
+        LocalDateTime endDateTime = startDateTime.plusMinutes(30L * SCHEDULE_COUNT);
+        // when
+        List<ScheduleDTO> actual = scheduleRepository.findAllScheduleDTOsByUserIdBetweenDates(userId,
+                startDateTime.plusMinutes(15), endDateTime);
+        // then
+        List<ScheduleDTO> expected = findScheduleDTOsThroughEntities(userId, startDateTime.plusMinutes(15),
+                endDateTime);
+
+        assertEquals(SCHEDULE_COUNT, actual.size());
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    void findAllScheduleDTOsByUserIdBetweenDates_allocatesLessThanEntityQuery() {
+        // given
+        UUID userId = UUID.randomUUID();
+        LocalDateTime startDateTime = createSchedules(userId);
+        LocalDateTime endDateTime = startDateTime.plusMinutes(30L * SCHEDULE_COUNT);
+        // when
+        Measurement entityMeasurement = measure(() -> findScheduleDTOsThroughEntities(userId, startDateTime,
+                endDateTime));
+        Measurement projectionMeasurement = measure(() -> scheduleRepository
+                .findAllScheduleDTOsByUserIdBetweenDates(userId, startDateTime, endDateTime));
+        // then
+        assertTrue(projectionMeasurement.allocatedBytes() < entityMeasurement.allocatedBytes(),
+                "entities: " + entityMeasurement + ", projection: " + projectionMeasurement);
+    }
+
+    private List<ScheduleDTO> findScheduleDTOsThroughEntities(UUID userId, LocalDateTime startDateTime,
+                                                              LocalDateTime endDateTime) {
+        return scheduleRepository.findAllByUserIdBetweenDates(userId, startDateTime, endDateTime).stream()
+                .map(scheduleEntity -> modelMapper.map(scheduleEntity, ScheduleDTO.class))
+                .toList();
+    }
+
+    private LocalDateTime createSchedules(UUID userId) {
+        LocalDateTime startDateTime = LocalDateTime.now(UTC_ZONE_ID).truncatedTo(ChronoUnit.DAYS).plusDays(1);
+        LocalDateTime createdAt = LocalDateTime.now(UTC_ZONE_ID).truncatedTo(ChronoUnit.MICROS);
+        List<ScheduleEntity> scheduleEntities = new ArrayList<>();
+
+        for (int i = 0; i < SCHEDULE_COUNT; i++) {
+            scheduleEntities.add(ScheduleEntity.builder()
+                    .userId(userId)
+                    .startDateTime(startDateTime.plusMinutes(30L * i))
+                    .endDateTime(startDateTime.plusMinutes(30L * (i + 1)))
+                    .isReserved(i % 4 == 0)
+                    .createdAt(createdAt)
+                    .build());
+        }
+
+        scheduleRepository.saveAll(scheduleEntities);
+
+        return startDateTime;
+    }
+
+    private static Measurement measure(Supplier<List<ScheduleDTO>> read) {
+        ThreadMXBean threadMXBean = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+        for (int i = 0; i < ITERATIONS; i++) {
+            read.get();
+        }
+
+        long startAllocatedBytes = threadMXBean.getCurrentThreadAllocatedBytes();
+        long startCpuNanos = threadMXBean.getCurrentThreadCpuTime();
+
+        for (int i = 0; i < ITERATIONS; i++) {
+            read.get();
+        }
+
+        return new Measurement((threadMXBean.getCurrentThreadAllocatedBytes() - startAllocatedBytes) / ITERATIONS,
+                (threadMXBean.getCurrentThreadCpuTime() - startCpuNanos) / ITERATIONS);
+    }
+
+    private record Measurement(long allocatedBytes, long cpuNanos) {
+    }
+}
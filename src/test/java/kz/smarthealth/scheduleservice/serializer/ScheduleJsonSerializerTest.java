@@ -0,0 +1,102 @@
+package kz.smarthealth.scheduleservice.serializer;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.sun.management.ThreadMXBean;
+import kz.smarthealth.scheduleservice.model.dto.ScheduleDTO;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link ScheduleJsonSerializer}, compares it with serialization of the annotated bean on a response
+ * of 10k schedules
+ */
+class ScheduleJsonSerializerTest {
+
+    private static final int SCHEDULE_COUNT = 10_000;
+    private static final int ITERATIONS = 20;
+
+    private final ObjectMapper beanMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+    private final ObjectMapper underTest = new ObjectMapper().registerModules(new JavaTimeModule(),
+            new SimpleModule().addSerializer(ScheduleDTO.class, new ScheduleJsonSerializer()));
+
+    @Test
+    void serialize_writesSameJsonAsAnnotatedBean() throws JsonProcessingException {
+        // given
+        List<ScheduleDTO> schedules = createSchedules();
+        schedules.add(new ScheduleDTO());
+        schedules.add(ScheduleDTO.builder()
+                .id(UUID.randomUUID())
+                .startDateTime(LocalDateTime.of(10_000, 1, 1, 0, 0))
+                .endDateTime(LocalDateTime.of(2023, 9, 11, 8, 5, 7, 999_999_999))
+                .isReserved(true)
+                .build());
+        // when
+        String actual = underTest.writeValueAsString(schedules);
+        // then
+        assertEquals(beanMapper.writeValueAsString(schedules), actual);
+    }
+
+    @Test
+    void serialize_allocatesLessThanAnnotatedBean() throws JsonProcessingException {
+        // given
+        List<ScheduleDTO> schedules = createSchedules();
+        // when
+        Measurement beanMeasurement = measure(beanMapper, schedules);
+        Measurement serializerMeasurement = measure(underTest, schedules);
+        // then
+        assertTrue(serializerMeasurement.allocatedBytes() < beanMeasurement.allocatedBytes(),
+                "bean: " + beanMeasurement + ", serializer: " + serializerMeasurement);
+    }
+
+    private static List<ScheduleDTO> createSchedules() {
+        UUID userId = UUID.randomUUID();
+        LocalDateTime startDateTime = LocalDateTime.of(2023, 9, 11, 9, 0);
+        LocalDateTime createdAt = LocalDateTime.of(2023, 9, 1, 12, 30, 15, 123_456_000);
+        List<ScheduleDTO> schedules = new ArrayList<>(SCHEDULE_COUNT);
+
+        for (int i = 0; i < SCHEDULE_COUNT; i++) {
+            schedules.add(ScheduleDTO.builder()
+                    .id(UUID.randomUUID())
+                    .userId(userId)
+                    .startDateTime(startDateTime.plusMinutes(30L * i))
+                    .endDateTime(startDateTime.plusMinutes(30L * (i + 1)))
+                    .isReserved(i % 4 == 0)
+                    .createdAt(createdAt)
+                    .build());
+        }
+
+        return schedules;
+    }
+
+    private static Measurement measure(ObjectMapper objectMapper, List<ScheduleDTO> schedules)
+            throws JsonProcessingException {
+        ThreadMXBean threadMXBean = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+        for (int i = 0; i < ITERATIONS; i++) {
+            objectMapper.writeValueAsBytes(schedules);
+        }
+
+        long startAllocatedBytes = threadMXBean.getCurrentThreadAllocatedBytes();
+        long startCpuNanos = threadMXBean.getCurrentThreadCpuTime();
+
+        for (int i = 0; i < ITERATIONS; i++) {
+            objectMapper.writeValueAsBytes(schedules);
+        }
+
+        return new Measurement((threadMXBean.getCurrentThreadAllocatedBytes() - startAllocatedBytes) / ITERATIONS,
+                (threadMXBean.getCurrentThreadCpuTime() - startCpuNanos) / ITERATIONS);
+    }
+
+    private record Measurement(long allocatedBytes, long cpuNanos) {
+    }
+}
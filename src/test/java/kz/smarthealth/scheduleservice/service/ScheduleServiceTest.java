@@ -1,9 +1,16 @@
 package kz.smarthealth.scheduleservice.service;
 
+import kz.smarthealth.scheduleservice.bulk.ScheduleBulkWriter;
+import kz.smarthealth.scheduleservice.cache.CalendarStore;
+import kz.smarthealth.scheduleservice.cache.ReservedIntervalIndex;
 import kz.smarthealth.scheduleservice.exception.CustomException;
+import kz.smarthealth.scheduleservice.limiter.DatabaseReadGuard;
 import kz.smarthealth.scheduleservice.model.dto.ScheduleCreateDTO;
 import kz.smarthealth.scheduleservice.model.dto.ScheduleDTO;
+import kz.smarthealth.scheduleservice.model.dto.ScheduleReadResultDTO;
 import kz.smarthealth.scheduleservice.model.entity.ScheduleEntity;
+import kz.smarthealth.scheduleservice.notification.ScheduleChangeType;
+import kz.smarthealth.scheduleservice.notification.ScheduleChangedEvent;
 import kz.smarthealth.scheduleservice.repository.ScheduleRepository;
 import kz.smarthealth.scheduleservice.util.AppConstants;
 import kz.smarthealth.scheduleservice.util.MessageSource;
@@ -11,7 +18,7 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.*;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.modelmapper.ModelMapper;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.HttpStatus;
 
 import java.time.LocalDate;
@@ -22,6 +29,7 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Supplier;
 
 import static kz.smarthealth.scheduleservice.util.AppConstants.UTC_ZONE_ID;
 import static org.junit.jupiter.api.Assertions.*;
@@ -35,10 +43,20 @@ import static org.mockito.Mockito.*;
 @ExtendWith(MockitoExtension.class)
 class ScheduleServiceTest {
 
-    @Spy
-    private ModelMapper modelMapper;
     @Mock
     private ScheduleRepository scheduleRepository;
+    @Mock
+    private ScheduleBulkWriter scheduleBulkWriter;
+    @Mock
+    private ReservedIntervalIndex reservedIntervalIndex;
+    @Mock
+    private CalendarStore calendarStore;
+    @Mock
+    private DatabaseReadGuard databaseReadGuard;
+    @Mock
+    private DailyAvailabilityService dailyAvailabilityService;
+    @Mock
+    private ApplicationEventPublisher applicationEventPublisher;
     @Captor
     private ArgumentCaptor<UUID> userIdArgumentCaptor;
     @Captor
@@ -67,17 +85,20 @@ class ScheduleServiceTest {
                 .interval(interval)
                 .zoneOffset("+06:00")
                 .build();
-        when(scheduleRepository.findAllReservedSchedulesByUserIdBetweenDates(any(), any(), any()))
+        when(scheduleRepository.findAllReservedOrHeldSchedulesByUserIdBetweenDates(any(), any(), any(), any()))
                 .thenReturn(List.of(ScheduleEntity.builder()
+                        .userId(userId)
                         .startDateTime(LocalDateTime.of(startDate, LocalTime.of(4, 0)))
                         .endDateTime(LocalDateTime.of(startDate, LocalTime.of(5, 0)))
+                        .isReserved(true)
                         .build()));
+        when(scheduleBulkWriter.getChunkSize()).thenReturn(1000);
         // when
         underTest.createSchedules(scheduleCreateDTO);
         // then
         verify(scheduleRepository).deleteAllOverlappingSchedulesByUserUdBetweenDates(userIdArgumentCaptor.capture(),
-                startDateTimeArgumentCaptor.capture(), endDateTimeArgumentCaptor.capture());
-        verify(scheduleRepository).saveAll(listArgumentCaptor.capture());
+                startDateTimeArgumentCaptor.capture(), endDateTimeArgumentCaptor.capture(), any());
+        verify(scheduleBulkWriter).insert(listArgumentCaptor.capture());
         UUID actualUserId = userIdArgumentCaptor.getValue();
         LocalDateTime actualStartDateTime = startDateTimeArgumentCaptor.getValue();
         LocalDateTime actualEndDateTime = endDateTimeArgumentCaptor.getValue();
@@ -91,6 +112,9 @@ class ScheduleServiceTest {
                         ZoneId.of(scheduleCreateDTO.getZoneOffset())).withZoneSameInstant(AppConstants.UTC_ZONE_ID)
                 .toLocalDateTime(), actualEndDateTime);
         assertEquals(17, actualScheduleEntityList.size());
+        assertEquals(17, actualScheduleEntityList.stream().map(ScheduleEntity::getId).distinct().count());
+        assertEquals(1, actualScheduleEntityList.stream().map(ScheduleEntity::getCreatedAt).distinct().count());
+        assertNotNull(actualScheduleEntityList.get(0).getCreatedAt());
 
         LocalDateTime currStartDateTime = LocalDateTime.of(scheduleCreateDTO.getStartDate(),
                         scheduleCreateDTO.getWorkingDayStartTime()).atZone(ZoneId.of(scheduleCreateDTO.getZoneOffset()))
@@ -118,23 +142,128 @@ class ScheduleServiceTest {
         }
     }
 
+    @Test
+    void createSchedules_createsSchedules_whenDaylightSavingTimeStarts() {
+        // given
+        UUID userId = UUID.randomUUID();
+        LocalDate transitionDate = LocalDate.of(2027, 3, 28);
+        ScheduleCreateDTO scheduleCreateDTO = ScheduleCreateDTO.builder()
+                .userId(userId)
+                .startDate(transitionDate.minusDays(1))
+                .endDate(transitionDate.plusDays(1))
+                .workingDayStartTime(LocalTime.of(1, 0))
+                .workingDayEndTime(LocalTime.of(4, 0))
+                .interval(60)
+                .zoneOffset("Europe/Berlin")
+                .build();
+        when(scheduleRepository.findAllReservedOrHeldSchedulesByUserIdBetweenDates(any(), any(), any(), any()))
+                .thenReturn(Collections.emptyList());
+        when(scheduleBulkWriter.getChunkSize()).thenReturn(1000);
+        // when
+        underTest.createSchedules(scheduleCreateDTO);
+        // then
+        verify(scheduleBulkWriter).insert(listArgumentCaptor.capture());
+        List<LocalDateTime> actualStartDateTimes = listArgumentCaptor.getValue().stream()
+                .map(ScheduleEntity::getStartDateTime)
+                .toList();
+
+        assertEquals(List.of(
+                LocalDateTime.of(transitionDate.minusDays(1), LocalTime.of(0, 0)),
+                LocalDateTime.of(transitionDate.minusDays(1), LocalTime.of(1, 0)),
+                LocalDateTime.of(transitionDate.minusDays(1), LocalTime.of(2, 0)),
+                LocalDateTime.of(transitionDate, LocalTime.of(0, 0)),
+                LocalDateTime.of(transitionDate, LocalTime.of(1, 0)),
+                LocalDateTime.of(transitionDate, LocalTime.of(23, 0)),
+                LocalDateTime.of(transitionDate.plusDays(1), LocalTime.of(0, 0)),
+                LocalDateTime.of(transitionDate.plusDays(1), LocalTime.of(1, 0))), actualStartDateTimes);
+        listArgumentCaptor.getValue().forEach(schedule ->
+                assertEquals(schedule.getStartDateTime().plusMinutes(60), schedule.getEndDateTime()));
+    }
+
+    @Test
+    void createSchedules_writesSchedulesInChunks() {
+        // given
+        ScheduleCreateDTO scheduleCreateDTO = ScheduleCreateDTO.builder()
+                .userId(UUID.randomUUID())
+                .startDate(LocalDate.now().plusDays(2))
+                .endDate(LocalDate.now().plusDays(3))
+                .workingDayStartTime(LocalTime.of(9, 0))
+                .workingDayEndTime(LocalTime.of(18, 0))
+                .interval(60)
+                .zoneOffset("+06:00")
+                .build();
+        when(scheduleRepository.findAllReservedOrHeldSchedulesByUserIdBetweenDates(any(), any(), any(), any()))
+                .thenReturn(Collections.emptyList());
+        when(scheduleBulkWriter.getChunkSize()).thenReturn(5);
+        // when
+        underTest.createSchedules(scheduleCreateDTO);
+        // then
+        verify(scheduleBulkWriter, times(4)).insert(listArgumentCaptor.capture());
+
+        assertEquals(List.of(5, 5, 5, 3), listArgumentCaptor.getAllValues().stream().map(List::size).toList());
+        assertEquals(18, listArgumentCaptor.getAllValues().stream().flatMap(List::stream)
+                .map(ScheduleEntity::getId).distinct().count());
+    }
+
     @Test
     void getSchedulesByUserId_returnsEmptyList_whenInvalidUserId() {
         // given
         UUID userId = UUID.randomUUID();
-        when(scheduleRepository.findAllByUserIdBetweenDates(any(), any(), any())).thenReturn(Collections.emptyList());
+        when(scheduleRepository.findAllScheduleDTOsByUserIdBetweenDates(any(), any(), any()))
+                .thenReturn(Collections.emptyList());
+        readThroughGuard();
         // when
-        List<ScheduleDTO> scheduleList = underTest.getSchedulesByUserId(userId);
+        ScheduleReadResultDTO actual = underTest.getSchedulesByUserId(userId);
         // then
-        assertTrue(scheduleList.isEmpty());
+        assertTrue(actual.getSchedules().isEmpty());
+        assertFalse(actual.isStale());
+    }
+
+    @Test
+    void getSchedulesByUserId_returnsStaleSchedules_whenDatabaseNotAvailable() {
+        // given
+        UUID userId = UUID.randomUUID();
+        LocalDateTime loadedAt = LocalDateTime.now(UTC_ZONE_ID).minusMinutes(10);
+        ScheduleReadResultDTO staleResult = ScheduleReadResultDTO.builder()
+                .schedules(List.of(ScheduleDTO.builder()
+                        .id(UUID.randomUUID())
+                        .userId(userId)
+                        .startDateTime(LocalDateTime.now().plusDays(2).withHour(9).withMinute(0))
+                        .endDateTime(LocalDateTime.now().plusDays(2).withHour(9).withMinute(30))
+                        .isReserved(false)
+                        .build()))
+                .stale(true)
+                .loadedAt(loadedAt)
+                .build();
+        when(databaseReadGuard.tryRead(any())).thenReturn(Optional.empty());
+        when(calendarStore.findStaleSchedules(eq(userId), any(), any())).thenReturn(Optional.of(staleResult));
+        // when
+        ScheduleReadResultDTO actual = underTest.getSchedulesByUserId(userId);
+        // then
+        assertSame(staleResult, actual);
+        verify(calendarStore, never()).put(any(), any(), any(), any());
+    }
+
+    @Test
+    void getSchedulesByUserId_throwsException_whenDatabaseNotAvailableAndNoStoredSchedules() {
+        // given
+        UUID userId = UUID.randomUUID();
+        when(databaseReadGuard.tryRead(any())).thenReturn(Optional.empty());
+        when(calendarStore.findStaleSchedules(eq(userId), any(), any())).thenReturn(Optional.empty());
+        // when
+        CustomException exception = assertThrows(CustomException.class,
+                () -> underTest.getSchedulesByUserId(userId));
+        // then
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, exception.getHttpStatus());
+        assertEquals(MessageSource.SCHEDULES_UNAVAILABLE.getText(), exception.getErrorMessage());
     }
 
     @Test
     void getSchedulesByUserId_returnsSchedules() {
         // given
         UUID userId = UUID.randomUUID();
-        List<ScheduleEntity> scheduleEntityList = List.of(
-                ScheduleEntity.builder()
+        List<ScheduleDTO> scheduleDTOList = List.of(
+                ScheduleDTO.builder()
                         .id(UUID.randomUUID())
                         .userId(userId)
                         .startDateTime(LocalDateTime.now().plusDays(2).withHour(9).withMinute(0))
@@ -142,7 +271,7 @@ class ScheduleServiceTest {
                         .isReserved(false)
                         .createdAt(LocalDateTime.now().minusDays(2))
                         .build(),
-                ScheduleEntity.builder()
+                ScheduleDTO.builder()
                         .id(UUID.randomUUID())
                         .userId(userId)
                         .startDateTime(LocalDateTime.now().plusDays(2).withHour(9).withMinute(30))
@@ -150,7 +279,7 @@ class ScheduleServiceTest {
                         .isReserved(false)
                         .createdAt(LocalDateTime.now().minusDays(2))
                         .build(),
-                ScheduleEntity.builder()
+                ScheduleDTO.builder()
                         .id(UUID.randomUUID())
                         .userId(userId)
                         .startDateTime(LocalDateTime.now().plusDays(2).withHour(10).withMinute(0))
@@ -158,7 +287,7 @@ class ScheduleServiceTest {
                         .isReserved(false)
                         .createdAt(LocalDateTime.now().minusDays(2))
                         .build(),
-                ScheduleEntity.builder()
+                ScheduleDTO.builder()
                         .id(UUID.randomUUID())
                         .userId(userId)
                         .startDateTime(LocalDateTime.now().plusDays(2).withHour(10).withMinute(30))
@@ -166,23 +295,25 @@ class ScheduleServiceTest {
                         .isReserved(true)
                         .createdAt(LocalDateTime.now().minusDays(2))
                         .build());
-        when(scheduleRepository.findAllByUserIdBetweenDates(any(), any(), any())).thenReturn(scheduleEntityList);
+        when(scheduleRepository.findAllScheduleDTOsByUserIdBetweenDates(any(), any(), any()))
+                .thenReturn(scheduleDTOList);
+        readThroughGuard();
         // when
-        List<ScheduleDTO> scheduleDTOList = underTest.getSchedulesByUserId(userId);
+        List<ScheduleDTO> actual = underTest.getSchedulesByUserId(userId).getSchedules();
         // then
-        assertFalse(scheduleDTOList.isEmpty());
-        assertEquals(4, scheduleDTOList.size());
+        assertFalse(actual.isEmpty());
+        assertEquals(4, actual.size());
 
-        for (int i = 0; i < scheduleEntityList.size(); i++) {
-            ScheduleEntity entity = scheduleEntityList.get(i);
-            ScheduleDTO dto = scheduleDTOList.get(i);
+        for (int i = 0; i < scheduleDTOList.size(); i++) {
+            ScheduleDTO expected = scheduleDTOList.get(i);
+            ScheduleDTO dto = actual.get(i);
 
-            assertEquals(entity.getId(), dto.getId());
+            assertEquals(expected.getId(), dto.getId());
             assertEquals(userId, dto.getUserId());
-            assertEquals(entity.getStartDateTime(), dto.getStartDateTime());
-            assertEquals(entity.getEndDateTime(), dto.getEndDateTime());
-            assertEquals(entity.getIsReserved(), dto.getIsReserved());
-            assertEquals(entity.getCreatedAt(), dto.getCreatedAt());
+            assertEquals(expected.getStartDateTime(), dto.getStartDateTime());
+            assertEquals(expected.getEndDateTime(), dto.getEndDateTime());
+            assertEquals(expected.getIsReserved(), dto.getIsReserved());
+            assertEquals(expected.getCreatedAt(), dto.getCreatedAt());
         }
     }
 
@@ -213,21 +344,51 @@ class ScheduleServiceTest {
         assertEquals(MessageSource.SCHEDULE_RESERVED.getText(), exception.getErrorMessage());
     }
 
+    @Test
+    void deleteScheduleById_throwsException_whenScheduleHeld() {
+        // given
+        UUID id = UUID.randomUUID();
+        ScheduleEntity scheduleEntity = ScheduleEntity.builder()
+                .isReserved(false)
+                .heldUntil(LocalDateTime.now(UTC_ZONE_ID).plusMinutes(5))
+                .build();
+        when(scheduleRepository.findById(id)).thenReturn(Optional.of(scheduleEntity));
+        when(scheduleRepository.deleteFreeScheduleById(eq(id), any())).thenReturn(0);
+        // when
+        CustomException exception = assertThrows(CustomException.class, () -> underTest.deleteScheduleById(id));
+        // then
+        assertEquals(HttpStatus.CONFLICT, exception.getHttpStatus());
+        assertEquals(MessageSource.SCHEDULE_NOT_AVAILABLE.getText(), exception.getErrorMessage());
+        verifyNoInteractions(dailyAvailabilityService, applicationEventPublisher);
+    }
+
     @Test
     void deleteScheduleById_deletesSchedule() {
         // given
         ArgumentCaptor<UUID> scheduleIdArgumentCaptor = ArgumentCaptor.forClass(UUID.class);
         UUID id = UUID.randomUUID();
         ScheduleEntity scheduleEntity = ScheduleEntity.builder()
+                .userId(UUID.randomUUID())
+                .startDateTime(LocalDateTime.now(UTC_ZONE_ID).plusDays(1))
                 .isReserved(false)
                 .build();
         when(scheduleRepository.findById(id)).thenReturn(Optional.of(scheduleEntity));
+        when(scheduleRepository.deleteFreeScheduleById(eq(id), any())).thenReturn(1);
         // when
         underTest.deleteScheduleById(id);
         // then
-        verify(scheduleRepository).deleteById(scheduleIdArgumentCaptor.capture());
+        verify(scheduleRepository).deleteFreeScheduleById(scheduleIdArgumentCaptor.capture(), any());
         UUID actualId = scheduleIdArgumentCaptor.getValue();
 
         assertEquals(id, actualId);
+        verify(dailyAvailabilityService).refresh(List.of(scheduleEntity.getUserId()),
+                scheduleEntity.getStartDateTime().toLocalDate(), scheduleEntity.getStartDateTime().toLocalDate());
+        verify(applicationEventPublisher).publishEvent(ScheduleChangedEvent.of(scheduleEntity.getUserId(),
+                ScheduleChangeType.DELETED, List.of(id)));
+    }
+
+    private void readThroughGuard() {
+        when(databaseReadGuard.tryRead(any())).thenAnswer(invocation ->
+                Optional.of(invocation.<Supplier<?>>getArgument(0).get()));
     }
-}
\ No newline at end of file
+}
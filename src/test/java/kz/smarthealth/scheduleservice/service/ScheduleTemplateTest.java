@@ -0,0 +1,103 @@
+package kz.smarthealth.scheduleservice.service;
+
+import kz.smarthealth.scheduleservice.model.dto.BreakDTO;
+import kz.smarthealth.scheduleservice.model.dto.ScheduleCreateDTO;
+import kz.smarthealth.scheduleservice.model.dto.WorkingHoursDTO;
+import kz.smarthealth.scheduleservice.model.entity.ScheduleEntity;
+import org.junit.jupiter.api.Test;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link ScheduleTemplate}
+ */
+class ScheduleTemplateTest {
+
+    private static final ZoneId ZONE_ID = ZoneId.of("+06:00");
+    private static final LocalDate MONDAY = LocalDate.of(2030, 1, 1).with(TemporalAdjusters.next(DayOfWeek.MONDAY));
+
+    @Test
+    void generate_skipsBreaks() {
+        // given
+        ScheduleTemplate underTest = ScheduleTemplate.of(scheduleCreateDTOBuilder()
+                .breaks(List.of(new BreakDTO(LocalTime.of(13, 0), LocalTime.of(13, 45))))
+                .build());
+        // when
+        List<ScheduleEntity> actual = new ArrayList<>();
+        underTest.generate(MONDAY, MONDAY, ZONE_ID, actual::add);
+        // then
+        assertEquals(List.of(
+                LocalDateTime.of(MONDAY, LocalTime.of(5, 0)),
+                LocalDateTime.of(MONDAY, LocalTime.of(5, 30)),
+                LocalDateTime.of(MONDAY, LocalTime.of(6, 0)),
+                LocalDateTime.of(MONDAY, LocalTime.of(6, 30)),
+                LocalDateTime.of(MONDAY, LocalTime.of(7, 45))), startDateTimes(actual));
+        actual.forEach(scheduleEntity ->
+                assertEquals(scheduleEntity.getStartDateTime().plusMinutes(30), scheduleEntity.getEndDateTime()));
+    }
+
+    @Test
+    void generate_appliesWorkingHoursOfDayOfWeekAndDaysOff() {
+        // given
+        ScheduleTemplate underTest = ScheduleTemplate.of(scheduleCreateDTOBuilder()
+                .interval(60)
+                .breaks(List.of(new BreakDTO(LocalTime.of(12, 0), LocalTime.of(13, 0))))
+                .workingHours(List.of(new WorkingHoursDTO(DayOfWeek.SATURDAY, LocalTime.of(10, 0),
+                        LocalTime.of(12, 0), List.of())))
+                .daysOff(Set.of(DayOfWeek.SUNDAY))
+                .build());
+        LocalDate saturday = MONDAY.plusDays(5);
+        // when
+        List<ScheduleEntity> actual = new ArrayList<>();
+        underTest.generate(saturday, saturday.plusDays(2), ZONE_ID, actual::add);
+        // then
+        assertEquals(List.of(
+                LocalDateTime.of(saturday, LocalTime.of(4, 0)),
+                LocalDateTime.of(saturday, LocalTime.of(5, 0)),
+                LocalDateTime.of(MONDAY.plusWeeks(1), LocalTime.of(5, 0)),
+                LocalDateTime.of(MONDAY.plusWeeks(1), LocalTime.of(7, 0))), startDateTimes(actual));
+        assertEquals(LocalTime.of(10, 0), underTest.getEarliestStartTime());
+        assertEquals(LocalTime.of(14, 30), underTest.getLatestEndTime());
+    }
+
+    @Test
+    void generate_skipsExcludedDates() {
+        // given
+        ScheduleTemplate underTest = ScheduleTemplate.of(scheduleCreateDTOBuilder()
+                .excludedDates(Set.of(MONDAY.plusDays(1)))
+                .build());
+        // when
+        List<ScheduleEntity> actual = new ArrayList<>();
+        underTest.generate(MONDAY, MONDAY.plusDays(2), ZONE_ID, actual::add);
+        // then
+        assertEquals(14, actual.size());
+        assertTrue(actual.stream().noneMatch(scheduleEntity ->
+                scheduleEntity.getStartDateTime().toLocalDate().equals(MONDAY.plusDays(1))));
+    }
+
+    private static List<LocalDateTime> startDateTimes(List<ScheduleEntity> scheduleEntities) {
+        return scheduleEntities.stream()
+                .map(ScheduleEntity::getStartDateTime)
+                .toList();
+    }
+
+    private static ScheduleCreateDTO.ScheduleCreateDTOBuilder scheduleCreateDTOBuilder() {
+        return ScheduleCreateDTO.builder()
+                .userId(UUID.randomUUID())
+                .workingDayStartTime(LocalTime.of(11, 0))
+                .workingDayEndTime(LocalTime.of(14, 30))
+                .zoneOffset("+06:00")
+                .interval(30);
+    }
+}
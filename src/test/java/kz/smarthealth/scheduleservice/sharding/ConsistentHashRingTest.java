@@ -0,0 +1,66 @@
+package kz.smarthealth.scheduleservice.sharding;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link ConsistentHashRing}
+ */
+class ConsistentHashRingTest {
+
+    private static final int DOCTORS = 20_000;
+
+    private final Random random = new Random(42);
+
+    @Test
+    void getShard_spreadsDoctorsEvenly() {
+        // given
+        ConsistentHashRing underTest = new ConsistentHashRing(List.of("shard-0", "shard-1", "shard-2"), 128);
+        Map<String, Integer> doctorsByShard = new HashMap<>();
+        // when
+        for (int i = 0; i < DOCTORS; i++) {
+            doctorsByShard.merge(underTest.getShard(randomUserId()), 1, Integer::sum);
+        }
+        // then
+        assertEquals(3, doctorsByShard.size());
+        doctorsByShard.values().forEach(count -> assertTrue(Math.abs(count - DOCTORS / 3) < DOCTORS / 3 * 0.15,
+                "Uneven distribution: " + doctorsByShard));
+    }
+
+    @Test
+    void getShard_movesOnlyDoctorsOfAddedShard_whenShardAdded() {
+        // given
+        ConsistentHashRing before = new ConsistentHashRing(List.of("shard-0", "shard-1", "shard-2"), 128);
+        ConsistentHashRing after = new ConsistentHashRing(List.of("shard-0", "shard-1", "shard-2", "shard-3"), 128);
+        int movedCount = 0;
+        int addedShardCount = 0;
+        // when
+        for (int i = 0; i < DOCTORS; i++) {
+            UUID userId = randomUserId();
+            String shardBefore = before.getShard(userId);
+            String shardAfter = after.getShard(userId);
+
+            if (!shardBefore.equals(shardAfter)) {
+                assertEquals("shard-3", shardAfter);
+                movedCount++;
+            }
+            if (shardAfter.equals("shard-3")) {
+                addedShardCount++;
+            }
+        }
+        // then
+        assertEquals(addedShardCount, movedCount);
+        assertTrue(movedCount > DOCTORS * 0.15 && movedCount < DOCTORS * 0.35, "Moved doctors: " + movedCount);
+    }
+
+    private UUID randomUserId() {
+        return new UUID(random.nextLong(), random.nextLong());
+    }
+}
@@ -0,0 +1,53 @@
+package kz.smarthealth.scheduleservice.sharding;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import kz.smarthealth.scheduleservice.config.ShardingProperties;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link RebalancingGuardFilter}
+ */
+class RebalancingGuardFilterTest {
+
+    private static final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+
+    @Test
+    void doFilter_rejectsApiRequest_whenShardsAreRebalanced() throws Exception {
+        // given
+        RebalancingGuardFilter underTest = new RebalancingGuardFilter(shardingProperties(true), objectMapper);
+        MockFilterChain filterChain = new MockFilterChain();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/schedule-service/api/v1/schedules");
+        request.setContextPath("/schedule-service");
+        // when
+        underTest.doFilter(request, response, filterChain);
+        // then
+        assertEquals(503, response.getStatus());
+        assertNull(filterChain.getRequest());
+    }
+
+    @Test
+    void doFilter_passesApiRequest_whenShardsAreNotRebalanced() throws Exception {
+        // given
+        RebalancingGuardFilter underTest = new RebalancingGuardFilter(shardingProperties(false), objectMapper);
+        MockFilterChain filterChain = new MockFilterChain();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        // when
+        underTest.doFilter(new MockHttpServletRequest("POST", "/api/v1/schedules"), response, filterChain);
+        // then
+        assertEquals(200, response.getStatus());
+        assertNotNull(filterChain.getRequest());
+    }
+
+    private static ShardingProperties shardingProperties(boolean rebalance) {
+        return new ShardingProperties(true, 16, List.of(), rebalance, List.of());
+    }
+}
@@ -0,0 +1,160 @@
+package kz.smarthealth.scheduleservice.sharding;
+
+import kz.smarthealth.scheduleservice.config.ShardingConfig;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.aot.generate.ClassNameGenerator;
+import org.springframework.aot.generate.DefaultGenerationContext;
+import org.springframework.aot.generate.FileSystemGeneratedFiles;
+import org.springframework.aot.generate.GeneratedFiles;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.ApplicationContextInitializer;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.aot.ApplicationContextAotGenerator;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.javapoet.ClassName;
+
+import javax.sql.DataSource;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests sharding in AOT processed context: the context is processed with default properties, like the image build,
+ * and started with sharding enabled, like a sharded deployment
+ */
+class ShardingAotTest {
+
+    private static final Map<String, Object> SHARDING_PROPERTIES = Map.of(
+            "app.sharding.enabled", "true",
+            "app.sharding.schema-locations", "classpath:schema.sql",
+            "app.sharding.shards[0].name", "shard-0",
+            "app.sharding.shards[0].url", "jdbc:h2:mem:aot-shard0",
+            "app.sharding.shards[0].username", "sa",
+            "app.sharding.shards[1].name", "shard-1",
+            "app.sharding.shards[1].url", "jdbc:h2:mem:aot-shard1",
+            "app.sharding.shards[1].username", "sa");
+
+    @TempDir
+    private Path tempDir;
+
+    @Test
+    void initialize_routesToShards_whenShardingEnabledAfterAotProcessing() throws Exception {
+        // given
+        ApplicationContextInitializer<GenericApplicationContext> initializer = loadInitializer();
+        // when
+        try (GenericApplicationContext context = new GenericApplicationContext()) {
+            context.getEnvironment().getPropertySources().addFirst(new MapPropertySource("sharding",
+                    SHARDING_PROPERTIES));
+            initializer.initialize(context);
+            context.refresh();
+            // then
+            assertEquals(List.of("shard-0", "shard-1"),
+                    List.copyOf(context.getBean(ShardDataSources.class).dataSources().keySet()));
+            assertEquals(List.of("shard-0", "shard-1"), context.getBean(ShardRouter.class).getShards());
+            assertInstanceOf(ShardRoutingDataSource.class, context.getBean(DataSource.class));
+            assertNotNull(context.getBean(ShardRebalancer.class));
+        }
+    }
+
+    /**
+     * Processes sharding beans with default properties and writes generated sources and CGLIB proxies to directory.
+     * Called in isolated class loader: proxies already loaded by other tests of the JVM are not written again.
+     *
+     * @param directory directory of generated files
+     * @return name of generated initializer
+     */
+    public static String processAheadOfTime(Path directory) {
+        DefaultGenerationContext generationContext = new DefaultGenerationContext(
+                new ClassNameGenerator(ClassName.get(ShardingAotTest.class)),
+                new FileSystemGeneratedFiles(kind -> directory.resolve(kind.name().toLowerCase())));
+
+        try (AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext()) {
+            context.registerBean(DataSourceProperties.class);
+            context.register(ShardingConfig.class, ShardRebalancer.class);
+            ClassName initializerClassName = new ApplicationContextAotGenerator().processAheadOfTime(context,
+                    generationContext);
+            generationContext.writeGeneratedContent();
+
+            return initializerClassName.canonicalName();
+        }
+    }
+
+    /**
+     * Generates code like AOT build, compiles it and defines generated classes in the class loader and packages of
+     * the classes they were generated for, so generated code may access package-private members
+     */
+    @SuppressWarnings("unchecked")
+    private ApplicationContextInitializer<GenericApplicationContext> loadInitializer() throws Exception {
+        String initializerClassName;
+        Thread thread = Thread.currentThread();
+        ClassLoader contextClassLoader = thread.getContextClassLoader();
+
+        try (URLClassLoader isolatedClassLoader = new URLClassLoader(classPath(),
+                ClassLoader.getPlatformClassLoader())) {
+            Method processAheadOfTime = isolatedClassLoader.loadClass(ShardingAotTest.class.getName())
+                    .getMethod("processAheadOfTime", Path.class);
+            processAheadOfTime.setAccessible(true);
+            thread.setContextClassLoader(isolatedClassLoader);
+            initializerClassName = (String) processAheadOfTime.invoke(null, tempDir);
+        } finally {
+            thread.setContextClassLoader(contextClassLoader);
+        }
+
+        Path sourceDir = tempDir.resolve(GeneratedFiles.Kind.SOURCE.name().toLowerCase());
+        Path classDir = Files.createDirectories(tempDir.resolve(GeneratedFiles.Kind.CLASS.name().toLowerCase()));
+        List<String> arguments = new ArrayList<>(List.of("-d", classDir.toString(), "-proc:none", "-classpath",
+                classDir + File.pathSeparator + System.getProperty("java.class.path")));
+        findFiles(sourceDir, ".java").forEach(sourceFile -> arguments.add(sourceFile.toString()));
+
+        assertEquals(0, ToolProvider.getSystemJavaCompiler().run(null, null, null,
+                arguments.toArray(String[]::new)), "Generated code compiles");
+
+        for (Path classFile : findFiles(classDir, ".class")) {
+            String className = classDir.relativize(classFile).toString()
+                    .replace(File.separator, ".")
+                    .replace(".class", "");
+            Class<?> targetClass = Class.forName(className.split("__")[0].split("\\$")[0]);
+
+            try {
+                MethodHandles.privateLookupIn(targetClass, MethodHandles.lookup())
+                        .defineClass(Files.readAllBytes(classFile));
+            } catch (LinkageError e) {
+                // CGLIB proxy is already defined by other tests of the JVM
+            }
+        }
+
+        return (ApplicationContextInitializer<GenericApplicationContext>) Class.forName(initializerClassName)
+                .getDeclaredConstructor()
+                .newInstance();
+    }
+
+    private static URL[] classPath() throws IOException {
+        List<URL> urls = new ArrayList<>();
+
+        for (String path : System.getProperty("java.class.path").split(File.pathSeparator)) {
+            urls.add(Path.of(path).toUri().toURL());
+        }
+
+        return urls.toArray(URL[]::new);
+    }
+
+    private static List<Path> findFiles(Path directory, String extension) throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            return paths.filter(path -> path.toString().endsWith(extension)).toList();
+        }
+    }
+}
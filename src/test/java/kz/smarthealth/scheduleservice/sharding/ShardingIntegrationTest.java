@@ -0,0 +1,192 @@
+package kz.smarthealth.scheduleservice.sharding;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import kz.smarthealth.scheduleservice.model.dto.ScheduleBatchCreateDTO;
+import kz.smarthealth.scheduleservice.model.dto.ScheduleCreateDTO;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Integration tests of schedules spread over two shard databases
+ */
+@SpringBootTest(properties = {
+        "app.sharding.enabled=true",
+        "app.sharding.schema-locations=classpath:schema.sql",
+        "app.sharding.shards[0].name=shard-0",
+        "app.sharding.shards[0].url=jdbc:h2:mem:shard0",
+        "app.sharding.shards[0].username=sa",
+        "app.sharding.shards[1].name=shard-1",
+        "app.sharding.shards[1].url=jdbc:h2:mem:shard1",
+        "app.sharding.shards[1].username=sa",
+        "spring.sql.init.mode=never"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@TestPropertySource(locations = "classpath:application-test.yml")
+class ShardingIntegrationTest {
+
+    private static final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Autowired
+    private ShardDataSources shardDataSources;
+
+    @Autowired
+    private ShardRebalancer shardRebalancer;
+
+    @AfterEach
+    void afterEach() {
+        shardRouter.getShards().forEach(shard -> {
+            jdbcTemplate(shard).update("delete from schedules");
+            jdbcTemplate(shard).update("delete from daily_availability");
+            jdbcTemplate(shard).update("delete from idempotency_keys");
+        });
+    }
+
+    @Test
+    void createSchedules_storesSchedulesOnShardOfDoctor() throws Exception {
+        // given
+        List<UUID> userIds = Stream.generate(UUID::randomUUID).limit(8).toList();
+        ScheduleBatchCreateDTO scheduleBatchCreateDTO = ScheduleBatchCreateDTO.builder()
+                .schedules(userIds.subList(1, userIds.size()).stream().map(this::scheduleCreateDTO).toList())
+                .build();
+        // when
+        this.mockMvc.perform(MockMvcRequestBuilders.post("/api/v1/schedules")
+                        .header("Idempotency-Key", UUID.randomUUID().toString())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(scheduleCreateDTO(userIds.get(0))))
+                        .characterEncoding("utf-8"))
+                .andExpect(status().isCreated());
+        this.mockMvc.perform(MockMvcRequestBuilders.post("/api/v1/schedules/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(scheduleBatchCreateDTO))
+                        .characterEncoding("utf-8"))
+                .andExpect(status().isCreated());
+        // then
+        for (UUID userId : userIds) {
+            String shard = shardRouter.getShard(userId);
+
+            shardRouter.getShards().forEach(otherShard -> assertEquals(otherShard.equals(shard) ? 4 : 0,
+                    countSchedules(otherShard, userId), "Schedules of " + userId + " on " + otherShard));
+            assertEquals(4, getSchedules(userId).size());
+        }
+    }
+
+    @Test
+    void deleteScheduleById_deletesScheduleOnShardOfDoctor() throws Exception {
+        // given
+        UUID userId = UUID.randomUUID();
+        createSchedules(userId);
+        String scheduleId = getSchedules(userId).get(0).get("id").asText();
+        // when
+        this.mockMvc.perform(MockMvcRequestBuilders.delete("/api/v1/schedules/" + scheduleId))
+                .andExpect(status().isNoContent());
+        // then
+        assertEquals(3, countSchedules(shardRouter.getShard(userId), userId));
+        this.mockMvc.perform(MockMvcRequestBuilders.delete("/api/v1/schedules/" + scheduleId))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void move_movesDoctorToShardOfRing() throws Exception {
+        // given
+        UUID userId = UUID.randomUUID();
+        this.mockMvc.perform(MockMvcRequestBuilders.post("/api/v1/schedules")
+                        .header("Idempotency-Key", UUID.randomUUID().toString())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(scheduleCreateDTO(userId)))
+                        .characterEncoding("utf-8"))
+                .andExpect(status().isCreated());
+        String shard = shardRouter.getShard(userId);
+        String otherShard = shardRouter.getShards().stream().filter(name -> !name.equals(shard)).findFirst()
+                .orElseThrow();
+        UUID holdId = UUID.randomUUID();
+        jdbcTemplate(shard).update("update schedules set held_until = ?, hold_id = ? where id = ?",
+                LocalDateTime.now().plusMinutes(10), holdId, getSchedules(userId).get(0).get("id").asText());
+        shardRebalancer.move(userId, shard, otherShard);
+        assertEquals(0, countIdempotencyKeys(shard, userId));
+        assertEquals(1, countIdempotencyKeys(otherShard, userId));
+        // when
+        shardRebalancer.rebalance();
+        // then
+        assertEquals(4, countSchedules(shard, userId));
+        assertEquals(0, countSchedules(otherShard, userId));
+        assertEquals(2, jdbcTemplate(shard).queryForObject(
+                "select count(*) from daily_availability where user_id = ?", Integer.class, userId));
+        assertEquals(1, countIdempotencyKeys(shard, userId));
+        assertEquals(0, countIdempotencyKeys(otherShard, userId));
+        assertEquals(1, jdbcTemplate(shard).queryForObject(
+                "select count(*) from schedules where hold_id = ? and held_until is not null", Integer.class,
+                holdId));
+    }
+
+    private ScheduleCreateDTO scheduleCreateDTO(UUID userId) {
+        return ScheduleCreateDTO.builder()
+                .userId(userId)
+                .startDate(LocalDate.now().plusDays(2))
+                .endDate(LocalDate.now().plusDays(3))
+                .workingDayStartTime(LocalTime.of(9, 0))
+                .workingDayEndTime(LocalTime.of(10, 0))
+                .zoneOffset("+00:00")
+                .interval(30)
+                .build();
+    }
+
+    private void createSchedules(UUID userId) throws Exception {
+        this.mockMvc.perform(MockMvcRequestBuilders.post("/api/v1/schedules")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(scheduleCreateDTO(userId)))
+                        .characterEncoding("utf-8"))
+                .andExpect(status().isCreated());
+    }
+
+    private List<JsonNode> getSchedules(UUID userId) throws Exception {
+        MvcResult mvcResult = this.mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/schedules/by-user-id/"
+                        + userId))
+                .andExpect(status().isOk()).andReturn();
+        JsonNode schedules = objectMapper.readTree(mvcResult.getResponse().getContentAsString());
+
+        return Stream.iterate(0, i -> i < schedules.size(), i -> i + 1).map(schedules::get).toList();
+    }
+
+    private int countSchedules(String shard, UUID userId) {
+        return jdbcTemplate(shard).queryForObject("select count(*) from schedules where user_id = ?",
+                Integer.class, userId);
+    }
+
+    private int countIdempotencyKeys(String shard, UUID userId) {
+        return jdbcTemplate(shard).queryForObject("select count(*) from idempotency_keys where user_id = ?",
+                Integer.class, userId);
+    }
+
+    private JdbcTemplate jdbcTemplate(String shard) {
+        return new JdbcTemplate(shardDataSources.get(shard));
+    }
+}
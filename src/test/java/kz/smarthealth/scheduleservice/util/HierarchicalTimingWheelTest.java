@@ -0,0 +1,65 @@
+package kz.smarthealth.scheduleservice.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link HierarchicalTimingWheel}
+ */
+class HierarchicalTimingWheelTest {
+
+    private static final long START_MILLIS = 1_693_872_000_000L;
+
+    @Test
+    void advance_returnsItemsInTickOfExpiration_whenItemsOnDifferentLevels() {
+        // given
+        HierarchicalTimingWheel<Long> underTest = new HierarchicalTimingWheel<>(1000, 8, 4, START_MILLIS);
+        Random random = new Random(42);
+        List<Long> expirations = new ArrayList<>();
+
+        for (int i = 0; i < 10_000; i++) {
+            long expirationMillis = START_MILLIS + random.nextInt(3_000_000);
+            expirations.add(expirationMillis);
+            underTest.add(expirationMillis, expirationMillis);
+        }
+        // when
+        List<Long> expired = new ArrayList<>();
+
+        for (long now = START_MILLIS; now <= START_MILLIS + 3_001_000; now += 1000) {
+            long currentNow = now;
+            List<Long> tickExpired = underTest.advance(now);
+            tickExpired.forEach(expirationMillis -> {
+                assertTrue(expirationMillis < currentNow, "Expired too early: " + expirationMillis);
+                assertTrue(expirationMillis >= currentNow - 1000, "Expired too late: " + expirationMillis);
+            });
+            expired.addAll(tickExpired);
+        }
+        // then
+        assertEquals(expirations.size(), expired.size());
+        assertEquals(0, underTest.size());
+    }
+
+    @Test
+    void add_expiresItemOnNextAdvance_whenExpirationInPast() {
+        // given
+        HierarchicalTimingWheel<String> underTest = new HierarchicalTimingWheel<>(1000, 8, 2, START_MILLIS);
+        underTest.advance(START_MILLIS + 10_000);
+        // when
+        underTest.add("late", START_MILLIS + 5_000);
+        // then
+        assertEquals(List.of("late"), underTest.advance(START_MILLIS + 10_000));
+    }
+
+    @Test
+    void add_throwsException_whenExpirationBeyondSpan() {
+        // given
+        HierarchicalTimingWheel<String> underTest = new HierarchicalTimingWheel<>(1000, 8, 2, START_MILLIS);
+        // when / then
+        assertThrows(IllegalArgumentException.class, () -> underTest.add("far", START_MILLIS + 64_000));
+    }
+}
@@ -0,0 +1,29 @@
+package kz.smarthealth.scheduleservice.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link RandomUuids}
+ */
+class RandomUuidsTest {
+
+    @Test
+    void generate_returnsDistinctVersion4Uuids() {
+        // when
+        List<UUID> actual = RandomUuids.generate(10_000);
+        // then
+        assertEquals(10_000, actual.size());
+        assertEquals(10_000, new HashSet<>(actual).size());
+        actual.forEach(uuid -> {
+            assertEquals(4, uuid.version());
+            assertEquals(2, uuid.variant());
+            assertEquals(uuid, UUID.fromString(uuid.toString()));
+        });
+    }
+}
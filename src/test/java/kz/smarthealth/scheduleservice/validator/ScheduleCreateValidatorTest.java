@@ -1,15 +1,19 @@
 package kz.smarthealth.scheduleservice.validator;
 
 import jakarta.validation.ConstraintValidatorContext;
+import kz.smarthealth.scheduleservice.model.dto.BreakDTO;
 import kz.smarthealth.scheduleservice.model.dto.ScheduleCreateDTO;
+import kz.smarthealth.scheduleservice.model.dto.WorkingHoursDTO;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.time.DayOfWeek;
 import java.time.LocalDate;
 import java.time.LocalTime;
+import java.util.List;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.assertFalse;
@@ -151,6 +155,50 @@ class ScheduleCreateValidatorTest {
         assertFalse(result);
     }
 
+    @Test
+    void isValid_returnsFalse_whenBreakEndTimeIsNotAfterStartTime() {
+        // given
+        ScheduleCreateDTO scheduleCreateDTO = ScheduleCreateDTO.builder()
+                .userId(USER_ID)
+                .startDate(LocalDate.now().plusDays(1))
+                .endDate(LocalDate.now().plusDays(2))
+                .workingDayStartTime(LocalTime.of(9, 0))
+                .workingDayEndTime(LocalTime.of(18, 0))
+                .zoneOffset("+06:00")
+                .interval(15)
+                .breaks(List.of(new BreakDTO(LocalTime.of(13, 0), LocalTime.of(13, 0))))
+                .build();
+        when(constraintValidatorContext.buildConstraintViolationWithTemplate(any())).thenReturn(constraintViolationBuilder);
+        when(constraintViolationBuilder.addPropertyNode(anyString())).thenReturn(nodeBuilderCustomizableContext);
+        // when
+        boolean result = underTest.isValid(scheduleCreateDTO, constraintValidatorContext);
+        // then
+        assertFalse(result);
+    }
+
+    @Test
+    void isValid_returnsFalse_whenWorkingHoursOfSameDayOfWeekRepeated() {
+        // given
+        ScheduleCreateDTO scheduleCreateDTO = ScheduleCreateDTO.builder()
+                .userId(USER_ID)
+                .startDate(LocalDate.now().plusDays(1))
+                .endDate(LocalDate.now().plusDays(2))
+                .workingDayStartTime(LocalTime.of(9, 0))
+                .workingDayEndTime(LocalTime.of(18, 0))
+                .zoneOffset("+06:00")
+                .interval(15)
+                .workingHours(List.of(
+                        new WorkingHoursDTO(DayOfWeek.SATURDAY, LocalTime.of(10, 0), LocalTime.of(14, 0), null),
+                        new WorkingHoursDTO(DayOfWeek.SATURDAY, LocalTime.of(15, 0), LocalTime.of(17, 0), null)))
+                .build();
+        when(constraintValidatorContext.buildConstraintViolationWithTemplate(any())).thenReturn(constraintViolationBuilder);
+        when(constraintViolationBuilder.addPropertyNode(anyString())).thenReturn(nodeBuilderCustomizableContext);
+        // when
+        boolean result = underTest.isValid(scheduleCreateDTO, constraintValidatorContext);
+        // then
+        assertFalse(result);
+    }
+
     @Test
     void isValid_returnsTrue() {
         // given
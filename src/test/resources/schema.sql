@@ -5,10 +5,58 @@ create table if not exists schedules
     start_date_time timestamp not null,
     end_date_time   timestamp not null,
     is_reserved     boolean   not null,
-    created_at      timestamp not null
+    created_at      timestamp not null,
+    held_until      timestamp,
+    hold_id         uuid
 );
 
 alter table if exists schedules
     add unique (user_id, start_date_time);
 alter table if exists schedules
-    add unique (user_id, end_date_time);
\ No newline at end of file
+    add unique (user_id, end_date_time);
+
+create table if not exists idempotency_keys
+(
+    idempotency_key varchar(255) primary key,
+    request_hash    varchar(64) not null,
+    created_at      timestamp   not null,
+    user_id         uuid
+);
+
+create table if not exists daily_availability
+(
+    user_id                    uuid      not null,
+    available_date             date      not null,
+    slot_count                 integer   not null,
+    free_count                 integer   not null,
+    first_free_start_date_time timestamp,
+    primary key (user_id, available_date)
+);
+
+create table if not exists schedule_outbox
+(
+    id         bigint generated by default as identity primary key,
+    user_id    uuid        not null,
+    event_type varchar(16) not null,
+    payload    text        not null,
+    created_at timestamp   not null
+);
+
+create table if not exists schedule_outbox_dead_letter
+(
+    id         bigint primary key,
+    user_id    uuid        not null,
+    event_type varchar(16) not null,
+    payload    text        not null,
+    created_at timestamp   not null,
+    failed_at  timestamp   not null
+);
+
+create table if not exists outbox_relay_lease
+(
+    name         varchar(64) primary key,
+    owner        varchar(64),
+    leased_until timestamp
+);
+
+merge into outbox_relay_lease (name) key (name) values ('schedule_outbox');